@@ -0,0 +1,48 @@
+package org.ton.java.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ton.java.address.Address;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AddressBenchmark {
+
+    private static final String RAW = "0:2d29bfa071c8c62fa3398b661a842e60f04cb8a915fb3e749ef7c6c41343e16c";
+
+    private final Address address = Address.of(RAW);
+    private final String bounceable = address.toBounceable();
+
+    @Benchmark
+    public Address parseRaw() {
+        return Address.of(RAW);
+    }
+
+    @Benchmark
+    public Address parseUserFriendly() {
+        return Address.of(bounceable);
+    }
+
+    @Benchmark
+    public String toBounceable() {
+        return address.toBounceable();
+    }
+
+    @Benchmark
+    public String toRaw() {
+        return address.toRaw();
+    }
+}
@@ -0,0 +1,80 @@
+package org.ton.java.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ton.java.bitstring.BitString;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills and reads a full 1023 bits BitString the way cell serialization does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitStringBenchmark {
+
+    private static final BigInteger COINS = new BigInteger("1000000000000");
+
+    private BitString written;
+    private byte[] hash;
+
+    @Setup
+    public void setup() {
+        hash = new byte[32];
+        for (int i = 0; i < hash.length; i++) {
+            hash[i] = (byte) (i * 31);
+        }
+        written = write();
+    }
+
+    private BitString write() {
+        BitString bs = new BitString(1023);
+        bs.writeUint(0x0f8a7ea5L, 32);
+        bs.writeUint(123456789L, 64);
+        bs.writeCoins(COINS);
+        bs.writeBit(true);
+        bs.writeBytes(hash);
+        bs.writeUint(BigInteger.valueOf(42), 7);
+        bs.writeBytes(hash);
+        bs.writeInt(-1, 8);
+        return bs;
+    }
+
+    @Benchmark
+    public BitString writeMixed() {
+        return write();
+    }
+
+    @Benchmark
+    public void readMixed(Blackhole bh) {
+        BitString bs = new BitString(written);
+        bh.consume(bs.readUintAsLong(32));
+        bh.consume(bs.readUintAsLong(64));
+        bh.consume(bs.readUint(4));
+        bh.consume(bs.readBytes(40));
+        bh.consume(bs.readBit());
+        bh.consume(bs.readBytes(256));
+        bh.consume(bs.readUint(7));
+        bh.consume(bs.readBytes(256));
+        bh.consume(bs.readIntAsLong(8));
+    }
+
+    @Benchmark
+    public byte[] toByteArray() {
+        return written.toByteArray();
+    }
+}
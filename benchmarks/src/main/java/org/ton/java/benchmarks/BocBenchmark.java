@@ -0,0 +1,68 @@
+package org.ton.java.benchmarks;
+
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ton.java.cell.Cell;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads and writes real BoCs:
+ * <ul>
+ *     <li>block - masterchain block, 11 KB</li>
+ *     <li>config - all config params, 67 KB</li>
+ *     <li>dict - jetton balances dictionary with 2k entries, 160 KB</li>
+ * </ul>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BocBenchmark {
+
+    @Param({"block", "config", "dict"})
+    public String boc;
+
+    private byte[] bytes;
+    private Cell cell;
+
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream in = BocBenchmark.class.getResourceAsStream("/" + boc + ".boc")) {
+            bytes = IOUtils.toByteArray(in);
+        }
+        cell = Cell.fromBoc(bytes);
+    }
+
+    @Benchmark
+    public Cell fromBoc() {
+        return Cell.fromBoc(bytes);
+    }
+
+    /**
+     * Deserialization followed by hashing of the whole tree, e.g. to check a proof.
+     */
+    @Benchmark
+    public byte[] fromBocAndHash() {
+        return Cell.fromBoc(bytes).getHash();
+    }
+
+    @Benchmark
+    public byte[] toBoc() {
+        return cell.toBoc();
+    }
+}
@@ -0,0 +1,83 @@
+package org.ton.java.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ton.java.address.Address;
+import org.ton.java.cell.Cell;
+import org.ton.java.cell.CellBuilder;
+import org.ton.java.cell.CellSlice;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds and parses a jetton transfer body, a typical cell of wallet messages.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CellBenchmark {
+
+    private static final Address DESTINATION = Address.of("0:2d29bfa071c8c62fa3398b661a842e60f04cb8a915fb3e749ef7c6c41343e16c");
+    private static final Address RESPONSE = Address.of("-1:3333333333333333333333333333333333333333333333333333333333333333");
+    private static final BigInteger AMOUNT = new BigInteger("1000000000000");
+
+    private Cell forwardPayload;
+    private Cell transfer;
+
+    @Setup
+    public void setup() {
+        forwardPayload = CellBuilder.beginCell().storeUint(0, 32).storeString("benchmark").endCell();
+        transfer = build();
+    }
+
+    private Cell build() {
+        return CellBuilder.beginCell()
+                .storeUint(0x0f8a7ea5, 32)
+                .storeUint(123456789L, 64)
+                .storeCoins(AMOUNT)
+                .storeAddress(DESTINATION)
+                .storeAddress(RESPONSE)
+                .storeBit(false)
+                .storeCoins(BigInteger.ONE)
+                .storeBit(true)
+                .storeRef(forwardPayload)
+                .endCell();
+    }
+
+    @Benchmark
+    public Cell buildCell() {
+        return build();
+    }
+
+    @Benchmark
+    public byte[] buildAndHash() {
+        return build().getHash();
+    }
+
+    @Benchmark
+    public void parse(Blackhole bh) {
+        CellSlice cs = CellSlice.beginParse(transfer);
+        bh.consume(cs.loadUint(32));
+        bh.consume(cs.loadUint(64));
+        bh.consume(cs.loadCoins());
+        bh.consume(cs.loadAddress());
+        bh.consume(cs.loadAddress());
+        bh.consume(cs.loadBit());
+        bh.consume(cs.loadCoins());
+        bh.consume(cs.loadBit());
+        bh.consume(cs.loadRef());
+    }
+}
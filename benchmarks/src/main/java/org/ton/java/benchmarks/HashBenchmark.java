@@ -0,0 +1,53 @@
+package org.ton.java.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ton.java.utils.Utils;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CRC32C protects every BoC, SHA-256 hashes every cell.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashBenchmark {
+
+    /**
+     * 130 bytes - largest cell representation, 65536 bytes - large BoC
+     */
+    @Param({"130", "65536"})
+    public int length;
+
+    private byte[] data;
+
+    @Setup
+    public void setup() {
+        data = new byte[length];
+        new Random(42).nextBytes(data);
+    }
+
+    @Benchmark
+    public Long crc32c() {
+        return Utils.getCRC32ChecksumAsLong(data);
+    }
+
+    @Benchmark
+    public byte[] sha256() {
+        return Utils.sha256AsArray(data);
+    }
+}
@@ -0,0 +1,78 @@
+package org.ton.java.benchmarks;
+
+import com.iwebpp.crypto.TweetNaclFast;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ton.java.mnemonic.Ed25519;
+import org.ton.java.mnemonic.Signer;
+import org.ton.java.mnemonic.Verifier;
+import org.ton.java.utils.Utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ed25519 signing and verification of a 32 bytes cell hash through every API of ton4j.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SigningBenchmark {
+
+    private TweetNaclFast.Signature.KeyPair keyPair;
+    private byte[] seed;
+    private byte[] hash;
+    private byte[] signature;
+    private Signer signer;
+    private Verifier verifier;
+
+    @Setup
+    public void setup() {
+        seed = Utils.sha256AsArray("benchmark".getBytes());
+        keyPair = TweetNaclFast.Signature.keyPair_fromSeed(seed);
+        hash = Utils.sha256AsArray(seed);
+        signer = Signer.of(seed);
+        verifier = Verifier.of(keyPair.getPublicKey());
+        signature = signer.sign(hash);
+    }
+
+    @Benchmark
+    public byte[] utilsSignData() {
+        return Utils.signData(keyPair.getPublicKey(), keyPair.getSecretKey(), hash);
+    }
+
+    @Benchmark
+    public byte[] utilsSignDataWithSeed() {
+        return Utils.signData(keyPair.getPublicKey(), seed, hash);
+    }
+
+    @Benchmark
+    public byte[] ed25519Sign() {
+        return Ed25519.sign(seed, hash);
+    }
+
+    @Benchmark
+    public byte[] signerSign() {
+        return signer.sign(hash);
+    }
+
+    @Benchmark
+    public boolean ed25519Verify() {
+        return Ed25519.verify(keyPair.getPublicKey(), hash, signature);
+    }
+
+    @Benchmark
+    public boolean verifierVerify() {
+        return verifier.verify(hash, signature);
+    }
+}
@@ -0,0 +1,74 @@
+package org.ton.java.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ton.java.cell.Cell;
+import org.ton.java.cell.CellBuilder;
+import org.ton.java.cell.CellSlice;
+import org.ton.java.cell.TonHashMap;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes and deserializes a dictionary of uint64 keys and coins values.
+ * <p>
+ * 1M entries need about 4 GB of heap, e.g. -jvmArgs -Xmx6g.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TonHashMapBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private TonHashMap dict;
+    private Cell serialized;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        dict = new TonHashMap(64);
+        while (dict.elements.size() < size) {
+            dict.elements.put(BigInteger.valueOf(random.nextLong()).abs(), BigInteger.valueOf(random.nextInt(1_000_000_000)));
+        }
+        serialized = serialize();
+    }
+
+    private Cell serialize() {
+        return dict.serialize(
+                k -> CellBuilder.beginCell().storeUint((BigInteger) k, 64).endCell().getBits(),
+                v -> CellBuilder.beginCell().storeCoins((BigInteger) v).endCell());
+    }
+
+    @Benchmark
+    public Cell serializeDict() {
+        return serialize();
+    }
+
+    @Benchmark
+    public byte[] serializeAndHash() {
+        return serialize().getHash();
+    }
+
+    @Benchmark
+    public TonHashMap deserialize() {
+        return CellSlice.beginParse(serialized).loadDict(64,
+                k -> k.readUint(64),
+                v -> CellSlice.beginParse(v).loadCoins());
+    }
+}
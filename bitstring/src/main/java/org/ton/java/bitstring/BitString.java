@@ -10,98 +10,203 @@ import java.util.*;
 import static java.util.Objects.isNull;
 
 /**
- * Implements BitString where each bit is actually a Boolean variable in memory.
- * Not efficient, but perfect for educational purposes.
- * See RealBitString implementation where each element of BitString stored as real bit in a memory.
+ * Implements BitString where bits are packed into an array of 64-bit words, most significant bit first.
+ * Bits are appended at writeCursor and consumed from readCursor, so reading behaves like a queue.
+ * Whole-word operations are used for reading and writing integers and for copying between BitStrings.
  */
 public class BitString implements Bits<Boolean> {
 
-    Deque<Boolean> array;
-
     private static final int MAX_LENGTH = 1023;
 
+    private static final long[] EMPTY = new long[0];
+
+    long[] words;
+
+    int readCursor;
+
+    int writeCursor;
+
     private final int initialLength;
 
     public BitString(BitString bs) {
-        array = new ArrayDeque<>(bs.array.size());
-        for (Boolean b : bs.array) {
-            writeBit(b);
+        int size = bs.getUsedBits();
+        if (bs.readCursor == 0) {
+            words = Arrays.copyOf(bs.words, wordsFor(size));
+            writeCursor = size;
+        } else {
+            words = new long[wordsFor(size)];
+            copyBits(bs, bs.readCursor, size);
         }
-        initialLength = bs.array.isEmpty() ? MAX_LENGTH : bs.array.size();
+        initialLength = size == 0 ? MAX_LENGTH : size;
     }
 
     public BitString(byte[] bytes) {
-        this(Utils.signedBytesToUnsigned(bytes));
+        this(bytes, bytes.length * 8);
     }
 
     public BitString(int[] bytes) {
-        if (bytes.length == 0) {
-            array = new ArrayDeque<>(0);
-            initialLength = 0;
-        } else {
-            byte[] bits = Utils.leftPadBytes(Utils.bytesToBitString(bytes).getBytes(StandardCharsets.UTF_8), bytes.length * 8, '0');
-
-            array = new ArrayDeque<>(bits.length);
-            for (byte bit : bits) { // whole length
-                if (bit == (byte) '1') {
-                    array.addLast(true);
-                } else if (bit == (byte) '0') {
-                    array.addLast(false);
-                } else {
-                    // else '-' sign - do nothing
-                }
-            }
-            initialLength = bits.length;
+        words = new long[wordsFor(bytes.length * 8)];
+        initialLength = bytes.length * 8;
+        for (int b : bytes) {
+            putBits(b & 0xFF, 8);
         }
     }
 
-//    public BitString(byte[] bytes, int size) {
-//        this(Utils.signedBytesToUnsigned(bytes), size); // todo redo below
-//    }
-
     public BitString(byte[] bytes, int size) {
         if (bytes.length == 0) {
-            array = new ArrayDeque<>(0);
+            words = EMPTY;
             initialLength = 0;
         } else {
-            byte[] bits = Utils.leftPadBytes(Utils.bytesToBitString(bytes).getBytes(StandardCharsets.UTF_8), bytes.length * 8, '0');
-            array = new ArrayDeque<>(bits.length);
-            for (int i = 0; i < size; i++) { // specified length
-                if (bits[i] == (byte) '1') {
-                    array.addLast(true);
-                } else if (bits[i] == (byte) '0') {
-                    array.addLast(false);
-                } else {
-                    // else '-' sign - do nothing
-                }
+            if (size > bytes.length * 8) {
+                throw new Error("BitString overflow. Can't take " + size + " bits from " + bytes.length + " bytes");
+            }
+            words = new long[wordsFor(bytes.length * 8)];
+            initialLength = bytes.length * 8;
+            putBytes(bytes, 0, size / 8);
+            int rest = size % 8;
+            if (rest != 0) {
+                putBits((bytes[size / 8] & 0xFF) >>> (8 - rest), rest);
             }
-            initialLength = bits.length;
         }
     }
 
-
     /**
      * Create BitString limited by length
      *
      * @param length int    length of BitString in bits
      */
     public BitString(int length) {
-        array = new ArrayDeque<>(length);
+        words = length == 0 ? EMPTY : new long[wordsFor(length)];
         initialLength = length;
     }
 
     public BitString() {
-        array = new ArrayDeque<>(MAX_LENGTH);
+        words = new long[wordsFor(MAX_LENGTH)];
         initialLength = MAX_LENGTH;
     }
 
+    private static int wordsFor(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    private void ensureCapacity(int bits) {
+        int needed = wordsFor(bits);
+        if (needed > words.length) {
+            words = Arrays.copyOf(words, Math.max(needed, words.length * 2));
+        }
+    }
+
+    /**
+     * Returns bit at absolute position pos
+     */
+    private boolean getBit(int pos) {
+        return (words[pos >>> 6] & (1L << (63 - (pos & 63)))) != 0;
+    }
+
+    /**
+     * Returns n bits (0..64) starting at absolute position pos, right-aligned in a long
+     */
+    private long getBits(int pos, int n) {
+        if (n == 0) {
+            return 0;
+        }
+        int wi = pos >>> 6;
+        int bi = pos & 63;
+        long v = words[wi] << bi;
+        if (bi + n > 64) {
+            v |= words[wi + 1] >>> (64 - bi);
+        }
+        return v >>> (64 - n);
+    }
+
+    /**
+     * Appends n lowest bits (0..64) of value at writeCursor.
+     * Relies on bits beyond writeCursor being always zero.
+     */
+    private void putBits(long value, int n) {
+        if (n == 0) {
+            return;
+        }
+        ensureCapacity(writeCursor + n);
+        long top = value << (64 - n);
+        int wi = writeCursor >>> 6;
+        int bi = writeCursor & 63;
+        words[wi] |= top >>> bi;
+        if (bi + n > 64) {
+            words[wi + 1] |= top << (64 - bi);
+        }
+        writeCursor += n;
+    }
+
+    private void putZeros(int n) {
+        ensureCapacity(writeCursor + n);
+        writeCursor += n;
+    }
+
+    /**
+     * Appends len whole bytes of src starting at from, eight bytes per word
+     */
+    private void putBytes(byte[] src, int from, int len) {
+        ensureCapacity(writeCursor + len * 8);
+        int i = from;
+        int end = from + len;
+        for (; i + 8 <= end; i += 8) {
+            long v = 0;
+            for (int j = 0; j < 8; j++) {
+                v = (v << 8) | (src[i + j] & 0xFF);
+            }
+            putBits(v, 64);
+        }
+        for (; i < end; i++) {
+            putBits(src[i] & 0xFF, 8);
+        }
+    }
+
+    /**
+     * Extracts count whole bytes starting at absolute bit position pos into dst
+     */
+    private void getBytes(int pos, byte[] dst, int dstOff, int count) {
+        int i = 0;
+        for (; i + 8 <= count; i += 8) {
+            long v = getBits(pos, 64);
+            for (int j = 7; j >= 0; j--) {
+                dst[dstOff + i + j] = (byte) v;
+                v >>>= 8;
+            }
+            pos += 64;
+        }
+        for (; i < count; i++) {
+            dst[dstOff + i] = (byte) getBits(pos, 8);
+            pos += 8;
+        }
+    }
+
+    /**
+     * Appends len bits of src starting at absolute position from
+     */
+    private void copyBits(BitString src, int from, int len) {
+        ensureCapacity(writeCursor + len);
+        while (len > 0) {
+            int n = Math.min(64, len);
+            putBits(src.getBits(from, n), n);
+            from += n;
+            len -= n;
+        }
+    }
+
+    private void checkAvailable(int n) {
+        if (n > writeCursor - readCursor) {
+            throw new Error("BitString overflow. Can't read " + n + " bits, " + (writeCursor - readCursor) + " bits left");
+        }
+    }
+
     /**
      * Return free bits, that derives from total length minus bits written
      *
      * @return int
      */
     public int getFreeBits() {
-        return initialLength - array.size();
+        return initialLength - getUsedBits();
     }
 
     /**
@@ -110,14 +215,14 @@ public class BitString implements Bits<Boolean> {
      * @return int
      */
     public int getUsedBits() {
-        return array.size();
+        return writeCursor - readCursor;
     }
 
     /**
      * @return int
      */
     public int getUsedBytes() {
-        return (array.size() + 7) / 8;
+        return (getUsedBits() + 7) / 8;
     }
 
     /**
@@ -126,18 +231,10 @@ public class BitString implements Bits<Boolean> {
      * @return Boolean    bit value at position `n`
      */
     public Boolean get() {
-        return array.peekFirst();
-    }
-
-    /**
-     * Check if bit at position n is reachable
-     *
-     * @param n int
-     */
-    private void checkRange(int n) {
-        if (n > getLength()) {
-            throw new Error("BitString overflow");
+        if (readCursor >= writeCursor) {
+            return null;
         }
+        return getBit(readCursor);
     }
 
     /**
@@ -146,12 +243,17 @@ public class BitString implements Bits<Boolean> {
      * @param b Boolean
      */
     public void writeBit(Boolean b) {
-        array.addLast(b);
+        ensureCapacity(writeCursor + 1);
+        if (b) {
+            words[writeCursor >>> 6] |= 1L << (63 - (writeCursor & 63));
+        }
+        writeCursor++;
     }
 
     public void writeBits(String b) {
-        for (Character c : b.toCharArray()) {
-            array.addLast(c == '1');
+        ensureCapacity(writeCursor + b.length());
+        for (int i = 0; i < b.length(); i++) {
+            writeBit(b.charAt(i) == '1');
         }
     }
 
@@ -161,13 +263,14 @@ public class BitString implements Bits<Boolean> {
      * @param b byte
      */
     void writeBit(byte b) {
-        array.addLast(b > 0);
+        writeBit(b > 0);
     }
 
     /**
      * @param ba Boolean[]
      */
     public void writeBitArray(Boolean[] ba) {
+        ensureCapacity(writeCursor + ba.length);
         for (Boolean b : ba) {
             writeBit(b);
         }
@@ -177,6 +280,7 @@ public class BitString implements Bits<Boolean> {
      * @param ba byte[]
      */
     public void writeBitArray(byte[] ba) {
+        ensureCapacity(writeCursor + ba.length);
         for (byte b : ba) {
             writeBit(b);
         }
@@ -199,14 +303,25 @@ public class BitString implements Bits<Boolean> {
             throw new Error("bitLength is too small for number, got number=" + number + ", bitLength=" + bitLength);
         }
 
-        boolean[] bits = new boolean[bitLength];
-
-        for (int i = 0; i < bitLength; i++) {
-            bits[bitLength - 1 - i] = number.testBit(i);
+        if (bitLength <= 64) {
+            putBits(number.longValue(), bitLength);
+            return;
         }
 
-        for (boolean bit : bits) {
-            writeBit(bit);
+        // big-endian magnitude, possibly with one leading zero byte for the sign
+        byte[] bytes = number.toByteArray();
+        int skip = 0;
+        if (bytes.length * 8 > bitLength) {
+            skip = bytes.length - (bitLength + 7) / 8;
+        }
+        int available = (bytes.length - skip) * 8;
+        if (available < bitLength) {
+            putZeros(bitLength - available);
+            putBytes(bytes, skip, bytes.length - skip);
+        } else {
+            int lead = bitLength - (available - 8);
+            putBits(bytes[skip] & 0xFF, lead);
+            putBytes(bytes, skip + 1, bytes.length - skip - 1);
         }
     }
 
@@ -217,7 +332,21 @@ public class BitString implements Bits<Boolean> {
      * @param bitLength size of uint in bits
      */
     public void writeUint(long number, int bitLength) {
-        writeUint(BigInteger.valueOf(number), bitLength);
+        if (number < 0) {
+            throw new Error("Unsigned number cannot be less than 0");
+        }
+        if (bitLength == 0 || (64 - Long.numberOfLeadingZeros(number)) > bitLength) {
+            if (number == 0) {
+                return;
+            }
+            throw new Error("bitLength is too small for number, got number=" + number + ", bitLength=" + bitLength);
+        }
+        if (bitLength > 64) {
+            putZeros(bitLength - 64);
+            putBits(number, 64);
+        } else {
+            putBits(number, bitLength);
+        }
     }
 
     /**
@@ -227,15 +356,12 @@ public class BitString implements Bits<Boolean> {
      * @param bitLength int size of int in bits
      */
     public void writeInt(BigInteger number, int bitLength) {
+        if (bitLength <= 64 && number.bitLength() < bitLength) {
+            // two's complement of a number that fits is exactly its lowest bitLength bits
+            putBits(number.longValue(), bitLength);
+            return;
+        }
         if (bitLength == 1) {
-            if (number.compareTo(BigInteger.valueOf(-1)) == 0) {
-                writeBit(true);
-                return;
-            }
-            if (number.compareTo(BigInteger.ZERO) == 0) {
-                writeBit(false);
-                return;
-            }
             throw new Error("bitLength is too small for number");
         } else {
             if (number.signum() == -1) {
@@ -249,13 +375,39 @@ public class BitString implements Bits<Boolean> {
         }
     }
 
+    /**
+     * Write signed int without BigInteger allocation
+     *
+     * @param number    value
+     * @param bitLength size of int in bits
+     */
+    public void writeInt(long number, int bitLength) {
+        if (bitLength < 1) {
+            throw new Error("Incorrect bitLength");
+        }
+        if (bitLength < 64) {
+            long rest = number >> (bitLength - 1);
+            if (rest != 0 && rest != -1) {
+                throw new Error("bitLength is too small for number");
+            }
+            putBits(number, bitLength);
+            return;
+        }
+        // sign extension
+        long sign = number < 0 ? -1L : 0;
+        for (int pad = bitLength - 64; pad > 0; pad -= 64) {
+            putBits(sign, Math.min(64, pad));
+        }
+        putBits(number, 64);
+    }
+
     /**
      * Write unsigned 8-bit int
      *
      * @param ui8 int
      */
     public void writeUint8(int ui8) {
-        writeUint(BigInteger.valueOf(ui8), 8);
+        writeUint(ui8, 8);
     }
 
     /**
@@ -264,9 +416,7 @@ public class BitString implements Bits<Boolean> {
      * @param ui8 byte[]
      */
     public void writeBytes(byte[] ui8) {
-        for (byte b : ui8) {
-            writeUint8(b & 0xff);
-        }
+        putBytes(ui8, 0, ui8.length);
     }
 
     /**
@@ -275,6 +425,7 @@ public class BitString implements Bits<Boolean> {
      * @param ui8 byte[]
      */
     public void writeBytes(int[] ui8) {
+        ensureCapacity(writeCursor + ui8.length * 8);
         for (int b : ui8) {
             writeUint8(b);
         }
@@ -309,6 +460,18 @@ public class BitString implements Bits<Boolean> {
         }
     }
 
+    /**
+     * @param amount positive amount in nano-coins
+     */
+    public void writeCoins(long amount) {
+        if (amount < 0) {
+            throw new Error("Coins value must be positive.");
+        }
+        int bytesSize = (64 - Long.numberOfLeadingZeros(amount) + 7) / 8;
+        putBits(bytesSize, 4);
+        putBits(amount, bytesSize * 8);
+    }
+
     public void writeVarUint(BigInteger value, int bitLength) {
 
         if (value.compareTo(BigInteger.ZERO) == 0) {
@@ -345,15 +508,12 @@ public class BitString implements Bits<Boolean> {
     }
 
     /**
-     * Write another BitString to this BitString
+     * Write another BitString to this BitString. Source BitString is not modified.
      *
      * @param anotherBitString BitString
      */
     public void writeBitString(BitString anotherBitString) {
-        Deque<Boolean> bits = anotherBitString.array;
-        for (boolean bit : bits) {
-            writeBit(bit);
-        }
+        copyBits(anotherBitString, anotherBitString.readCursor, anotherBitString.getUsedBits());
     }
 
     /**
@@ -371,7 +531,10 @@ public class BitString implements Bits<Boolean> {
      * @return true or false
      */
     public Boolean readBit() {
-        return array.pollFirst();
+        if (readCursor >= writeCursor) {
+            return null;
+        }
+        return getBit(readCursor++);
     }
 
     /**
@@ -381,10 +544,10 @@ public class BitString implements Bits<Boolean> {
      * @return BitString with length n read from original Bitstring
      */
     public BitString readBits(int n) {
+        checkAvailable(n);
         BitString result = new BitString(n);
-        for (int i = 0; i < n; i++) {
-            result.writeBit(readBit());
-        }
+        result.copyBits(this, readCursor, n);
+        readCursor += n;
         return result;
     }
 
@@ -394,14 +557,17 @@ public class BitString implements Bits<Boolean> {
      * @return BitString with length of read bits from original Bitstring
      */
     public BitString readBits() {
-        int sz = array.size();
-        BitString result = new BitString(sz);
-
-        for (int i = 0; i < sz; i++) {
-            result.writeBit(readBit());
-        }
+        return readBits(getUsedBits());
+    }
 
-        return result;
+    /**
+     * Skips n bits without copying them
+     *
+     * @param n number of bits
+     */
+    public void skipBits(int n) {
+        checkAvailable(n);
+        readCursor += n;
     }
 
     /**
@@ -414,34 +580,21 @@ public class BitString implements Bits<Boolean> {
         if (bitLength < 1) {
             throw new Error("Incorrect bitLength");
         }
+        checkAvailable(bitLength);
 
-        BitString cloned = clone();
-        int bytesNeeded = (bitLength + 7) / 8;
-        byte[] bytes = new byte[bytesNeeded];
-
-        int bitIndex = 0;
-        int byteIndex = 0;
-
-        for (int i = 0; i < bitLength; i++) {
-            Boolean bit = cloned.readBit();
-            if (bit) {
-                bytes[byteIndex] |= (byte) (1 << (7 - bitIndex));
-            }
-
-            bitIndex++;
-            if (bitIndex == 8) {
-                bitIndex = 0;
-                byteIndex++;
-            }
+        if (bitLength < 64) {
+            return BigInteger.valueOf(getBits(readCursor, bitLength));
         }
-
-        BigInteger bigInteger = new BigInteger(1, bytes);
-        int excessBits = bytesNeeded * 8 - bitLength;
-        if (excessBits > 0) {
-            bigInteger = bigInteger.shiftRight(excessBits);
+        if (bitLength == 64) {
+            return Utils.longToUnsignedBigInteger(getBits(readCursor, 64));
         }
 
-        return bigInteger;
+        int bytesNeeded = (bitLength + 7) / 8;
+        int lead = bitLength - (bytesNeeded - 1) * 8;
+        byte[] bytes = new byte[bytesNeeded];
+        bytes[0] = (byte) getBits(readCursor, lead);
+        getBytes(readCursor + lead, bytes, 1, bytesNeeded - 1);
+        return new BigInteger(1, bytes);
     }
 
     /**
@@ -451,37 +604,9 @@ public class BitString implements Bits<Boolean> {
      * @return BigInteger
      */
     public BigInteger readUint(int bitLength) {
-        if (bitLength < 1) {
-            throw new Error("Incorrect bitLength");
-        }
-
-        int bytesNeeded = (bitLength + 7) / 8;
-        byte[] bytes = new byte[bytesNeeded];
-
-        int bitIndex = 0;
-        int byteIndex = 0;
-
-        for (int i = 0; i < bitLength; i++) {
-            Boolean bit = readBit();
-            if (bit) {
-                bytes[byteIndex] |= (byte) (1 << (7 - bitIndex));
-            }
-
-            bitIndex++;
-            if (bitIndex == 8) {
-                bitIndex = 0;
-                byteIndex++;
-            }
-        }
-
-        BigInteger bigInteger = new BigInteger(1, bytes);
-
-        int excessBits = bytesNeeded * 8 - bitLength;
-        if (excessBits > 0) {
-            bigInteger = bigInteger.shiftRight(excessBits);
-        }
-
-        return bigInteger;
+        BigInteger result = preReadUint(bitLength);
+        readCursor += bitLength;
+        return result;
     }
 
     /**
@@ -495,11 +620,16 @@ public class BitString implements Bits<Boolean> {
             throw new Error("Incorrect bitLength");
         }
 
-        Boolean sign = readBit();
-        if (bitLength == 1) {
-            return sign != null && sign ? BigInteger.valueOf(-1) : BigInteger.ZERO;
+        if (bitLength <= 64) {
+            checkAvailable(bitLength);
+            long v = getBits(readCursor, bitLength);
+            readCursor += bitLength;
+            // sign-extend
+            return BigInteger.valueOf((v << (64 - bitLength)) >> (64 - bitLength));
         }
 
+        Boolean sign = readBit();
+
         BigInteger number = readUint(bitLength - 1);
         if (sign) {
             BigInteger maxValue = BigInteger.ONE.shiftLeft(bitLength - 1);
@@ -509,6 +639,47 @@ public class BitString implements Bits<Boolean> {
         return number;
     }
 
+    /**
+     * Read up to 64 bits as unsigned int without moving readCursor.
+     * 64-bit values above Long.MAX_VALUE are returned as negative numbers, see Long.toUnsignedString().
+     *
+     * @param bitLength size of uint in bits, 0..64
+     * @return long
+     */
+    public long preReadUintAsLong(int bitLength) {
+        if (bitLength < 0 || bitLength > 64) {
+            throw new Error("Incorrect bitLength");
+        }
+        checkAvailable(bitLength);
+        return getBits(readCursor, bitLength);
+    }
+
+    /**
+     * Read up to 64 bits as unsigned int, see {@link #preReadUintAsLong(int)}
+     *
+     * @param bitLength size of uint in bits, 0..64
+     * @return long
+     */
+    public long readUintAsLong(int bitLength) {
+        long result = preReadUintAsLong(bitLength);
+        readCursor += bitLength;
+        return result;
+    }
+
+    /**
+     * Read signed int of up to 64 bits
+     *
+     * @param bitLength size of int in bits, 1..64
+     * @return long
+     */
+    public long readIntAsLong(int bitLength) {
+        if (bitLength < 1) {
+            throw new Error("Incorrect bitLength");
+        }
+        long v = readUintAsLong(bitLength);
+        return (v << (64 - bitLength)) >> (64 - bitLength);
+    }
+
     public BigInteger readUint8() {
         return readUint(8);
     }
@@ -544,10 +715,10 @@ public class BitString implements Bits<Boolean> {
     public Address readAddress() {
         BigInteger i = preReadUint(2);
         if (i.intValue() == 0) {
-            readBits(2);
+            skipBits(2);
             return null;
         }
-        readBits(3);
+        skipBits(3);
 
         int workchain = readInt(8).intValue();
         BigInteger hashPart = readUint(256);
@@ -557,8 +728,7 @@ public class BitString implements Bits<Boolean> {
     }
 
     public String readString(int length) {
-        BitString bitString = readBits(length);
-        return new String(bitString.toByteArray());
+        return new String(readBytes(length));
     }
 
     /**
@@ -566,8 +736,10 @@ public class BitString implements Bits<Boolean> {
      * @return byte array
      */
     public byte[] readBytes(int length) {
-        BitString bitString = readBits(length);
-        return bitString.toByteArray();
+        checkAvailable(length);
+        byte[] result = toByteArray(readCursor, length);
+        readCursor += length;
+        return result;
     }
 
     /**
@@ -581,132 +753,80 @@ public class BitString implements Bits<Boolean> {
      * @return BitString from 0 to writeCursor
      */
     public String toBitString() {
-        BitString cloned = clone();
-        Deque<Boolean> deque = cloned.array;
-        char[] chars = new char[deque.size()];
-
-        int i = 0;
-        for (Boolean b : deque) {
-            chars[i++] = b ? '1' : '0';
-        }
-
-        return new String(chars);
+        return getBitString();
     }
 
     public int getLength() {
-        return array.size();
+        return getUsedBits();
     }
 
     /**
      * @return BitString from current position to writeCursor
      */
     public String getBitString() {
-        char[] chars = new char[array.size()];
-
-        int i = 0;
-        for (Boolean b : array) {
-            chars[i++] = b ? '1' : '0';
+        char[] chars = new char[getUsedBits()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = getBit(readCursor + i) ? '1' : '0';
         }
-
         return new String(chars);
     }
 
-    public int[] toUnsignedByteArray() {
-        if (array.isEmpty()) {
-            return new int[0];
-        }
-
-        String bin = getBitString();
-        int sz = bin.length();
-        int[] result = new int[(sz + 7) / 8];
-
-        for (int i = 0; i < sz; i += 8) {
-            String str = bin.substring(i, Math.min(sz, i + 8));
-            result[i / 8] = Integer.parseInt(str, 2);
+    /**
+     * Packs len bits from absolute position pos into bytes, last incomplete byte is padded with zeros on the right
+     */
+    private byte[] toByteArray(int pos, int len) {
+        byte[] result = new byte[(len + 7) / 8];
+        getBytes(pos, result, 0, len / 8);
+        int rest = len % 8;
+        if (rest != 0) {
+            result[result.length - 1] = (byte) (getBits(pos + len - rest, rest) << (8 - rest));
         }
-
         return result;
     }
 
-    public byte[] toSignedByteArray() {
-        if (array.isEmpty()) {
-            return new byte[0];
-        }
-
-        String bin = getBitString();
-        int sz = bin.length();
-        byte[] result = new byte[(sz + 7) / 8];
-
-        for (int i = 0; i < sz; i += 8) {
-            String str = bin.substring(i, Math.min(sz, i + 8));
-            result[i / 8] = (byte) (Integer.parseInt(str, 2) & 0xFF);
+    /**
+     * Same as toByteArray(), but the last incomplete byte is right-aligned
+     */
+    private byte[] toRightAlignedByteArray() {
+        int len = getUsedBits();
+        byte[] result = new byte[(len + 7) / 8];
+        getBytes(readCursor, result, 0, len / 8);
+        int rest = len % 8;
+        if (rest != 0) {
+            result[result.length - 1] = (byte) getBits(writeCursor - rest, rest);
         }
-
         return result;
     }
 
-    public List<BigInteger> toByteList() {
-        if (array.isEmpty()) {
-            return new ArrayList<>();
-        }
+    public int[] toUnsignedByteArray() {
+        return Utils.signedBytesToUnsigned(toRightAlignedByteArray());
+    }
 
-        String bin = getBitString();
-        int sz = bin.length();
-        List<BigInteger> result = new ArrayList<>((sz + 7) / 8);
+    public byte[] toSignedByteArray() {
+        return toRightAlignedByteArray();
+    }
 
-        for (int i = 0; i < sz; i += 8) {
-            String str = bin.substring(i, Math.min(sz, i + 8));
-            result.add(new BigInteger(str, 2));
+    public List<BigInteger> toByteList() {
+        byte[] bytes = toRightAlignedByteArray();
+        List<BigInteger> result = new ArrayList<>(bytes.length);
+        for (byte b : bytes) {
+            result.add(BigInteger.valueOf(b & 0xFF));
         }
-
         return result;
     }
 
     public byte[] toByteArray() {
-        if (array.isEmpty()) {
-            return new byte[0];
-        }
-
-        byte[] bin = getBitString().getBytes(StandardCharsets.UTF_8);
-        int sz = bin.length;
-        byte[] result = new byte[(sz + 7) / 8];
-
-        for (int i = 0; i < sz; i++) {
-            if (bin[i] == (byte) '1') {
-                result[(i / 8)] |= (byte) (1 << (7 - (i % 8)));
-            } else {
-                result[(i / 8)] &= (byte) ~(1 << (7 - (i % 8)));
-            }
-        }
-
-        return result;
+        return toByteArray(readCursor, getUsedBits());
     }
 
     public int[] toUintArray() {
-        if (array.isEmpty()) {
-            return new int[0];
-        }
-
-        byte[] bin = getBitString().getBytes(StandardCharsets.UTF_8);
-        int sz = bin.length;
-        int[] result = new int[(sz + 7) / 8];
-
-        for (int i = 0; i < sz; i++) {
-            if (bin[i] == (byte) '1') {
-                result[(i / 8)] |= 1 << (7 - (i % 8));
-            } else {
-                result[(i / 8)] &= ~(1 << (7 - (i % 8)));
-            }
-        }
-
-        return result;
+        return Utils.signedBytesToUnsigned(toByteArray());
     }
 
     public Boolean[] toBooleanArray() {
         Boolean[] result = new Boolean[getLength()];
-        int i = 0;
-        for (Boolean b : array) {
-            result[i++] = b;
+        for (int i = 0; i < result.length; i++) {
+            result[i] = getBit(readCursor + i);
         }
         return result;
     }
@@ -717,9 +837,7 @@ public class BitString implements Bits<Boolean> {
 
     public BitString cloneFrom(int from) {
         BitString cloned = clone();
-        for (int i = 0; i < from; i++) {
-            cloned.readBit();
-        }
+        cloned.readCursor += Math.min(from, cloned.getUsedBits());
         return cloned;
     }
 
@@ -729,11 +847,11 @@ public class BitString implements Bits<Boolean> {
      * @return String
      */
     public String toHex() {
-
-        if (array.size() % 4 == 0) {
+        int len = getUsedBits();
+        if (len % 4 == 0) {
             byte[] arr = toByteArray();
             String s = Utils.bytesToHex(arr).toUpperCase();
-            if (array.size() % 8 == 0) {
+            if (len % 8 == 0) {
                 return s;
             } else {
                 return s.substring(0, s.length() - 1);
@@ -741,9 +859,7 @@ public class BitString implements Bits<Boolean> {
         } else {
             BitString temp = clone();
             temp.writeBit(true);
-            while (temp.array.size() % 4 != 0) {
-                temp.writeBit(false);
-            }
+            temp.putZeros((4 - temp.getUsedBits() % 4) % 4);
             return temp.toHex().toUpperCase() + '_';
         }
     }
@@ -261,4 +261,60 @@ public class TestBitString {
         Address address = Address.of("0QAs9VlT6S776tq3unJcP5Ogsj-ELLunLXuOb1EKcOQi4-QO");
         bitString.writeAddress(address);
     }
+
+    @Test
+    public void testBitStringAcrossWordBoundaries() {
+        BitString bitString = new BitString(1023);
+        bitString.writeUint(5, 3);
+        bitString.writeUint(new BigInteger("123456789012345678901234567890"), 130);
+        bitString.writeInt(BigInteger.valueOf(-3), 61);
+        bitString.writeUint(Long.MAX_VALUE, 70);
+
+        BitString copy = new BitString(1023);
+        copy.writeBitString(bitString);
+        assertThat(copy.toBitString()).isEqualTo(bitString.toBitString());
+
+        assertThat(copy.readUint(3).intValue()).isEqualTo(5);
+        assertThat(copy.readUint(130)).isEqualTo(new BigInteger("123456789012345678901234567890"));
+        assertThat(copy.readInt(61).longValue()).isEqualTo(-3);
+        copy.skipBits(6);
+        assertThat(copy.readUint64()).isEqualTo(BigInteger.valueOf(Long.MAX_VALUE));
+        assertThat(copy.getUsedBits()).isEqualTo(0);
+        assertThat(bitString.getUsedBits()).isEqualTo(3 + 130 + 61 + 70);
+    }
+
+    @Test
+    public void testBitStringReadBitsKeepsSource() {
+        BitString bitString = new BitString(new byte[]{(byte) 0xAB, (byte) 0xCD, (byte) 0xEF}, 20);
+        bitString.readBit();
+        BitString part = bitString.readBits(12);
+        assertThat(part.toBitString()).isEqualTo("010101111001");
+        assertThat(bitString.toBitString()).isEqualTo("1011110");
+        assertThat(bitString.toHex()).isEqualTo("BD_");
+        assertThrows(Error.class, () -> bitString.readBits(8));
+    }
+
+    @Test
+    public void testBitStringPrimitiveReadWrite() {
+        BitString bitString = new BitString(300);
+        bitString.writeInt(-5L, 3 + 64 + 64);
+        bitString.writeInt(-5L, 4);
+        bitString.writeCoins(300L);
+        bitString.writeUint(Long.MIN_VALUE >>> 1, 63);
+
+        BitString copy = bitString.clone();
+        assertThat(copy.readInt(131)).isEqualTo(BigInteger.valueOf(-5));
+        assertThat(copy.readInt(4)).isEqualTo(BigInteger.valueOf(-5));
+
+        bitString.skipBits(67);
+        assertThat(bitString.preReadUintAsLong(64)).isEqualTo(-5L);
+        assertThat(bitString.readIntAsLong(64)).isEqualTo(-5L);
+        assertThat(bitString.readIntAsLong(4)).isEqualTo(-5L);
+        assertThat(bitString.readUintAsLong(4)).isEqualTo(2);
+        assertThat(bitString.readUintAsLong(16)).isEqualTo(300);
+        assertThat(bitString.readUintAsLong(63)).isEqualTo(Long.MIN_VALUE >>> 1);
+        assertThat(bitString.readUintAsLong(0)).isZero();
+        assertThrows(Error.class, () -> bitString.readUintAsLong(1));
+        assertThrows(Error.class, () -> new BitString(8).writeInt(8L, 4));
+    }
 }
@@ -0,0 +1,257 @@
+package org.ton.java.cell;
+
+import org.ton.java.utils.CRC32C;
+import org.ton.java.utils.Utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Serializes cells to BoC.
+ * <p>
+ * Cells are flattened and indexed once, then exact sizes of header, index and payload are calculated,
+ * so the whole BoC is written in a single pass either into one preallocated array
+ * or into an output stream in fixed-size chunks, with crc32c calculated on the fly.
+ */
+class BocWriter {
+
+    private static final byte[] BOC_MAGIC = new byte[]{(byte) 0xB5, (byte) 0xEE, (byte) 0x9C, 0x72};
+
+    private static final int STREAM_CHUNK_SIZE = 64 * 1024;
+
+    // descriptors(2) + data(128) + refs(4 * 4)
+    private static final int MAX_SERIALIZED_CELL_SIZE = 2 + 128 + 4 * 4;
+
+    private final List<IdxItem> sortedCells;
+    private final List<IdxItem> rootCells;
+    private final boolean hasCrc32c;
+    private final boolean hasIdx;
+    private final boolean hasCacheBits;
+    private final int cellSizeBytes;
+    private final int sizeBytes;
+    private final long payloadSize;
+    private final long headerSize;
+
+    BocWriter(List<Cell> roots, boolean hasCrc32c, boolean hasIdx, boolean hasCacheBits, boolean hasTopHash) {
+        this.hasCrc32c = hasCrc32c;
+        this.hasIdx = hasIdx;
+        this.hasCacheBits = hasCacheBits;
+
+        Map<Cell, IdxItem> index = new HashMap<>();
+        sortedCells = flattenIndex(roots, hasTopHash, index);
+        rootCells = new ArrayList<>(roots.size());
+        for (Cell root : roots) {
+            rootCells.add(index.get(root));
+        }
+
+        int cellSizeBits = Utils.log2(sortedCells.size() + 1);
+        cellSizeBytes = (int) Math.ceil((double) cellSizeBits / 8);
+
+        long offset = 0;
+        for (IdxItem item : sortedCells) {
+            offset += 2 + (item.cell.getBitLength() + 7) / 8 + item.refs.length * cellSizeBytes;
+            item.dataIndex = offset;
+        }
+        payloadSize = offset;
+
+        // bytes needed to store len of payload
+        int sizeBits = Long.SIZE - Long.numberOfLeadingZeros(payloadSize);
+        sizeBytes = (sizeBits + 7) / 8;
+
+        headerSize = BOC_MAGIC.length + 2
+                + 3L * cellSizeBytes + sizeBytes
+                + (long) rootCells.size() * cellSizeBytes
+                + (hasIdx ? (long) sortedCells.size() * sizeBytes : 0);
+    }
+
+    /**
+     * @return exact size of serialized BoC in bytes
+     */
+    long getSize() {
+        return headerSize + payloadSize + (hasCrc32c ? 4 : 0);
+    }
+
+    byte[] toByteArray() {
+        long size = getSize();
+        if (size > Integer.MAX_VALUE) {
+            throw new Error("BoC of " + size + " bytes does not fit into byte array, serialize it to a stream instead");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        try {
+            write(buffer, null);
+        } catch (IOException e) {
+            throw new Error("Cannot serialize BoC. Error " + e.getMessage());
+        }
+        return buffer.array();
+    }
+
+    void writeTo(OutputStream os) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(getSize(), STREAM_CHUNK_SIZE));
+        write(buffer, os);
+        os.flush();
+    }
+
+    /**
+     * Writes BoC into the buffer. If os is null, the buffer must be big enough for the whole BoC,
+     * otherwise the buffer is flushed to os every time it runs out of space.
+     */
+    private void write(ByteBuffer buffer, OutputStream os) throws IOException {
+        CRC32C crc = hasCrc32c ? new CRC32C() : null;
+
+        ensureRemaining(buffer, BOC_MAGIC.length + 2 + 3 * cellSizeBytes + sizeBytes, os, crc);
+        buffer.put(BOC_MAGIC);
+
+        // has_idx 1bit, hash_crc32 1bit,  has_cache_bits 1bit, flags 2bit, size_bytes 3 bit
+        byte flagsByte = 0;
+        if (hasIdx) {
+            flagsByte |= 0b1_0_0_00_000;
+        }
+        if (hasCrc32c) {
+            flagsByte |= 0b0_1_0_00_000;
+        }
+        if (hasCacheBits) {
+            flagsByte |= 0b0_0_1_00_000;
+        }
+        flagsByte |= cellSizeBytes;
+        buffer.put(flagsByte);
+
+        // bytes needed to store size
+        buffer.put((byte) sizeBytes);
+        // cells num
+        putNumber(buffer, sortedCells.size(), cellSizeBytes);
+        // roots num
+        putNumber(buffer, rootCells.size(), cellSizeBytes);
+        // complete BOCs = 0
+        putNumber(buffer, 0, cellSizeBytes);
+        // len of data
+        putNumber(buffer, payloadSize, sizeBytes);
+
+        for (IdxItem root : rootCells) {
+            ensureRemaining(buffer, cellSizeBytes, os, crc);
+            putNumber(buffer, root.index, cellSizeBytes);
+        }
+
+        if (hasIdx) {
+            for (IdxItem item : sortedCells) {
+                long idx = item.dataIndex;
+                if (hasCacheBits) {
+                    idx *= 2;
+                    if (item.repeats > 0) {
+                        // cache cells which has refs
+                        idx++;
+                    }
+                }
+                ensureRemaining(buffer, sizeBytes, os, crc);
+                putNumber(buffer, idx, sizeBytes);
+            }
+        }
+
+        for (IdxItem item : sortedCells) {
+            ensureRemaining(buffer, MAX_SERIALIZED_CELL_SIZE, os, crc);
+            writeCell(buffer, item);
+        }
+
+        if (hasCrc32c) {
+            ensureRemaining(buffer, 4, os, crc);
+            crc.update(buffer.array(), 0, buffer.position());
+            int value = (int) crc.getValue();
+            // little-endian
+            buffer.put((byte) value);
+            buffer.put((byte) (value >>> 8));
+            buffer.put((byte) (value >>> 16));
+            buffer.put((byte) (value >>> 24));
+        }
+
+        if (nonNull(os)) {
+            os.write(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+    }
+
+    private void writeCell(ByteBuffer buffer, IdxItem item) {
+        Cell cell = item.cell;
+        buffer.put(cell.getRefsDescriptor(cell.levelMask.getMask())[0]);
+        buffer.put(cell.getBitsDescriptor()[0]);
+        buffer.put(cell.getDataBytes());
+        for (IdxItem ref : item.refs) {
+            putNumber(buffer, ref.index, cellSizeBytes);
+        }
+    }
+
+    private static void ensureRemaining(ByteBuffer buffer, int length, OutputStream os, CRC32C crc) throws IOException {
+        if (nonNull(os) && buffer.remaining() < length) {
+            if (nonNull(crc)) {
+                crc.update(buffer.array(), 0, buffer.position());
+            }
+            os.write(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Writes number as big-endian unsigned integer of sz bytes
+     */
+    private static void putNumber(ByteBuffer buffer, long value, int sz) {
+        for (int i = sz - 1; i >= 0; i--) {
+            buffer.put((byte) (value >>> (i * 8)));
+        }
+    }
+
+    /**
+     * reworked in order to coincide with tonutils-go
+     */
+    private static List<IdxItem> flattenIndex(List<Cell> roots, boolean hasTopHash, Map<Cell, IdxItem> index) {
+        List<IdxItem> idxSlice = new ArrayList<>();
+        int idx = 0;
+
+        while (!roots.isEmpty()) {
+            List<Cell> next = new ArrayList<>(roots.size() * 4);
+            for (Cell p : roots) {
+                IdxItem v = index.get(p);
+                if (nonNull(v)) {
+                    v.repeats++;
+                    continue;
+                }
+
+                v = IdxItem.builder().cell(p).index(idx++).withHash(hasTopHash).build();
+                index.put(p, v);
+                idxSlice.add(v);
+
+                next.addAll(p.refs);
+            }
+            roots = next;
+        }
+
+        for (IdxItem item : idxSlice) {
+            List<Cell> refs = item.cell.refs;
+            item.refs = new IdxItem[refs.size()];
+            for (int i = 0; i < refs.size(); i++) {
+                item.refs[i] = index.get(refs.get(i));
+            }
+        }
+
+        boolean verifyOrder = true;
+        while (verifyOrder) {
+            verifyOrder = false;
+            for (IdxItem id : idxSlice) {
+                for (IdxItem idRef : id.refs) {
+                    if (idRef.index < id.index) {
+                        idRef.index = idx++;
+                        verifyOrder = true;
+                    }
+                }
+            }
+        }
+        idxSlice.sort(Comparator.comparingInt(IdxItem::getIndex));
+
+        for (int i = 0; i < idxSlice.size(); i++) {
+            idxSlice.get(i).index = i;
+        }
+
+        return idxSlice;
+    }
+}
@@ -1,14 +1,20 @@
 package org.ton.java.cell;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.tuple.Pair;
 import org.ton.java.bitstring.BitString;
+import org.ton.java.utils.CRC32C;
 import org.ton.java.utils.Utils;
 
-import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 
 import static java.util.Objects.isNull;
@@ -17,21 +23,43 @@ import static org.ton.java.cell.CellType.ORDINARY;
 import static org.ton.java.cell.CellType.UNKNOWN;
 
 /**
- * Implements Cell class, where BitString having elements of Boolean type.
+ * Implements Cell class, where cell data is kept in a word-packed BitString.
+ * <p>
+ * Cells parsed from BoC keep their data as an offset into the source buffer
+ * until bits are requested for the first time.
  */
 @Slf4j
 public class Cell {
 
-    BitString bits;
+    private static final int BOC_MAGIC = 0xB5EE9C72;
+
+    volatile BitString bits;
     List<Cell> refs = new ArrayList<>();
     private CellType type;
     public int index;
     public boolean exotic;
     public LevelMask levelMask;
-    private byte[] hashes = new byte[0];
-    private int[] depthLevels = new int[0];
+    // calculated on first access, depthLevels are published together with hashes
+    private volatile byte[] hashes;
+    private int[] depthLevels;
+
+    // source of not yet materialized bits, data with completion tag starts at dataOffset
+    private ByteBuffer source;
+    private int dataOffset;
+    private int dataBitLength;
 
     public BitString getBits() {
+        BitString b = bits;
+        if (isNull(b)) {
+            b = loadBits();
+        }
+        return b;
+    }
+
+    private synchronized BitString loadBits() {
+        if (isNull(bits)) {
+            bits = new BitString(getDataBytes(), dataBitLength);
+        }
         return bits;
     }
 
@@ -44,25 +72,48 @@ public class Cell {
     }
 
     public byte[] getHashes() {
+        ensureHashes();
         return hashes;
     }
 
     public int[] getDepthLevels() {
+        ensureHashes();
         return depthLevels;
     }
 
+    /**
+     * Last 4 bytes of the representation hash, read without copying the hash
+     */
     @Override
     public int hashCode() {
-        return new BigInteger(this.getHash()).intValue();
+        byte[] h = getHashes();
+        int off = getReprHashOffset() + 28;
+        return (h[off] & 0xFF) << 24 | (h[off + 1] & 0xFF) << 16 | (h[off + 2] & 0xFF) << 8 | (h[off + 3] & 0xFF);
     }
 
     @Override
     public boolean equals(Object o) {
-        if (o instanceof Cell) {
-            return Arrays.equals(this.getHash(), ((Cell) o).getHash());
-        } else {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Cell)) {
             return false;
         }
+        Cell c = (Cell) o;
+        byte[] h1 = getHashes();
+        byte[] h2 = c.getHashes();
+        int off1 = getReprHashOffset();
+        int off2 = c.getReprHashOffset();
+        for (int i = 0; i < 32; i++) {
+            if (h1[off1 + i] != h2[off2 + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int getReprHashOffset() {
+        return (type == CellType.PRUNED_BRANCH) ? 0 : levelMask.getHashIndex() * 32;
     }
 
     public Cell() {
@@ -81,7 +132,7 @@ public class Cell {
 
     public Cell(BitString bits, List<Cell> refs) {
         this.bits = new BitString(bits.getLength());
-        this.bits.writeBitString(bits.clone());
+        this.bits.writeBitString(bits);
         this.refs = new ArrayList<>(refs);
         this.exotic = false;
         this.type = ORDINARY;
@@ -90,7 +141,7 @@ public class Cell {
 
     public Cell(BitString bits, List<Cell> refs, int cellType) {
         this.bits = new BitString(bits.getLength());
-        this.bits.writeBitString(bits.clone());
+        this.bits.writeBitString(bits);
         this.refs = new ArrayList<>(refs);
         this.exotic = false;
         this.type = toCellType(cellType);
@@ -123,6 +174,10 @@ public class Cell {
         this.levelMask = resolveMask();
     }
 
+    private Cell(ByteBuffer source) {
+        this.source = source;
+    }
+
     public static CellType toCellType(int cellType) {
         switch (cellType) {
             case -1:
@@ -143,17 +198,18 @@ public class Cell {
     public LevelMask resolveMask() {
         // taken from pytoniq-core
         if (this.type == ORDINARY) {
-            // Ordinary Cell level = max(Cell refs)
+            // level mask of an ordinary cell is the OR of level masks of its refs, e.g. 1 above a pruned branch.
+            // Refs are constructed first, so their masks are already resolved.
             int mask = 0;
             for (Cell r : refs) {
-                mask |= r.getMaxLevel();
+                mask |= r.levelMask.getMask();
             }
             return new LevelMask(mask);
         } else if (this.type == CellType.PRUNED_BRANCH) {
             if (!refs.isEmpty()) {
                 throw new Error("Pruned branch must not have refs");
             }
-            BitString bs = bits.clone();
+            BitString bs = getBits().clone();
             bs.readUint8();
 
             return new LevelMask(bs.readUint8().intValue());
@@ -162,7 +218,7 @@ public class Cell {
             return new LevelMask(refs.get(0).levelMask.getMask() >> 1);
         } else if (this.type == CellType.MERKLE_UPDATE) {
             // merkle update cell has exactly 2 refs
-            return new LevelMask(refs.get(0).levelMask.getMask() | refs.get(1).levelMask.getMask() >> 1);
+            return new LevelMask((refs.get(0).levelMask.getMask() | refs.get(1).levelMask.getMask()) >> 1);
         } else if (this.type == CellType.LIBRARY) {
             return new LevelMask(0);
         } else {
@@ -170,11 +226,63 @@ public class Cell {
         }
     }
 
+    private void ensureHashes() {
+        if (isNull(hashes)) {
+            calculateHashes();
+        }
+    }
+
+    /**
+     * Calculates hashes of all not yet hashed cells of the tree bottom-up.
+     * Cells of the same height do not depend on each other, so each height is processed in parallel.
+     */
+    public void computeHashesParallel() {
+        if (nonNull(hashes)) {
+            return;
+        }
+        Map<Cell, Integer> heights = new IdentityHashMap<>();
+        List<List<Cell>> layers = new ArrayList<>();
+        Deque<Cell> stack = new ArrayDeque<>();
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            Cell c = stack.peek();
+            if (heights.containsKey(c)) {
+                stack.pop();
+                continue;
+            }
+            boolean ready = true;
+            int height = 0;
+            for (Cell r : c.refs) {
+                if (nonNull(r.hashes)) {
+                    continue;
+                }
+                Integer h = heights.get(r);
+                if (isNull(h)) {
+                    stack.push(r);
+                    ready = false;
+                } else {
+                    height = Math.max(height, h + 1);
+                }
+            }
+            if (ready) {
+                stack.pop();
+                heights.put(c, height);
+                while (layers.size() <= height) {
+                    layers.add(new ArrayList<>());
+                }
+                layers.get(height).add(c);
+            }
+        }
+        for (List<Cell> layer : layers) {
+            layer.parallelStream().forEach(Cell::ensureHashes);
+        }
+    }
+
     public void calculateHashes() {
 
         int totalHashCount = levelMask.getHashIndex() + 1;
-        hashes = new byte[32 * totalHashCount];
-        depthLevels = new int[totalHashCount];
+        byte[] hashes = new byte[32 * totalHashCount];
+        int[] depthLevels = new int[totalHashCount];
 
         int hashCount = totalHashCount;
         if (type == CellType.PRUNED_BRANCH) {
@@ -253,6 +361,9 @@ public class Cell {
             System.arraycopy(Utils.sha256AsArray(hash), 0, hashes, off * 32, 32);
             hashIndex++;
         }
+
+        this.depthLevels = depthLevels;
+        this.hashes = hashes;
     }
 
     void setCellType(CellType pCellType) {
@@ -295,31 +406,94 @@ public class Cell {
         return fromBocMultiRoot(data);
     }
 
+    /**
+     * Parses BoC between position and limit of the buffer, which can be heap, direct or memory-mapped.
+     * Cell data is not copied, so the buffer content must not be changed while cells are in use.
+     * Position of the buffer is not changed.
+     *
+     * @param data buffer containing valid BoC
+     * @return Cell
+     */
+    public static Cell fromBoc(ByteBuffer data) {
+        return fromBocMultiRoot(data).get(0);
+    }
+
+    public static List<Cell> fromBocMultiRoots(ByteBuffer data) {
+        return fromBocMultiRoot(data);
+    }
+
+    /**
+     * Parses BoC and replaces its cells with canonical instances from the pool,
+     * so cells repeated across BoCs parsed with the same pool are shared.
+     * Returned cells must not be modified.
+     */
+    public static Cell fromBoc(ByteBuffer data, CellInterner interner) {
+        return fromBocMultiRoot(data, interner).get(0);
+    }
+
+    public static Cell fromBoc(byte[] data, CellInterner interner) {
+        return fromBocMultiRoot(ByteBuffer.wrap(data), interner).get(0);
+    }
+
+    public static List<Cell> fromBocMultiRoots(ByteBuffer data, CellInterner interner) {
+        return fromBocMultiRoot(data, interner);
+    }
+
+    /**
+     * Memory-maps BoC file and parses it in place
+     *
+     * @param path file containing valid BoC
+     * @return Cell
+     */
+    public static Cell fromBoc(Path path) {
+        return fromBocMultiRoots(path).get(0);
+    }
+
+    public static List<Cell> fromBocMultiRoots(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return fromBocMultiRoot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new Error("Cannot read BoC from file " + path + ". Error " + e.getMessage());
+        }
+    }
+
     public String toString() {
-        return bits.toHex();
+        return getBits().toHex();
     }
 
     public int getBitLength() {
-        return bits.toBitString().length();
+        BitString b = bits;
+        return nonNull(b) ? b.getLength() : dataBitLength;
     }
 
     public Cell clone() {
         Cell c = new Cell();
-        c.bits = this.bits.clone();
+        BitString b = this.bits;
+        if (nonNull(b)) {
+            c.bits = b.clone();
+        } else {
+            c.bits = null;
+            c.source = this.source;
+            c.dataOffset = this.dataOffset;
+            c.dataBitLength = this.dataBitLength;
+        }
         for (Cell refCell : this.refs) {
             c.refs.add(refCell.clone());
         }
         c.exotic = this.exotic;
         c.type = this.type;
         c.levelMask = this.levelMask.clone();
-        c.hashes = Arrays.copyOf(this.hashes, this.hashes.length);
-        c.depthLevels = Arrays.copyOf(this.depthLevels, this.depthLevels.length);
+        byte[] h = this.hashes;
+        if (nonNull(h)) {
+            c.depthLevels = Arrays.copyOf(this.depthLevels, this.depthLevels.length);
+            c.hashes = Arrays.copyOf(h, h.length);
+        }
         return c;
     }
 
     public void writeCell(Cell anotherCell) {
         Cell cloned = anotherCell.clone();
-        bits.writeBitString(cloned.bits);
+        getBits().writeBitString(cloned.getBits());
         refs.addAll(cloned.refs);
     }
 
@@ -372,40 +546,54 @@ public class Cell {
     }
 
     static List<Cell> fromBocMultiRoot(byte[] data) {
-        if (data.length < 10) {
+        return fromBocMultiRoot(ByteBuffer.wrap(data));
+    }
+
+    static List<Cell> fromBocMultiRoot(ByteBuffer buffer) {
+        return fromBocMultiRoot(buffer, null);
+    }
+
+    static List<Cell> fromBocMultiRoot(ByteBuffer buffer, CellInterner interner) {
+        // only absolute reads are used, so position of the caller's buffer is not affected
+        ByteBuffer data = buffer.slice();
+        int length = data.limit();
+        if (length < 10) {
             throw new Error("Invalid boc");
         }
-        byte[] reachBocMagicPrefix = Utils.hexToSignedBytes("B5EE9C72");
-
-        UnsignedByteReader r = new UnsignedByteReader(data);
-        if (!Utils.compareBytes(reachBocMagicPrefix, r.readBytes(4))) {
+        if (data.getInt(0) != BOC_MAGIC) {
             throw new Error("Invalid boc magic header");
         }
 
-        BocFlags bocFlags = parseBocFlags(r.readSignedByte());
-        int dataSizeBytes = r.readByte(); // off_bytes:(## 8) { off_bytes <= 8 }
-
-        long cellsNum =
-                Utils.dynInt(r.readSignedBytes(bocFlags.cellNumSizeBytes)); // cells:(##(size * 8))
-        long rootsNum =
-                Utils.dynInt(
-                        r.readSignedBytes(bocFlags.cellNumSizeBytes)); // roots:(##(size * 8)) { roots >= 1 }
+        BocFlags bocFlags = parseBocFlags(data.get(4));
+        int dataSizeBytes = data.get(5) & 0xFF; // off_bytes:(## 8) { off_bytes <= 8 }
+        int cellNumSizeBytes = bocFlags.cellNumSizeBytes;
 
-        r.readBytes(bocFlags.cellNumSizeBytes);
-        long dataLen = Utils.dynInt(r.readSignedBytes(dataSizeBytes));
+        int offset = 6;
+        long cellsNum = readNumber(data, offset, cellNumSizeBytes); // cells:(##(size * 8))
+        offset += cellNumSizeBytes;
+        long rootsNum = readNumber(data, offset, cellNumSizeBytes); // roots:(##(size * 8)) { roots >= 1 }
+        offset += cellNumSizeBytes;
+        offset += cellNumSizeBytes; // absent:(##(size * 8))
+        long dataLen = readNumber(data, offset, dataSizeBytes);
+        offset += dataSizeBytes;
 
         if (bocFlags.hasCrc32c) {
-            byte[] bocWithoutCrc = Arrays.copyOfRange(data, 0, data.length - 4);
-            byte[] crcInBoc = Arrays.copyOfRange(data, data.length - 4, data.length);
-            byte[] crc32 = Utils.getCRC32ChecksumAsBytesReversed(bocWithoutCrc);
-            if (!Utils.compareBytes(crc32, crcInBoc)) {
+            CRC32C crc32c = new CRC32C();
+            crc32c.update(data, 0, length - 4);
+            // crc32c is stored in little-endian
+            if ((int) crc32c.getValue() != Integer.reverseBytes(data.getInt(length - 4))) {
                 throw new Error("Crc32c hashsum mismatch");
             }
         }
 
+        if (cellsNum > dataLen / 2) {
+            throw new Error("cells num looks malicious: data len " + dataLen + ", cells " + cellsNum);
+        }
+
         int[] rootsIndex = new int[(int) rootsNum];
         for (int i = 0; i < rootsNum; i++) {
-            rootsIndex[i] = Utils.dynInt(r.readSignedBytes(bocFlags.cellNumSizeBytes));
+            rootsIndex[i] = (int) readNumber(data, offset, cellNumSizeBytes);
+            offset += cellNumSizeBytes;
         }
 
         if (bocFlags.hasCacheBits && !bocFlags.hasIndex) {
@@ -413,52 +601,55 @@ public class Cell {
         }
 
         int[] index = new int[0];
-        int j = 0;
         if (bocFlags.hasIndex) {
             index = new int[(int) cellsNum];
-            byte[] idxData = r.readSignedBytes(cellsNum * dataSizeBytes);
-
             for (int i = 0; i < cellsNum; i++) {
-                int off = i * dataSizeBytes;
-                int val = Utils.dynInt(Arrays.copyOfRange(idxData, off, off + dataSizeBytes));
+                long val = readNumber(data, offset, dataSizeBytes);
                 if (bocFlags.hasCacheBits) {
                     val = val / 2;
                 }
-                index[j++] = val;
+                index[i] = (int) val;
+                offset += dataSizeBytes;
             }
         }
 
-        if (cellsNum > dataLen / 2) {
-            throw new Error("cells num looks malicious: data len " + data + ", cells " + cellsNum);
+        if (dataLen > length - offset) {
+            throw new Error("Invalid boc, data len " + dataLen + " exceeds boc size " + length);
         }
 
-        byte[] payload = r.readBytes(dataLen);
-
-        return parseCells(rootsIndex, rootsNum, cellsNum, bocFlags.cellNumSizeBytes, payload, index);
+        return parseCells(rootsIndex, cellsNum, cellNumSizeBytes, data, offset, (int) dataLen, index, interner);
     }
 
     private static List<Cell> parseCells(
-            int[] rootsIndex, long rootsNum, long cellsNum, int refSzBytes, byte[] data, int[] index) {
+            int[] rootsIndex,
+            long cellsNum,
+            int refSzBytes,
+            ByteBuffer data,
+            int payloadOffset,
+            int dataLen,
+            int[] index,
+            CellInterner interner) {
         Cell[] cells = new Cell[(int) cellsNum];
         for (int i = 0; i < cellsNum; i++) {
-            cells[i] = new Cell();
+            cells[i] = new Cell(data);
         }
 
-        int offset = 0;
+        int end = payloadOffset + dataLen;
+        int offset = payloadOffset;
         for (int i = 0; i < cellsNum; i++) {
-            if ((data.length - offset) < 2) {
+            if ((end - offset) < 2) {
                 throw new Error("failed to parse cell header, corrupted data");
             }
 
-            if (nonNull(index) && (index.length != 0)) {
+            if (index.length != 0) {
                 // if we have index, then set offset from it, it stores end of each cell
-                offset = 0;
+                offset = payloadOffset;
                 if (i > 0) {
-                    offset = index[i - 1];
+                    offset += index[i - 1];
                 }
             }
 
-            int flags = data[offset];
+            int flags = data.get(offset) & 0xFF;
             int refsNum = flags & 0b111;
             boolean special = (flags & 0b1000) != 0;
             boolean withHashes = (flags & 0b10000) != 0;
@@ -468,12 +659,12 @@ public class Cell {
                 throw new Error("too many refs in cell");
             }
 
-            int ln = data[offset + 1] & 0xFF;
+            int ln = data.get(offset + 1) & 0xFF;
             int oneMore = ln % 2;
             int sz = (ln / 2 + oneMore);
 
             offset += 2;
-            if ((data.length - offset) < sz) {
+            if ((end - offset) < sz) {
                 throw new Error("failed to parse cell payload, corrupted data");
             }
 
@@ -482,38 +673,32 @@ public class Cell {
                 int hashesNum = maskBits + 1;
                 offset += hashesNum * 32 + hashesNum * 2;
             }
-            byte[] payload = Arrays.copyOfRange(data, offset, offset + sz);
+            int dataOffset = offset;
 
             offset += sz;
-            if ((data.length - offset) < (refsNum * refSzBytes)) {
+            if ((end - offset) < (refsNum * refSzBytes)) {
                 throw new Error("failed to parse cell refs, corrupted data");
             }
 
-            int[] refsIndex = new int[refsNum];
-            int x = 0;
-            for (int j = 0; j < refsNum; j++) {
-                byte[] t = Arrays.copyOfRange(data, offset, offset + refSzBytes);
-                refsIndex[x++] = Utils.dynInt(t);
-
+            Cell[] refs = new Cell[refsNum];
+            for (int y = 0; y < refsNum; y++) {
+                long refIndex = readNumber(data, offset, refSzBytes);
                 offset += refSzBytes;
-            }
 
-            Cell[] refs = new Cell[refsIndex.length];
-
-            for (int y = 0; y < refsIndex.length; y++) {
-                if (i == refsIndex[y]) {
+                if (i == refIndex) {
                     throw new Error("recursive reference of cells");
                 }
 
-                if ((refsIndex[y] < i) && (isNull(index))) {
+                // also guarantees there are no cycles for lazy hashing
+                if (refIndex < i) {
                     throw new Error("reference to index which is behind parent cell");
                 }
 
-                if (refsIndex[y] >= cells.length) {
+                if (refIndex >= cells.length) {
                     throw new Error("invalid index, out of scope");
                 }
 
-                refs[y] = cells[refsIndex[y]];
+                refs[y] = cells[(int) refIndex];
             }
 
             int bitSz = ln * 4;
@@ -521,28 +706,41 @@ public class Cell {
             // if not full byte
             if ((ln % 2) != 0) {
                 // find last bit of byte which indicates the end and cut it and next
+                int last = data.get(dataOffset + sz - 1);
                 for (int y = 0; y < 8; y++) {
-                    if (((payload[payload.length - 1] >> y) & 1) == 1) {
+                    if (((last >> y) & 1) == 1) {
                         bitSz += 3 - y;
                         break;
                     }
                 }
             }
 
-            cells[i].bits = new BitString(payload, bitSz);
-            cells[i].refs = Arrays.asList(refs);
-            cells[i].exotic = special; // i = 264 / ddnew 0101
-            cells[i].levelMask = levelMask;
+            Cell cell = cells[i];
+            cell.dataOffset = dataOffset;
+            cell.dataBitLength = bitSz;
+            cell.refs = Arrays.asList(refs);
+            cell.exotic = special;
+            cell.levelMask = levelMask;
 
-            cells[i].type = cells[i].getCellType();
+            cell.type = cell.getCellType();
         }
 
-        Cell[] roots = new Cell[rootsIndex.length];
-
-        for (int i = cells.length - 1; i >= 0; i--) {
-            cells[i].calculateHashes();
+        if (nonNull(interner)) {
+            // refs always point forward, so children are interned before their parents
+            Map<Cell, Cell> canonical = new IdentityHashMap<>();
+            for (int i = cells.length - 1; i >= 0; i--) {
+                List<Cell> refs = cells[i].refs;
+                for (int y = 0; y < refs.size(); y++) {
+                    refs.set(y, canonical.get(refs.get(y)));
+                }
+                Cell c = interner.intern(cells[i]);
+                canonical.put(cells[i], c);
+                cells[i] = c;
+            }
         }
 
+        Cell[] roots = new Cell[rootsIndex.length];
+
         for (int i = 0; i < rootsIndex.length; i++) {
             roots[i] = cells[rootsIndex[i]];
         }
@@ -550,6 +748,20 @@ public class Cell {
         return Arrays.asList(roots);
     }
 
+    /**
+     * Reads big-endian unsigned integer of sz bytes at absolute offset
+     */
+    private static long readNumber(ByteBuffer data, int offset, int sz) {
+        if (offset + sz > data.limit()) {
+            throw new Error("Invalid boc, unexpected end of data");
+        }
+        long value = 0;
+        for (int i = 0; i < sz; i++) {
+            value = (value << 8) | (data.get(offset + i) & 0xFF);
+        }
+        return value;
+    }
+
     /**
      * has_idx:(## 1) has_crc32c:(## 1) has_cache_bits:(## 1) flags:(## 2) { flags = 0 } size:(## 3) {
      * size <= 4 }
@@ -580,7 +792,7 @@ public class Cell {
         } else if (this.type == CellType.PRUNED_BRANCH) {
             t = "P";
         }
-        StringBuilder s = new StringBuilder(indent + t + "{" + bits.toHex() + "}\n");
+        StringBuilder s = new StringBuilder(indent + t + "{" + getBits().toHex() + "}\n");
         if (nonNull(refs) && !refs.isEmpty()) {
             for (Cell i : refs) {
                 if (nonNull(i)) {
@@ -599,10 +811,9 @@ public class Cell {
      * Saves BoC to file
      */
     public void toFile(String filename, boolean withCrc) {
-        byte[] boc = toBoc(withCrc);
-        try {
-            Files.write(Paths.get(filename), boc);
-        } catch (Exception e) {
+        try (OutputStream os = Files.newOutputStream(Paths.get(filename))) {
+            toBoc(os, withCrc);
+        } catch (Throwable e) {
             log.error("Cannot write to file. Error: {} ", e.getMessage());
         }
     }
@@ -647,11 +858,11 @@ public class Cell {
     }
 
     public String bitStringToHex() {
-        return bits.toHex();
+        return getBits().toHex();
     }
 
     public String toBitString() {
-        return bits.toBitString();
+        return getBits().toBitString();
     }
 
     public String toBase64() {
@@ -691,7 +902,7 @@ public class Cell {
             hashIndex = 0;
         }
 
-        return Utils.slice(hashes, hashIndex * 32, 32);
+        return Utils.slice(getHashes(), hashIndex * 32, 32);
     }
 
     public byte[] getRefsDescriptor(int lvl) {
@@ -701,7 +912,7 @@ public class Cell {
     }
 
     public byte[] getBitsDescriptor() {
-        int bitsLength = bits.getLength();
+        int bitsLength = getBitLength();
         byte d3 = (byte) ((bitsLength / 8) * 2);
         if ((bitsLength % 8) != 0) {
             d3++;
@@ -710,14 +921,7 @@ public class Cell {
     }
 
     public int getMaxLevel() {
-        // TODO level calculation differ for exotic cells
-        int maxLevel = 0;
-        for (Cell i : refs) {
-            if (i.getMaxLevel() > maxLevel) {
-                maxLevel = i.getMaxLevel();
-            }
-        }
-        return maxLevel;
+        return levelMask.getLevel();
     }
 
     public byte[] toBoc() {
@@ -748,97 +952,7 @@ public class Cell {
             boolean hasCacheBits,
             boolean hasTopHash,
             boolean hasIntHashes) {
-        Pair<List<IdxItem>, Map<String, IdxItem>> sortedCellsAndIndex = flattenIndex(roots, hasTopHash);
-
-        List<IdxItem> sortedCells = sortedCellsAndIndex.getLeft();
-        Map<String, IdxItem> index = sortedCellsAndIndex.getRight();
-
-        int cellSizeBits = Utils.log2(sortedCells.size() + 1);
-        int cellSizeBytes = (int) Math.ceil((double) cellSizeBits / 8);
-
-        byte[] payload = new byte[0];
-        for (IdxItem sortedCell : sortedCells) {
-            payload =
-                    Utils.concatBytes(
-                            payload,
-                            sortedCell.getCell().serialize(cellSizeBytes, index, sortedCell.isWithHash()));
-            sortedCell.dataIndex = payload.length;
-        }
-
-        // bytes needed to store len of payload
-        int sizeBits = Utils.log2Ceil(payload.length + 1);
-        byte sizeBytes = (byte) ((sizeBits + 7) / 8);
-
-        // has_idx 1bit, hash_crc32 1bit,  has_cache_bits 1bit, flags 2bit, size_bytes 3 bit
-        byte flagsByte = 0;
-        if (hasIdx) {
-            flagsByte |= 0b1_0_0_00_000;
-        }
-        if (hasCrc32c) {
-            flagsByte |= 0b0_1_0_00_000;
-        }
-        if (hasCacheBits) {
-            flagsByte |= 0b0_0_1_00_000;
-        }
-
-        flagsByte |= cellSizeBytes;
-
-        byte[] data = new byte[0];
-
-        byte[] bocMagic = new byte[]{(byte) 0xB5, (byte) 0xEE, (byte) 0x9C, 0x72};
-
-        data = Utils.concatBytes(data, bocMagic);
-
-        data = Utils.concatBytes(data, Utils.byteToBytes(flagsByte));
-
-        // bytes needed to store size
-        data = Utils.concatBytes(data, Utils.byteToBytes(sizeBytes));
-
-        // cells num
-        data =
-                Utils.concatBytes(
-                        data, Utils.dynamicIntBytes(BigInteger.valueOf(sortedCells.size()), cellSizeBytes));
-
-        // roots num
-        data = Utils.concatBytes(data, Utils.dynamicIntBytes(BigInteger.ONE, cellSizeBytes));
-
-        // complete BOCs = 0
-        data = Utils.concatBytes(data, Utils.dynamicIntBytes(BigInteger.ZERO, cellSizeBytes));
-
-        // len of data
-        data =
-                Utils.concatBytes(
-                        data, Utils.dynamicIntBytes(BigInteger.valueOf(payload.length), sizeBytes));
-
-        // for roots TODO
-        for (Cell c : roots) {
-            data =
-                    Utils.concatBytes(
-                            data,
-                            Utils.dynamicIntBytes(index.get(Utils.bytesToHex(c.getHash())).index, cellSizeBytes));
-        }
-
-        if (hasIdx) {
-            for (IdxItem sc : sortedCells) {
-                long idx = sc.dataIndex;
-                if (hasCacheBits) {
-                    idx *= 2;
-                    if (sc.repeats > 0) {
-                        // cache cells which has refs
-                        idx++;
-                    }
-                }
-                data = Utils.concatBytes(data, Utils.dynamicIntBytes(BigInteger.valueOf(idx), sizeBytes));
-            }
-        }
-
-        data = Utils.appendByteArray(data, payload);
-
-        if (hasCrc32c) {
-            data = Utils.appendByteArray(data, Utils.getCRC32ChecksumAsBytesReversed(data));
-        }
-
-        return data;
+        return new BocWriter(roots, hasCrc32c, hasIdx, hasCacheBits, hasTopHash).toByteArray();
     }
 
     public byte[] toBoc(
@@ -863,92 +977,33 @@ public class Cell {
     }
 
     /**
-     * reworked in order to coincide with tonutils-go
+     * Writes BoC to the output stream in chunks, without building the whole BoC in memory.
+     * The stream is flushed but not closed.
      */
-    private Pair<List<IdxItem>, Map<String, IdxItem>> flattenIndex(
-            List<Cell> roots, boolean hasTopHash) {
-        Map<String, IdxItem> index = new HashMap<>();
-
-        BigInteger idx = BigInteger.ZERO;
-
-        while (roots.size() > 0) {
-            List<Cell> next = new ArrayList<>(roots.size() * 4);
-            for (Cell p : roots) {
-                String hash = Utils.bytesToHex(p.getHash());
-
-                IdxItem v = index.get(hash);
-                if (nonNull(v)) {
-                    v.repeats++;
-                    continue;
-                }
-
-                index.put(hash, IdxItem.builder().cell(p).index(idx).withHash(hasTopHash).build());
-                idx = idx.add(BigInteger.ONE);
-
-                next.addAll(p.getRefs());
-            }
-            roots = next;
-        }
-
-        List<IdxItem> idxSlice = new ArrayList<>(index.size());
-        for (Map.Entry<String, IdxItem> entry : index.entrySet()) {
-            String key = entry.getKey();
-            IdxItem value = entry.getValue();
-            idxSlice.add(value);
-        }
-
-        idxSlice.sort(Comparator.comparing(lhs -> lhs.index)); // todo review
-
-        boolean verifyOrder = true;
-        while (verifyOrder) {
-            verifyOrder = false;
-            for (IdxItem id : idxSlice) {
-                for (Cell ref : id.getCell().getRefs()) {
-                    IdxItem idRef = index.get(Utils.bytesToHex(ref.getHash()));
-                    if (idRef.index.compareTo(id.index) < 0) {
-                        idRef.index = idx;
-                        idx = idx.add(BigInteger.ONE); // idx++
-                        verifyOrder = true;
-                    }
-                }
-            }
-        }
-        idxSlice.sort(Comparator.comparing(lhs -> lhs.index));
-
-        for (int i = 0; i < idxSlice.size(); i++) {
-            idxSlice.get(i).index = BigInteger.valueOf(i);
+    public void toBoc(
+            OutputStream os,
+            boolean hasCrc32c,
+            boolean hasIdx,
+            boolean hasCacheBits,
+            boolean hasTopHash,
+            boolean hasIntHashes) {
+        try {
+            new BocWriter(Collections.singletonList(this), hasCrc32c, hasIdx, hasCacheBits, hasTopHash).writeTo(os);
+        } catch (IOException e) {
+            throw new Error("Cannot write BoC. Error " + e.getMessage());
         }
-
-        return Pair.of(idxSlice, index);
     }
 
-    private byte[] serialize(int refIndexSzBytes, Map<String, IdxItem> index, boolean hasHash) {
-        byte[] body =
-                Utils.unsignedBytesToSigned(CellSlice.beginParse(this).loadSlice(this.bits.getLength()));
-
-        int unusedBits = 8 - (bits.getLength() % 8);
-
-        if (unusedBits != 8) {
-            body[body.length - 1] += 1 << (unusedBits - 1);
-        }
-
-        int refsLn = this.getRefs().size() * refIndexSzBytes;
-        int bufLn = 2 + body.length + refsLn;
-
-        byte[] data;
-
-        byte[] descriptors = getDescriptors(levelMask.getMask());
-
-        data = Utils.concatBytes(descriptors, body);
+    public void toBoc(OutputStream os, boolean withCrc) {
+        toBoc(os, withCrc, false, false, false, false);
+    }
 
-        long refsOffset = bufLn - refsLn;
-        for (int i = 0; i < refs.size(); i++) {
-            String refIndex = Utils.bytesToHex(refs.get(i).getHash());
-            byte[] src = Utils.dynamicIntBytes(index.get(refIndex).index, refIndexSzBytes);
-            data = Utils.concatBytes(data, src);
-        }
+    public void toBoc(OutputStream os) {
+        toBoc(os, true, false, false, false, false);
+    }
 
-        return data;
+    public void toBoc(WritableByteChannel channel, boolean withCrc) {
+        toBoc(Channels.newOutputStream(channel), withCrc, false, false, false, false);
     }
 
     private byte[] getDescriptors(int lvl) {
@@ -964,27 +1019,30 @@ public class Cell {
                 return Utils.bytesToIntX(Utils.slice(getDataBytes(), off, 2));
             }
         }
-        return depthLevels[hashIndex];
+        return getDepthLevels()[hashIndex];
     }
 
-    private byte[] getDataBytes() {
-        if ((bits.getLength() % 8) > 0) {
-            byte[] a = bits.toBitString().getBytes(StandardCharsets.UTF_8);
-            int sz = a.length;
-            byte[] b = new byte[sz + 1];
-
-            System.arraycopy(a, 0, b, 0, sz);
-            b[sz] = (byte) '1';
-
-            int mod = b.length % 8;
-            if (mod > 0) {
-                b = Utils.rightPadBytes(b, b.length + (8 - mod), '0');
+    byte[] getDataBytes() {
+        BitString b = bits;
+        if (isNull(b)) {
+            // data stored in BoC already ends with completion tag
+            byte[] data = new byte[(dataBitLength + 7) / 8];
+            if (source.hasArray()) {
+                System.arraycopy(source.array(), source.arrayOffset() + dataOffset, data, 0, data.length);
+            } else {
+                for (int i = 0; i < data.length; i++) {
+                    data[i] = source.get(dataOffset + i);
+                }
             }
-
-            return Utils.bitStringToByteArray(new String(b));
-        } else {
-            return bits.toByteArray();
+            return data;
         }
+        byte[] data = b.toByteArray();
+        int rest = b.getLength() % 8;
+        if (rest > 0) {
+            // completion tag: append bit 1 right after the data, the rest is already zero
+            data[data.length - 1] |= (byte) (1 << (7 - rest));
+        }
+        return data;
     }
 
     public static CellType getCellType(Cell c) {
@@ -996,36 +1054,37 @@ public class Cell {
             return ORDINARY;
         }
 
-        if (bits.getLength() < 8) {
+        int bitLength = getBitLength();
+        if (bitLength < 8) {
             return UNKNOWN;
         }
 
-        BitString clonedBits = bits.clone();
-        CellType cellType = toCellType(clonedBits.readUint(8).intValue());
+        byte[] data = getDataBytes();
+        CellType cellType = toCellType(data[0] & 0xFF);
         switch (cellType) {
             case PRUNED_BRANCH: {
-                if (bits.getLength() >= 288) {
-                    LevelMask msk = new LevelMask(clonedBits.readUint(8).intValue());
+                if (bitLength >= 288) {
+                    LevelMask msk = new LevelMask(data[1] & 0xFF);
                     int lvl = msk.getLevel();
                     if ((lvl > 0)
                             && (lvl <= 3)
-                            && (bits.getLength() >= 16 + (256 + 16) * msk.apply(lvl - 1).getHashIndex() + 1)) {
+                            && (bitLength >= 16 + (256 + 16) * msk.apply(lvl - 1).getHashIndex() + 1)) {
                         return CellType.PRUNED_BRANCH;
                     }
                 }
             }
             case MERKLE_PROOF: {
-                if ((refs.size() == 1) && (bits.getLength() == 280)) {
+                if ((refs.size() == 1) && (bitLength == 280)) {
                     return CellType.MERKLE_PROOF;
                 }
             }
             case MERKLE_UPDATE: {
-                if ((refs.size() == 2) && (bits.getLength() == 552)) {
+                if ((refs.size() == 2) && (bitLength == 552)) {
                     return CellType.MERKLE_UPDATE;
                 }
             }
             case LIBRARY: {
-                if (bits.getLength() == (8 + 256)) {
+                if (bitLength == (8 + 256)) {
                     return CellType.LIBRARY;
                 }
             }
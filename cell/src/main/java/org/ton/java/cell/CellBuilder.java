@@ -13,6 +13,7 @@ import org.ton.java.utils.Utils;
 public class CellBuilder {
 
     Cell cell;
+    private CellInterner interner;
 
     private CellBuilder() {
         cell = new Cell();
@@ -38,15 +39,24 @@ public class CellBuilder {
      */
     public Cell endCell() {
         cell.levelMask = cell.resolveMask();
-        if (cell.getHashes().length == 0) {
-            cell.calculateHashes();
+        if (nonNull(interner)) {
+            return interner.intern(cell);
         }
         return cell;
     }
 
+    /**
+     * Makes endCell() return canonical instance from the pool and stores refs as canonical instances
+     * instead of copies, so equal subtrees are shared.
+     */
+    public CellBuilder interner(CellInterner interner) {
+        this.interner = interner;
+        return this;
+    }
+
     public CellBuilder storeBit(Boolean bit) {
         checkBitsOverflow(1);
-        cell.bits.writeBit(bit);
+        cell.getBits().writeBit(bit);
         return this;
     }
 
@@ -63,45 +73,52 @@ public class CellBuilder {
     public CellBuilder storeBits(List<Boolean> arrayBits) {
         checkBitsOverflow(arrayBits.size());
         for (Boolean bit : arrayBits) {
-            cell.bits.writeBit(bit);
+            cell.getBits().writeBit(bit);
         }
         return this;
     }
 
     public CellBuilder storeBits(String bits) {
         checkBitsOverflow(bits.length());
-        cell.bits.writeBits(bits);
+        cell.getBits().writeBits(bits);
         return this;
     }
 
     public CellBuilder storeBits(Boolean[] arrayBits) {
         checkBitsOverflow(arrayBits.length);
-        cell.bits.writeBitArray(arrayBits);
+        cell.getBits().writeBitArray(arrayBits);
         return this;
     }
 
     public CellBuilder storeUint(long number, int bitLength) {
-        return storeUint(BigInteger.valueOf(number), bitLength);
+        checkBitsOverflow(bitLength);
+        checkSign(number);
+        cell.getBits().writeUint(number, bitLength);
+        return this;
     }
 
     public CellBuilder storeUintMaybe(long number, int bitLength) {
-        return storeUintMaybe(BigInteger.valueOf(number), bitLength);
+        checkBitsOverflow(1 + bitLength);
+        checkSign(number);
+        cell.getBits().writeBit(true);
+        cell.getBits().writeUint(number, bitLength);
+        return this;
     }
 
     public CellBuilder storeUint(int number, int bitLength) {
-        return storeUint(BigInteger.valueOf(number), bitLength);
+        return storeUint((long) number, bitLength);
     }
 
     public CellBuilder storeUintMaybe(int number, int bitLength) {
-        return storeUintMaybe(BigInteger.valueOf(number), bitLength);
+        return storeUintMaybe((long) number, bitLength);
     }
 
     public CellBuilder storeUint(short number, int bitLength) {
-        return storeUint(BigInteger.valueOf(number), bitLength);
+        return storeUint((long) number, bitLength);
     }
 
     public CellBuilder storeUintMaybe(short number, int bitLength) {
-        return storeUintMaybe(BigInteger.valueOf(number), bitLength);
+        return storeUintMaybe((long) number, bitLength);
     }
 
     public CellBuilder storeUint(Byte number, int bitLength) {
@@ -123,81 +140,93 @@ public class CellBuilder {
     public CellBuilder storeUint(BigInteger number, int bitLength) {
         checkBitsOverflow(bitLength);
         checkSign(number);
-        cell.bits.writeUint(isNull(number) ? BigInteger.ZERO : number, bitLength);
+        cell.getBits().writeUint(isNull(number) ? BigInteger.ZERO : number, bitLength);
         return this;
     }
 
     public CellBuilder storeUintMaybe(BigInteger number, int bitLength) {
         if (isNull(number)) {
-            cell.bits.writeBit(false);
+            checkBitsOverflow(1);
+            cell.getBits().writeBit(false);
         } else {
-            cell.bits.writeBit(true);
-            checkBitsOverflow(bitLength);
+            checkBitsOverflow(1 + bitLength);
             checkSign(number);
-            cell.bits.writeUint(number, bitLength);
+            cell.getBits().writeBit(true);
+            cell.getBits().writeUint(number, bitLength);
         }
         return this;
     }
 
     public CellBuilder storeVarUint(BigInteger number, int bitLength) {
         checkSign(number);
-        cell.bits.writeVarUint(number, bitLength);
+        cell.getBits().writeVarUint(number, bitLength);
         return this;
     }
 
     public CellBuilder storeVarUint(Byte number, int bitLength) {
         checkSign(BigInteger.valueOf(number));
-        cell.bits.writeVarUint(BigInteger.valueOf(number), bitLength);
+        cell.getBits().writeVarUint(BigInteger.valueOf(number), bitLength);
         return this;
     }
 
     public CellBuilder storeVarUintMaybe(BigInteger number, int bitLength) {
         if (isNull(number)) {
-            cell.bits.writeBit(false);
+            cell.getBits().writeBit(false);
         } else {
-            cell.bits.writeBit(true);
+            cell.getBits().writeBit(true);
             checkSign(number);
-            cell.bits.writeVarUint(number, bitLength);
+            cell.getBits().writeVarUint(number, bitLength);
         }
         return this;
     }
 
     public CellBuilder storeInt(long number, int bitLength) {
-        return storeInt(BigInteger.valueOf(number), bitLength);
+        if (bitLength < 1) {
+            throw new Error("Can't store an Int, because its value allocates more space than provided.");
+        }
+        if (bitLength < 64) {
+            long rest = number >> (bitLength - 1);
+            if (rest != 0 && rest != -1) {
+                throw new Error("Can't store an Int, because its value allocates more space than provided.");
+            }
+        }
+        cell.getBits().writeInt(number, bitLength);
+        return this;
     }
 
     public CellBuilder storeIntMaybe(long number, int bitLength) {
-        return storeIntMaybe(BigInteger.valueOf(number), bitLength);
+        cell.getBits().writeBit(true);
+        return storeInt(number, bitLength);
     }
 
     public CellBuilder storeInt(int number, int bitLength) {
-        return storeInt(BigInteger.valueOf(number), bitLength);
+        return storeInt((long) number, bitLength);
     }
 
     public CellBuilder storeIntMaybe(int number, int bitLength) {
-        return storeIntMaybe(BigInteger.valueOf(number), bitLength);
+        return storeIntMaybe((long) number, bitLength);
     }
 
     public CellBuilder storeInt(short number, int bitLength) {
-        return storeInt(BigInteger.valueOf(number), bitLength);
+        return storeInt((long) number, bitLength);
     }
 
     public CellBuilder storeIntMaybe(short number, int bitLength) {
-        return storeIntMaybe(BigInteger.valueOf(number), bitLength);
+        return storeIntMaybe((long) number, bitLength);
     }
 
     public CellBuilder storeInt(byte number, int bitLength) {
-        return storeInt(BigInteger.valueOf(number), bitLength);
+        return storeInt((long) number, bitLength);
     }
 
     public CellBuilder storeIntMaybe(byte number, int bitLength) {
-        return storeIntMaybe(BigInteger.valueOf(number), bitLength);
+        return storeIntMaybe((long) number, bitLength);
     }
 
     public CellBuilder storeInt(BigInteger number, int bitLength) {
         BigInteger sint = BigInteger.ONE.shiftLeft(bitLength - 1);
         if ((number.compareTo(sint.negate()) >= 0) && (number.compareTo(sint) < 0)) {
-            cell.bits.writeInt(number, bitLength);
+            cell.getBits().writeInt(number, bitLength);
             return this;
         } else {
             throw new Error("Can't store an Int, because its value allocates more space than provided.");
@@ -206,35 +235,35 @@ public class CellBuilder {
 
     public CellBuilder storeIntMaybe(BigInteger number, int bitLength) {
         if (isNull(number)) {
-            cell.bits.writeBit(false);
+            cell.getBits().writeBit(false);
         } else {
-            cell.bits.writeBit(true);
-            cell.bits.writeInt(number, bitLength);
+            cell.getBits().writeBit(true);
+            cell.getBits().writeInt(number, bitLength);
         }
         return this;
     }
 
     public CellBuilder storeBitString(BitString bitString) {
         checkBitsOverflow(bitString.getUsedBits());
-        cell.bits.writeBitString(bitString.clone());
+        cell.getBits().writeBitString(bitString);
         return this;
     }
 
     public CellBuilder storeBitString(BitString bitString, int bits) {
         checkBitsOverflow(bits);
         BitString temp = bitString.readBits(267);
-        cell.bits.writeBitString(temp.clone());
+        cell.getBits().writeBitString(temp.clone());
         return this;
     }
 
     public CellBuilder storeBitStringUnsafe(BitString bitString) {
-        cell.bits.writeBitString(bitString.clone());
+        cell.getBits().writeBitString(bitString);
         return this;
     }
 
     public CellBuilder storeString(String str) {
         checkBitsOverflow(str.length() * 8);
-        cell.bits.writeString(str);
+        cell.getBits().writeString(str);
         return this;
     }
 
@@ -263,26 +292,26 @@ public class CellBuilder {
 
     public CellBuilder storeAddress(Address address) {
         checkBitsOverflow(267);
-        cell.bits.writeAddress(address);
+        cell.getBits().writeAddress(address);
         return this;
     }
 
     public CellBuilder storeBytes(byte[] number) {
         checkBitsOverflow(number.length * 8);
-        cell.bits.writeBytes(number);
+        cell.getBits().writeBytes(number);
         return this;
     }
 
     public CellBuilder storeBytes(int[] number) {
         checkBitsOverflow(number.length * 8);
-        cell.bits.writeBytes(number);
+        cell.getBits().writeBytes(number);
         return this;
     }
 
     public CellBuilder storeBytes(List<Byte> bytes) {
         checkBitsOverflow(bytes.size() * 8);
         for (Byte b : bytes) {
-            cell.bits.writeUint8(b);
+            cell.getBits().writeUint8(b);
         }
         return this;
     }
@@ -290,36 +319,45 @@ public class CellBuilder {
     public CellBuilder storeList(List<BigInteger> bytes, int bitLength) {
         checkBitsOverflow(bitLength);
         for (BigInteger b : bytes) {
-            cell.bits.writeUint(b, bitLength);
+            cell.getBits().writeUint(b, bitLength);
         }
         return this;
     }
 
     public CellBuilder storeBytes(byte[] number, int bitLength) {
         checkBitsOverflow(bitLength);
-        cell.bits.writeBytes(number);
+        cell.getBits().writeBytes(number);
         return this;
     }
 
     public CellBuilder storeBytes(int[] number, int bitLength) {
         checkBitsOverflow(bitLength);
-        cell.bits.writeBytes(number);
+        cell.getBits().writeBytes(number);
         return this;
     }
 
     public CellBuilder storeRef(Cell c) {
         checkRefsOverflow(1);
-        cell.refs.add(c.clone());
+        cell.refs.add(copyRef(c));
+        return this;
+    }
+
+    /**
+     * Stores the cell itself instead of its copy, so the subtree is shared and must not be modified.
+     */
+    CellBuilder storeRefShared(Cell c) {
+        checkRefsOverflow(1);
+        cell.refs.add(c);
         return this;
     }
 
     public CellBuilder storeRefMaybe(Cell c) {
         if (isNull(c)) {
-            cell.bits.writeBit(false);
+            cell.getBits().writeBit(false);
         } else {
-            cell.bits.writeBit(true);
+            cell.getBits().writeBit(true);
             checkRefsOverflow(1);
-            cell.refs.add(c.clone());
+            cell.refs.add(copyRef(c));
         }
         return this;
     }
@@ -327,7 +365,7 @@ public class CellBuilder {
     public CellBuilder storeRefs(List<Cell> cells) {
         checkRefsOverflow(cells.size());
         for (Cell c : cells) {
-            cell.refs.add(c.clone());
+            cell.refs.add(copyRef(c));
         }
         return this;
     }
@@ -335,7 +373,7 @@ public class CellBuilder {
     public CellBuilder storeRefs(Cell... cells) {
         checkRefsOverflow(cells.length);
         for (Cell c : cells) {
-            cell.refs.add(c.clone());
+            cell.refs.add(copyRef(c));
         }
         return this;
     }
@@ -346,7 +384,7 @@ public class CellBuilder {
 
         storeBitString(cellSlice.bits);
         for (Cell c : cellSlice.refs) {
-            cell.refs.add(c.clone());
+            cell.refs.add(copyRef(c));
         }
         return this;
     }
@@ -356,21 +394,21 @@ public class CellBuilder {
         if (isNull(c)) {
             return this;
         }
-        checkBitsOverflow(c.bits.getUsedBits());
+        checkBitsOverflow(c.getBitLength());
         checkRefsOverflow(c.refs.size());
 
-        storeBitString(c.bits);
+        storeBitString(c.getBits());
         for (Cell cc : c.refs) {
-            cell.refs.add(cc.clone());
+            cell.refs.add(copyRef(cc));
         }
         return this;
     }
 
     public CellBuilder storeCellMaybe(Cell c) {
         if (isNull(c)) {
-            cell.bits.writeBit(false);
+            cell.getBits().writeBit(false);
         } else {
-            cell.bits.writeBit(true);
+            cell.getBits().writeBit(true);
             storeCell(c.clone());
         }
         return this;
@@ -405,7 +443,20 @@ public class CellBuilder {
      * @return CellBuilder
      */
     public CellBuilder storeCoins(BigInteger coins) {
-        cell.bits.writeCoins(isNull(coins) ? BigInteger.ZERO : coins);
+        cell.getBits().writeCoins(isNull(coins) ? BigInteger.ZERO : coins);
+        return this;
+    }
+
+    /**
+     * Stores nano-coins in Cell without BigInteger allocation
+     *
+     * @param coins amount in nano-coins
+     * @return CellBuilder
+     */
+    public CellBuilder storeCoins(long coins) {
+        checkSign(coins);
+        checkBitsOverflow(4 + (64 - Long.numberOfLeadingZeros(coins) + 7) / 8 * 8);
+        cell.getBits().writeCoins(coins);
         return this;
     }
 
@@ -417,20 +468,20 @@ public class CellBuilder {
      */
     public CellBuilder storeCoinsMaybe(BigInteger coins) {
         if (isNull(coins)) {
-            cell.bits.writeBit(false);
+            cell.getBits().writeBit(false);
         } else {
-            cell.bits.writeBit(true);
-            cell.bits.writeCoins(coins);
+            cell.getBits().writeBit(true);
+            cell.getBits().writeCoins(coins);
         }
         return this;
     }
 
     public int getUsedBits() {
-        return cell.bits.getUsedBits();
+        return cell.getBits().getUsedBits();
     }
 
     public int getFreeBits() {
-        return cell.bits.getFreeBits();
+        return cell.getBits().getFreeBits();
     }
 
     public int getFreeRefs() {
@@ -442,8 +493,8 @@ public class CellBuilder {
     }
 
     void checkBitsOverflow(int length) {
-        if (length > cell.bits.getFreeBits()) {
-            throw new Error("Bits overflow. Can't add " + length + " cell.bits. " + cell.bits.getFreeBits() + " bits left.");
+        if (length > cell.getBits().getFreeBits()) {
+            throw new Error("Bits overflow. Can't add " + length + " cell.bits. " + cell.getBits().getFreeBits() + " bits left.");
         }
     }
 
@@ -453,6 +504,16 @@ public class CellBuilder {
         }
     }
 
+    void checkSign(long i) {
+        if (i < 0) {
+            throw new Error("Integer " + i + " must be unsigned");
+        }
+    }
+
+    private Cell copyRef(Cell c) {
+        return isNull(interner) ? c.clone() : interner.intern(c);
+    }
+
     void checkRefsOverflow(int count) {
         if (count > (4 - cell.refs.size())) {
             throw new Error("Refs overflow. Can't add " + count + " cell.refs. " + (4 - cell.refs.size()) + " refs left.");
@@ -460,11 +521,11 @@ public class CellBuilder {
     }
 
     public int[] toUnsignedByteArray() {
-        return cell.bits.toUnsignedByteArray();
+        return cell.getBits().toUnsignedByteArray();
     }
 
     public byte[] toSignedByteArray() {
-        return cell.bits.toSignedByteArray();
+        return cell.getBits().toSignedByteArray();
     }
 
     public CellBuilder fromBocBase64(String data) {
@@ -0,0 +1,107 @@
+package org.ton.java.cell;
+
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Pool of canonical cell instances. Cells with equal representation hash are replaced with
+ * the first interned instance, so repeated subtrees are kept in memory only once.
+ * <p>
+ * Interned cells are shared between all their users and must not be modified.
+ * The pool is thread-safe.
+ */
+public class CellInterner {
+
+    /**
+     * Canonical cell by its equal, held through WeakReference in the weak pool, so the key can be collected.
+     */
+    private final Map<Cell, Object> cells;
+    private final boolean weakValues;
+    private long hits;
+    private long misses;
+
+    private CellInterner(Map<Cell, Object> cells, boolean weakValues) {
+        this.cells = cells;
+        this.weakValues = weakValues;
+    }
+
+    /**
+     * Creates pool which keeps a cell only while it is referenced from somewhere else.
+     */
+    public static CellInterner weak() {
+        return new CellInterner(new WeakHashMap<>(), true);
+    }
+
+    /**
+     * Creates pool which keeps at most maxSize most recently used cells.
+     */
+    public static CellInterner bounded(int maxSize) {
+        if (maxSize <= 0) {
+            throw new Error("Pool size must be positive, got " + maxSize);
+        }
+        return new CellInterner(new LinkedHashMap<Cell, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Cell, Object> eldest) {
+                return size() > maxSize;
+            }
+        }, false);
+    }
+
+    /**
+     * Returns canonical instance of the cell, the cell itself becomes canonical if there is no equal cell in the pool.
+     */
+    public Cell intern(Cell cell) {
+        if (isNull(cell)) {
+            return null;
+        }
+        // calculate hash outside the lock
+        cell.getHashes();
+
+        synchronized (this) {
+            Cell canonical = canonical(cells.get(cell));
+            if (nonNull(canonical)) {
+                hits++;
+                return canonical;
+            }
+            misses++;
+            cells.put(cell, weakValues ? new WeakReference<>(cell) : cell);
+            return cell;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cell canonical(Object value) {
+        if (value instanceof WeakReference) {
+            return ((WeakReference<Cell>) value).get();
+        }
+        return (Cell) value;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return cells.size();
+    }
+
+    public synchronized void clear() {
+        cells.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CellInterner{size=" + cells.size() + ", hits=" + hits + ", misses=" + misses + "}";
+    }
+}
@@ -59,7 +59,7 @@ public class CellSlice {
   }
 
   public CellSlice clone() {
-    return new CellSlice(this.bits, this.refs);
+    return new CellSlice(this.bits, this.refs, this.type);
   }
 
   public Cell sliceToCell() {
@@ -232,6 +232,50 @@ public class CellSlice {
     }
   }
 
+  /**
+   * Lazy view over Hashmap stored in the rest of this cell slice, the slice is not modified.
+   *
+   * @param n - dict key size
+   * @return TonHashMapView - dict view, edges are decoded on access
+   */
+  public TonHashMapView loadDictView(int n) {
+    return TonHashMapView.of(this, n);
+  }
+
+  /** Loads HashmapE as lazy view, consumes presence bit and root reference. */
+  public TonHashMapView loadDictEView(int n) {
+    boolean isEmpty = !this.loadBit();
+    return TonHashMapView.of(isEmpty ? null : CellSlice.beginParse(this.loadRef()), n);
+  }
+
+  /**
+   * Lazy view over HashmapAug stored in the rest of this cell slice, the slice is not modified.
+   * Values of the view start with extra followed by value.
+   */
+  public TonHashMapView loadDictAugView(int n) {
+    return TonHashMapView.of(this, n);
+  }
+
+  /** Loads HashmapAugE as lazy view, consumes presence bit and root reference. */
+  public TonHashMapView loadDictAugEView(int n) {
+    if (this.isExotic()) {
+      throw new Error("HashmapAugE is in a pruned cell, its content is unknown");
+    }
+    boolean isEmpty = !this.loadBit();
+    return TonHashMapView.of(isEmpty ? null : CellSlice.beginParse(this.loadRef()), n);
+  }
+
+  /** Lazy view over PfxHashmap stored in the rest of this cell slice, the slice is not modified. */
+  public TonHashMapView loadDictPfxView(int n) {
+    return TonHashMapView.ofPfx(this, n);
+  }
+
+  /** Loads PfxHashmapE as lazy view, consumes presence bit and root reference. */
+  public TonHashMapView loadDictPfxEView(int n) {
+    boolean isEmpty = !this.loadBit();
+    return TonHashMapView.ofPfx(isEmpty ? null : CellSlice.beginParse(this.loadRef()), n);
+  }
+
   /**
    * Preloads dict (HashMap) without modifying the actual cell slice.
    *
@@ -309,10 +353,7 @@ public class CellSlice {
 
   public CellSlice skipBits(int length) {
     checkBitsOverflow(length);
-    for (int i = 0; i < length; i++) {
-      bits.readBit();
-    }
-
+    bits.skipBits(length);
     return this;
   }
 
@@ -491,11 +532,47 @@ public class CellSlice {
   public BigInteger loadUint(int length) {
     checkBitsOverflow(length);
     if (length == 0) return BigInteger.ZERO;
-    BitString i = loadBits(length);
-    return new BigInteger(i.toBitString(), 2);
+    return bits.readUint(length);
+  }
+
+  /**
+   * Loads unsigned integer of up to 64 bits without BigInteger allocation. 64-bit values above
+   * Long.MAX_VALUE are returned as negative numbers, see {@link Long#toUnsignedString(long)}.
+   */
+  public long loadUintAsLong(int length) {
+    checkBitsOverflow(length);
+    return bits.readUintAsLong(length);
+  }
+
+  public long preloadUintAsLong(int length) {
+    checkBitsOverflow(length);
+    return bits.preReadUintAsLong(length);
+  }
+
+  /** Loads signed integer of up to 64 bits without BigInteger allocation. */
+  public long loadIntAsLong(int length) {
+    checkBitsOverflow(length);
+    return bits.readIntAsLong(length);
+  }
+
+  public int loadUint8() {
+    return (int) loadUintAsLong(8);
+  }
+
+  public int loadUint16() {
+    return (int) loadUintAsLong(16);
+  }
+
+  public long loadUint32() {
+    return loadUintAsLong(32);
   }
 
   public BigInteger preloadInt(int bitLength) {
+    if (bitLength >= 1 && bitLength <= 64) {
+      checkBitsOverflow(bitLength);
+      long v = bits.preReadUintAsLong(bitLength);
+      return BigInteger.valueOf((v << (64 - bitLength)) >> (64 - bitLength));
+    }
     BitString savedBits = bits.clone();
     try {
       BigInteger result = loadInt(bitLength);
@@ -508,13 +585,11 @@ public class CellSlice {
   }
 
   public BigInteger preloadUint(int bitLength) {
-    BitString savedBits = bits.clone();
     try {
-      BigInteger result = loadUint(bitLength);
-      bits = savedBits;
-      return result;
+      checkBitsOverflow(bitLength);
+      if (bitLength == 0) return BigInteger.ZERO;
+      return bits.preReadUint(bitLength);
     } catch (Throwable e) {
-      bits = savedBits;
       return BigInteger.ZERO;
     }
   }
@@ -564,6 +639,19 @@ public class CellSlice {
     }
   }
 
+  /**
+   * Loads coins amount that fits into long, i.e. less than 2^63 nano-coins, without BigInteger
+   * allocation
+   */
+  public long loadCoinsAsLong() {
+    int len = (int) loadUintAsLong(4);
+    long amount = len > 8 ? -1 : loadUintAsLong(len * 8);
+    if (amount < 0) {
+      throw new Error("Coins amount does not fit into long, use loadCoins() instead");
+    }
+    return amount;
+  }
+
   public BigInteger preloadCoins() {
     BitString savedBits = bits.clone();
     try {
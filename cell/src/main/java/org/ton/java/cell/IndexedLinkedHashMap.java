@@ -0,0 +1,109 @@
+package org.ton.java.cell;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * LinkedHashMap with O(1) access to entries by their position in iteration order.
+ * <p>
+ * Positional index is built on the first access and dropped on every structural modification,
+ * so a series of lookups between modifications costs a single pass over the map.
+ */
+public class IndexedLinkedHashMap<K, V> extends LinkedHashMap<K, V> {
+
+    private transient Object[] index;
+
+    public IndexedLinkedHashMap() {
+        super();
+    }
+
+    public IndexedLinkedHashMap(int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    public K getKeyAt(int position) {
+        if (position < 0 || position >= size()) {
+            throw new Error("key not found at index " + position);
+        }
+        return (K) index()[position];
+    }
+
+    public V getValueAt(int position) {
+        return get(getKeyAt(position));
+    }
+
+    private Object[] index() {
+        Object[] idx = index;
+        // size check also catches removals made through iterators of the views
+        if (idx == null || idx.length != size()) {
+            idx = keySet().toArray();
+            index = idx;
+        }
+        return idx;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (index != null && !containsKey(key)) {
+            index = null;
+        }
+        return super.put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        index = null;
+        super.putAll(m);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        index = null;
+        return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        index = null;
+        return super.remove(key);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        index = null;
+        return super.remove(key, value);
+    }
+
+    @Override
+    public void clear() {
+        index = null;
+        super.clear();
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        index = null;
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        index = null;
+        return super.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        index = null;
+        return super.compute(key, remappingFunction);
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        index = null;
+        return super.merge(key, value, remappingFunction);
+    }
+}
@@ -0,0 +1,235 @@
+package org.ton.java.cell;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Merkle proofs for arbitrary cell trees.
+ * <p>
+ * A proof is a MERKLE_PROOF cell holding the hash and depth of the original root and a copy of the tree
+ * where every cell that was not visited is replaced by a pruned branch with its hash and depth.
+ * The hash of the copy at level 0 is the hash of the original tree, so a proof can be checked against
+ * a trusted root hash (e.g. state hash of a block) without the pruned subtrees.
+ * <p>
+ * Cells are compared by their representation hash, so visited cells may come from another instance of the same
+ * tree, e.g. parsed from a different BoC. Exotic cells and cells which already contain pruned branches are kept
+ * as they are.
+ */
+public class MerkleProofs {
+
+    public static final int PRUNED_BRANCH_TYPE = 1;
+    public static final int MERKLE_PROOF_TYPE = 3;
+
+    private MerkleProofs() {
+    }
+
+    /**
+     * @param root    root of the original tree, always kept
+     * @param visited cells to keep, a visited cell is kept only if its parent is kept
+     * @return MERKLE_PROOF cell
+     */
+    public static Cell build(Cell root, Collection<Cell> visited) {
+        return merkleProof(prune(root, visited));
+    }
+
+    /**
+     * Same as build(), without the MERKLE_PROOF wrapper, e.g. to put it into a Merkle update.
+     *
+     * @return copy of the tree with not visited cells replaced by pruned branches
+     */
+    public static Cell prune(Cell root, Collection<Cell> visited) {
+        Set<Cell> keep = (visited instanceof Set) ? (Set<Cell>) visited : new HashSet<>(visited);
+        return copy(root, keep, new IdentityHashMap<Cell, Cell>());
+    }
+
+    private static Cell copy(Cell c, Set<Cell> keep, Map<Cell, Cell> done) {
+        Cell copied = done.get(c);
+        if (copied != null) {
+            return copied;
+        }
+        if (c.getRefs().isEmpty() || c.isExotic() || c.levelMask.getMask() != 0) {
+            copied = c;
+        } else {
+            List<Cell> refs = new ArrayList<>(c.getRefs().size());
+            for (Cell ref : c.getRefs()) {
+                refs.add(keep.contains(ref) ? copy(ref, keep, done) : prunedBranchOrSelf(ref));
+            }
+            copied = new Cell(c.getBits(), c.getBitLength(), refs, c.isExotic(), c.getCellType());
+        }
+        done.put(c, copied);
+        return copied;
+    }
+
+    private static Cell prunedBranchOrSelf(Cell c) {
+        return (c.levelMask.getMask() != 0) ? c : prunedBranch(c);
+    }
+
+    /**
+     * @param c cell of level 0
+     * @return pruned branch of level 1 standing for the cell
+     */
+    public static Cell prunedBranch(Cell c) {
+        if (c.levelMask.getMask() != 0) {
+            throw new Error("Only cells of level 0 can be pruned, got level mask " + c.levelMask.getMask());
+        }
+        return exotic(CellBuilder.beginCell()
+                        .storeUint(PRUNED_BRANCH_TYPE, 8)
+                        .storeUint(1, 8)
+                        .storeBytes(c.getHash(0))
+                        .storeUint(c.getDepthLevels()[0], 16),
+                Collections.<Cell>emptyList(),
+                CellType.PRUNED_BRANCH);
+    }
+
+    /**
+     * @param c proven tree, e.g. result of prune()
+     * @return MERKLE_PROOF cell with hash and depth of the tree at level 0
+     */
+    public static Cell merkleProof(Cell c) {
+        return exotic(CellBuilder.beginCell()
+                        .storeUint(MERKLE_PROOF_TYPE, 8)
+                        .storeBytes(c.getHash(0))
+                        .storeUint(c.getDepthLevels()[0], 16),
+                Collections.singletonList(c),
+                CellType.MERKLE_PROOF);
+    }
+
+    /**
+     * Refs are attached as they are, CellBuilder.storeRef() would copy them.
+     */
+    private static Cell exotic(CellBuilder bits, List<Cell> refs, CellType type) {
+        Cell c = bits.endCell();
+        Cell exotic = new Cell(c.getBits(), c.getBitLength(), refs, true, type);
+        exotic.calculateHashes();
+        return exotic;
+    }
+
+    /**
+     * Cells on the way from root to target, both included. Walks the tree until the target is found.
+     *
+     * @return path to pass to build(), null if the tree does not contain the target
+     */
+    public static Set<Cell> pathTo(Cell root, Cell target) {
+        Deque<Cell> path = new ArrayDeque<>();
+        if (!findPath(root, target, path, Collections.newSetFromMap(new IdentityHashMap<Cell, Boolean>()))) {
+            return null;
+        }
+        Set<Cell> result = new LinkedHashSet<>();
+        while (!path.isEmpty()) {
+            result.add(path.pollLast());
+        }
+        return result;
+    }
+
+    private static boolean findPath(Cell c, Cell target, Deque<Cell> path, Set<Cell> seen) {
+        if (!seen.add(c)) {
+            return false;
+        }
+        path.push(c);
+        if (c.equals(target)) {
+            return true;
+        }
+        for (Cell ref : c.getRefs()) {
+            if (findPath(ref, target, path, seen)) {
+                return true;
+            }
+        }
+        path.pop();
+        return false;
+    }
+
+    /**
+     * @return all cells of the subtree, to keep it in a proof completely
+     */
+    public static Set<Cell> subtree(Cell c) {
+        Set<Cell> result = new HashSet<>();
+        Deque<Cell> stack = new ArrayDeque<>();
+        stack.push(c);
+        while (!stack.isEmpty()) {
+            Cell next = stack.pop();
+            if (result.add(next)) {
+                for (Cell ref : next.getRefs()) {
+                    stack.push(ref);
+                }
+            }
+        }
+        return result;
+    }
+
+    public static Cell verifyBoc(byte[] proofBoc, byte[] expectedHash) {
+        return verify(Cell.fromBoc(proofBoc), expectedHash);
+    }
+
+    /**
+     * Checks that the proof stands for a tree with the expected hash. Only cells present in the proof are hashed,
+     * pruned subtrees contribute their stored hashes.
+     *
+     * @param proof        MERKLE_PROOF cell
+     * @param expectedHash trusted hash of the original tree
+     * @return proven tree, pruned branches in it stand for the cells not included into the proof
+     * @throws Error if the proof is malformed or does not match the hash
+     */
+    public static Cell verify(Cell proof, byte[] expectedHash) {
+        if (proof.getCellType() != CellType.MERKLE_PROOF || !proof.isExotic()
+                || proof.getBitLength() != 8 + 256 + 16 || proof.getRefs().size() != 1) {
+            throw new Error("Not a Merkle proof cell");
+        }
+        CellSlice cs = CellSlice.beginParse(proof);
+        if (cs.loadUint(8).intValue() != MERKLE_PROOF_TYPE) {
+            throw new Error("Wrong Merkle proof cell type");
+        }
+        byte[] storedHash = cs.loadBytes(256);
+        int storedDepth = cs.loadUint(16).intValue();
+        if (!Arrays.equals(storedHash, expectedHash)) {
+            throw new Error("Merkle proof is for another tree");
+        }
+        Cell provenRoot = proof.getRefs().get(0);
+        checkStructure(provenRoot);
+        if (!Arrays.equals(provenRoot.getHash(0), storedHash) || provenRoot.getDepthLevels()[0] != storedDepth) {
+            throw new Error("Merkle proof hash mismatch");
+        }
+        return provenRoot;
+    }
+
+    /**
+     * Level masks come from the serialized cells and take part in hashing, so they are checked against the refs.
+     */
+    private static void checkStructure(Cell root) {
+        Set<Cell> seen = Collections.newSetFromMap(new IdentityHashMap<Cell, Boolean>());
+        Deque<Cell> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Cell c = stack.pop();
+            if (!seen.add(c)) {
+                continue;
+            }
+            CellType type = c.getCellType();
+            if (type == CellType.PRUNED_BRANCH) {
+                int mask = c.levelMask.getMask();
+                if (!c.getRefs().isEmpty() || mask == 0
+                        || c.getBitLength() != 16 + Integer.bitCount(mask) * (256 + 16)
+                        || c.getBits().preReadUint(8).intValue() != PRUNED_BRANCH_TYPE) {
+                    throw new Error("Malformed pruned branch in Merkle proof");
+                }
+            } else if (type != CellType.ORDINARY && type != CellType.MERKLE_PROOF && type != CellType.MERKLE_UPDATE) {
+                throw new Error("Unexpected cell type " + type + " in Merkle proof");
+            }
+            if (c.levelMask.getMask() != c.resolveMask().getMask()) {
+                throw new Error("Wrong level mask in Merkle proof");
+            }
+            for (Cell ref : c.getRefs()) {
+                stack.push(ref);
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package org.ton.java.cell;
+
+import org.ton.java.bitstring.BitString;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Builds Patricia tree of Hashmap (or PfxHashmap) bottom-up in a single pass.
+ * <p>
+ * Keys are sorted once, then every fork of the tree is found from the common prefix of two neighbouring keys.
+ * Subtrees are kept on an explicit stack and each edge cell is created as soon as the depth of its parent fork is known,
+ * so the build takes O(n log n) key comparisons and does not recurse regardless of the number of entries.
+ * Edge layout is delegated to EdgeSerializer, so the same builder serves all dictionary flavours.
+ */
+class PatriciaTreeBuilder {
+
+    interface EdgeSerializer {
+        /**
+         * @param label remaining bits of the key
+         * @param m     maximal possible length of the label
+         * @param value leaf value
+         */
+        Cell leaf(BitString label, int m, Cell value);
+
+        /**
+         * Children are created by this builder and used only once, attach them without copying
+         * (CellBuilder.storeRefShared()), otherwise every edge is copied again by each of its ancestors.
+         *
+         * @param label common bits of the subtree keys after the parent fork
+         * @param m     maximal possible length of the label
+         * @param left  edge of the subtree with the next key bit 0
+         * @param right edge of the subtree with the next key bit 1
+         */
+        Cell fork(BitString label, int m, Cell left, Cell right);
+    }
+
+    private static class Key implements Comparable<Key> {
+        final BitString bits;
+        final long[] words;
+        final int length;
+        final Cell value;
+
+        Key(BitString key, Cell value) {
+            this.bits = key;
+            this.length = key.getUsedBits();
+            this.value = value;
+            this.words = new long[(length + 63) / 64];
+            BitString k = key.clone();
+            for (int i = 0; i < words.length; i++) {
+                int n = Math.min(64, k.getUsedBits());
+                words[i] = k.readUintAsLong(n) << (64 - n);
+            }
+        }
+
+        @Override
+        public int compareTo(Key o) {
+            int n = Math.min(words.length, o.words.length);
+            for (int i = 0; i < n; i++) {
+                int c = Long.compareUnsigned(words[i], o.words[i]);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return Integer.compare(length, o.length);
+        }
+
+        /**
+         * @return length of common prefix of both keys
+         */
+        int commonPrefix(Key o) {
+            int n = Math.min(words.length, o.words.length);
+            for (int i = 0; i < n; i++) {
+                long diff = words[i] ^ o.words[i];
+                if (diff != 0) {
+                    return Math.min(i * 64 + Long.numberOfLeadingZeros(diff), Math.min(length, o.length));
+                }
+            }
+            return Math.min(length, o.length);
+        }
+
+        BitString label(int from, int n) {
+            return bits.cloneFrom(from).readBits(n);
+        }
+    }
+
+    /**
+     * Subtree with known own depth, waiting for its parent fork.
+     */
+    private static class Pending {
+        final Key key; // any key of the subtree
+        final int depth; // number of key bits above the node: fork position or key length for a leaf
+        final int splitWithPrevious; // common prefix with the previous subtree on the stack, -1 for the first one
+        final Cell left;
+        final Cell right;
+
+        Pending(Key key, int depth, int splitWithPrevious, Cell left, Cell right) {
+            this.key = key;
+            this.depth = depth;
+            this.splitWithPrevious = splitWithPrevious;
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    private final int keySize;
+    private final boolean fixedLength;
+    private final EdgeSerializer serializer;
+
+    /**
+     * @param keySize     key size in bits, max key size for PfxHashmap
+     * @param fixedLength true if all keys must be exactly keySize bits long
+     * @param serializer  edge layout
+     */
+    PatriciaTreeBuilder(int keySize, boolean fixedLength, EdgeSerializer serializer) {
+        this.keySize = keySize;
+        this.fixedLength = fixedLength;
+        this.serializer = serializer;
+    }
+
+    /**
+     * @param nodes not empty list of entries in any order
+     * @return root edge cell
+     */
+    Cell build(List<Node> nodes) {
+        if (nodes.isEmpty()) {
+            throw new Error("Cannot build Patricia tree without entries");
+        }
+        Key[] keys = new Key[nodes.size()];
+        for (int i = 0; i < keys.length; i++) {
+            Node node = nodes.get(i);
+            Key key = new Key(node.key, node.value);
+            if (fixedLength ? key.length != keySize : key.length > keySize) {
+                throw new Error("Key of " + key.length + " bits does not fit dictionary with key size " + keySize);
+            }
+            keys[i] = key;
+        }
+        Arrays.sort(keys);
+
+        Deque<Pending> stack = new ArrayDeque<>();
+        for (int i = 0; i < keys.length; i++) {
+            int split = -1;
+            if (i > 0) {
+                split = keys[i - 1].commonPrefix(keys[i]);
+                if (split == keys[i - 1].length) {
+                    throw new Error(keys[i - 1].length == keys[i].length
+                            ? "Duplicate key " + keys[i].bits.toBitString()
+                            : "Key " + keys[i - 1].bits.toBitString() + " is a prefix of another key");
+                }
+                // subtrees split deeper than the new key are complete
+                while (stack.peek().splitWithPrevious > split) {
+                    merge(stack);
+                }
+            }
+            stack.push(new Pending(keys[i], keys[i].length, split, null, null));
+        }
+        while (stack.size() > 1) {
+            merge(stack);
+        }
+        return toEdge(stack.pop(), -1);
+    }
+
+    /**
+     * Joins two topmost subtrees under a fork.
+     */
+    private void merge(Deque<Pending> stack) {
+        Pending right = stack.pop();
+        Pending left = stack.pop();
+        int fork = right.splitWithPrevious;
+        stack.push(new Pending(left.key, fork, left.splitWithPrevious, toEdge(left, fork), toEdge(right, fork)));
+    }
+
+    /**
+     * Serializes subtree as an edge hanging from the fork at position parentFork (-1 for the root).
+     */
+    private Cell toEdge(Pending node, int parentFork) {
+        int from = parentFork + 1;
+        BitString label = node.key.label(from, node.depth - from);
+        int m = keySize - from;
+        if (node.left == null) {
+            return serializer.leaf(label, m, node.key.value);
+        }
+        return serializer.fork(label, m, node.left, node.right);
+    }
+}
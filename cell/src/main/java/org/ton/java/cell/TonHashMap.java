@@ -3,7 +3,6 @@ package org.ton.java.cell;
 import java.math.BigInteger;
 import java.util.*;
 import java.util.function.Function;
-import org.apache.commons.lang3.StringUtils;
 import org.ton.java.bitstring.BitString;
 
 /** Ordinary Hashmap (Patricia Tree), with fixed length keys. */
@@ -24,7 +23,7 @@ public class TonHashMap {
    * @param maxMembers max number of hashmap entries
    */
   public TonHashMap(int keySize, int maxMembers) {
-    elements = new LinkedHashMap<>();
+    elements = new IndexedLinkedHashMap<>();
     this.keySize = keySize;
     this.maxMembers = maxMembers;
   }
@@ -39,26 +38,37 @@ public class TonHashMap {
    * @param keySize key size in bits
    */
   public TonHashMap(int keySize) {
-    elements = new LinkedHashMap<>();
+    elements = new IndexedLinkedHashMap<>();
     this.keySize = keySize;
     this.maxMembers = 10000;
   }
 
+  /**
+   * Collects all leaves under the edge in ascending key order. The tree is walked with an explicit
+   * stack, so the depth of the dictionary is not limited by the call stack.
+   */
   public List<Node> deserializeEdge(CellSlice edge, int keySize, final BitString key) {
     List<Node> nodes = new ArrayList<>();
-    BitString l = deserializeLabel(edge, keySize - key.toBitString().length());
-    key.writeBitString(l);
-    if (key.toBitString().length() == keySize) {
-      Cell value = CellBuilder.beginCell().storeSlice(edge).endCell();
-      nodes.add(new Node(key, value));
-      return nodes;
-    }
-
-    for (int j = 0; j < edge.refs.size(); j++) {
-      CellSlice forkEdge = CellSlice.beginParse(edge.refs.get(j));
-      BitString forkKey = key.clone();
-      forkKey.writeBit(j != 0);
-      nodes.addAll(deserializeEdge(forkEdge, keySize, forkKey));
+    Deque<CellSlice> edges = new ArrayDeque<>();
+    Deque<BitString> keys = new ArrayDeque<>();
+    edges.push(edge);
+    keys.push(key);
+    while (!edges.isEmpty()) {
+      CellSlice e = edges.pop();
+      BitString k = keys.pop();
+      k.writeBitString(deserializeLabel(e, keySize - k.getUsedBits()));
+      if (k.getUsedBits() == keySize) {
+        Cell value = CellBuilder.beginCell().storeSlice(e).endCell();
+        nodes.add(new Node(k, value));
+        continue;
+      }
+      // right fork goes first, so that the left one is visited first
+      for (int j = e.refs.size() - 1; j >= 0; j--) {
+        BitString forkKey = j == 0 ? k : k.clone();
+        forkKey.writeBit(j != 0);
+        edges.push(CellSlice.beginParse(e.refs.get(j)));
+        keys.push(forkKey);
+      }
     }
     return nodes;
   }
@@ -72,102 +82,36 @@ public class TonHashMap {
     }
   }
 
-  /**
-   * Read the keys in array and return binary tree in the form of Patrcia Tree Node
-   *
-   * @param nodes list which contains nodes
-   * @return tree node
-   */
-  PatriciaTreeNode splitTree(List<Node> nodes) {
-    if (nodes.size() == 1) {
-      return new PatriciaTreeNode("", 0, nodes.get(0), null, null);
-    }
-
-    List<Node> left = new ArrayList<>();
-    List<Node> right = new ArrayList<>();
-
-    for (Node node : nodes) {
-      boolean lr = node.key.readBit();
-
-      if (lr) {
-        right.add(node);
-      } else {
-        left.add(node);
-      }
-    }
-
-    PatriciaTreeNode leftNode =
-        left.size() > 1
-            ? splitTree(left)
-            : left.isEmpty() ? null : new PatriciaTreeNode("", 0, left.get(0), null, null);
-    PatriciaTreeNode rightNode =
-        right.size() > 1
-            ? splitTree(right)
-            : right.isEmpty() ? null : new PatriciaTreeNode("", 0, right.get(0), null, null);
-
-    return new PatriciaTreeNode("", keySize, null, leftNode, rightNode);
-  }
-
-  /**
-   * Flatten binary tree (by cutting empty branches) if possible
-   *
-   * @param node tree node
-   * @param m maximal possible length of prefix
-   * @return flattened tree node
-   */
-  PatriciaTreeNode flatten(PatriciaTreeNode node, int m) {
-    if (node == null) {
-      return null;
-    }
-
-    if (node.maxPrefixLength == 0) {
-      node.maxPrefixLength = m;
-    }
-
-    if (node.leafNode != null) {
-      return node;
-    }
-
-    PatriciaTreeNode left = node.left;
-    PatriciaTreeNode right = node.right;
-
-    if (left == null) {
-      return flatten(new PatriciaTreeNode(node.prefix + "1", m, null, right.left, right.right), m);
-    } else if (right == null) {
-      return flatten(new PatriciaTreeNode(node.prefix + "0", m, null, left.left, left.right), m);
-    } else {
-      node.maxPrefixLength = m;
-      node.left = flatten(left, m - node.prefix.length() - 1);
-      node.right = flatten(right, m - node.prefix.length() - 1);
-      return node;
-    }
-  }
-
-  private boolean isSame(String label) {
-    if (label.isEmpty() || label.length() == 1) {
+  private static boolean isSame(BitString label) {
+    BitString l = label.clone();
+    int n = l.getUsedBits();
+    if (n <= 1) {
       return true;
     }
-    for (int i = 1; i < label.length(); i++) {
-      if (label.charAt(i) != label.charAt(0)) {
+    long expected = l.preReadBit() ? -1L : 0;
+    while (n > 0) {
+      int chunk = Math.min(n, 64);
+      if (l.readUintAsLong(chunk) != expected >>> (64 - chunk)) {
         return false;
       }
+      n -= chunk;
     }
     return true;
   }
 
-  private int detectLabelType(String label, int keyLength) {
+  private int detectLabelType(BitString label, int keyLength) {
     int type = 0;
+    int n = label.getUsedBits();
     // hml_short$0 {m:#} {n:#} len:(Unary ~n) {n <= m} s:(n * Bit) = HmLabel ~n m;
     // first bit for 0, then n + 1 for Unary ~n and next n is n * Bit
     // 0
-    int bestLength = 1 + label.length() + 1 + label.length();
+    int bestLength = 1 + n + 1 + n;
 
     // hml_long$10 {m:#} n:(#<= m) s:(n * Bit) = HmLabel ~n m;
     // first 1 + 1 for 10, then log2 bits for n and next n is n * Bit
     // 1
-    int labelLongLength = 1 + 1 + (int) Math.ceil(log2(keyLength + 1)) + label.length();
+    int labelLongLength = 1 + 1 + (int) Math.ceil(log2(keyLength + 1)) + n;
 
-    boolean isSame = isSame(label);
     // hml_same$11 {m:#} v:Bit n:(#<= m) = HmLabel ~n m;
     // 2
     int labelSameLength = 1 + 1 + 1 + (int) Math.ceil(log2(keyLength + 1));
@@ -176,10 +120,8 @@ public class TonHashMap {
       type = 1;
       bestLength = labelLongLength;
     }
-    if (isSame) {
-      if (labelSameLength < bestLength) {
-        type = 2;
-      }
+    if (labelSameLength < bestLength && isSame(label)) {
+      type = 2;
     }
     return type;
   }
@@ -189,70 +131,67 @@ public class TonHashMap {
    * ~n m; hml_long$10 {m:#} n:(#<= m) s:(n * Bit) = HmLabel ~n m; hml_same$11 {m:#} v:Bit n:(#<= m)
    * = HmLabel ~n m;
    *
-   * @param label String label string of zeroes and ones "010101"
+   * @param label BitString label bits
    * @param m int maximal possible length of the label
    * @param builder Cell to which label will be serialized
    */
-  void serialize_label(String label, int m, CellBuilder builder) {
+  void serialize_label(BitString label, int m, CellBuilder builder) {
     int t = detectLabelType(label, m);
     int sizeOfM = BigInteger.valueOf(m).bitLength();
+    int n = label.getUsedBits();
     if (t == 0) {
-      int n = label.length();
       builder.storeBit(false); // hml_short
       for (int i = 0; i < n; i++) {
         builder.storeBit(true); // Unary n
       }
       builder.storeBit(false); // Unary 0
-      for (Character c : label.toCharArray()) {
-        builder.storeBit(c == '1');
-      }
+      builder.storeBitString(label);
     } else if (t == 1) {
       builder.storeBit(true);
       builder.storeBit(false); // hml_long
-      builder.storeUint(label.length(), sizeOfM);
-      for (Character c : label.toCharArray()) {
-        builder.storeBit(c == '1');
-      }
+      builder.storeUint(n, sizeOfM);
+      builder.storeBitString(label);
     } else if (t == 2) {
       builder.storeBit(true);
       builder.storeBit(true); // hml_same
-      builder.storeBit(label.charAt(0) == '1');
-      builder.storeUint(label.length(), sizeOfM);
+      builder.storeBit(label.preReadBit());
+      builder.storeUint(n, sizeOfM);
     } else {
       throw new IllegalStateException("Unknown label type: " + t);
     }
   }
 
   /**
-   * Serialize HashMap edge hm_edge#_ {n:#} {X:Type} {l:#} {m:#} label:(HmLabel ~l n) {n = (~m) + l}
-   * node:(HashmapNode m X) = Hashmap n X;
+   * Serialize HashMap edges hm_edge#_ {n:#} {X:Type} {l:#} {m:#} label:(HmLabel ~l n) {n = (~m) +
+   * l} node:(HashmapNode m X) = Hashmap n X;
    *
-   * @param node tree node which contains [label as "0" and "1" string, maximal possible size of
-   *     label, leaf or left fork, right fork]
-   * @param builder Cell to which edge will be serialized
+   * @param nodes not empty list of keys and values in any order
+   * @return root edge
    */
-  void serialize_edge(PatriciaTreeNode node, CellBuilder builder) {
-    if (node == null) {
-      return;
-    }
-    if (node.leafNode != null) { // contains leaf
-      BitString bs = node.leafNode.key.readBits(node.leafNode.key.getUsedBits());
-      node.prefix = bs.toBitString();
-      serialize_label(node.prefix, node.maxPrefixLength, builder);
-      builder.storeCell(node.leafNode.value);
-    } else { // contains fork
-      serialize_label(node.prefix, node.maxPrefixLength, builder);
-      CellBuilder leftCell = CellBuilder.beginCell();
-      serialize_edge(node.left, leftCell);
-      CellBuilder rightCell = CellBuilder.beginCell();
-      serialize_edge(node.right, rightCell);
-      builder.storeRef(leftCell.endCell());
-      builder.storeRef(rightCell.endCell());
-    }
+  Cell serializeTree(List<Node> nodes) {
+    return new PatriciaTreeBuilder(
+            keySize,
+            true,
+            new PatriciaTreeBuilder.EdgeSerializer() {
+              @Override
+              public Cell leaf(BitString label, int m, Cell value) {
+                CellBuilder builder = CellBuilder.beginCell();
+                serialize_label(label, m, builder);
+                return builder.storeCell(value).endCell();
+              }
+
+              @Override
+              public Cell fork(BitString label, int m, Cell left, Cell right) {
+                CellBuilder builder = CellBuilder.beginCell();
+                serialize_label(label, m, builder);
+                return builder.storeRefShared(left).storeRefShared(right).endCell();
+              }
+            })
+        .build(nodes);
   }
 
   public Cell serialize(Function<Object, BitString> keyParser, Function<Object, Cell> valueParser) {
-    List<Node> nodes = new ArrayList<>();
+    List<Node> nodes = new ArrayList<>(elements.size());
     for (Map.Entry<Object, Object> entry : elements.entrySet()) {
       BitString key = keyParser.apply(entry.getKey());
       Cell value = valueParser.apply(entry.getValue());
@@ -263,11 +202,7 @@ public class TonHashMap {
       throw new Error("TonHashMap does not support empty dict. Consider using TonHashMapE");
     }
 
-    PatriciaTreeNode root = flatten(splitTree(nodes), keySize);
-    CellBuilder b = CellBuilder.beginCell();
-    serialize_edge(root, b);
-
-    return b.endCell();
+    return serializeTree(nodes);
   }
 
   /**
@@ -290,8 +225,10 @@ public class TonHashMap {
   }
 
   private BitString deserializeLabelShort(CellSlice edge) {
-    int length = edge.bits.getBitString().indexOf("0");
-    edge.skipBits(length + 1);
+    int length = 0;
+    while (edge.loadBit()) {
+      length++;
+    }
     return edge.loadBits(length);
   }
 
@@ -329,7 +266,11 @@ public class TonHashMap {
     return sb.toString();
   }
 
+  /** O(1) for dicts created by this class, elements are kept in insertion (or key) order. */
   public Object getKeyByIndex(long index) {
+    if (index >= 0 && index < elements.size() && elements instanceof IndexedLinkedHashMap) {
+      return ((IndexedLinkedHashMap<Object, Object>) elements).getKeyAt((int) index);
+    }
     long i = 0;
     for (Map.Entry<Object, Object> entry : elements.entrySet()) {
       if (i++ == index) {
@@ -339,7 +280,11 @@ public class TonHashMap {
     throw new Error("key not found at index " + index);
   }
 
+  /** O(1) for dicts created by this class, elements are kept in insertion (or key) order. */
   public Object getValueByIndex(long index) {
+    if (index >= 0 && index < elements.size() && elements instanceof IndexedLinkedHashMap) {
+      return ((IndexedLinkedHashMap<Object, Object>) elements).getValueAt((int) index);
+    }
     long i = 0;
     for (Map.Entry<Object, Object> entry : elements.entrySet()) {
       if (i++ == index) {
@@ -349,125 +294,23 @@ public class TonHashMap {
     throw new Error("value not found at index " + index);
   }
 
+  /**
+   * Serializes the dictionary and builds Merkle proof for a single key. To prove many keys of the
+   * same dictionary use {@link TonHashMapProofs}, which serializes it only once.
+   */
   public Cell buildMerkleProof(
       Object key,
       Function<Object, BitString> keySerializer,
       Function<Object, Cell> valueSerializer) {
-    Cell dictCell =
-        CellBuilder.beginCell()
-            .storeDictInLine(this.serialize(keySerializer, valueSerializer))
-            .endCell();
-
-    Cell cell =
-        generateMerkleProof(
-            "",
-            CellSlice.beginParse(dictCell),
-            keySize,
-            padString(keySerializer.apply(key).toBitString(), keySize, '0'));
-
-    return convertToMerkleProof(cell);
-  }
-
-  private int readUnaryLength(CellSlice slice) {
-    int res = 0;
-    while (slice.loadBit()) {
-      res++;
-    }
-    return res;
-  }
-
-  private Cell generateMerkleProof(String prefix, CellSlice slice, int n, String key) {
-    Cell originalCell = CellBuilder.beginCell().storeSlice(slice).endCell();
-
-    int lb0 = slice.loadBit() ? 1 : 0;
-    int prefixLength;
-    StringBuilder pp = new StringBuilder(prefix);
-
-    if (lb0 == 0) {
-      // Short label detected
-      prefixLength = readUnaryLength(slice);
-      for (int i = 0; i < prefixLength; i++) {
-        pp.append(slice.loadBit() ? '1' : '0');
+    BitString k = keySerializer.apply(key);
+    if (k.getUsedBits() < keySize) {
+      BitString padded = new BitString(keySize);
+      for (int i = k.getUsedBits(); i < keySize; i++) {
+        padded.writeBit(false);
       }
-    } else {
-      int lb1 = slice.loadBit() ? 1 : 0;
-      if (lb1 == 0) {
-        // Long label detected
-        prefixLength = slice.loadUint((int) Math.ceil(Math.log(n + 1) / Math.log(2))).intValue();
-        for (int i = 0; i < prefixLength; i++) {
-          pp.append(slice.loadBit() ? '1' : '0');
-        }
-      } else {
-        // Same label detected
-        char bit = slice.loadBit() ? '1' : '0';
-        prefixLength = slice.loadUint((int) (Math.ceil(Math.log(n + 1) / Math.log(2)))).intValue();
-        for (int i = 0; i < prefixLength; i++) {
-          pp.append(bit);
-        }
-      }
-    }
-
-    if (n - prefixLength == 0) {
-      return originalCell;
-    } else {
-      CellSlice sl = CellSlice.beginParse(originalCell);
-      Cell left = sl.loadRef();
-      Cell right = sl.loadRef();
-      // NOTE: Left and right branches implicitly contain prefixes '0' and '1'
-
-      if (left.getCellType() == CellType.ORDINARY) {
-        left =
-            (pp.toString() + '0').equals(key.substring(0, pp.length() + 1))
-                ? generateMerkleProof(
-                    pp.toString() + '0', CellSlice.beginParse(left), n - prefixLength - 1, key)
-                : convertToPrunedBranch(left);
-      }
-
-      if (right.getCellType() == CellType.ORDINARY) {
-        right =
-            (pp.toString() + '1').equals(key.substring(0, pp.length() + 1))
-                ? generateMerkleProof(
-                    pp.toString() + '1', CellSlice.beginParse(right), n - prefixLength - 1, key)
-                : convertToPrunedBranch(right);
-      }
-
-      return CellBuilder.beginCell().storeSlice(sl).storeRef(left).storeRef(right).endCell();
+      padded.writeBitString(k);
+      k = padded;
     }
-  }
-
-  private Cell endExoticCell(CellBuilder builder, CellType type) {
-    Cell c = builder.endCell();
-    Cell exotic = new Cell(c.getBits(), c.getBitLength(), c.getRefs(), true, type);
-    exotic.calculateHashes();
-    return exotic;
-  }
-
-  private Cell convertToMerkleProof(Cell c) {
-    return endExoticCell(
-        CellBuilder.beginCell()
-            .storeUint(3, 8)
-            .storeBytes(c.getHash(0))
-            .storeUint(c.getDepthLevels()[0], 16)
-            .storeRef(c),
-        CellType.MERKLE_PROOF);
-  }
-
-  private Cell convertToPrunedBranch(Cell c) {
-    return endExoticCell(
-        CellBuilder.beginCell()
-            .storeUint(1, 8)
-            .storeUint(1, 8)
-            .storeBytes(c.getHash(0))
-            .storeUint(c.getDepthLevels()[0], 16),
-        CellType.PRUNED_BRANCH);
-  }
-
-  private String padString(String original, int requiredSize, char padChar) {
-    if (original.length() >= requiredSize) {
-      return original; // No padding needed
-    }
-
-    return StringUtils.repeat(padChar, Math.max(0, requiredSize - original.length() + 1))
-        + original;
+    return TonHashMapProofs.of(this, keySerializer, valueSerializer).prove(k);
   }
 }
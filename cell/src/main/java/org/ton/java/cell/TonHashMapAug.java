@@ -2,7 +2,6 @@ package org.ton.java.cell;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.ton.java.bitstring.BitString;
-import org.ton.java.utils.Utils;
 
 import java.math.BigInteger;
 import java.util.*;
@@ -16,35 +15,46 @@ public class TonHashMapAug {
     int maxMembers;
 
     public TonHashMapAug(int keySize, int maxMembers) {
-        elements = new LinkedHashMap<>();
+        elements = new IndexedLinkedHashMap<>();
         this.keySize = keySize;
         this.maxMembers = maxMembers;
     }
 
     public TonHashMapAug(int keySize) {
-        elements = new LinkedHashMap<>();
+        elements = new IndexedLinkedHashMap<>();
         this.keySize = keySize;
         this.maxMembers = 10000;
     }
 
+    /**
+     * Collects all leaves under the edge in ascending key order, pruned branches are skipped.
+     * The tree is walked with an explicit stack, so its depth is not limited by the call stack.
+     */
     public List<Node> deserializeEdge(CellSlice edge, int keySize, final BitString key) {
-        if (edge.type != CellType.ORDINARY) {
-            return new ArrayList<>();
-        }
         List<Node> nodes = new ArrayList<>();
-        BitString l = deserializeLabel(edge, keySize - key.toBitString().length());
-        key.writeBitString(l);
-        if (key.toBitString().length() == keySize) {
-            Cell valueAndExtra = CellBuilder.beginCell().storeSlice(edge).endCell();
-            nodes.add(new Node(key, valueAndExtra)); // fork-extra does not exist in edge
-            return nodes;
-        }
-
-        for (int i = 0; i < edge.refs.size(); i++) {
-            CellSlice forkEdge = CellSlice.beginParse(edge.refs.get(i));
-            BitString forkKey = key.clone();
-            forkKey.writeBit(i != 0);
-            nodes.addAll(deserializeEdge(forkEdge, keySize, forkKey));
+        Deque<CellSlice> edges = new ArrayDeque<>();
+        Deque<BitString> keys = new ArrayDeque<>();
+        edges.push(edge);
+        keys.push(key);
+        while (!edges.isEmpty()) {
+            CellSlice e = edges.pop();
+            BitString k = keys.pop();
+            if (e.type != CellType.ORDINARY) {
+                continue;
+            }
+            k.writeBitString(deserializeLabel(e, keySize - k.getUsedBits()));
+            if (k.getUsedBits() == keySize) {
+                Cell valueAndExtra = CellBuilder.beginCell().storeSlice(e).endCell();
+                nodes.add(new Node(k, valueAndExtra)); // fork-extra does not exist in edge
+                continue;
+            }
+            // right fork goes first, so that the left one is visited first; refs after them belong to the fork extra
+            for (int i = Math.min(e.refs.size(), 2) - 1; i >= 0; i--) {
+                BitString forkKey = i == 0 ? k : k.clone();
+                forkKey.writeBit(i != 0);
+                edges.push(CellSlice.beginParse(e.refs.get(i)));
+                keys.push(forkKey);
+            }
         }
         return nodes;
     }
@@ -65,74 +75,22 @@ public class TonHashMapAug {
         }
     }
 
-    /**
-     * Read the keys in array and return binary tree in the form of Patrcia Tree Node
-     *
-     * @param nodes list which contains nodes
-     * @return tree node
-     */
-    PatriciaTreeNode splitTree(List<Node> nodes) {
-        if (nodes.size() == 1) {
-            return new PatriciaTreeNode("", 0, nodes.get(0), null, null);
-        }
-
-        List<Node> left = new ArrayList<>();
-        List<Node> right = new ArrayList<>();
-
-        for (Node node : nodes) {
-            boolean lr = node.key.readBit();
-
-            if (lr) {
-                right.add(node);
-            } else {
-                left.add(node);
+    private static boolean isZeros(BitString label) {
+        BitString l = label.clone();
+        int n = l.getUsedBits();
+        while (n > 0) {
+            int chunk = Math.min(n, 64);
+            if (l.readUintAsLong(chunk) != 0) {
+                return false;
             }
+            n -= chunk;
         }
-
-        PatriciaTreeNode leftNode = left.size() > 1 ? splitTree(left) : left.isEmpty() ? null : new PatriciaTreeNode("", 0, left.get(0), null, null);
-        PatriciaTreeNode rightNode = right.size() > 1 ? splitTree(right) : right.isEmpty() ? null : new PatriciaTreeNode("", 0, right.get(0), null, null);
-
-        return new PatriciaTreeNode("", keySize, null, leftNode, rightNode);
-    }
-
-    /**
-     * Flatten binary tree (by cutting empty branches) if possible
-     *
-     * @param node tree node
-     * @param m    maximal possible length of prefix
-     * @return flattened tree node
-     */
-    PatriciaTreeNode flatten(PatriciaTreeNode node, int m) {
-        if (node == null) {
-            return null;
-        }
-
-        if (node.maxPrefixLength == 0) {
-            node.maxPrefixLength = m;
-        }
-
-        if (node.leafNode != null) {
-            return node;
-        }
-
-        PatriciaTreeNode left = node.left;
-        PatriciaTreeNode right = node.right;
-
-        if (left == null) {
-            return flatten(new PatriciaTreeNode(node.prefix + "1", m, null, right.left, right.right), m);
-        } else if (right == null) {
-            return flatten(new PatriciaTreeNode(node.prefix + "0", m, null, left.left, left.right), m);
-        } else {
-            node.maxPrefixLength = m;
-            node.left = flatten(left, m - node.prefix.length() - 1);
-            node.right = flatten(right, m - node.prefix.length() - 1);
-            return node;
-        }
+        return true;
     }
 
-    void serialize_label(String label, int m, CellBuilder builder) {
-        int n = label.length();
-        if (label.isEmpty()) {
+    void serialize_label(BitString label, int m, CellBuilder builder) {
+        int n = label.getUsedBits();
+        if (n == 0) {
             builder.storeBit(false); //hml_short$0
             builder.storeBit(false); //Unary 0
             return;
@@ -145,47 +103,48 @@ public class TonHashMapAug {
                 builder.storeBit(true); // Unary n
             }
             builder.storeBit(false);  // Unary 0
-            for (Character c : label.toCharArray()) {
-                builder.storeBit(c == '1');
-            }
+            builder.storeBitString(label);
             return;
         }
 
-        boolean isSame = (label.equals(Utils.repeat("0", label.length())) || label.equals(Utils.repeat("10", label.length())));
-        if (isSame) {
+        if (isZeros(label)) {
             builder.storeBit(true);
             builder.storeBit(true); //hml_same
-            builder.storeBit(label.charAt(0) == '1');
-            builder.storeUint(label.length(), sizeOfM);
+            builder.storeBit(false);
+            builder.storeUint(n, sizeOfM);
         } else {
             builder.storeBit(true);
             builder.storeBit(false); //hml_long
-            builder.storeUint(label.length(), sizeOfM);
-            for (Character c : label.toCharArray()) {
-                builder.storeBit(c == '1');
-            }
+            builder.storeUint(n, sizeOfM);
+            builder.storeBitString(label);
         }
     }
 
-    void serialize_edge(PatriciaTreeNode node, CellBuilder builder, BiFunction<Object, Object, Object> forkExtra) {
-        if (node == null) {
-            return;
-        }
-        if (node.leafNode != null) { // contains leaf
-            BitString bs = node.leafNode.key.readBits(node.leafNode.key.getUsedBits());
-            node.prefix = bs.toBitString();
-            serialize_label(node.prefix, node.maxPrefixLength, builder);
-            builder.storeCell(node.leafNode.value);
-        } else { // contains fork
-            serialize_label(node.prefix, node.maxPrefixLength, builder);
-            CellBuilder leftCell = CellBuilder.beginCell();
-            serialize_edge(node.left, leftCell, forkExtra);
-            CellBuilder rightCell = CellBuilder.beginCell();
-            serialize_edge(node.right, rightCell, forkExtra);
-            builder.storeCell(((CellBuilder) forkExtra.apply(leftCell.endCell(), rightCell.endCell())).endCell());
-            builder.storeRef(leftCell.endCell());
-            builder.storeRef(rightCell.endCell());
-        }
+    /**
+     * Serializes edges bottom-up, fork extras are calculated from already serialized child edges.
+     *
+     * @param nodes     not empty list of keys and leaf contents in any order
+     * @param forkExtra - used only in fork-node.
+     * @return root edge
+     */
+    Cell serializeTree(List<Node> nodes, BiFunction<Object, Object, Object> forkExtra) {
+        return new PatriciaTreeBuilder(keySize, true, new PatriciaTreeBuilder.EdgeSerializer() {
+            @Override
+            public Cell leaf(BitString label, int m, Cell value) {
+                CellBuilder builder = CellBuilder.beginCell();
+                serialize_label(label, m, builder);
+                return builder.storeCell(value).endCell();
+            }
+
+            @Override
+            public Cell fork(BitString label, int m, Cell left, Cell right) {
+                CellBuilder builder = CellBuilder.beginCell();
+                serialize_label(label, m, builder);
+                // ahmn_fork: left and right come before the extra, also in refs
+                builder.storeRefShared(left).storeRefShared(right);
+                return builder.storeCell(((CellBuilder) forkExtra.apply(left, right)).endCell()).endCell();
+            }
+        }).build(nodes);
     }
 
     /**
@@ -201,7 +160,7 @@ public class TonHashMapAug {
                           Function<Object, Object> valueParser,
                           Function<Object, Object> extraParser,
                           BiFunction<Object, Object, Object> forkExtra) {
-        List<Node> nodes = new ArrayList<>();
+        List<Node> nodes = new ArrayList<>(elements.size());
         for (Map.Entry<Object, Pair<Object, Object>> entry : elements.entrySet()) {
             BitString key = keyParser.apply(entry.getKey());
             Cell value = (Cell) valueParser.apply(entry.getValue().getLeft());
@@ -218,11 +177,7 @@ public class TonHashMapAug {
             throw new Error("TonHashMapAug does not support empty dict. Consider using TonHashMapAugE");
         }
 
-        PatriciaTreeNode root = flatten(splitTree(nodes), keySize);
-        CellBuilder b = CellBuilder.beginCell();
-        serialize_edge(root, b, forkExtra);
-
-        return b.endCell();
+        return serializeTree(nodes, forkExtra);
     }
 
     public BitString deserializeLabel(CellSlice edge, int m) {
@@ -239,8 +194,10 @@ public class TonHashMapAug {
     }
 
     private BitString deserializeLabelShort(CellSlice edge) {
-        int length = edge.bits.getBitString().indexOf("0");
-        edge.skipBits(length + 1);
+        int length = 0;
+        while (edge.loadBit()) {
+            length++;
+        }
         return edge.loadBits(length);
     }
 
@@ -279,10 +236,16 @@ public class TonHashMapAug {
         return sb.toString();
     }
 
+    /**
+     * O(1) for dicts created by this class, elements are kept in insertion (or key) order.
+     */
     public Object getKeyByIndex(long index) {
+        if (index >= 0 && index < elements.size() && elements instanceof IndexedLinkedHashMap) {
+            return ((IndexedLinkedHashMap<Object, Pair<Object, Object>>) elements).getKeyAt((int) index);
+        }
         long i = 0;
         for (Map.Entry<Object, Pair<Object, Object>> entry : elements.entrySet()) {
-            if (i == index) {
+            if (i++ == index) {
                 return entry.getKey();
             }
         }
@@ -290,6 +253,9 @@ public class TonHashMapAug {
     }
 
     public Object getValueByIndex(long index) {
+        if (index >= 0 && index < elements.size() && elements instanceof IndexedLinkedHashMap) {
+            return ((IndexedLinkedHashMap<Object, Pair<Object, Object>>) elements).getValueAt((int) index).getLeft();
+        }
         long i = 0;
         for (Map.Entry<Object, Pair<Object, Object>> entry : elements.entrySet()) {
             if (i++ == index) {
@@ -300,6 +266,9 @@ public class TonHashMapAug {
     }
 
     public Object getEdgeByIndex(long index) {
+        if (index >= 0 && index < elements.size() && elements instanceof IndexedLinkedHashMap) {
+            return ((IndexedLinkedHashMap<Object, Pair<Object, Object>>) elements).getValueAt((int) index).getRight();
+        }
         long i = 0;
         for (Map.Entry<Object, Pair<Object, Object>> entry : elements.entrySet()) {
             if (i++ == index) {
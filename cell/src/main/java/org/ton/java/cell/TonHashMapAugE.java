@@ -38,7 +38,7 @@ public class TonHashMapAugE extends TonHashMapAug {
                           Function<Object, Object> valueParser,
                           Function<Object, Object> extraParser,
                           BiFunction<Object, Object, Object> forkExtra) {
-        List<Node> nodes = new ArrayList<>();
+        List<Node> nodes = new ArrayList<>(elements.size());
         for (Map.Entry<Object, Pair<Object, Object>> entry : elements.entrySet()) {
             BitString key = keyParser.apply(entry.getKey());
             Cell value = (Cell) valueParser.apply(entry.getValue().getLeft());
@@ -53,13 +53,9 @@ public class TonHashMapAugE extends TonHashMapAug {
         if (nodes.isEmpty()) {
             return CellBuilder.beginCell().storeBit(false).endCell();
         } else {
-            PatriciaTreeNode root = flatten(splitTree(nodes), keySize);
-            CellBuilder b = CellBuilder.beginCell();
-            serialize_edge(root, b, forkExtra);
-
             return CellBuilder.beginCell()
                     .storeBit(true)
-                    .storeRef(b.endCell())
+                    .storeRefShared(serializeTree(nodes, forkExtra))
                     .endCell();
         }
     }
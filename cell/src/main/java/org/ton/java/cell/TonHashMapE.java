@@ -22,7 +22,7 @@ public class TonHashMapE extends TonHashMap {
 
 
     public Cell serialize(Function<Object, BitString> keyParser, Function<Object, Cell> valueParser) {
-        List<Node> nodes = new ArrayList<>();
+        List<Node> nodes = new ArrayList<>(elements.size());
         for (Map.Entry<Object, Object> entry : elements.entrySet()) {
             BitString key = keyParser.apply(entry.getKey());
             Cell value = valueParser.apply(entry.getValue());
@@ -32,11 +32,7 @@ public class TonHashMapE extends TonHashMap {
         if (nodes.isEmpty()) {
             return null;
         } else {
-            PatriciaTreeNode root = flatten(splitTree(nodes), keySize);
-            CellBuilder b = CellBuilder.beginCell();
-            serialize_edge(root, b);
-
-            return b.endCell();
+            return serializeTree(nodes);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package org.ton.java.cell;
+
+import org.ton.java.bitstring.BitString;
+
+import java.math.BigInteger;
+
+/**
+ * Keys and labels of serialized dictionaries, shared by TonHashMapView, TonHashMapPersistent and TonHashMapProofs.
+ */
+final class TonHashMapKeys {
+
+    private TonHashMapKeys() {
+    }
+
+    static BitString toKey(BigInteger key, int keySize) {
+        BitString k = new BitString(keySize);
+        k.writeUint(key, keySize);
+        return k;
+    }
+
+    static void checkKey(BitString key, int keySize) {
+        if (key.getUsedBits() != keySize) {
+            throw new Error("Key of " + key.getUsedBits() + " bits does not fit dictionary with key size " + keySize);
+        }
+    }
+
+    /**
+     * Reads HmLabel of the edge, m is the number of remaining key bits.
+     */
+    static BitString loadLabel(CellSlice edge, int m) {
+        if (!edge.loadBit()) {
+            // hml_short$0 {m:#} {n:#} len:(Unary ~n) s:(n * Bit) = HmLabel ~n m;
+            int n = 0;
+            while (edge.loadBit()) {
+                n++;
+            }
+            return edge.loadBits(n);
+        }
+        if (!edge.loadBit()) {
+            // hml_long$10 {m:#} n:(#<= m) s:(n * Bit) = HmLabel ~n m;
+            return edge.loadBits((int) edge.loadUintAsLong(lengthBits(m)));
+        }
+        // hml_same$11 {m:#} v:Bit n:(#<= m) = HmLabel ~n m;
+        boolean v = edge.loadBit();
+        int n = (int) edge.loadUintAsLong(lengthBits(m));
+        BitString r = new BitString(n);
+        for (int i = 0; i < n; i++) {
+            r.writeBit(v);
+        }
+        return r;
+    }
+
+    /**
+     * Size of #&lt;= m field, i.e. ceil(log2(m + 1)) bits.
+     */
+    static int lengthBits(int m) {
+        return 32 - Integer.numberOfLeadingZeros(m);
+    }
+
+    /**
+     * Compares 64 bits at a time.
+     *
+     * @return length of common prefix of both bit strings, nothing is consumed
+     */
+    static int commonPrefix(BitString a, BitString b) {
+        BitString x = a.clone();
+        BitString y = b.clone();
+        int n = Math.min(x.getUsedBits(), y.getUsedBits());
+        for (int done = 0; done < n; ) {
+            int chunk = Math.min(64, n - done);
+            long diff = x.readUintAsLong(chunk) ^ y.readUintAsLong(chunk);
+            if (diff != 0) {
+                return done + Long.numberOfLeadingZeros(diff) - (64 - chunk);
+            }
+            done += chunk;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,355 @@
+package org.ton.java.cell;
+
+import org.ton.java.bitstring.BitString;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Immutable Hashmap or HashmapAug kept in its serialized form, with incremental updates.
+ * <p>
+ * put() and remove() return a new dictionary and leave this one untouched. Only the edges on the path to the key
+ * are rebuilt, all other subtrees are shared with the previous version as the same Cell instances,
+ * so their memoized hashes are reused and an update costs O(key size) instead of a full serialize().
+ * For augmented dictionaries fork extras are recalculated only along the modified path.
+ * <p>
+ * The resulting tree is identical to the one built by TonHashMap.serialize() (or TonHashMapAug.serialize())
+ * from the same entries, since both use the same label encoding.
+ */
+public class TonHashMapPersistent {
+
+    /**
+     * Extra of HashmapAug.
+     */
+    public interface Augmentation {
+        /**
+         * Reads extra from the beginning of the slice. For a leaf the slice continues with the value.
+         */
+        Cell loadExtra(CellSlice slice);
+
+        /**
+         * @return extra of a fork with the given extras of its left and right subtrees
+         */
+        Cell fork(Cell leftExtra, Cell rightExtra);
+    }
+
+    private interface LabelSerializer {
+        void serialize(BitString label, int m, CellBuilder builder);
+    }
+
+    /**
+     * Fork on the path to the key, its edge slice is positioned right after the label.
+     */
+    private static class Step {
+        final CellSlice edge;
+        final BitString label;
+        final int m;
+        final boolean right;
+
+        Step(CellSlice edge, BitString label, int m, boolean right) {
+            this.edge = edge;
+            this.label = label;
+            this.m = m;
+            this.right = right;
+        }
+    }
+
+    private final Cell root;
+    private final int keySize;
+    private final Augmentation augmentation;
+    private final LabelSerializer labels;
+
+    private TonHashMapPersistent(Cell root, int keySize, Augmentation augmentation, LabelSerializer labels) {
+        this.root = root;
+        this.keySize = keySize;
+        this.augmentation = augmentation;
+        this.labels = labels;
+    }
+
+    public static TonHashMapPersistent empty(int keySize) {
+        return of(null, keySize);
+    }
+
+    /**
+     * @param rootEdge root edge of Hashmap, e.g. result of TonHashMap(E).serialize(), null for an empty dictionary
+     * @param keySize  key size in bits
+     */
+    public static TonHashMapPersistent of(Cell rootEdge, int keySize) {
+        return new TonHashMapPersistent(rootEdge, keySize, null, new TonHashMap(keySize)::serialize_label);
+    }
+
+    public static TonHashMapPersistent emptyAug(int keySize, Augmentation augmentation) {
+        return ofAug(null, keySize, augmentation);
+    }
+
+    /**
+     * @param rootEdge root edge of HashmapAug, null for an empty dictionary
+     * @param keySize  key size in bits
+     */
+    public static TonHashMapPersistent ofAug(Cell rootEdge, int keySize, Augmentation augmentation) {
+        if (isNull(augmentation)) {
+            throw new Error("Augmentation is required for HashmapAug");
+        }
+        return new TonHashMapPersistent(rootEdge, keySize, augmentation, new TonHashMapAug(keySize)::serialize_label);
+    }
+
+    /**
+     * @return root edge, null if the dictionary is empty. Use CellBuilder.storeDict() to store it as HashmapE.
+     */
+    public Cell getRoot() {
+        return root;
+    }
+
+    public int getKeySize() {
+        return keySize;
+    }
+
+    public boolean isEmpty() {
+        return isNull(root);
+    }
+
+    /**
+     * @return extra of the whole dictionary, null if it is empty
+     */
+    public Cell getRootExtra() {
+        if (isNull(augmentation)) {
+            throw new Error("Dictionary is not augmented");
+        }
+        return isNull(root) ? null : extraOf(root, keySize);
+    }
+
+    /**
+     * @return read-only view for lookups and iteration
+     */
+    public TonHashMapView view() {
+        return TonHashMapView.of(isNull(root) ? null : CellSlice.beginParse(root), keySize);
+    }
+
+    /**
+     * @return value slice, for augmented dictionaries extra followed by value, or null if the key is absent
+     */
+    public CellSlice get(BitString key) {
+        return view().get(key);
+    }
+
+    public CellSlice get(BigInteger key) {
+        return get(toKey(key));
+    }
+
+    public boolean containsKey(BitString key) {
+        return nonNull(get(key));
+    }
+
+    public TonHashMapPersistent put(BigInteger key, Cell value) {
+        return put(toKey(key), value);
+    }
+
+    /**
+     * Adds or replaces the entry of Hashmap.
+     *
+     * @param key   exactly keySize bits
+     * @param value leaf value
+     */
+    public TonHashMapPersistent put(BitString key, Cell value) {
+        if (nonNull(augmentation)) {
+            throw new Error("Extra is required for HashmapAug, use put(key, value, extra)");
+        }
+        return putLeaf(key, value);
+    }
+
+    /**
+     * Adds or replaces the entry of HashmapAug.
+     *
+     * @param key   exactly keySize bits
+     * @param value leaf value
+     * @param extra leaf extra
+     */
+    public TonHashMapPersistent put(BitString key, Cell value, Cell extra) {
+        if (isNull(augmentation)) {
+            throw new Error("Dictionary is not augmented, use put(key, value)");
+        }
+        return putLeaf(key, CellBuilder.beginCell().storeCell(extra).storeCell(value).endCell());
+    }
+
+    public TonHashMapPersistent put(BigInteger key, Cell value, Cell extra) {
+        return put(toKey(key), value, extra);
+    }
+
+    public TonHashMapPersistent remove(BigInteger key) {
+        return remove(toKey(key));
+    }
+
+    /**
+     * @return dictionary without the key, this dictionary if the key is absent
+     */
+    public TonHashMapPersistent remove(BitString key) {
+        checkKey(key);
+        if (isNull(root)) {
+            return this;
+        }
+        BitString k = key.clone();
+        Deque<Step> path = new ArrayDeque<>();
+        Cell cell = root;
+        int m = keySize;
+        while (true) {
+            CellSlice edge = CellSlice.beginParse(ordinary(cell));
+            BitString label = TonHashMapKeys.loadLabel(edge, m);
+            int n = label.getUsedBits();
+            if (TonHashMapKeys.commonPrefix(label, k) < n) {
+                return this;
+            }
+            k.readBits(n);
+            if (m == n) {
+                break;
+            }
+            boolean bit = k.readBit();
+            path.push(new Step(edge, label, m, bit));
+            cell = edge.refs.get(bit ? 1 : 0);
+            m -= n + 1;
+        }
+        if (path.isEmpty()) {
+            return withRoot(null);
+        }
+        // the parent fork disappears, the sibling takes its place with the joined label
+        Step parent = path.pop();
+        CellSlice sibling = CellSlice.beginParse(ordinary(parent.edge.refs.get(parent.right ? 0 : 1)));
+        BitString siblingLabel = TonHashMapKeys.loadLabel(sibling, parent.m - parent.label.getUsedBits() - 1);
+        BitString label = new BitString(parent.label.getUsedBits() + 1 + siblingLabel.getUsedBits());
+        label.writeBitString(parent.label);
+        label.writeBit(!parent.right);
+        label.writeBitString(siblingLabel);
+        return withRoot(rebuild(path, relabel(sibling, label, parent.m)));
+    }
+
+    private TonHashMapPersistent putLeaf(BitString key, Cell content) {
+        checkKey(key);
+        if (isNull(root)) {
+            return withRoot(leaf(key, keySize, content));
+        }
+        BitString k = key.clone();
+        Deque<Step> path = new ArrayDeque<>();
+        Cell cell = root;
+        int m = keySize;
+        while (true) {
+            CellSlice edge = CellSlice.beginParse(ordinary(cell));
+            BitString label = TonHashMapKeys.loadLabel(edge, m);
+            int n = label.getUsedBits();
+            int common = TonHashMapKeys.commonPrefix(label, k);
+            if (common < n) {
+                // key leaves the label, the edge is split by a new fork
+                BitString prefix = label.clone().readBits(common);
+                BitString rest = label.cloneFrom(common);
+                boolean existingBit = rest.readBit();
+                k.readBits(common + 1);
+                int childM = m - common - 1;
+                Cell existing = relabel(edge, rest, childM);
+                Cell added = leaf(k, childM, content);
+                Cell split = existingBit ? fork(prefix, m, added, existing) : fork(prefix, m, existing, added);
+                return withRoot(rebuild(path, split));
+            }
+            k.readBits(n);
+            if (m == n) {
+                return withRoot(rebuild(path, leaf(label, m, content)));
+            }
+            boolean bit = k.readBit();
+            path.push(new Step(edge, label, m, bit));
+            cell = edge.refs.get(bit ? 1 : 0);
+            m -= n + 1;
+        }
+    }
+
+    /**
+     * Replaces the child on the path fork by fork up to the root, all other subtrees are reused as is.
+     */
+    private Cell rebuild(Deque<Step> path, Cell child) {
+        while (!path.isEmpty()) {
+            Step step = path.pop();
+            Cell left = step.right ? step.edge.refs.get(0) : child;
+            Cell right = step.right ? child : step.edge.refs.get(1);
+            child = fork(step.label, step.m, left, right);
+        }
+        return child;
+    }
+
+    private Cell leaf(BitString label, int m, Cell content) {
+        CellBuilder builder = CellBuilder.beginCell();
+        labels.serialize(label, m, builder);
+        return builder.storeCell(content).endCell();
+    }
+
+    private Cell fork(BitString label, int m, Cell left, Cell right) {
+        CellBuilder builder = CellBuilder.beginCell();
+        labels.serialize(label, m, builder);
+        List<Cell> refs = new ArrayList<>(4);
+        refs.add(left);
+        refs.add(right);
+        if (nonNull(augmentation)) {
+            int childM = m - label.getUsedBits() - 1;
+            Cell extra = augmentation.fork(extraOf(left, childM), extraOf(right, childM));
+            builder.storeBitString(extra.getBits());
+            refs.addAll(extra.getRefs());
+        }
+        return edge(builder, refs);
+    }
+
+    /**
+     * Same subtree hanging on another label, bits and refs after the label are kept.
+     *
+     * @param body edge slice positioned right after its old label
+     */
+    private Cell relabel(CellSlice body, BitString label, int m) {
+        CellBuilder builder = CellBuilder.beginCell();
+        labels.serialize(label, m, builder);
+        builder.storeBitString(body.bits);
+        return edge(builder, body.refs);
+    }
+
+    /**
+     * Creates edge cell with refs taken as they are. CellBuilder.storeRef() copies the whole subtree,
+     * which would defeat sharing.
+     */
+    private static Cell edge(CellBuilder bits, List<Cell> refs) {
+        if (refs.size() > 4) {
+            throw new Error("Dictionary edge can not have " + refs.size() + " refs");
+        }
+        Cell c = bits.endCell();
+        return new Cell(c.getBits(), c.getBitLength(), refs, false, CellType.ORDINARY);
+    }
+
+    private Cell extraOf(Cell edge, int m) {
+        CellSlice cs = CellSlice.beginParse(ordinary(edge));
+        if (TonHashMapKeys.loadLabel(cs, m).getUsedBits() < m) {
+            // refs of a fork start with its children, refs of the extra follow them
+            cs.skipRefs(2);
+        }
+        return augmentation.loadExtra(cs);
+    }
+
+    /**
+     * Edges under a pruned branch are unknown, the dictionary can not be updated there.
+     */
+    private static Cell ordinary(Cell edge) {
+        if (edge.getCellType() != CellType.ORDINARY) {
+            throw new Error("Dictionary edge is a " + edge.getCellType() + " cell, it can not be updated");
+        }
+        return edge;
+    }
+
+    private TonHashMapPersistent withRoot(Cell newRoot) {
+        return new TonHashMapPersistent(newRoot, keySize, augmentation, labels);
+    }
+
+    private void checkKey(BitString key) {
+        TonHashMapKeys.checkKey(key, keySize);
+    }
+
+    private BitString toKey(BigInteger key) {
+        return TonHashMapKeys.toKey(key, keySize);
+    }
+}
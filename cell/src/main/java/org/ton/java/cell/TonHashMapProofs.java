@@ -0,0 +1,138 @@
+package org.ton.java.cell;
+
+import org.ton.java.bitstring.BitString;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Merkle proofs of presence or absence of keys in a serialized dictionary (Hashmap or HashmapAug).
+ * <p>
+ * The dictionary is serialized and hashed once, every proof then only walks the edges on the paths to its keys,
+ * comparing keys with labels bit-wise. Subtrees off the paths are replaced by pruned branches, which are
+ * created once per subtree and shared by all proofs produced by this instance, so proving each key of
+ * a large dictionary costs O(key size) per key. Cells of the dictionary that end up in a proof are shared too.
+ * <p>
+ * Instances are thread-safe, proveEach() builds proofs in parallel.
+ */
+public class TonHashMapProofs {
+
+    private final Cell root;
+    private final int keySize;
+    private final Map<Cell, Cell> pruned = new ConcurrentHashMap<>();
+
+    /**
+     * @param rootEdge root edge of Hashmap or HashmapAug, e.g. result of TonHashMap.serialize()
+     * @param keySize  key size in bits
+     */
+    public TonHashMapProofs(Cell rootEdge, int keySize) {
+        if (rootEdge == null) {
+            throw new Error("Can not prove keys of an empty dictionary");
+        }
+        this.root = rootEdge;
+        this.keySize = keySize;
+        root.computeHashesParallel();
+    }
+
+    public static TonHashMapProofs of(TonHashMap map, Function<Object, BitString> keySerializer, Function<Object, Cell> valueSerializer) {
+        return new TonHashMapProofs(map.serialize(keySerializer, valueSerializer), map.keySize);
+    }
+
+    /**
+     * @return hash of the dictionary root edge, equals to the hash stored in every proof
+     */
+    public byte[] getRootHash() {
+        return root.getHash();
+    }
+
+    public Cell prove(BigInteger key) {
+        return prove(toKey(key));
+    }
+
+    /**
+     * @return Merkle proof cell with the path to the key, or to the edge where the key diverges if it is absent
+     */
+    public Cell prove(BitString key) {
+        return prove(Collections.singletonList(key));
+    }
+
+    /**
+     * @return single Merkle proof covering all keys, common parts of the paths are included once
+     */
+    public Cell prove(Collection<BitString> keys) {
+        List<BitString> rests = new ArrayList<>(keys.size());
+        for (BitString key : keys) {
+            checkKey(key);
+            rests.add(key.clone());
+        }
+        return MerkleProofs.merkleProof(visit(root, keySize, rests));
+    }
+
+    /**
+     * Builds a separate proof for every key in parallel.
+     *
+     * @return proofs in the order of keys
+     */
+    public List<Cell> proveEach(List<BitString> keys) {
+        return keys.parallelStream().map(this::prove).collect(Collectors.toList());
+    }
+
+    /**
+     * @param rests unread parts of the keys that passed all labels above this edge
+     */
+    private Cell visit(Cell edge, int m, List<BitString> rests) {
+        CellSlice cs = CellSlice.beginParse(edge);
+        BitString label = TonHashMapKeys.loadLabel(cs, m);
+        int n = label.getUsedBits();
+        if (n == m) {
+            return edge;
+        }
+        List<BitString> left = new ArrayList<>();
+        List<BitString> right = new ArrayList<>();
+        for (BitString rest : rests) {
+            if (TonHashMapKeys.commonPrefix(rest, label) == n) {
+                rest.readBits(n);
+                (rest.readBit() ? right : left).add(rest);
+            }
+        }
+        // refs of a HashmapAug fork extra follow the children, they stay in the proof as they are
+        List<Cell> refs = new ArrayList<>(edge.getRefs());
+        for (int i = 0; i < 2; i++) {
+            Cell ref = refs.get(i);
+            List<BitString> branch = (i == 0) ? left : right;
+            if (!branch.isEmpty() && ref.getCellType() == CellType.ORDINARY) {
+                refs.set(i, visit(ref, m - n - 1, branch));
+            } else {
+                refs.set(i, prune(ref));
+            }
+        }
+        return new Cell(edge.getBits(), edge.getBitLength(), refs, false, CellType.ORDINARY);
+    }
+
+    /**
+     * Cells that already carry a level (pruned branches, cells above them) are kept as they are.
+     */
+    private Cell prune(Cell c) {
+        if (c.levelMask.getMask() != 0) {
+            return c;
+        }
+        // plain get() first, computeIfAbsent() locks the bin even when the value is there
+        Cell p = pruned.get(c);
+        return (p != null) ? p : pruned.computeIfAbsent(c, MerkleProofs::prunedBranch);
+    }
+
+    private void checkKey(BitString key) {
+        TonHashMapKeys.checkKey(key, keySize);
+    }
+
+    private BitString toKey(BigInteger key) {
+        return TonHashMapKeys.toKey(key, keySize);
+    }
+}
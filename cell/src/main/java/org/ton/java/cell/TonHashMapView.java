@@ -0,0 +1,472 @@
+package org.ton.java.cell;
+
+import org.ton.java.bitstring.BitString;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Read-only view over a serialized dictionary (Hashmap, HashmapE, HashmapAug(E), PfxHashmap(E)).
+ * <p>
+ * Unlike TonHashMap.deserialize() nothing is decoded upfront. Every operation descends only into
+ * the branches it needs, so get() and containsKey() cost O(key length) regardless of the dictionary size,
+ * and iteration decodes one edge at a time.
+ * <p>
+ * Values are returned as slices positioned right after the edge label.
+ * For augmented dictionaries the slice starts with the extra followed by the value, i.e. in the order
+ * expected by extraParser and valueParser of CellSlice.loadDictAug().
+ * Dictionaries from Merkle proofs may contain pruned branches. Reaching one throws an Error, since keys under it
+ * are neither proven present nor proven absent.
+ */
+public class TonHashMapView implements Iterable<TonHashMapView.Entry> {
+
+    private final CellSlice root;
+    private final int keySize;
+    private final boolean pfx;
+
+    private TonHashMapView(CellSlice root, int keySize, boolean pfx) {
+        this.root = root;
+        this.keySize = keySize;
+        this.pfx = pfx;
+    }
+
+    /**
+     * @param rootEdge root edge of Hashmap or HashmapAug, null for an empty dictionary
+     * @param keySize  key size in bits
+     */
+    public static TonHashMapView of(CellSlice rootEdge, int keySize) {
+        return new TonHashMapView(isNull(rootEdge) ? null : rootEdge.clone(), keySize, false);
+    }
+
+    /**
+     * @param rootEdge root edge of PfxHashmap, null for an empty dictionary
+     * @param keySize  max key size in bits
+     */
+    public static TonHashMapView ofPfx(CellSlice rootEdge, int keySize) {
+        return new TonHashMapView(isNull(rootEdge) ? null : rootEdge.clone(), keySize, true);
+    }
+
+    public int getKeySize() {
+        return keySize;
+    }
+
+    public boolean isEmpty() {
+        return !iterator().hasNext();
+    }
+
+    /**
+     * @param key unsigned integer key of keySize bits
+     * @return value slice or null if the key is absent
+     */
+    public CellSlice get(BigInteger key) {
+        return get(toKey(key));
+    }
+
+    public CellSlice get(long key) {
+        return get(toKey(BigInteger.valueOf(key)));
+    }
+
+    /**
+     * @param key key bits, exactly keySize bits long for Hashmap, at most keySize bits for PfxHashmap
+     * @return value slice or null if the key is absent
+     */
+    public CellSlice get(BitString key) {
+        int length = key.getUsedBits();
+        if (pfx ? length > keySize : length != keySize) {
+            throw new Error("Key of " + length + " bits does not fit dictionary with key size " + keySize);
+        }
+        if (isNull(root)) {
+            return null;
+        }
+        checkNotPruned(root, new BitString(0));
+        BitString k = key.clone();
+        CellSlice edge = root.clone();
+        int m = keySize;
+        while (true) {
+            int l = matchLabel(edge, m, k);
+            if (l < 0) {
+                return null;
+            }
+            m -= l;
+            if (isLeaf(edge, m)) {
+                return k.getUsedBits() == 0 ? edge : null;
+            }
+            if (k.getUsedBits() == 0) {
+                return null;
+            }
+            Cell next = edge.refs.get(k.readBit() ? 1 : 0);
+            checkNotPruned(next, key.clone().readBits(key.getUsedBits() - k.getUsedBits()));
+            edge = CellSlice.beginParse(next);
+            m--;
+        }
+    }
+
+    public boolean containsKey(BitString key) {
+        return nonNull(get(key));
+    }
+
+    public boolean containsKey(BigInteger key) {
+        return nonNull(get(key));
+    }
+
+    /**
+     * @return entry with the smallest key or null if the dictionary is empty
+     */
+    public Entry min() {
+        Iterator<Entry> it = iterator();
+        return it.hasNext() ? it.next() : null;
+    }
+
+    /**
+     * @return entry with the largest key or null if the dictionary is empty
+     */
+    public Entry max() {
+        Iterator<Entry> it = descending().iterator();
+        return it.hasNext() ? it.next() : null;
+    }
+
+    /**
+     * Iterates entries in ascending order of keys (lexicographic order of key bits).
+     */
+    @Override
+    public Iterator<Entry> iterator() {
+        return new EntryIterator(root, new BitString(keySize), keySize, false, null, null);
+    }
+
+    /**
+     * Iterates entries in descending order of keys.
+     */
+    public Iterable<Entry> descending() {
+        return () -> new EntryIterator(root, new BitString(keySize), keySize, true, null, null);
+    }
+
+    /**
+     * Iterates in ascending order entries whose keys start with the prefix.
+     * Only the branch of the tree under the prefix is visited.
+     */
+    public Iterable<Entry> withPrefix(BitString prefix) {
+        return () -> prefixIterator(prefix);
+    }
+
+    /**
+     * Iterates in ascending order entries with from &lt;= key &lt; to, branches outside the range are skipped.
+     *
+     * @param from inclusive lower bound, null for unbounded
+     * @param to   exclusive upper bound, null for unbounded
+     */
+    public Iterable<Entry> range(BitString from, BitString to) {
+        return () -> new EntryIterator(root, new BitString(keySize), keySize, false, from, to);
+    }
+
+    public Iterable<Entry> range(BigInteger from, BigInteger to) {
+        return range(isNull(from) ? null : toKey(from), isNull(to) ? null : toKey(to));
+    }
+
+    private Iterator<Entry> prefixIterator(BitString prefix) {
+        if (prefix.getUsedBits() > keySize) {
+            throw new Error("Prefix of " + prefix.getUsedBits() + " bits is longer than key size " + keySize);
+        }
+        if (isNull(root)) {
+            return new EntryIterator(null, null, 0, false, null, null);
+        }
+        checkNotPruned(root, new BitString(0));
+        BitString p = prefix.clone();
+        BitString key = new BitString(keySize);
+        CellSlice edge = root.clone();
+        int m = keySize;
+        while (true) {
+            BitString label = TonHashMapKeys.loadLabel(edge, m);
+            BitString labelPart = label.clone();
+            int overlap = Math.min(label.getUsedBits(), p.getUsedBits());
+            if (overlap > 0 && compareBits(labelPart, p, overlap) != 0) {
+                return new EntryIterator(null, null, 0, false, null, null);
+            }
+            key.writeBitString(label);
+            m -= label.getUsedBits();
+            if (p.getUsedBits() == 0) {
+                // whole subtree is under the prefix, label is already consumed
+                return new EntryIterator(edge, key, m, false, null, null);
+            }
+            if (isLeaf(edge, m)) {
+                return new EntryIterator(null, null, 0, false, null, null);
+            }
+            boolean bit = p.readBit();
+            Cell next = edge.refs.get(bit ? 1 : 0);
+            key.writeBit(bit);
+            checkNotPruned(next, key);
+            edge = CellSlice.beginParse(next);
+            m--;
+        }
+    }
+
+    private BitString toKey(BigInteger key) {
+        return TonHashMapKeys.toKey(key, keySize);
+    }
+
+    private static void checkNotPruned(Cell cell, BitString prefix) {
+        if (cell.getCellType() != CellType.ORDINARY) {
+            throw new Error("Dictionary branch with key prefix " + prefix.toBitString() + " is pruned");
+        }
+    }
+
+    private static void checkNotPruned(CellSlice edge, BitString prefix) {
+        if (edge.isExotic()) {
+            throw new Error("Dictionary branch with key prefix " + prefix.toBitString() + " is pruned");
+        }
+    }
+
+    /**
+     * Checks node type of the edge whose label is already read, m is the number of remaining key bits.
+     * For PfxHashmap consumes the leaf/fork bit.
+     */
+    private boolean isLeaf(CellSlice edge, int m) {
+        if (pfx) {
+            return !edge.loadBit();
+        }
+        return m == 0;
+    }
+
+    /**
+     * Reads label of the edge and compares it with the beginning of the key, consuming matched key bits.
+     *
+     * @return label length or -1 if the label does not match the key
+     */
+    private static int matchLabel(CellSlice edge, int m, BitString key) {
+        if (!edge.loadBit()) {
+            // hml_short$0 {m:#} {n:#} len:(Unary ~n) s:(n * Bit) = HmLabel ~n m;
+            int n = 0;
+            while (edge.loadBit()) {
+                n++;
+            }
+            return matchBits(edge, n, key);
+        }
+        if (!edge.loadBit()) {
+            // hml_long$10 {m:#} n:(#<= m) s:(n * Bit) = HmLabel ~n m;
+            int n = (int) edge.loadUintAsLong(TonHashMapKeys.lengthBits(m));
+            return matchBits(edge, n, key);
+        }
+        // hml_same$11 {m:#} v:Bit n:(#<= m) = HmLabel ~n m;
+        boolean v = edge.loadBit();
+        int n = (int) edge.loadUintAsLong(TonHashMapKeys.lengthBits(m));
+        if (n > key.getUsedBits()) {
+            return -1;
+        }
+        for (int left = n; left > 0; ) {
+            int chunk = Math.min(left, 64);
+            long expected = v ? -1L >>> (64 - chunk) : 0;
+            if (key.readUintAsLong(chunk) != expected) {
+                return -1;
+            }
+            left -= chunk;
+        }
+        return n;
+    }
+
+    private static int matchBits(CellSlice edge, int n, BitString key) {
+        if (n > key.getUsedBits()) {
+            return -1;
+        }
+        for (int left = n; left > 0; ) {
+            int chunk = Math.min(left, 64);
+            if (edge.loadUintAsLong(chunk) != key.readUintAsLong(chunk)) {
+                return -1;
+            }
+            left -= chunk;
+        }
+        return n;
+    }
+
+    /**
+     * Compares first n bits of both bit strings, consuming them.
+     */
+    private static int compareBits(BitString a, BitString b, int n) {
+        for (int left = n; left > 0; ) {
+            int chunk = Math.min(left, 64);
+            int c = Long.compareUnsigned(a.readUintAsLong(chunk), b.readUintAsLong(chunk));
+            if (c != 0) {
+                return c;
+            }
+            left -= chunk;
+        }
+        return 0;
+    }
+
+    /**
+     * Lexicographic comparison of all keys starting with prefix against the bound.
+     *
+     * @return negative if all such keys are below the bound, positive if all of them are equal or above,
+     * 0 if the prefix is a proper prefix of the bound
+     */
+    private static int compareToBound(BitString prefix, BitString bound) {
+        int n = Math.min(prefix.getUsedBits(), bound.getUsedBits());
+        int c = compareBits(prefix.clone(), bound.clone(), n);
+        if (c != 0) {
+            return c;
+        }
+        return prefix.getUsedBits() >= bound.getUsedBits() ? 1 : 0;
+    }
+
+    public static class Entry {
+        private final BitString key;
+        private final CellSlice value;
+
+        Entry(BitString key, CellSlice value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        public BitString getKey() {
+            return key;
+        }
+
+        /**
+         * @return unsigned integer value of the key
+         */
+        public BigInteger getKeyAsUint() {
+            BitString k = key.clone();
+            return k.getUsedBits() == 0 ? BigInteger.ZERO : k.readUint(k.getUsedBits());
+        }
+
+        public CellSlice getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + key.toBitString() + "," + value + "]";
+        }
+    }
+
+    private static class Frame {
+        final Cell cell;
+        final BitString key;
+        final int m;
+
+        Frame(Cell cell, BitString key, int m) {
+            this.cell = cell;
+            this.key = key;
+            this.m = m;
+        }
+    }
+
+    /**
+     * Depth-first traversal with an explicit stack, edges are decoded only when reached.
+     */
+    private class EntryIterator implements Iterator<Entry> {
+        private final Deque<Frame> stack = new ArrayDeque<>();
+        private final boolean descending;
+        private final BitString from;
+        private final BitString to;
+        private Entry next;
+        private boolean done;
+
+        /**
+         * @param start edge to start from, its label is already read when it is not the dictionary root
+         */
+        EntryIterator(CellSlice start, BitString key, int m, boolean descending, BitString from, BitString to) {
+            this.descending = descending;
+            this.from = from;
+            this.to = to;
+            if (isNull(start)) {
+                done = true;
+                return;
+            }
+            CellSlice edge = start.clone();
+            if (start == root) {
+                checkNotPruned(root, key);
+                BitString label = TonHashMapKeys.loadLabel(edge, m);
+                key.writeBitString(label);
+                m -= label.getUsedBits();
+            }
+            next = visit(edge, key, m);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (isNull(next) && !done) {
+                if (stack.isEmpty()) {
+                    done = true;
+                    break;
+                }
+                Frame frame = stack.pop();
+                if (frame.cell.getCellType() != CellType.ORDINARY) {
+                    // a pruned subtree outside the range is skipped, inside the range its keys are unknown
+                    if (nonNull(from) && compareToBound(frame.key, from) < 0) {
+                        continue;
+                    }
+                    if (nonNull(to) && compareToBound(frame.key, to) > 0) {
+                        stack.clear();
+                        done = true;
+                        break;
+                    }
+                    checkNotPruned(frame.cell, frame.key);
+                }
+                CellSlice edge = CellSlice.beginParse(frame.cell);
+                BitString label = TonHashMapKeys.loadLabel(edge, frame.m);
+                frame.key.writeBitString(label);
+                next = visit(edge, frame.key, frame.m - label.getUsedBits());
+            }
+            return nonNull(next);
+        }
+
+        @Override
+        public Entry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry result = next;
+            next = null;
+            return result;
+        }
+
+        /**
+         * Handles edge with already read label: returns entry for a leaf or schedules children of a fork.
+         */
+        private Entry visit(CellSlice edge, BitString key, int m) {
+            if (nonNull(from) && compareToBound(key, from) < 0) {
+                return null;
+            }
+            if (nonNull(to) && compareToBound(key, to) > 0) {
+                // keys are visited in ascending order, nothing left below the upper bound
+                stack.clear();
+                done = true;
+                return null;
+            }
+            if (isLeaf(edge, m)) {
+                if (nonNull(from) && compareLeaf(key, from) < 0) {
+                    return null;
+                }
+                return new Entry(key, edge);
+            }
+            Cell left = edge.refs.get(0);
+            Cell right = edge.refs.get(1);
+            BitString leftKey = key.clone();
+            leftKey.writeBit(false);
+            BitString rightKey = key;
+            rightKey.writeBit(true);
+            if (descending) {
+                stack.push(new Frame(left, leftKey, m - 1));
+                stack.push(new Frame(right, rightKey, m - 1));
+            } else {
+                stack.push(new Frame(right, rightKey, m - 1));
+                stack.push(new Frame(left, leftKey, m - 1));
+            }
+            return null;
+        }
+
+        private int compareLeaf(BitString key, BitString bound) {
+            int n = Math.min(key.getUsedBits(), bound.getUsedBits());
+            int c = compareBits(key.clone(), bound.clone(), n);
+            if (c != 0) {
+                return c;
+            }
+            return Integer.compare(key.getUsedBits(), bound.getUsedBits());
+        }
+    }
+}
@@ -2,7 +2,9 @@ package org.ton.java.cell;
 
 import org.ton.java.bitstring.BitString;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -21,25 +23,31 @@ public class TonPfxHashMap extends TonHashMap {
 
     public List<Node> deserializeEdge(CellSlice edge, int keySize, final BitString key) {
         List<Node> nodes = new ArrayList<>();
-        BitString l = deserializeLabel(edge, keySize - key.toBitString().length());
-        key.writeBitString(l);
-        boolean pfx = edge.loadBit(); // pfx feature
-        if (!pfx) {
-            Cell value = CellBuilder.beginCell().storeSlice(edge).endCell();
-            nodes.add(new Node(key, value));
-            return nodes;
-        }
-
-        for (int j = 0; j < edge.refs.size(); j++) {
-            CellSlice forkEdge = CellSlice.beginParse(edge.refs.get(j));
-            BitString forkKey = key.clone();
-            forkKey.writeBit(j != 0);
-            nodes.addAll(deserializeEdge(forkEdge, keySize, forkKey));
+        Deque<CellSlice> edges = new ArrayDeque<>();
+        Deque<BitString> keys = new ArrayDeque<>();
+        edges.push(edge);
+        keys.push(key);
+        while (!edges.isEmpty()) {
+            CellSlice e = edges.pop();
+            BitString k = keys.pop();
+            k.writeBitString(deserializeLabel(e, keySize - k.getUsedBits()));
+            boolean pfx = e.loadBit(); // pfx feature
+            if (!pfx) {
+                Cell value = CellBuilder.beginCell().storeSlice(e).endCell();
+                nodes.add(new Node(k, value));
+                continue;
+            }
+            // right fork goes first, so that the left one is visited first
+            for (int j = e.refs.size() - 1; j >= 0; j--) {
+                BitString forkKey = j == 0 ? k : k.clone();
+                forkKey.writeBit(j != 0);
+                edges.push(CellSlice.beginParse(e.refs.get(j)));
+                keys.push(forkKey);
+            }
         }
         return nodes;
     }
 
-
     /**
      * Loads HashMap and parses keys and values
      * HashMap X Y;
@@ -52,37 +60,36 @@ public class TonPfxHashMap extends TonHashMap {
     }
 
     /**
-     * Serialize PfxHashMap edge
-     * hm_edge#_ {n:#} {X:Type} {l:#} {m:#} label:(HmLabel ~l n)
-     * {n = (~m) + l} node:(HashmapNode m X) = Hashmap n X;
+     * Serialize PfxHashMap edges
+     * phm_edge#_ {n:#} {X:Type} {l:#} {m:#} label:(HmLabel ~l n)
+     * {n = (~m) + l} node:(PfxHashmapNode m X) = PfxHashmap n X;
+     * Keys may have different length, but none of them can be a prefix of another one.
      *
-     * @param node    tree node which contains [label as "0" and "1" string, maximal possible size of label, leaf or left fork, right fork]
-     * @param builder Cell to which edge will be serialized
+     * @param nodes not empty list of keys and values in any order
+     * @return root edge
      */
-    void serialize_edge(PatriciaTreeNode node, CellBuilder builder) {
-        if (node == null) {
-            return;
-        }
-        if (node.leafNode != null) { // contains leaf
-            BitString bs = node.leafNode.key.readBits(node.leafNode.key.getUsedBits());
-            node.prefix = bs.toBitString();
-            serialize_label(node.prefix, node.maxPrefixLength, builder);
-            builder.storeBit(false); //pfx feature
-            builder.storeCell(node.leafNode.value);
-        } else { // contains fork
-            serialize_label(node.prefix, node.maxPrefixLength, builder);
-            builder.storeBit(true); //pfx feature
-            CellBuilder leftCell = CellBuilder.beginCell();
-            serialize_edge(node.left, leftCell);
-            CellBuilder rightCell = CellBuilder.beginCell();
-            serialize_edge(node.right, rightCell);
-            builder.storeRef(leftCell.endCell());
-            builder.storeRef(rightCell.endCell());
-        }
+    Cell serializeTree(List<Node> nodes) {
+        return new PatriciaTreeBuilder(keySize, false, new PatriciaTreeBuilder.EdgeSerializer() {
+            @Override
+            public Cell leaf(BitString label, int m, Cell value) {
+                CellBuilder builder = CellBuilder.beginCell();
+                serialize_label(label, m, builder);
+                builder.storeBit(false); //pfx feature
+                return builder.storeCell(value).endCell();
+            }
+
+            @Override
+            public Cell fork(BitString label, int m, Cell left, Cell right) {
+                CellBuilder builder = CellBuilder.beginCell();
+                serialize_label(label, m, builder);
+                builder.storeBit(true); //pfx feature
+                return builder.storeRefShared(left).storeRefShared(right).endCell();
+            }
+        }).build(nodes);
     }
 
     public Cell serialize(Function<Object, BitString> keyParser, Function<Object, Cell> valueParser) {
-        List<Node> nodes = new ArrayList<>();
+        List<Node> nodes = new ArrayList<>(elements.size());
         for (Map.Entry<Object, Object> entry : elements.entrySet()) {
             BitString key = keyParser.apply(entry.getKey());
             Cell value = valueParser.apply(entry.getValue());
@@ -93,10 +100,6 @@ public class TonPfxHashMap extends TonHashMap {
             throw new Error("TonPfxHashMap does not support empty dict. Consider using TonPfxHashMapE");
         }
 
-        PatriciaTreeNode root = flatten(splitTree(nodes), keySize);
-        CellBuilder b = CellBuilder.beginCell();
-        serialize_edge(root, b);
-
-        return b.endCell();
+        return serializeTree(nodes);
     }
 }
\ No newline at end of file
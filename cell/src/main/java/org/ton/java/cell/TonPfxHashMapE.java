@@ -19,7 +19,7 @@ public class TonPfxHashMapE extends TonPfxHashMap {
     }
 
     public Cell serialize(Function<Object, BitString> keyParser, Function<Object, Cell> valueParser) {
-        List<Node> nodes = new ArrayList<>();
+        List<Node> nodes = new ArrayList<>(elements.size());
         for (Map.Entry<Object, Object> entry : elements.entrySet()) {
             BitString key = keyParser.apply(entry.getKey());
             Cell value = valueParser.apply(entry.getValue());
@@ -29,11 +29,7 @@ public class TonPfxHashMapE extends TonPfxHashMap {
         if (nodes.isEmpty()) {
             return null;
         } else {
-            PatriciaTreeNode root = flatten(splitTree(nodes), keySize);
-            CellBuilder b = CellBuilder.beginCell();
-            serialize_edge(root, b);
-
-            return b.endCell();
+            return serializeTree(nodes);
         }
     }
 }
\ No newline at end of file
@@ -43,7 +43,7 @@ public class AccountBlock {
     }
 
     public static AccountBlock deserialize(CellSlice cs) {
-        long magic = cs.loadUint(4).longValue();
+        long magic = cs.loadUintAsLong(4);
         assert (magic == 0x5L) : "AccountBlock: magic not equal to 0x5, found 0x" + Long.toHexString(magic);
 
         return AccountBlock.builder()
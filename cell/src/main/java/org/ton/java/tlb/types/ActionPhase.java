@@ -76,12 +76,12 @@ public class ActionPhase {
                 .statusChange(AccStatusChange.deserialize(cs))
                 .totalFwdFees(cs.loadBit() ? cs.loadCoins() : BigInteger.ZERO)
                 .totalActionFees(cs.loadBit() ? cs.loadCoins() : BigInteger.ZERO)
-                .resultCode(cs.loadUint(32).longValue())
-                .resultArg(cs.loadBit() ? cs.loadUint(32).longValue() : 0)
-                .totalActions(cs.loadUint(16).longValue())
-                .specActions(cs.loadUint(16).longValue())
-                .skippedActions(cs.loadUint(16).longValue())
-                .messagesCreated(cs.loadUint(16).longValue())
+                .resultCode(cs.loadUintAsLong(32))
+                .resultArg(cs.loadBit() ? cs.loadUintAsLong(32) : 0)
+                .totalActions(cs.loadUintAsLong(16))
+                .specActions(cs.loadUintAsLong(16))
+                .skippedActions(cs.loadUintAsLong(16))
+                .messagesCreated(cs.loadUintAsLong(16))
                 .actionListHash(cs.loadUint(256))
                 .totalMsgSize(StorageUsedShort.deserialize(cs))
                 .build();
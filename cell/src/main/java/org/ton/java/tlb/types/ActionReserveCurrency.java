@@ -27,8 +27,8 @@ public class ActionReserveCurrency implements OutAction {
 
     public static ActionReserveCurrency deserialize(CellSlice cs) {
         return ActionReserveCurrency.builder()
-                .magic(cs.loadUint(32).intValue())
-                .mode(cs.loadUint(8).intValue())
+                .magic((int) cs.loadUintAsLong(32))
+                .mode(cs.loadUint8())
                 .currency(CurrencyCollection.deserialize(cs))
                 .build();
     }
@@ -28,8 +28,8 @@ public class ActionSendMsg implements OutAction {
 
     public static ActionSendMsg deserialize(CellSlice cs) {
         return ActionSendMsg.builder()
-                .magic(cs.loadUint(32).intValue())
-                .mode(cs.loadUint(8).intValue())
+                .magic((int) cs.loadUintAsLong(32))
+                .mode(cs.loadUint8())
                 .outMsg(MessageRelaxed.deserialize(CellSlice.beginParse(cs.loadRef())))
                 .build();
     }
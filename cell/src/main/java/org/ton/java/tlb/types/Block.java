@@ -44,7 +44,7 @@ public class Block {
 
     public static Block deserialize(CellSlice cs) {
 
-        long magic = cs.loadUint(32).longValue();
+        long magic = cs.loadUintAsLong(32);
         assert (magic == 0x11ef55aaL)
                 : "Block: magic not equal to 0x11ef55aa, found 0x" + Long.toHexString(magic);
 
@@ -69,7 +69,7 @@ public class BlockExtra {
     if (cs.isExotic()) {
       return null;
     }
-    long magic = cs.loadUint(32).longValue();
+    long magic = cs.loadUintAsLong(32);
     assert (magic == 0x4a33f6fdL)
         : "Block: magic not equal to 0x4a33f6fdL, found 0x" + Long.toHexString(magic);
 
@@ -55,7 +55,7 @@ public class BlockIdExt {
                 .workchain(cs.loadInt(32).intValue())
                 .shard(cs.loadUint(64).longValue())
 //                        .shardId((ShardIdent) cs.loadTlb(ShardIdent.class)) // todo weird - this does not work
-                .seqno(cs.loadUint(32).longValue())
+                .seqno(cs.loadUintAsLong(32))
                 .rootHash(cs.loadUint(256))
                 .fileHash(cs.loadUint(256))
                 .build();
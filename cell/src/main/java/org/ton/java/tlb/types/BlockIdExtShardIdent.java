@@ -51,7 +51,7 @@ public class BlockIdExtShardIdent {
     public static BlockIdExtShardIdent deserialize(CellSlice cs) {
         return BlockIdExtShardIdent.builder()
                 .shardId(ShardIdent.deserialize(cs))
-                .seqno(cs.loadUint(32).longValue())
+                .seqno(cs.loadUintAsLong(32))
                 .rootHash(cs.loadUint(256))
                 .fileHash(cs.loadUint(256))
                 .build();
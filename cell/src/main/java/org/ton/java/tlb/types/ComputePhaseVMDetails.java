@@ -62,10 +62,10 @@ public class ComputePhaseVMDetails {
                 .gasUsed(cs.loadVarUInteger(BigInteger.valueOf(3))) // (VarUInteger 7)
                 .gasLimit(cs.loadVarUInteger(BigInteger.valueOf(3)))
                 .gasCredit(cs.loadBit() ? cs.loadVarUInteger(BigInteger.valueOf(2)) : BigInteger.ZERO)
-                .mode(cs.loadUint(8).intValue())
-                .exitCode(cs.loadUint(32).longValue())
-                .exitArg(cs.loadBit() ? cs.loadUint(32).longValue() : 0L)
-                .vMSteps(cs.loadUint(32).longValue())
+                .mode(cs.loadUint8())
+                .exitCode(cs.loadUintAsLong(32))
+                .exitArg(cs.loadBit() ? cs.loadUintAsLong(32) : 0L)
+                .vMSteps(cs.loadUintAsLong(32))
                 .vMInitStateHash(cs.loadUint(256))
                 .vMFinalStateHash(cs.loadUint(256))
                 .build();
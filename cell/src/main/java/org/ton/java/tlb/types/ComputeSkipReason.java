@@ -30,7 +30,7 @@ public class ComputeSkipReason implements ComputePhase {
     }
 
     public static ComputePhase deserialize(CellSlice cs) {
-        int skipReasonFlag = cs.loadUint(2).intValue();
+        int skipReasonFlag = (int) cs.loadUintAsLong(2);
 
         switch (skipReasonFlag) {
             case 0b00: {
@@ -27,7 +27,7 @@ public class ConfigParams13 {
 
     public static ConfigParams13 deserialize(CellSlice cs) {
         return ConfigParams13.builder()
-                .magic(cs.loadUint(8).longValue())
+                .magic(cs.loadUintAsLong(8))
                 .deposit(cs.loadCoins())
                 .bitPrice(cs.loadCoins())
                 .cellPrice(cs.loadCoins())
@@ -25,7 +25,7 @@ public class ConfigParams14 {
 
     public static ConfigParams14 deserialize(CellSlice cs) {
         return ConfigParams14.builder()
-                .magic(cs.loadUint(8).longValue())
+                .magic(cs.loadUintAsLong(8))
                 .masterchainBlockFee(cs.loadCoins())
                 .basechainBlockFee(cs.loadCoins())
                 .build();
@@ -25,10 +25,10 @@ public class ConfigParams15 {
 
     public static ConfigParams15 deserialize(CellSlice cs) {
         return ConfigParams15.builder()
-                .validatorsElectedFor(cs.loadUint(32).longValue())
-                .electionsStartBefore(cs.loadUint(32).longValue())
-                .validatorsElectedFor(cs.loadUint(32).longValue())
-                .stakeHeldFor(cs.loadUint(32).longValue())
+                .validatorsElectedFor(cs.loadUintAsLong(32))
+                .electionsStartBefore(cs.loadUintAsLong(32))
+                .validatorsElectedFor(cs.loadUintAsLong(32))
+                .stakeHeldFor(cs.loadUintAsLong(32))
                 .build();
     }
 }
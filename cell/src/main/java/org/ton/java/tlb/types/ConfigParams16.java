@@ -23,9 +23,9 @@ public class ConfigParams16 {
 
     public static ConfigParams16 deserialize(CellSlice cs) {
         return ConfigParams16.builder()
-                .maxValidators(cs.loadUint(16).longValue())
-                .maxMainValidators(cs.loadUint(16).longValue())
-                .minValidators(cs.loadUint(16).longValue())
+                .maxValidators(cs.loadUintAsLong(16))
+                .maxMainValidators(cs.loadUintAsLong(16))
+                .minValidators(cs.loadUintAsLong(16))
                 .build();
     }
 }
@@ -19,7 +19,7 @@ public class ConfigParams19 {
 
     public static ConfigParams19 deserialize(CellSlice cs) {
         return ConfigParams19.builder()
-                .globalId(cs.loadUint(32).longValue())
+                .globalId(cs.loadUintAsLong(32))
                 .build();
     }
 }
@@ -59,18 +59,18 @@ public class ConfigParams40 {
 
     public static ConfigParams40 deserialize(CellSlice cs) {
         return ConfigParams40.builder()
-                .magic(cs.loadUint(8).longValue())
+                .magic(cs.loadUintAsLong(8))
                 .defaultFlatFine(cs.loadCoins())
-                .defaultProportionalFine(cs.loadUint(32).longValue())
-                .severityFlatMult(cs.loadUint(16).intValue())
-                .severityProportionalMult(cs.loadUint(16).intValue())
-                .unpunishableInterval(cs.loadUint(16).intValue())
-                .longInterval(cs.loadUint(16).intValue())
-                .longFlatMult(cs.loadUint(16).intValue())
-                .longProportionalMult(cs.loadUint(16).intValue())
-                .mediumInterval(cs.loadUint(16).intValue())
-                .mediumFlatMult(cs.loadUint(16).intValue())
-                .mediumProportionalMult(cs.loadUint(16).intValue())
+                .defaultProportionalFine(cs.loadUintAsLong(32))
+                .severityFlatMult(cs.loadUint16())
+                .severityProportionalMult(cs.loadUint16())
+                .unpunishableInterval(cs.loadUint16())
+                .longInterval(cs.loadUint16())
+                .longFlatMult(cs.loadUint16())
+                .longProportionalMult(cs.loadUint16())
+                .mediumInterval(cs.loadUint16())
+                .mediumFlatMult(cs.loadUint16())
+                .mediumProportionalMult(cs.loadUint16())
                 .build();
     }
 }
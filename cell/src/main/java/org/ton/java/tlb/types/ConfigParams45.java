@@ -27,7 +27,7 @@ public class ConfigParams45 {
 
     public static ConfigParams45 deserialize(CellSlice cs) {
         return ConfigParams45.builder()
-                .magic(cs.loadUint(8).intValue())
+                .magic(cs.loadUint8())
                 .precompiledContractsList(cs.loadDictE(256,
                         k -> k.readUint(256),
                         v -> PrecompiledSmc.deserialize(CellSlice.beginParse(v))))
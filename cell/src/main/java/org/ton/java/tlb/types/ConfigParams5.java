@@ -26,11 +26,11 @@ public class ConfigParams5 {
 
     public static ConfigParams5 deserialize(CellSlice cs) {
         return ConfigParams5.builder()
-                .magic(cs.loadUint(8).longValue())
+                .magic(cs.loadUintAsLong(8))
                 .blackholerAddr( // test maybe
                         cs.loadBit() ? Address.of(cs.loadBits(256).toByteArray()) : null) // bounceable and workchain -1
-                .feeBurnNum(cs.loadUint(32).longValue())
-                .feeBurnDenom(cs.loadUint(32).longValue())
+                .feeBurnNum(cs.loadUintAsLong(32))
+                .feeBurnDenom(cs.loadUintAsLong(32))
                 .build();
     }
 }
@@ -35,15 +35,15 @@ public class ConfigProposalSetup {
 
     public static ConfigProposalSetup deserialize(CellSlice cs) {
         return ConfigProposalSetup.builder()
-                .cfgVoteCfg(cs.loadUint(8).intValue())
-                .minTotRounds(cs.loadUint(8).intValue())
-                .maxTotRounds(cs.loadUint(8).intValue())
-                .minWins(cs.loadUint(8).intValue())
-                .maxLosses(cs.loadUint(8).intValue())
-                .minStoreSec(cs.loadUint(32).intValue())
-                .maxStoreSec(cs.loadUint(32).intValue())
-                .bitPrice(cs.loadUint(32).intValue())
-                .cellPrice(cs.loadUint(32).intValue())
+                .cfgVoteCfg(cs.loadUint8())
+                .minTotRounds(cs.loadUint8())
+                .maxTotRounds(cs.loadUint8())
+                .minWins(cs.loadUint8())
+                .maxLosses(cs.loadUint8())
+                .minStoreSec((int) cs.loadUintAsLong(32))
+                .maxStoreSec((int) cs.loadUintAsLong(32))
+                .bitPrice((int) cs.loadUintAsLong(32))
+                .cellPrice((int) cs.loadUintAsLong(32))
                 .build();
     }
 }
@@ -41,18 +41,18 @@ public class ConsensusConfigV3 implements ConsensusConfig {
 
     public static ConsensusConfigV3 deserialize(CellSlice cs) {
         return ConsensusConfigV3.builder()
-                .magic(cs.loadUint(8).intValue())
-                .flags(cs.loadUint(7).intValue())
+                .magic(cs.loadUint8())
+                .flags((int) cs.loadUintAsLong(7))
                 .newCatchainIds(cs.loadBit())
-                .roundCandidates(cs.loadUint(32).intValue())
-                .nextCandidateDelayMs(cs.loadUint(32).longValue())
-                .consensusTimeoutMs(cs.loadUint(32).longValue())
-                .fastAttempts(cs.loadUint(32).longValue())
-                .attemptDuration(cs.loadUint(32).longValue())
-                .catchainNaxDeps(cs.loadUint(32).longValue())
-                .maxBlockBytes(cs.loadUint(32).longValue())
-                .maxCollatedBytes(cs.loadUint(32).longValue())
-                .protoVersion(cs.loadUint(16).intValue())
+                .roundCandidates((int) cs.loadUintAsLong(32))
+                .nextCandidateDelayMs(cs.loadUintAsLong(32))
+                .consensusTimeoutMs(cs.loadUintAsLong(32))
+                .fastAttempts(cs.loadUintAsLong(32))
+                .attemptDuration(cs.loadUintAsLong(32))
+                .catchainNaxDeps(cs.loadUintAsLong(32))
+                .maxBlockBytes(cs.loadUintAsLong(32))
+                .maxCollatedBytes(cs.loadUintAsLong(32))
+                .protoVersion(cs.loadUint16())
                 .build();
     }
 }
@@ -33,7 +33,7 @@ public class Counters {
     public static Counters deserialize(CellSlice cs) {
 
         return Counters.builder()
-                .lastUpdated(cs.loadUint(32).longValue())
+                .lastUpdated(cs.loadUintAsLong(32))
                 .total(cs.loadUint(64))
                 .cnt2048(cs.loadUint(64))
                 .cnt65536(cs.loadUint(64))
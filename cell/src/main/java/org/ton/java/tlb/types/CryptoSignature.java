@@ -24,14 +24,14 @@ public class CryptoSignature {
 
     public Cell toCell() {
         return CellBuilder.beginCell()
-                .storeUint(0x5, 8)
+                .storeUint(0x5, 4)
                 .storeUint(r, 256)
                 .storeUint(s, 256)
                 .endCell();
     }
 
     public static CryptoSignature deserialize(CellSlice cs) {
-        long magic = cs.loadUint(4).longValue();
+        long magic = cs.loadUintAsLong(4);
         assert (magic == 0x5) : "CryptoSignature: magic not equal to 0x5, found 0x" + Long.toHexString(magic);
 
         return CryptoSignature.builder()
@@ -48,7 +48,7 @@ public class ExternalMessageOutInfo implements CommonMsgInfo {
   }
 
   public static ExternalMessageOutInfo deserialize(CellSlice cs) {
-    long magic = cs.loadUint(2).intValue();
+    long magic = cs.loadUintAsLong(2);
     assert (magic == 0b11)
         : "ExternalMessageOut: magic not equal to 0b11, found 0b" + Long.toBinaryString(magic);
     return ExternalMessageOutInfo.builder()
@@ -56,7 +56,7 @@ public class ExternalMessageOutInfo implements CommonMsgInfo {
         .srcAddr(MsgAddressInt.deserialize(cs))
         .dstAddr(MsgAddressExt.deserialize(cs))
         .createdLt(cs.loadUint(64))
-        .createdAt(cs.loadUint(32).longValue())
+        .createdAt(cs.loadUintAsLong(32))
         .build();
   }
 }
@@ -45,14 +45,14 @@ public class ExternalMessageOutInfoRelaxed implements CommonMsgInfoRelaxed {
     }
 
     public static ExternalMessageOutInfoRelaxed deserialize(CellSlice cs) {
-        long magic = cs.loadUint(2).intValue();
+        long magic = cs.loadUintAsLong(2);
         assert (magic == 0b11) : "ExternalMessageOutInfoRelaxed: magic not equal to 0b11, found 0b" + Long.toBinaryString(magic);
         return ExternalMessageOutInfoRelaxed.builder()
                 .magic(0b11)
                 .srcAddr(MsgAddress.deserialize(cs))
                 .dstAddr(MsgAddressExt.deserialize(cs))
                 .createdLt(cs.loadUint(64))
-                .createdAt(cs.loadUint(32).longValue())
+                .createdAt(cs.loadUintAsLong(32))
                 .build();
     }
 }
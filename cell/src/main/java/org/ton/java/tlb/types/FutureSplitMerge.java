@@ -46,20 +46,20 @@ public class FutureSplitMerge {
     }
 
     public static FutureSplitMerge deserialize(CellSlice cs) {
-        int flag = cs.loadUint(1).intValue();
+        int flag = (int) cs.loadUintAsLong(1);
         if (flag == 0) {
             return FutureSplitMerge.builder().build();
         } else {
-            flag = cs.loadUint(1).intValue();
+            flag = (int) cs.loadUintAsLong(1);
             if (flag == 0) {
                 return FutureSplitMerge.builder()
-                        .splitUTime(cs.loadUint(32).longValue())
-                        .interval(cs.loadUint(32).longValue())
+                        .splitUTime(cs.loadUintAsLong(32))
+                        .interval(cs.loadUintAsLong(32))
                         .build();
             } else {
                 return FutureSplitMerge.builder()
-                        .mergeUTime(cs.loadUint(32).longValue())
-                        .interval(cs.loadUint(32).longValue())
+                        .mergeUTime(cs.loadUintAsLong(32))
+                        .interval(cs.loadUintAsLong(32))
                         .build();
             }
         }
@@ -35,7 +35,7 @@ public class GasLimitsPricesExt implements GasLimitsPrices {
 
     public static GasLimitsPricesExt deserialize(CellSlice cs) {
         return GasLimitsPricesExt.builder()
-                .magic(cs.loadUint(8).longValue())
+                .magic(cs.loadUintAsLong(8))
                 .gasPrice(cs.loadUint(64))
                 .gasLimit(cs.loadUint(64))
                 .specialGasLimit(cs.loadUint(64))
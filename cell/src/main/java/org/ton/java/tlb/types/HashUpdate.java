@@ -40,8 +40,8 @@ public class HashUpdate {
     }
 
     public static HashUpdate deserialize(CellSlice cs) {
-        long magic = cs.loadUint(8).intValue();
-        assert (magic == 0x72) : "HashUpdate: magic not equal to 0x72, found 0x" + Long.toHexString(magic);
+        int magic = cs.loadUint8();
+        assert (magic == 0x72) : "HashUpdate: magic not equal to 0x72, found 0x" + Integer.toHexString(magic);
 
         return HashUpdate.builder()
                 .magic(0x72)
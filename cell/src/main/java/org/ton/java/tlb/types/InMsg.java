@@ -23,7 +23,7 @@ public interface InMsg {
   Cell toCell();
 
   static InMsg deserialize(CellSlice cs) {
-    int inMsgFlag = cs.loadUint(3).intValue();
+    int inMsgFlag = (int) cs.loadUintAsLong(3);
     switch (inMsgFlag) {
       case 0b000:
         {
@@ -36,13 +36,13 @@ public class JettonBridgeParamsV1 implements JettonBridgeParams {
 
     public static JettonBridgeParamsV1 deserialize(CellSlice cs) {
         return JettonBridgeParamsV1.builder()
-                .magic(cs.loadUint(8).intValue())
+                .magic(cs.loadUint8())
                 .bridgeAddress(cs.loadAddress())
                 .oracleAddress(cs.loadAddress())
                 .oracles(cs.loadDictE(256,
                         k -> k.readUint(256),
                         v -> CellSlice.beginParse(v).loadUint(256)))
-                .stateFlags(cs.loadUint(8).intValue())
+                .stateFlags(cs.loadUint8())
                 .burnBridgeFee(cs.loadCoins())
                 .build();
     }
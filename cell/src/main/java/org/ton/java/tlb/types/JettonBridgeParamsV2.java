@@ -38,13 +38,13 @@ public class JettonBridgeParamsV2 implements JettonBridgeParams {
 
     public static JettonBridgeParamsV2 deserialize(CellSlice cs) {
         return JettonBridgeParamsV2.builder()
-                .magic(cs.loadUint(8).intValue())
+                .magic(cs.loadUint8())
                 .bridgeAddress(cs.loadAddress())
                 .oracleAddress(cs.loadAddress())
                 .oracles(cs.loadDictE(256,
                         k -> k.readUint(256),
                         v -> CellSlice.beginParse(v).loadUint(256)))
-                .stateFlags(cs.loadUint(8).intValue())
+                .stateFlags(cs.loadUint8())
                 .prices(JettonBridgePrices.deserialize(CellSlice.beginParse(cs.loadRef())))
                 .externalChainAddress(cs.loadUint(256))
                 .build();
@@ -40,7 +40,7 @@ public class KeyMaxLt {
     public static KeyMaxLt deserialize(CellSlice cs) {
         return KeyMaxLt.builder()
                 .endLt(cs.loadUint(64))
-                .seqno(cs.loadUint(32).intValue())
+                .seqno((int) cs.loadUintAsLong(32))
                 .rootHash(cs.loadUint(256))
                 .fileHash(cs.loadUint(256))
                 .build();
@@ -41,7 +41,7 @@ public class MerkleUpdate {
             return null;
         }
 
-        long magic = cs.loadUint(8).intValue();
+        int magic = cs.loadUint8();
 //        assert (magic == 0x02) : "MerkleUpdate: magic not equal to 0x02, found 0x" + Long.toHexString(magic);
 
         return MerkleUpdate.builder()
@@ -36,9 +36,9 @@ public class MsgAddressExternal implements MsgAddressExt {
     }
 
     public static MsgAddressExternal deserialize(CellSlice cs) {
-        int magic = cs.loadUint(2).intValue();
+        int magic = (int) cs.loadUintAsLong(2);
         assert (magic == 0b01) : "MsgAddressExternal: magic not equal to 0b01, found " + magic;
-        int len = cs.loadUint(9).intValue();
+        int len = (int) cs.loadUintAsLong(9);
         BigInteger externalAddress = cs.loadUint(len);
         return MsgAddressExternal.builder()
                 .magic(magic)
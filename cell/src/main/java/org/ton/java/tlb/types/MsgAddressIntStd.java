@@ -48,7 +48,7 @@ public class MsgAddressIntStd implements MsgAddressInt {
   }
 
   public static MsgAddressIntStd deserialize(CellSlice cs) {
-    int magic = cs.loadUint(2).intValue();
+    int magic = (int) cs.loadUintAsLong(2);
     assert (magic == 0b10) : "MsgAddressIntStd: magic not equal to 0b10, found " + magic;
 
     Anycast anycast = null;
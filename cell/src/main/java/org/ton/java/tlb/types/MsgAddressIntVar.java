@@ -51,19 +51,19 @@ public class MsgAddressIntVar implements MsgAddressInt {
     }
 
     public static MsgAddressIntVar deserialize(CellSlice cs) {
-        int magic = cs.loadUint(2).intValue();
+        int magic = (int) cs.loadUintAsLong(2);
         assert (magic == 0b11) : "MsgAddressIntVar: magic not equal to 0b11, found " + magic;
 
         Anycast anycast = null;
         if (cs.loadBit()) {
             anycast = Anycast.deserialize(cs);
         }
-        int addrLen = cs.loadUint(9).intValue();
+        int addrLen = (int) cs.loadUintAsLong(9);
         return MsgAddressIntVar.builder()
                 .magic(magic)
                 .anycast(anycast)
                 .addrLen(addrLen)
-                .workchainId(cs.loadUint(32).intValue())
+                .workchainId((int) cs.loadUintAsLong(32))
                 .address(cs.loadUint(addrLen))
                 .build();
     }
@@ -33,13 +33,13 @@ public class MsgForwardPrices {
 
     public static MsgForwardPrices deserialize(CellSlice cs) {
         return MsgForwardPrices.builder()
-                .magic(cs.loadUint(8).intValue())
+                .magic(cs.loadUint8())
                 .lumpPrice(cs.loadUint(64))
                 .bitPrice(cs.loadUint(64))
                 .cellPrice(cs.loadUint(64))
-                .ihrPriceFactor(cs.loadUint(32).longValue())
-                .firstFrac(cs.loadUint(16).intValue())
-                .nextFrac(cs.loadUint(16).intValue())
+                .ihrPriceFactor(cs.loadUintAsLong(32))
+                .firstFrac(cs.loadUint16())
+                .nextFrac(cs.loadUint16())
                 .build();
     }
 }
@@ -21,7 +21,7 @@ public interface OutMsg {
   Cell toCell();
 
   static OutMsg deserialize(CellSlice cs) {
-    int outMsgFlag = cs.loadUint(3).intValue();
+    int outMsgFlag = (int) cs.loadUintAsLong(3);
     switch (outMsgFlag) {
       case 0b000:
         {
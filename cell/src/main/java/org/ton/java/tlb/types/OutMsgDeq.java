@@ -32,7 +32,7 @@ public class OutMsgDeq implements OutMsg {
 
     public static OutMsgDeq deserialize(CellSlice cs) {
         return OutMsgDeq.builder()
-                .magic(cs.loadUint(4).intValue())
+                .magic((int) cs.loadUintAsLong(4))
                 .outMsg(MsgEnvelope.deserialize(CellSlice.beginParse(cs.loadRef())))
                 .importBlockLt(cs.loadUint(63))
                 .build();
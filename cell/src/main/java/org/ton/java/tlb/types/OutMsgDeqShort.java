@@ -39,7 +39,7 @@ public class OutMsgDeqShort implements OutMsg {
 
     public static OutMsgDeqShort deserialize(CellSlice cs) {
         return OutMsgDeqShort.builder()
-                .magic(cs.loadUint(4).intValue())
+                .magic((int) cs.loadUintAsLong(4))
                 .msgEnvHash(cs.loadUint(256))
                 .nextWorkchain(cs.loadInt(32).longValue())
                 .nextAddrPfx(cs.loadUint(64))
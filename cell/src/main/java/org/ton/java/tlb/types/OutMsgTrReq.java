@@ -31,7 +31,7 @@ public class OutMsgTrReq implements OutMsg {
 
     public static OutMsgTrReq deserialize(CellSlice cs) {
         return OutMsgTrReq.builder()
-                .magic(cs.loadUint(3).intValue())
+                .magic((int) cs.loadUintAsLong(3))
                 .msg(MsgEnvelope.deserialize(CellSlice.beginParse(cs.loadRef())))
                 .imported(InMsg.deserialize(CellSlice.beginParse(cs.loadRef())))
                 .build();
@@ -23,9 +23,9 @@ public class ParamLimits {
 
     public static ParamLimits deserialize(CellSlice cs) {
         return ParamLimits.builder()
-                .magic(cs.loadUint(8).intValue())
-                .underload(cs.loadUint(32).intValue())
-                .softLimit(cs.loadUint(32).intValue())
+                .magic(cs.loadUint8())
+                .underload((int) cs.loadUintAsLong(32))
+                .softLimit((int) cs.loadUintAsLong(32))
                 .build();
     }
 }
@@ -23,7 +23,7 @@ public class PrecompiledSmc {
 
     public static PrecompiledSmc deserialize(CellSlice cs) {
         return PrecompiledSmc.builder()
-                .magic(cs.loadUint(8).intValue())
+                .magic(cs.loadUint8())
                 .gasUsage(cs.loadUint(64))
                 .build();
     }
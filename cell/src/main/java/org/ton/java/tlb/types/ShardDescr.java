@@ -145,12 +145,12 @@ public class ShardDescr {
     }
 
     public static ShardDescr deserialize(CellSlice cs) {
-        long magic = cs.loadUint(8).intValue();
+        int magic = cs.loadUint8();
         if (magic == 0xB) {
             return ShardDescr.builder()
                     .magic(0xb)
-                    .seqNo(cs.loadUint(32).longValue())
-                    .regMcSeqno(cs.loadUint(32).longValue())
+                    .seqNo(cs.loadUintAsLong(32))
+                    .regMcSeqno(cs.loadUintAsLong(32))
                     .startLt(cs.loadUint(64))
                     .endLt(cs.loadUint(64))
                     .rootHash(cs.loadUint(64))
@@ -160,11 +160,11 @@ public class ShardDescr {
                     .wantSplit(cs.loadBit())
                     .wantMerge(cs.loadBit())
                     .nXCCUpdated(cs.loadBit())
-                    .flags(cs.loadUint(3).intValue())
-                    .nextCatchainSeqNo(cs.loadUint(32).longValue())
+                    .flags((int) cs.loadUintAsLong(3))
+                    .nextCatchainSeqNo(cs.loadUintAsLong(32))
                     .nextValidatorShard(cs.loadUint(64))
-                    .minRefMcSeqNo(cs.loadUint(32).longValue())
-                    .genUTime(cs.loadUint(32).longValue())
+                    .minRefMcSeqNo(cs.loadUintAsLong(32))
+                    .genUTime(cs.loadUintAsLong(32))
                     .splitMergeAt(FutureSplitMerge.deserialize(cs))
                     .feesCollected(CurrencyCollection.deserialize(cs))
                     .fundsCreated(CurrencyCollection.deserialize(cs))
@@ -173,8 +173,8 @@ public class ShardDescr {
         if (magic == 0xA) {
             return ShardDescr.builder()
                     .magic(0xb)
-                    .seqNo(cs.loadUint(32).longValue())
-                    .regMcSeqno(cs.loadUint(32).longValue())
+                    .seqNo(cs.loadUintAsLong(32))
+                    .regMcSeqno(cs.loadUintAsLong(32))
                     .startLt(cs.loadUint(64))
                     .endLt(cs.loadUint(64))
                     .rootHash(cs.loadUint(64))
@@ -184,16 +184,16 @@ public class ShardDescr {
                     .wantSplit(cs.loadBit())
                     .wantMerge(cs.loadBit())
                     .nXCCUpdated(cs.loadBit())
-                    .flags(cs.loadUint(3).intValue())
-                    .nextCatchainSeqNo(cs.loadUint(32).longValue())
+                    .flags((int) cs.loadUintAsLong(3))
+                    .nextCatchainSeqNo(cs.loadUintAsLong(32))
                     .nextValidatorShard(cs.loadUint(64))
-                    .minRefMcSeqNo(cs.loadUint(32).longValue())
-                    .genUTime(cs.loadUint(32).longValue())
+                    .minRefMcSeqNo(cs.loadUintAsLong(32))
+                    .genUTime(cs.loadUintAsLong(32))
                     .splitMergeAt(FutureSplitMerge.deserialize(cs))
                     .refInfoA(cs.loadRef()) // minor todo
                     .build();
         } else {
-            throw new Error("ShardDescr: magic neither equal to 0xA nor 0xB, found 0x" + Long.toHexString(magic));
+            throw new Error("ShardDescr: magic neither equal to 0xA nor 0xB, found 0x" + Integer.toHexString(magic));
         }
     }
 }
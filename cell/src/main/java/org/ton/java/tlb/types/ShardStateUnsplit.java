@@ -76,18 +76,18 @@ public class ShardStateUnsplit {
         if (cs.isExotic()) {
             return ShardStateUnsplit.builder().build();
         }
-        long magic = cs.loadUint(32).longValue();
+        long magic = cs.loadUintAsLong(32);
         assert (magic == 0x9023afe2L) : "ShardStateUnsplit magic not equal to 0x9023afe2L, found 0x" + Long.toHexString(magic);
 
         ShardStateUnsplit shardStateUnsplit = ShardStateUnsplit.builder()
                 .magic(magic)
                 .globalId(cs.loadInt(32).intValue())
                 .shardIdent(ShardIdent.deserialize(cs))
-                .seqno(cs.loadUint(32).longValue())
-                .vertSeqno(cs.loadUint(32).longValue())
-                .genUTime(cs.loadUint(32).longValue())
+                .seqno(cs.loadUintAsLong(32))
+                .vertSeqno(cs.loadUintAsLong(32))
+                .genUTime(cs.loadUintAsLong(32))
                 .genLt(cs.loadUint(64))
-                .minRefMCSeqno(cs.loadUint(32).longValue())
+                .minRefMCSeqno(cs.loadUintAsLong(32))
 //                .outMsgQueueInfo(OutMsgQueueInfo.deserialize(CellSlice.beginParse(cs.loadRef())))
                 .outMsgQueueInfo(cs.loadRef())
                 .build();
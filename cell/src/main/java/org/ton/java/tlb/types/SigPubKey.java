@@ -21,14 +21,14 @@ public class SigPubKey {
 
     public Cell toCell() {
         return CellBuilder.beginCell()
-                .storeUint(0x8e81278a, 32)
+                .storeUint(0x8e81278aL, 32)
                 .storeUint(pubkey, 256)
                 .endCell();
     }
 
     public static SigPubKey deserialize(CellSlice cs) {
         return SigPubKey.builder()
-                .magic(cs.loadUint(32).longValue())
+                .magic(cs.loadUintAsLong(32))
                 .pubkey(cs.loadUint(256))
                 .build();
     }
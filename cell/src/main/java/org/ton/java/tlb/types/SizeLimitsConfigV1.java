@@ -31,13 +31,13 @@ public class SizeLimitsConfigV1 implements SizeLimitsConfig {
 
     public static SizeLimitsConfigV1 deserialize(CellSlice cs) {
         return SizeLimitsConfigV1.builder()
-                .magic(cs.loadUint(8).intValue())
-                .maxMsgBits(cs.loadUint(32).longValue())
-                .maxMsgCells(cs.loadUint(32).longValue())
-                .maxLibraryCells(cs.loadUint(32).longValue())
-                .maxVmDataDepth(cs.loadUint(32).intValue())
-                .maxExtMsgSize(cs.loadUint(32).longValue())
-                .maxExtMsgDepth(cs.loadUint(32).intValue())
+                .magic(cs.loadUint8())
+                .maxMsgBits(cs.loadUintAsLong(32))
+                .maxMsgCells(cs.loadUintAsLong(32))
+                .maxLibraryCells(cs.loadUintAsLong(32))
+                .maxVmDataDepth((int) cs.loadUintAsLong(32))
+                .maxExtMsgSize(cs.loadUintAsLong(32))
+                .maxExtMsgDepth((int) cs.loadUintAsLong(32))
                 .build();
     }
 }
@@ -35,15 +35,15 @@ public class SizeLimitsConfigV2 implements SizeLimitsConfig {
 
     public static SizeLimitsConfigV2 deserialize(CellSlice cs) {
         return SizeLimitsConfigV2.builder()
-                .magic(cs.loadUint(8).intValue())
-                .maxMsgBits(cs.loadUint(32).longValue())
-                .maxMsgCells(cs.loadUint(32).longValue())
-                .maxLibraryCells(cs.loadUint(32).longValue())
-                .maxVmDataDepth(cs.loadUint(32).intValue())
-                .maxExtMsgSize(cs.loadUint(32).longValue())
-                .maxExtMsgDepth(cs.loadUint(32).intValue())
-                .maxAccStateCells(cs.loadUint(32).longValue())
-                .maxAccStateBits(cs.loadUint(32).longValue())
+                .magic(cs.loadUint8())
+                .maxMsgBits(cs.loadUintAsLong(32))
+                .maxMsgCells(cs.loadUintAsLong(32))
+                .maxLibraryCells(cs.loadUintAsLong(32))
+                .maxVmDataDepth((int) cs.loadUintAsLong(32))
+                .maxExtMsgSize(cs.loadUintAsLong(32))
+                .maxExtMsgDepth((int) cs.loadUintAsLong(32))
+                .maxAccStateCells(cs.loadUintAsLong(32))
+                .maxAccStateBits(cs.loadUintAsLong(32))
                 .build();
     }
 }
@@ -38,8 +38,8 @@ public class SplitMergeInfo {
 
     public static SplitMergeInfo deserialize(CellSlice cs) {
         return SplitMergeInfo.builder()
-                .curShardPfxLen(cs.loadUint(6).intValue())
-                .accSplitDepth(cs.loadUint(6).intValue())
+                .curShardPfxLen((int) cs.loadUintAsLong(6))
+                .accSplitDepth((int) cs.loadUintAsLong(6))
                 .thisAddr(cs.loadUint(256))
                 .siblingAddr(cs.loadUint(256))
                 .build();
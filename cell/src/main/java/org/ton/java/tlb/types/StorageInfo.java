@@ -35,7 +35,7 @@ public class StorageInfo {
     public static StorageInfo deserialize(CellSlice cs) {
         return StorageInfo.builder()
                 .storageUsed(StorageUsed.deserialize(cs))
-                .lastPaid(cs.loadUint(32).longValue())
+                .lastPaid(cs.loadUintAsLong(32))
                 .duePayment(cs.loadBit() ? cs.loadCoins() : null)
                 .build();
     }
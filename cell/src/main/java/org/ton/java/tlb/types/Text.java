@@ -58,12 +58,12 @@ public class Text {
     }
 
     public static Text deserialize(CellSlice cs) {
-        int chunksNum = cs.loadUint(8).intValue();
+        int chunksNum = cs.loadUint8();
         int firstSize = 0;
         int lengthOfChunk = 0;
         StringBuilder result = new StringBuilder();
         for (int i = 0; i < chunksNum; i++) {
-            lengthOfChunk = cs.loadUint(8).intValue();
+            lengthOfChunk = cs.loadUint8();
             if (i == 0) {
                 firstSize = lengthOfChunk;
             }
@@ -37,7 +37,7 @@ public class TransactionDescriptionMergePrepare implements TransactionDescriptio
   }
 
   public static TransactionDescriptionMergePrepare deserialize(CellSlice cs) {
-    long magic = cs.loadUint(4).intValue();
+    long magic = cs.loadUintAsLong(4);
     assert (magic == 0b0110)
         : "TransactionDescriptionMergePrepare: magic not equal to 0b0110, found 0x"
             + Long.toHexString(magic);
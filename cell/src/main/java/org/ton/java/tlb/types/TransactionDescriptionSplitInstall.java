@@ -38,7 +38,7 @@ public class TransactionDescriptionSplitInstall implements TransactionDescriptio
   }
 
   public static TransactionDescriptionSplitInstall deserialize(CellSlice cs) {
-    long magic = cs.loadUint(4).intValue();
+    long magic = cs.loadUintAsLong(4);
     assert (magic == 0b0101)
         : "TransactionDescriptionSplitInstall: magic not equal to 0b0101, found 0x"
             + Long.toHexString(magic);
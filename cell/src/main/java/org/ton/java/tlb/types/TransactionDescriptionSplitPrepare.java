@@ -47,7 +47,7 @@ public class TransactionDescriptionSplitPrepare implements TransactionDescriptio
   }
 
   public static TransactionDescriptionSplitPrepare deserialize(CellSlice cs) {
-    long magic = cs.loadUint(4).intValue();
+    long magic = cs.loadUintAsLong(4);
     assert (magic == 0b0100)
         : "TransactionDescriptionSplitPrepare: magic not equal to 0b0100, found 0x"
             + Long.toHexString(magic);
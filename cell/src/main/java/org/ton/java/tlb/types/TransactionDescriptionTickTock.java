@@ -47,7 +47,7 @@ public class TransactionDescriptionTickTock implements TransactionDescription {
   }
 
   public static TransactionDescriptionTickTock deserialize(CellSlice cs) {
-    long magic = cs.loadUint(3).intValue();
+    long magic = cs.loadUintAsLong(3);
     assert (magic == 0b001)
         : "TransactionDescriptionTickTock: magic not equal to 0b001, found 0x"
             + Long.toHexString(magic);
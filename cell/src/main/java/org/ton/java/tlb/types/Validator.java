@@ -27,9 +27,9 @@ public class Validator implements ValidatorDescr {
                 .endCell();
     }
 
-    public static ValidatorAddr deserialize(CellSlice cs) {
-        return ValidatorAddr.builder()
-                .magic(cs.loadUint(8).intValue())
+    public static Validator deserialize(CellSlice cs) {
+        return Validator.builder()
+                .magic(cs.loadUint8())
                 .publicKey(SigPubKey.deserialize(cs))
                 .weight(cs.loadUint(64))
                 .build();
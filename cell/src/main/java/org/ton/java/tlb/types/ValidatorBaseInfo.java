@@ -30,8 +30,8 @@ public class ValidatorBaseInfo {
 
     public static ValidatorBaseInfo deserialize(CellSlice cs) {
         return ValidatorBaseInfo.builder()
-                .validatorListHashShort(cs.loadUint(32).longValue())
-                .catchainSeqno(cs.loadUint(32).longValue())
+                .validatorListHashShort(cs.loadUintAsLong(32))
+                .catchainSeqno(cs.loadUintAsLong(32))
                 .build();
     }
 }
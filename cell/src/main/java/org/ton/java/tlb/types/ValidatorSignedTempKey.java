@@ -23,7 +23,7 @@ public class ValidatorSignedTempKey {
 
     public static ValidatorSignedTempKey deserialize(CellSlice cs) {
         return ValidatorSignedTempKey.builder()
-                .magic(cs.loadUint(4).intValue())
+                .magic((int) cs.loadUintAsLong(4))
                 .key(ValidatorTempKey.deserialize(CellSlice.beginParse(cs.loadRef())))
                 .signature(CryptoSignature.deserialize(cs))
                 .build();
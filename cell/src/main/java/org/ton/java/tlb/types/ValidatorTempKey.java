@@ -29,11 +29,11 @@ public class ValidatorTempKey {
 
     public static ValidatorTempKey deserialize(CellSlice cs) {
         return ValidatorTempKey.builder()
-                .magic(cs.loadUint(4).intValue())
+                .magic((int) cs.loadUintAsLong(4))
                 .adnlAddr(cs.loadUint(256))
                 .tempPublicKey(SigPubKey.deserialize(cs))
-                .seqno(cs.loadUint(32).longValue())
-                .validUntil(cs.loadUint(32).longValue())
+                .seqno(cs.loadUintAsLong(32))
+                .validUntil(cs.loadUintAsLong(32))
                 .build();
     }
 }
@@ -47,16 +47,16 @@ public class ValidatorsExt implements ValidatorSet {
                 .endCell();
     }
 
-    public static Validators deserialize(CellSlice cs) {
-        return Validators.builder()
-                .magic(cs.loadUint(8).intValue())
-                .uTimeSince(cs.loadUint(8).longValue())
-                .uTimeUntil(cs.loadUint(8).longValue())
-                .total(cs.loadUint(16).intValue())
-                .main(cs.loadUint(16).intValue())
-                .total(cs.loadUint(64).intValue())
+    public static ValidatorsExt deserialize(CellSlice cs) {
+        return ValidatorsExt.builder()
+                .magic(cs.loadUint8())
+                .uTimeSince(cs.loadUintAsLong(32))
+                .uTimeUntil(cs.loadUintAsLong(32))
+                .total(cs.loadUint16())
+                .main(cs.loadUint16())
+                .totalWeight(cs.loadUint(64))
                 .list(cs.loadDictE(16,
-                        k -> k.readInt(16),
+                        k -> k.readUint(16),
                         v -> ValidatorDescr.deserialize(CellSlice.beginParse(v))))
                 .build();
     }
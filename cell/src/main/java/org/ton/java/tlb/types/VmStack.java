@@ -23,7 +23,7 @@ public class VmStack {
     }
 
     public static VmStack deserialize(CellSlice cs) {
-        int depth = cs.loadUint(24).intValue();
+        int depth = (int) cs.loadUintAsLong(24);
         return VmStack.builder()
                 .depth(depth)
                 .stack(VmStackList.deserialize(cs, depth))
@@ -25,7 +25,7 @@ public class VmStackValueBuilder implements VmStackValue {
 
     public static VmStackValueBuilder deserialize(CellSlice cs) {
         return VmStackValueBuilder.builder()
-                .magic(cs.loadUint(8).intValue())
+                .magic(cs.loadUint8())
                 .cell(cs.loadRef())
                 .build();
     }
@@ -25,7 +25,7 @@ public class VmStackValueCell implements VmStackValue {
 
     public static VmStackValueCell deserialize(CellSlice cs) {
         return VmStackValueCell.builder()
-                .magic(cs.loadUint(8).intValue())
+                .magic(cs.loadUint8())
                 .cell(cs.loadRef())
                 .build();
     }
@@ -25,7 +25,7 @@ public class VmStackValueCont implements VmStackValue {
 
     public static VmStackValueCont deserialize(CellSlice cs) {
         return VmStackValueCont.builder()
-                .magic(cs.loadUint(8).intValue())
+                .magic(cs.loadUint8())
                 .cont(VmCont.deserialize(cs))
                 .build();
     }
@@ -27,7 +27,7 @@ public class VmStackValueInt implements VmStackValue {
 
     public static VmStackValueInt deserialize(CellSlice cs) {
         return VmStackValueInt.builder()
-                .magic(cs.loadUint(15).intValue())
+                .magic((int) cs.loadUintAsLong(15))
                 .value(cs.loadInt(257))
                 .build();
     }
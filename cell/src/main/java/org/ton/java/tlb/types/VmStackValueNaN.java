@@ -23,7 +23,7 @@ public class VmStackValueNaN implements VmStackValue {
 
     public static VmStackValueNaN deserialize(CellSlice cs) {
         return VmStackValueNaN.builder()
-                .magic(cs.loadUint(16).intValue())
+                .magic(cs.loadUint16())
                 .build();
     }
 }
@@ -23,7 +23,7 @@ public class VmStackValueNull implements VmStackValue {
 
     public static VmStackValueNull deserialize(CellSlice cs) {
         return VmStackValueNull.builder()
-                .value(cs.loadUint(8).intValue())
+                .value(cs.loadUint8())
                 .build();
     }
 }
@@ -25,7 +25,7 @@ public class VmStackValueSlice implements VmStackValue {
 
     public static VmStackValueSlice deserialize(CellSlice cs) {
         return VmStackValueSlice.builder()
-                .magic(cs.loadUint(8).intValue())
+                .magic(cs.loadUint8())
                 .cell(VmCellSlice.deserialize(cs))
                 .build();
     }
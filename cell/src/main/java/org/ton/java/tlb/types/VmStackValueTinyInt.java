@@ -27,7 +27,7 @@ public class VmStackValueTinyInt implements VmStackValue {
 
     public static VmStackValueTinyInt deserialize(CellSlice cs) {
         return VmStackValueTinyInt.builder()
-                .magic(cs.loadUint(8).intValue())
+                .magic(cs.loadUint8())
                 .value(cs.loadInt(64))
                 .build();
     }
@@ -26,8 +26,8 @@ public class VmStackValueTuple implements VmStackValue {
     }
 
     public static VmStackValueTuple deserialize(CellSlice cs) {
-        int magic = cs.loadUint(8).intValue();
-        int len = cs.loadUint(16).intValue();
+        int magic = cs.loadUint8();
+        int len = cs.loadUint16();
         return VmStackValueTuple.builder()
                 .magic(magic)
                 .len(len)
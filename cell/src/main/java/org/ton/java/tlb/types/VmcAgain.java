@@ -25,7 +25,7 @@ public class VmcAgain implements VmCont {
 
     public static VmcAgain deserialize(CellSlice cs) {
         return VmcAgain.builder()
-                .magic(cs.loadUint(6).intValue())
+                .magic((int) cs.loadUintAsLong(6))
                 .body(VmCont.deserialize(CellSlice.beginParse(cs.loadRef())))
                 .build();
     }
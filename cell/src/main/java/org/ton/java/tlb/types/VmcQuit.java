@@ -25,7 +25,7 @@ public class VmcQuit implements VmCont {
 
     public static VmcQuit deserialize(CellSlice cs) {
         return VmcQuit.builder()
-                .magic(cs.loadUint(4).intValue())
+                .magic((int) cs.loadUintAsLong(4))
                 .exitCode(cs.loadInt(32).longValue())
                 .build();
     }
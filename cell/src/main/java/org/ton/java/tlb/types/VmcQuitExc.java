@@ -24,7 +24,7 @@ public class VmcQuitExc implements VmCont {
 
     public static VmcQuitExc deserialize(CellSlice cs) {
         return VmcQuitExc.builder()
-                .magic(cs.loadUint(4).intValue())
+                .magic((int) cs.loadUintAsLong(4))
                 .build();
     }
 }
@@ -32,7 +32,7 @@ public class VmcRepeat implements VmCont {
 
     public static VmcRepeat deserialize(CellSlice cs) {
         return VmcRepeat.builder()
-                .magic(cs.loadUint(5).intValue())
+                .magic((int) cs.loadUintAsLong(5))
                 .count(cs.loadUint(63))
                 .body(VmCont.deserialize(CellSlice.beginParse(cs.loadRef())))
                 .after(VmCont.deserialize(CellSlice.beginParse(cs.loadRef())))
@@ -27,7 +27,7 @@ public class VmcStd implements VmCont {
 
     public static VmcStd deserialize(CellSlice cs) {
         return VmcStd.builder()
-                .magic(cs.loadUint(2).intValue())
+                .magic((int) cs.loadUintAsLong(2))
                 .cdata(VmControlData.deserialize(cs))
                 .code(VmCellSlice.deserialize(cs))
                 .build();
@@ -30,7 +30,7 @@ public class VmcWhileBody implements VmCont {
 
     public static VmcWhileBody deserialize(CellSlice cs) {
         return VmcWhileBody.builder()
-                .magic(cs.loadUint(6).intValue())
+                .magic((int) cs.loadUintAsLong(6))
                 .cond(VmCont.deserialize(CellSlice.beginParse(cs.loadRef())))
                 .body(VmCont.deserialize(CellSlice.beginParse(cs.loadRef())))
                 .after(VmCont.deserialize(CellSlice.beginParse(cs.loadRef())))
@@ -30,7 +30,7 @@ public class VmcWhileCond implements VmCont {
 
     public static VmcWhileCond deserialize(CellSlice cs) {
         return VmcWhileCond.builder()
-                .magic(cs.loadUint(6).intValue())
+                .magic((int) cs.loadUintAsLong(6))
                 .cond(VmCont.deserialize(CellSlice.beginParse(cs.loadRef())))
                 .body(VmCont.deserialize(CellSlice.beginParse(cs.loadRef())))
                 .after(VmCont.deserialize(CellSlice.beginParse(cs.loadRef())))
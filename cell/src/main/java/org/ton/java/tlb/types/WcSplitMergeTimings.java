@@ -35,7 +35,7 @@ public class WcSplitMergeTimings {
 
     public static WcSplitMergeTimings deserialize(CellSlice cs) {
         return WcSplitMergeTimings.builder()
-                .magic(cs.loadUint(4).intValue())
+                .magic((int) cs.loadUintAsLong(4))
                 .splitMergeDelay(cs.loadInt(32).longValue())
                 .splitMergeInterval(cs.loadInt(32).longValue())
                 .minSplitMergeInterval(cs.loadInt(32).longValue())
@@ -47,11 +47,11 @@ public class WorkchainDescrV2 implements WorkchainDescr {
 
     public static WorkchainDescrV2 deserialize(CellSlice cs) {
         WorkchainDescrV2 workchainDescrV2 = WorkchainDescrV2.builder()
-                .workchain(cs.loadUint(8).intValue())
-                .enabledSince(cs.loadUint(32).intValue())
-                .actualMinSplit(cs.loadUint(8).intValue())
-                .minSplit(cs.loadUint(8).intValue())
-                .maxSplit(cs.loadUint(8).intValue())
+                .workchain(cs.loadUint8())
+                .enabledSince((int) cs.loadUintAsLong(32))
+                .actualMinSplit(cs.loadUint8())
+                .minSplit(cs.loadUint8())
+                .maxSplit(cs.loadUint8())
                 .build();
         boolean basic = cs.loadBit();
         workchainDescrV2.setBasic(basic);
@@ -59,7 +59,7 @@ public class WorkchainDescrV2 implements WorkchainDescr {
         workchainDescrV2.setAcceptMsgs(cs.loadBit());
         workchainDescrV2.setZeroStateRootHash(cs.loadUint(256));
         workchainDescrV2.setZeroStateFileHash(cs.loadUint(256));
-        workchainDescrV2.setVersion(cs.loadUint(32).intValue());
+        workchainDescrV2.setVersion((int) cs.loadUintAsLong(32));
         workchainDescrV2.setFormat(WorkchainFormat.deserialize(cs, basic));
         workchainDescrV2.setWcSplitMergeTimings(WcSplitMergeTimings.deserialize(cs));
         return workchainDescrV2;
@@ -30,8 +30,8 @@ public class WorkchainFormatBasic implements WorkchainFormat {
 
     public static WorkchainFormatBasic deserialize(CellSlice cs) {
         return WorkchainFormatBasic.builder()
-                .wfmtBasic(cs.loadUint(4).intValue())
-                .vmVersion(cs.loadUint(32).longValue())
+                .wfmtBasic((int) cs.loadUintAsLong(4))
+                .vmVersion(cs.loadUintAsLong(32))
                 .vmMode(cs.loadUint(64))
                 .build();
     }
@@ -30,11 +30,11 @@ public class WorkchainFormatExt implements WorkchainFormat {
 
     public static WorkchainFormatExt deserialize(CellSlice cs) {
         return WorkchainFormatExt.builder()
-                .wfmtExt(cs.loadUint(4).intValue())
-                .minAddrLen(cs.loadUint(12).intValue())
-                .maxAddrLen(cs.loadUint(12).intValue())
-                .addrLenStep(cs.loadUint(12).intValue())
-                .workchainTypeId(cs.loadUint(32).longValue())
+                .wfmtExt((int) cs.loadUintAsLong(4))
+                .minAddrLen((int) cs.loadUintAsLong(12))
+                .maxAddrLen((int) cs.loadUintAsLong(12))
+                .addrLenStep((int) cs.loadUintAsLong(12))
+                .workchainTypeId(cs.loadUintAsLong(32))
                 .build();
     }
 }
@@ -3,7 +3,11 @@ package org.ton.java.cell;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Objects;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.binary.Hex;
@@ -411,4 +415,58 @@ public class TestBocDeserealization {
     assertThat(hash)
         .isEqualTo("bf76eed0ac2f54e30c93c36e587a6dacd4526f45dcbf01a476c149f1991cb78a"); // works
   }
+
+  @Test
+  public void testBocDeserializationFromByteBuffer() {
+    byte[] boc = Utils.hexToSignedBytes(BOC_FIFT_HEX_WITH_DUPS);
+    Cell expected = Cell.fromBoc(boc);
+
+    // heap buffer with some garbage in front of BoC
+    ByteBuffer heap = ByteBuffer.allocate(boc.length + 3);
+    heap.put(new byte[] {1, 2, 3}).put(boc).position(3);
+    Cell c1 = Cell.fromBoc(heap);
+    assertThat(heap.position()).isEqualTo(3);
+    assertThat(Utils.bytesToHex(c1.getHash())).isEqualTo(BOC_FIFT_WITH_DUPS_HASH);
+    assertThat(c1.print()).isEqualTo(expected.print());
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(boc.length);
+    direct.put(boc).flip();
+    Cell c2 = Cell.fromBoc(direct.asReadOnlyBuffer());
+    assertThat(Utils.bytesToHex(c2.getHash())).isEqualTo(BOC_FIFT_WITH_DUPS_HASH);
+    assertThat(c2.toBoc(true, true)).isEqualTo(expected.toBoc(true, true));
+    assertThat(c2.print()).isEqualTo(expected.print());
+  }
+
+  @Test
+  public void testBocDeserializationFromFile() throws IOException {
+    Cell expected = Cell.fromBoc(BOC_FIFT_HEX_DEEP_DUPLICATED_HASHMAP);
+    Path file = Files.createTempFile("cell", ".boc");
+    try {
+      expected.toFile(file.toString());
+      Cell c = Cell.fromBoc(file);
+      assertThat(Utils.bytesToHex(c.getHash())).isEqualTo(BOC_FIFT_DEEP_DUPLICATED_HASHMAP_HASH);
+      assertThat(c.toHex()).isEqualTo(expected.toHex());
+
+      // lazily parsed cells survive cloning and further building
+      Cell built = CellBuilder.beginCell().storeCell(c.clone()).storeUint(5, 8).endCell();
+      assertThat(built.getBitLength()).isEqualTo(c.getBitLength() + 8);
+      assertThat(built.getRefs()).isEqualTo(c.getRefs());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  public void testBocDeserializationParallelHashes() {
+    Cell c1 = Cell.fromBoc(BOC_FIFT_HEX_LARGE2);
+    Cell c2 = Cell.fromBoc(BOC_FIFT_HEX_LARGE2);
+    c2.computeHashesParallel();
+
+    assertThat(Utils.bytesToHex(c2.getHash())).isEqualTo(BOC_FIFT_LARGE_HASH);
+    assertThat(Utils.bytesToHex(c1.getHash())).isEqualTo(BOC_FIFT_LARGE_HASH);
+    assertThat(c2.getDepthLevels()).isEqualTo(c1.getDepthLevels());
+    assertThat(c2.getRefs()).isEqualTo(c1.getRefs());
+    assertThat(c2).isEqualTo(c1);
+    assertThat(c2.hashCode()).isEqualTo(new BigInteger(c1.getHash()).intValue());
+  }
 }
@@ -142,6 +142,19 @@ public class TestCellBuilder {
         assertThat(i.toString()).isEqualTo("9999999999990");
     }
 
+    @Test
+    public void testCellBuilderChecksBeforeWriting() {
+        CellBuilder builder = CellBuilder.beginCell().storeBits(new String(new char[1020]).replace('\0', '1'));
+
+        assertThrows(Error.class, () -> builder.storeCoins(Long.MAX_VALUE));
+        assertThrows(Error.class, () -> builder.storeUintMaybe(1L, 3));
+        assertThrows(Error.class, () -> builder.storeUintMaybe(BigInteger.ONE, 3));
+        assertThrows(Error.class, () -> builder.storeUintMaybe(-1L, 2));
+        assertThat(builder.getUsedBits()).isEqualTo(1020);
+
+        assertThat(CellSlice.beginParse(builder.storeUintMaybe(1L, 2).endCell()).skipBits(1020).loadUintAsLong(3)).isEqualTo(0b101);
+    }
+
     @Test
     public void testCellBuilderStoreDict() {
         TonHashMap x = new TonHashMap(9);
@@ -157,6 +170,31 @@ public class TestCellBuilder {
         assertThat(cellDict).isNotNull();
     }
 
+    /**
+     * Ordinary cell takes the level mask of its refs. Expected hashes are computed independently
+     * by the representation hash rules: level 0 stands for the original cell, level 1 is the representation hash.
+     */
+    @Test
+    public void testOrdinaryCellAbovePrunedBranch() {
+        Cell leaf = CellBuilder.beginCell().storeUint(0x12345678L, 32).endCell();
+        assertThat(Utils.bytesToHex(leaf.getHash())).isEqualTo("aa489eba2ad8e7d983fa6d16ccdb247e0ae9fb6caf8f8c45ea736db08b7c01ac");
+
+        Cell pruned = CellBuilder.beginCell().cellType(CellType.PRUNED_BRANCH).setExotic(true)
+                .storeUint(1, 8)
+                .storeUint(1, 8)
+                .storeBytes(leaf.getHash())
+                .storeUint(0, 16)
+                .endCell();
+        assertThat(pruned.levelMask.getMask()).isEqualTo(1);
+        assertThat(Utils.bytesToHex(pruned.getHash())).isEqualTo("e86223691e038c0e9f127e146bda90a6642a897894d19d8166443bb5b89e0b00");
+
+        Cell parent = CellBuilder.beginCell().storeUint(0xdeadbeefL, 32).storeRef(pruned).endCell();
+        assertThat(parent.levelMask.getMask()).isEqualTo(1);
+        assertThat(Utils.bytesToHex(parent.getHash(0))).isEqualTo("85b48b8eea6344c310ecd8b821c34c1b6b1767d3e2bb03ad15baa91b61974a13");
+        assertThat(parent.getHash(0)).isEqualTo(CellBuilder.beginCell().storeUint(0xdeadbeefL, 32).storeRef(leaf).endCell().getHash());
+        assertThat(Utils.bytesToHex(parent.getHash())).isEqualTo("992a7a9a35bbad2e44034cc2ed04add313241b9850a2e751c723d982d688076b");
+    }
+
     @Test
     public void testCellMask() {
 //        log.info("min bits {} for int {}", Cell.calculateMinimumBits(6), 6);
@@ -0,0 +1,68 @@
+package org.ton.java.cell;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@RunWith(JUnit4.class)
+public class TestCellInterner {
+
+    @Test
+    public void testCellBuilderWithInterner() {
+        CellInterner interner = CellInterner.weak();
+
+        Cell leaf1 = CellBuilder.beginCell().interner(interner).storeUint(7, 32).endCell();
+        Cell leaf2 = CellBuilder.beginCell().interner(interner).storeUint(7, 32).endCell();
+        assertThat(leaf2).isSameAs(leaf1);
+
+        Cell root = CellBuilder.beginCell().interner(interner)
+                .storeUint(1, 8)
+                .storeRef(CellBuilder.beginCell().storeUint(7, 32).endCell())
+                .storeRef(leaf2)
+                .endCell();
+        assertThat(root.refs.get(0)).isSameAs(leaf1);
+        assertThat(root.refs.get(1)).isSameAs(leaf1);
+
+        log.info("{}", interner);
+        assertThat(interner.getMisses()).isEqualTo(2);
+        assertThat(interner.getHits()).isEqualTo(3);
+        assertThat(interner.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testBocDeserializationWithInterner() {
+        Cell leaf = CellBuilder.beginCell().storeUint(42, 64).endCell();
+        Cell middle = CellBuilder.beginCell().storeRef(leaf).storeRef(leaf).endCell();
+        Cell root = CellBuilder.beginCell().storeUint(1, 4).storeRef(middle).storeRef(leaf).endCell();
+        byte[] boc = root.toBoc();
+
+        CellInterner interner = CellInterner.weak();
+        Cell c1 = Cell.fromBoc(boc, interner);
+        Cell c2 = Cell.fromBoc(boc, interner);
+
+        assertThat(c2).isSameAs(c1);
+        assertThat(c1.getHash()).isEqualTo(root.getHash());
+        assertThat(c1.refs.get(1)).isSameAs(c1.refs.get(0).refs.get(0));
+        assertThat(c1.refs.get(0).refs.get(1)).isSameAs(c1.refs.get(0).refs.get(0));
+        assertThat(interner.getMisses()).isEqualTo(3);
+        assertThat(interner.getHits()).isEqualTo(3);
+    }
+
+    @Test
+    public void testBoundedInterner() {
+        CellInterner interner = CellInterner.bounded(2);
+        for (int i = 0; i < 10; i++) {
+            interner.intern(CellBuilder.beginCell().storeUint(i, 16).endCell());
+        }
+        assertThat(interner.size()).isEqualTo(2);
+        assertThat(interner.getMisses()).isEqualTo(10);
+
+        interner.clear();
+        assertThat(interner.size()).isZero();
+        assertThat(interner.getHits()).isZero();
+    }
+}
@@ -2,7 +2,9 @@ package org.ton.java.cell;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigInteger;
+import java.nio.channels.Channels;
 import java.util.Arrays;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
@@ -239,11 +241,13 @@ public class TestCellSerialization {
     byte[] serializedCell2 = c1_more.toBoc(true);
     log.info("serializedCell2 hex {}", Utils.bytesToHex(serializedCell1));
     Cell dc2 = CellBuilder.beginCell().fromBoc(serializedCell2).endCell();
-    assertThat(CellSlice.beginParse(dc2).loadRef().bits.toString()).isEqualTo(c2.bits.toString());
-    assertThat(dc2.refs.get(1).bits.toString()).isEqualTo(c4.bits.toString());
-    assertThat(dc2.refs.get(0).refs.get(0).bits.toString()).isEqualTo(c3.bits.toString());
-    assertThat(dc2.refs.get(0).refs.get(0).refs.get(0).bits.toString())
-        .isEqualTo(c5.bits.toString());
+    assertThat(CellSlice.beginParse(dc2).loadRef().getBits().toString())
+        .isEqualTo(c2.getBits().toString());
+    assertThat(dc2.refs.get(1).getBits().toString()).isEqualTo(c4.getBits().toString());
+    assertThat(dc2.refs.get(0).refs.get(0).getBits().toString())
+        .isEqualTo(c3.getBits().toString());
+    assertThat(dc2.refs.get(0).refs.get(0).refs.get(0).getBits().toString())
+        .isEqualTo(c5.getBits().toString());
   }
 
   @Test
@@ -262,8 +266,8 @@ public class TestCellSerialization {
     assertThat(Utils.bytesToHex(serializedCell2)).isEqualTo("b5ee9c72410101010003000001558501ef11");
 
     Cell dc2 = CellBuilder.beginCell().fromBoc(serializedCell2).endCell();
-    log.info("dc2 bitString {}", dc2.bits.toBitString());
-    log.info("dc2 hex       {}", dc2.bits.toHex());
+    log.info("dc2 bitString {}", dc2.getBits().toBitString());
+    log.info("dc2 hex       {}", dc2.getBits().toHex());
     assertThat(dc2.toBitString()).isEqualTo("0101010"); // bad 101010101
     assertThat(dc2.bitStringToHex()).isEqualTo("55_"); // bad 000155
   }
@@ -447,4 +451,36 @@ public class TestCellSerialization {
     log.info("cell with size {}", cellWithRoots.size());
     log.info("cell with roots {}", cellWithRoots.size());
   }
+
+  @Test
+  public void testCellSerializationToStream() {
+    Cell c1 = CellBuilder.beginCell().storeUint(42, 7).endCell();
+    Cell c2 = CellBuilder.beginCell().storeUint(73, 255).storeRef(c1).endCell();
+    Cell c3 = CellBuilder.beginCell().storeUint(13, 8).storeRef(c1).storeRef(c2).endCell();
+
+    for (int flags = 0; flags < 4; flags++) {
+      boolean withCrc = (flags & 1) != 0;
+      boolean withIdx = (flags & 2) != 0;
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      c3.toBoc(os, withCrc, withIdx, false, false, false);
+      assertThat(os.toByteArray()).isEqualTo(c3.toBoc(withCrc, withIdx));
+    }
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    c3.toBoc(Channels.newChannel(os), true);
+    assertThat(Cell.fromBoc(os.toByteArray()).getHash()).isEqualTo(c3.getHash());
+  }
+
+  @Test
+  public void testMultiRootCellSerialization() {
+    Cell c1 = CellBuilder.beginCell().storeUint(42, 7).endCell();
+    Cell c2 = CellBuilder.beginCell().storeUint(12, 8).storeRef(c1).endCell();
+    Cell c3 = CellBuilder.beginCell().storeUint(13, 8).storeRef(c2).endCell();
+    byte[] boc = new Cell().toBocMultiRoot(Arrays.asList(c3, c2), true, false, false, false, false);
+
+    List<Cell> roots = Cell.fromBocMultiRoot(boc);
+    assertThat(roots.size()).isEqualTo(2);
+    assertThat(roots.get(0).getHash()).isEqualTo(c3.getHash());
+    assertThat(roots.get(1).getHash()).isEqualTo(c2.getHash());
+  }
 }
@@ -7,6 +7,7 @@ import static org.junit.Assert.assertThrows;
 import java.math.BigInteger;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.Random;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -769,4 +770,56 @@ public class TestCellSlice {
             j++;
         }
     }
+
+    @Test
+    public void testCellSlicePrimitiveLoads() {
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            int uintBits = 1 + random.nextInt(63);
+            long uint = random.nextLong() >>> (64 - uintBits);
+            int intBits = 1 + random.nextInt(64);
+            long sint = random.nextLong() >> (64 - intBits);
+            long coins = random.nextLong() >>> (1 + random.nextInt(63));
+
+            Cell c = CellBuilder.beginCell()
+                    .storeUint(uint, uintBits)
+                    .storeInt(sint, intBits)
+                    .storeCoins(coins)
+                    .storeUint(BigInteger.valueOf(uint), uintBits)
+                    .storeInt(BigInteger.valueOf(sint), intBits)
+                    .storeCoins(BigInteger.valueOf(coins))
+                    .endCell();
+
+            CellSlice cs = CellSlice.beginParse(c);
+            assertThat(cs.preloadUintAsLong(uintBits)).isEqualTo(uint);
+            assertThat(cs.preloadUint(uintBits)).isEqualTo(BigInteger.valueOf(uint));
+            assertThat(cs.loadUintAsLong(uintBits)).isEqualTo(uint);
+            assertThat(cs.preloadInt(intBits)).isEqualTo(BigInteger.valueOf(sint));
+            assertThat(cs.loadIntAsLong(intBits)).isEqualTo(sint);
+            assertThat(cs.loadCoinsAsLong()).isEqualTo(coins);
+            assertThat(cs.loadUint(uintBits)).isEqualTo(BigInteger.valueOf(uint));
+            assertThat(cs.loadInt(intBits)).isEqualTo(BigInteger.valueOf(sint));
+            assertThat(cs.loadCoins()).isEqualTo(BigInteger.valueOf(coins));
+            cs.endParse();
+        }
+
+        CellSlice cs = CellSlice.beginParse(CellBuilder.beginCell()
+                .storeUint(0xAB, 8)
+                .storeUint(0xFFFF, 16)
+                .storeUint(0xFFFFFFFFL, 32)
+                .storeUint(new BigInteger("FFFFFFFFFFFFFFFF", 16), 64)
+                .storeCoins(new BigInteger("1000000000000000000000"))
+                .endCell());
+        assertThat(cs.loadUint8()).isEqualTo(0xAB);
+        assertThat(cs.loadUint16()).isEqualTo(0xFFFF);
+        assertThat(cs.loadUint32()).isEqualTo(0xFFFFFFFFL);
+        assertThat(cs.preloadUintAsLong(64)).isEqualTo(-1L);
+        assertThat(cs.loadUint(64)).isEqualTo(new BigInteger("FFFFFFFFFFFFFFFF", 16));
+        assertThrows(Error.class, cs::loadCoinsAsLong);
+
+        assertThrows(Error.class, () -> CellBuilder.beginCell().storeUint(-1L, 8));
+        assertThrows(Error.class, () -> CellBuilder.beginCell().storeUint(256L, 8));
+        assertThrows(Error.class, () -> CellBuilder.beginCell().storeInt(128L, 8));
+        assertThrows(Error.class, () -> CellBuilder.beginCell().storeInt(-129L, 8));
+    }
 }
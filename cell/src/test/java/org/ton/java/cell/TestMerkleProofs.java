@@ -0,0 +1,104 @@
+package org.ton.java.cell;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Collections;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+@Slf4j
+@RunWith(JUnit4.class)
+public class TestMerkleProofs {
+
+    @Test
+    public void testProofOfPath() {
+        Cell root = tree(10, 0);
+        Cell target = root.getRefs().get(1).getRefs().get(0).getRefs().get(1);
+
+        Set<Cell> visited = MerkleProofs.pathTo(root, target);
+        assertThat(visited).hasSize(4);
+
+        Cell proof = MerkleProofs.build(root, visited);
+        Cell proven = MerkleProofs.verifyBoc(proof.toBoc(), root.getHash());
+        assertThat(proven.getRefs().get(0).getCellType()).isEqualTo(CellType.PRUNED_BRANCH);
+        Cell provenTarget = proven.getRefs().get(1).getRefs().get(0).getRefs().get(1);
+        assertThat(provenTarget.getHash(0)).isEqualTo(target.getHash());
+        assertThat(CellSlice.beginParse(provenTarget).loadUint(32)).isEqualTo(CellSlice.beginParse(target).loadUint(32));
+        // children of the target were not visited
+        assertThat(provenTarget.getRefs().get(0).getCellType()).isEqualTo(CellType.PRUNED_BRANCH);
+
+        assertThat(proof.toBoc().length).isLessThan(root.toBoc().length / 4);
+    }
+
+    @Test
+    public void testProofWithSubtree() {
+        Cell root = tree(5, 0);
+        Cell target = root.getRefs().get(0).getRefs().get(0);
+        Set<Cell> visited = MerkleProofs.pathTo(root, target);
+        visited.addAll(MerkleProofs.subtree(target));
+
+        Cell proven = MerkleProofs.verify(MerkleProofs.build(root, visited), root.getHash());
+        assertThat(proven.getRefs().get(0).getRefs().get(0).getHash()).isEqualTo(target.getHash());
+        assertThat(proven.getRefs().get(0).getRefs().get(0).levelMask.getMask()).isZero();
+    }
+
+    @Test
+    public void testVisitedCellsFromAnotherInstance() {
+        Cell root = tree(4, 0);
+        Cell parsed = Cell.fromBoc(root.toBoc());
+        Cell proof = MerkleProofs.build(parsed, MerkleProofs.pathTo(root, root.getRefs().get(1)));
+        assertThat(MerkleProofs.verify(proof, root.getHash()).getRefs().get(1).getCellType()).isEqualTo(CellType.ORDINARY);
+    }
+
+    @Test
+    public void testRejectsWrongProofs() {
+        Cell root = tree(4, 0);
+        Cell proof = MerkleProofs.build(root, Collections.singleton(root.getRefs().get(0)));
+
+        assertThrows(Error.class, () -> MerkleProofs.verify(proof, tree(4, 1).getHash()));
+        assertThrows(Error.class, () -> MerkleProofs.verify(root, root.getHash()));
+
+        // proof of another tree, with the hash of the expected one written over
+        Cell other = MerkleProofs.prune(tree(4, 1), Collections.<Cell>emptySet());
+        Cell forged = CellBuilder.beginCell().cellType(CellType.MERKLE_PROOF).setExotic(true)
+                .storeUint(MerkleProofs.MERKLE_PROOF_TYPE, 8)
+                .storeBytes(root.getHash())
+                .storeUint(root.getDepthLevels()[0], 16)
+                .storeRef(other)
+                .endCell();
+        assertThrows(Error.class, () -> MerkleProofs.verifyBoc(forged.toBoc(), root.getHash()));
+    }
+
+    @Test
+    public void testPrunedBranch() {
+        Cell root = tree(3, 0);
+        Cell pruned = MerkleProofs.prunedBranch(root);
+        assertThat(pruned.getCellType()).isEqualTo(CellType.PRUNED_BRANCH);
+        assertThat(pruned.getHash(0)).isEqualTo(root.getHash());
+        assertThat(pruned.levelMask.getMask()).isEqualTo(1);
+
+        Cell parent = MerkleProofs.prune(CellBuilder.beginCell().storeRef(root).endCell(), Collections.<Cell>emptySet());
+        assertThat(parent.levelMask.getMask()).isEqualTo(1);
+        assertThrows(Error.class, () -> MerkleProofs.prunedBranch(parent));
+    }
+
+    /**
+     * Full binary tree of the given height, every cell holds its own number.
+     */
+    private static Cell tree(int height, int seed) {
+        return tree(height, 1, seed);
+    }
+
+    private static Cell tree(int height, long n, int seed) {
+        CellBuilder builder = CellBuilder.beginCell().storeUint(n, 32).storeUint(seed, 8);
+        if (height > 1) {
+            builder.storeRef(tree(height - 1, 2 * n, seed)).storeRef(tree(height - 1, 2 * n + 1, seed));
+        }
+        return builder.endCell();
+    }
+}
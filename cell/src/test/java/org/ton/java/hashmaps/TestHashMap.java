@@ -4,16 +4,23 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertThrows;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 import org.ton.java.address.Address;
+import org.ton.java.bitstring.BitString;
 import org.ton.java.cell.Cell;
 import org.ton.java.cell.CellBuilder;
 import org.ton.java.cell.CellSlice;
 import org.ton.java.cell.TonHashMap;
+import org.ton.java.cell.TonHashMapView;
 import org.ton.java.utils.Utils;
 
 @Slf4j
@@ -200,4 +207,109 @@ public class TestHashMap {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testHashMapView() {
+        Random random = new Random(42);
+        TonHashMap x = new TonHashMap(32);
+        TreeMap<Long, Long> expected = new TreeMap<>();
+        while (expected.size() < 500) {
+            long key = random.nextInt() & 0xFFFFFFFFL;
+            long value = random.nextInt(65536);
+            expected.put(key, value);
+            x.elements.put(key, value);
+        }
+
+        Cell dictCell = x.serialize(
+                k -> CellBuilder.beginCell().storeUint((Long) k, 32).endCell().getBits(),
+                v -> CellBuilder.beginCell().storeUint((Long) v, 16).endCell()
+        );
+
+        TonHashMapView view = CellSlice.beginParse(dictCell).loadDictView(32);
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertThat(view.get(entry.getKey()).loadUintAsLong(16)).isEqualTo(entry.getValue());
+        }
+        assertThat(view.containsKey(BigInteger.valueOf(expected.firstKey() + 1))).isEqualTo(expected.containsKey(expected.firstKey() + 1));
+        assertThat(view.get(BigInteger.ZERO)).isNull();
+        assertThrows(Error.class, () -> view.get(new BitString(16)));
+
+        List<Long> keys = new ArrayList<>();
+        for (TonHashMapView.Entry entry : view) {
+            keys.add(entry.getKeyAsUint().longValue());
+            assertThat(entry.getValue().loadUintAsLong(16)).isEqualTo(expected.get(entry.getKeyAsUint().longValue()));
+        }
+        assertThat(keys).containsExactlyElementsOf(expected.keySet());
+
+        List<Long> descendingKeys = new ArrayList<>();
+        view.descending().forEach(e -> descendingKeys.add(e.getKeyAsUint().longValue()));
+        assertThat(descendingKeys).containsExactlyElementsOf(expected.descendingKeySet());
+
+        assertThat(view.min().getKeyAsUint().longValue()).isEqualTo(expected.firstKey());
+        assertThat(view.max().getKeyAsUint().longValue()).isEqualTo(expected.lastKey());
+
+        long from = 0x40000000L;
+        long to = 0x80000000L;
+        List<Long> rangeKeys = new ArrayList<>();
+        view.range(BigInteger.valueOf(from), BigInteger.valueOf(to)).forEach(e -> rangeKeys.add(e.getKeyAsUint().longValue()));
+        assertThat(rangeKeys).containsExactlyElementsOf(expected.subMap(from, to).keySet());
+
+        // first two bits 01 select the same keys as the range above
+        BitString prefix = new BitString(2);
+        prefix.writeBit(false);
+        prefix.writeBit(true);
+        List<Long> prefixKeys = new ArrayList<>();
+        view.withPrefix(prefix).forEach(e -> prefixKeys.add(e.getKeyAsUint().longValue()));
+        assertThat(prefixKeys).containsExactlyElementsOf(rangeKeys);
+
+        Long existing = expected.firstKey();
+        List<Long> singleRange = new ArrayList<>();
+        view.range(BigInteger.valueOf(existing), BigInteger.valueOf(existing + 1)).forEach(e -> singleRange.add(e.getKeyAsUint().longValue()));
+        assertThat(singleRange).containsExactly(existing);
+    }
+
+    @Test
+    public void testHashMapBulkSerialization() {
+        Random random = new Random(7);
+        TonHashMap x = new TonHashMap(256);
+        while (x.elements.size() < 20000) {
+            x.elements.put(new BigInteger(256, random), (long) x.elements.size());
+        }
+
+        Cell dictCell = x.serialize(
+                k -> CellBuilder.beginCell().storeUint((BigInteger) k, 256).endCell().getBits(),
+                v -> CellBuilder.beginCell().storeUint((Long) v, 32).endCell()
+        );
+
+        TonHashMap loaded = CellSlice.beginParse(dictCell).loadDict(256,
+                k -> k.readUint(256),
+                v -> CellSlice.beginParse(v).loadUintAsLong(32));
+        assertThat(loaded.elements).isEqualTo(x.elements);
+
+        // deserialized elements come in ascending key order
+        List<BigInteger> sortedKeys = new ArrayList<>();
+        for (Object key : x.elements.keySet()) {
+            sortedKeys.add((BigInteger) key);
+        }
+        Collections.sort(sortedKeys);
+        for (int i = 0; i < sortedKeys.size(); i += 997) {
+            assertThat(loaded.getKeyByIndex(i)).isEqualTo(sortedKeys.get(i));
+            assertThat(loaded.getValueByIndex(i)).isEqualTo(x.elements.get(sortedKeys.get(i)));
+        }
+        assertThrows(Error.class, () -> loaded.getKeyByIndex(sortedKeys.size()));
+
+        loaded.elements.remove(sortedKeys.get(0));
+        assertThat(loaded.getKeyByIndex(0)).isEqualTo(sortedKeys.get(1));
+    }
+
+    @Test
+    public void testHashMapSerializationDuplicateKeys() {
+        TonHashMap x = new TonHashMap(8);
+        x.elements.put(1L, 1L);
+        x.elements.put(BigInteger.ONE, 2L);
+
+        assertThrows(Error.class, () -> x.serialize(
+                k -> CellBuilder.beginCell().storeUint(((Number) k).longValue(), 8).endCell().getBits(),
+                v -> CellBuilder.beginCell().storeUint((Long) v, 8).endCell()
+        ));
+    }
+}
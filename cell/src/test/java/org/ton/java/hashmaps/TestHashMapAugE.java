@@ -9,6 +9,7 @@ import org.ton.java.cell.Cell;
 import org.ton.java.cell.CellBuilder;
 import org.ton.java.cell.CellSlice;
 import org.ton.java.cell.TonHashMapAugE;
+import org.ton.java.cell.TonHashMapView;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -120,4 +121,43 @@ public class TestHashMapAugE {
         log.info("Deserialized hashmapAugE from cell {}, count {}", loadedDict, loadedDict.elements.size());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testHashMapAugEView() {
+        TonHashMapAugE hashmapAugE = new TonHashMapAugE(32);
+        for (long i = 1; i <= 100; i++) {
+            hashmapAugE.elements.put(i * 7, Pair.of(i, i * i));
+        }
+
+        Cell cell = hashmapAugE.serialize(
+                k -> CellBuilder.beginCell().storeUint((Long) k, 32).endCell().getBits(),
+                v -> CellBuilder.beginCell().storeUint((Long) v, 32).endCell(),
+                e -> CellBuilder.beginCell().storeUint((Long) e, 32).endCell(),
+                (fv, fe) -> CellBuilder.beginCell().storeUint(0, 32)
+        );
+
+        TonHashMapAugE loadedDict = CellSlice.beginParse(cell).loadDictAugE(32,
+                k -> k.readUint(32).longValue(),
+                v -> v.loadUintAsLong(32),
+                e -> e.loadUintAsLong(32)
+        );
+        TonHashMapView view = CellSlice.beginParse(cell).loadDictAugEView(32);
+
+        // view returns leaf in the same layout as consumed by extraParser and valueParser
+        CellSlice extraAndValue = view.get(70);
+        assertThat(extraAndValue.loadUintAsLong(32)).isEqualTo(loadedDict.elements.get(70L).getRight());
+        assertThat(extraAndValue.loadUintAsLong(32)).isEqualTo(loadedDict.elements.get(70L).getLeft());
+        assertThat(view.get(71)).isNull();
+
+        long count = 0;
+        long previous = -1;
+        for (TonHashMapView.Entry entry : view) {
+            long key = entry.getKeyAsUint().longValue();
+            assertThat(key).isGreaterThan(previous);
+            previous = key;
+            count++;
+        }
+        assertThat(count).isEqualTo(100);
+        assertThat(view.max().getKeyAsUint().longValue()).isEqualTo(700);
+    }
+}
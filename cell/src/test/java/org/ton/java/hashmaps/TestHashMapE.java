@@ -1,6 +1,7 @@
 package org.ton.java.hashmaps;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
 
 import java.io.IOException;
 import java.math.BigInteger;
@@ -484,4 +485,79 @@ public class TestHashMapE {
 
     log.info("dict {}", loadedDictX.toString());
   }
+
+  @Test
+  public void testHashMapEView() {
+    TonHashMapE x = new TonHashMapE(9);
+    x.elements.put(100L, (byte) 1);
+    x.elements.put(200L, (byte) 2);
+    x.elements.put(300L, (byte) 3);
+    x.elements.put(400L, (byte) 4);
+
+    Cell dictCell =
+        x.serialize(
+            k -> CellBuilder.beginCell().storeUint((Long) k, 9).endCell().getBits(),
+            v -> CellBuilder.beginCell().storeUint((byte) v, 3).endCell());
+    Cell cellWithDict =
+        CellBuilder.beginCell().storeDict(dictCell).storeUint(7, 8).endCell();
+
+    CellSlice cs = CellSlice.beginParse(cellWithDict);
+    TonHashMapView view = cs.loadDictEView(9);
+    assertThat(cs.loadUint8()).isEqualTo(7);
+
+    assertThat(view.get(300).loadUintAsLong(3)).isEqualTo(3);
+    assertThat(view.containsKey(BigInteger.valueOf(301))).isFalse();
+    assertThat(view.min().getKeyAsUint()).isEqualTo(100);
+    assertThat(view.max().getKeyAsUint()).isEqualTo(400);
+
+    Cell emptyDict = CellBuilder.beginCell().storeDict(null).endCell();
+    TonHashMapView emptyView = CellSlice.beginParse(emptyDict).loadDictEView(9);
+    assertThat(emptyView.isEmpty()).isTrue();
+    assertThat(emptyView.get(100)).isNull();
+    assertThat(emptyView.min()).isNull();
+  }
+
+  @Test
+  public void testHashMapEViewWithPrunedBranch() {
+    TonHashMapE x = new TonHashMapE(9);
+    x.elements.put(100L, (byte) 1);
+    x.elements.put(200L, (byte) 2);
+    x.elements.put(300L, (byte) 3);
+    x.elements.put(400L, (byte) 4);
+
+    Cell dictCell =
+        x.serialize(
+            k -> CellBuilder.beginCell().storeUint((Long) k, 9).endCell().getBits(),
+            v -> CellBuilder.beginCell().storeUint((byte) v, 3).endCell());
+    // keys above 255 are under the right ref of the root fork
+    Cell proofDict =
+        CellBuilder.beginCell()
+            .storeBitString(dictCell.getBits())
+            .storeRef(dictCell.getRefs().get(0))
+            .storeRef(MerkleProofs.prunedBranch(dictCell.getRefs().get(1)))
+            .endCell();
+
+    TonHashMapView view = TonHashMapView.of(CellSlice.beginParse(proofDict), 9);
+    assertThat(view.get(200).loadUintAsLong(3)).isEqualTo(2);
+    assertThat(view.get(101)).isNull();
+    Error e = assertThrows(Error.class, () -> view.get(300));
+    assertThat(e.getMessage()).contains("pruned");
+    assertThrows(Error.class, () -> view.containsKey(BigInteger.valueOf(301)));
+    assertThrows(Error.class, view::max);
+
+    long count = 0;
+    for (TonHashMapView.Entry entry : view.range(BigInteger.ZERO, BigInteger.valueOf(255))) {
+      assertThat(entry.getKeyAsUint().longValue()).isLessThan(255);
+      count++;
+    }
+    assertThat(count).isEqualTo(2);
+
+    Cell prunedDict =
+        CellBuilder.beginCell().storeRef(MerkleProofs.prunedBranch(dictCell)).endCell();
+    assertThrows(
+        Error.class,
+        () -> CellSlice.beginParse(prunedDict.getRefs().get(0)).loadDictAugEView(9));
+    assertThrows(
+        Error.class, () -> TonHashMapView.of(CellSlice.beginParse(prunedDict.getRefs().get(0)), 9).get(100));
+  }
 }
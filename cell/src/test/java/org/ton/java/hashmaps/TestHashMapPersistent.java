@@ -0,0 +1,302 @@
+package org.ton.java.hashmaps;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.ton.java.bitstring.BitString;
+import org.ton.java.cell.Cell;
+import org.ton.java.cell.CellBuilder;
+import org.ton.java.cell.CellSlice;
+import org.ton.java.cell.CellType;
+import org.ton.java.cell.MerkleProofs;
+import org.ton.java.cell.TonHashMapAug;
+import org.ton.java.cell.TonHashMapE;
+import org.ton.java.cell.TonHashMapPersistent;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+@Slf4j
+@RunWith(JUnit4.class)
+public class TestHashMapPersistent {
+
+    private static final int KEY_SIZE = 64;
+
+    private static final TonHashMapPersistent.Augmentation SUM = new TonHashMapPersistent.Augmentation() {
+        @Override
+        public Cell loadExtra(CellSlice slice) {
+            return CellBuilder.beginCell().storeUint(slice.loadUint(32), 32).endCell();
+        }
+
+        @Override
+        public Cell fork(Cell leftExtra, Cell rightExtra) {
+            long sum = CellSlice.beginParse(leftExtra).loadUint(32).longValue()
+                    + CellSlice.beginParse(rightExtra).loadUint(32).longValue();
+            return CellBuilder.beginCell().storeUint(sum, 32).endCell();
+        }
+    };
+
+    /**
+     * Sum in the bits, number of leaves in a ref, like CurrencyCollection keeps extra currencies in a ref.
+     */
+    private static final TonHashMapPersistent.Augmentation SUM_AND_COUNT = new TonHashMapPersistent.Augmentation() {
+        @Override
+        public Cell loadExtra(CellSlice slice) {
+            return extra(slice.loadUint(32).longValue(), CellSlice.beginParse(slice.loadRef()).loadUint(32).longValue());
+        }
+
+        @Override
+        public Cell fork(Cell leftExtra, Cell rightExtra) {
+            CellSlice left = CellSlice.beginParse(leftExtra);
+            CellSlice right = CellSlice.beginParse(rightExtra);
+            return extra(left.loadUint(32).longValue() + right.loadUint(32).longValue(),
+                    CellSlice.beginParse(left.loadRef()).loadUint(32).longValue()
+                            + CellSlice.beginParse(right.loadRef()).loadUint(32).longValue());
+        }
+    };
+
+    @Test
+    public void testPutMatchesFullSerialization() {
+        Random random = new Random(42);
+        TreeMap<BigInteger, Long> expected = new TreeMap<>();
+        TonHashMapPersistent dict = TonHashMapPersistent.empty(KEY_SIZE);
+        for (int i = 0; i < 1000; i++) {
+            BigInteger key = BigInteger.valueOf(random.nextLong() & Long.MAX_VALUE);
+            long value = random.nextInt(1 << 16);
+            expected.put(key, value);
+            dict = dict.put(key, value(value));
+            if (i % 97 == 0) {
+                assertThat(dict.getRoot().getHash()).isEqualTo(serialize(expected).getHash());
+            }
+        }
+        assertThat(dict.getRoot().getHash()).isEqualTo(serialize(expected).getHash());
+
+        // replace existing value
+        BigInteger first = expected.firstKey();
+        expected.put(first, 7L);
+        dict = dict.put(first, value(7));
+        assertThat(dict.getRoot().getHash()).isEqualTo(serialize(expected).getHash());
+        assertThat(dict.get(first).loadUint(16).longValue()).isEqualTo(7);
+    }
+
+    @Test
+    public void testRemove() {
+        TreeMap<BigInteger, Long> expected = new TreeMap<>();
+        TonHashMapPersistent dict = TonHashMapPersistent.empty(KEY_SIZE);
+        for (long i = 0; i < 300; i++) {
+            BigInteger key = BigInteger.valueOf(i * i * 31);
+            expected.put(key, i);
+            dict = dict.put(key, value(i));
+        }
+        assertThat(dict.remove(BigInteger.valueOf(5))).isSameAs(dict);
+
+        List<BigInteger> keys = new ArrayList<>(expected.keySet());
+        Collections.shuffle(keys, new Random(7));
+        for (BigInteger key : keys) {
+            expected.remove(key);
+            dict = dict.remove(key);
+            assertThat(dict.containsKey(toKey(key))).isFalse();
+            if (!expected.isEmpty()) {
+                assertThat(dict.getRoot().getHash()).isEqualTo(serialize(expected).getHash());
+            }
+        }
+        assertThat(dict.isEmpty()).isTrue();
+        assertThat(dict.getRoot()).isNull();
+    }
+
+    @Test
+    public void testOldVersionIsKeptAndSubtreesAreShared() {
+        TonHashMapPersistent v1 = TonHashMapPersistent.empty(KEY_SIZE);
+        for (long i = 0; i < 64; i++) {
+            v1 = v1.put(BigInteger.valueOf(i), value(i));
+        }
+        byte[] v1Hash = v1.getRoot().getHash();
+
+        // keys 0..63 differ only in the lowest 6 bits, key 0 lies in the left subtree of the root fork
+        TonHashMapPersistent v2 = v1.put(BigInteger.ZERO, value(1000));
+        assertThat(v1.getRoot().getHash()).isEqualTo(v1Hash);
+        assertThat(v1.get(BigInteger.ZERO).loadUint(16).longValue()).isZero();
+        assertThat(v2.get(BigInteger.ZERO).loadUint(16).longValue()).isEqualTo(1000);
+        assertThat(v2.getRoot().getRefs().get(1)).isSameAs(v1.getRoot().getRefs().get(1));
+        assertThat(v2.getRoot().getRefs().get(0)).isNotSameAs(v1.getRoot().getRefs().get(0));
+
+        TonHashMapPersistent v3 = v2.remove(BigInteger.valueOf(63));
+        assertThat(v3.getRoot().getRefs().get(0)).isSameAs(v2.getRoot().getRefs().get(0));
+        assertThat(v2.containsKey(toKey(BigInteger.valueOf(63)))).isTrue();
+    }
+
+    @Test
+    public void testStartFromSerializedDictionary() {
+        TreeMap<BigInteger, Long> expected = new TreeMap<>();
+        for (long i = 1; i <= 100; i++) {
+            expected.put(BigInteger.valueOf(i * 1000), i);
+        }
+        TonHashMapPersistent dict = TonHashMapPersistent.of(serialize(expected), KEY_SIZE);
+        expected.put(BigInteger.valueOf(1), 1L);
+        expected.remove(BigInteger.valueOf(50000));
+        dict = dict.put(BigInteger.valueOf(1), value(1)).remove(BigInteger.valueOf(50000));
+        assertThat(dict.getRoot().getHash()).isEqualTo(serialize(expected).getHash());
+
+        Cell stored = CellBuilder.beginCell().storeDict(dict.getRoot()).endCell();
+        assertThat(CellSlice.beginParse(stored).loadDictE(KEY_SIZE, k -> k.readUint(KEY_SIZE), v -> v).elements).hasSize(100);
+    }
+
+    @Test
+    public void testAugmentedExtrasFollowUpdates() {
+        Random random = new Random(1);
+        TonHashMapPersistent dict = TonHashMapPersistent.emptyAug(32, SUM);
+        TreeMap<BigInteger, Long> extras = new TreeMap<>();
+        for (int i = 0; i < 500; i++) {
+            BigInteger key = BigInteger.valueOf(random.nextInt(2000));
+            long extra = random.nextInt(1000);
+            extras.put(key, extra);
+            dict = dict.put(key, value(i), CellBuilder.beginCell().storeUint(extra, 32).endCell());
+            assertThat(rootExtra(dict)).isEqualTo(sum(extras));
+        }
+        List<BigInteger> keys = new ArrayList<>(extras.keySet());
+        for (int i = 0; i < keys.size(); i += 3) {
+            extras.remove(keys.get(i));
+            dict = dict.remove(keys.get(i));
+            assertThat(rootExtra(dict)).isEqualTo(sum(extras));
+        }
+
+        // the tree does not depend on the order of updates
+        TonHashMapPersistent rebuilt = TonHashMapPersistent.emptyAug(32, SUM);
+        for (BigInteger key : extras.descendingKeySet()) {
+            CellSlice leaf = dict.get(key);
+            Cell extra = SUM.loadExtra(leaf);
+            rebuilt = rebuilt.put(key, CellBuilder.beginCell().storeSlice(leaf).endCell(), extra);
+        }
+        assertThat(rebuilt.getRoot().getHash()).isEqualTo(dict.getRoot().getHash());
+    }
+
+    @Test
+    public void testExtraWithRef() {
+        Random random = new Random(3);
+        TonHashMapPersistent dict = TonHashMapPersistent.emptyAug(32, SUM_AND_COUNT);
+        TreeMap<BigInteger, Long> extras = new TreeMap<>();
+        for (int i = 0; i < 300; i++) {
+            BigInteger key = BigInteger.valueOf(random.nextInt(1000));
+            long extra = random.nextInt(1000);
+            extras.put(key, extra);
+            dict = dict.put(key, value(i), extra(extra, 1));
+        }
+        List<BigInteger> keys = new ArrayList<>(extras.keySet());
+        for (int i = 0; i < keys.size(); i += 4) {
+            extras.remove(keys.get(i));
+            dict = dict.remove(keys.get(i));
+        }
+        CellSlice rootExtra = CellSlice.beginParse(dict.getRootExtra());
+        assertThat(rootExtra.loadUint(32).longValue()).isEqualTo(sum(extras));
+        assertThat(CellSlice.beginParse(rootExtra.loadRef()).loadUint(32).longValue()).isEqualTo(extras.size());
+
+        TonHashMapAug loaded = CellSlice.beginParse(dict.getRoot()).loadDictAug(32, k -> k.readUint(32), v -> v, e -> e);
+        assertThat(loaded.elements).hasSize(extras.size());
+    }
+
+    /**
+     * All 16 keys of 4 bits make a full tree, every label is empty and the extra ref is the last ref of any edge,
+     * so forkExtra of TonHashMapAug.serialize() can read extras of child edges without knowing their key size.
+     */
+    @Test
+    public void testAugmentedMatchesFullSerialization() {
+        TonHashMapAug expected = new TonHashMapAug(4);
+        TonHashMapPersistent dict = TonHashMapPersistent.emptyAug(4, SUM_AND_COUNT);
+        List<Long> keys = new ArrayList<>();
+        for (long i = 0; i < 16; i++) {
+            keys.add(i);
+        }
+        Collections.shuffle(keys, new Random(5));
+        for (long key : keys) {
+            expected.elements.put(key, Pair.of(key * 10, key * key));
+            dict = dict.put(BigInteger.valueOf(key), value(key * 10), extra(key * key, 1));
+        }
+        Cell serialized = expected.serialize(
+                k -> CellBuilder.beginCell().storeUint((Long) k, 4).endCell().getBits(),
+                v -> value((Long) v),
+                e -> extra((Long) e, 1),
+                (left, right) -> CellBuilder.beginCell().storeCell(
+                        SUM_AND_COUNT.fork(extraOfEdge((Cell) left), extraOfEdge((Cell) right))));
+        assertThat(dict.getRoot().getHash()).isEqualTo(serialized.getHash());
+        assertThat(CellSlice.beginParse(dict.getRootExtra()).loadUint(32).longValue()).isEqualTo(1240);
+    }
+
+    @Test
+    public void testUpdatesUnderPrunedBranchFail() {
+        BigInteger high = BigInteger.ONE.shiftLeft(63);
+        TonHashMapPersistent full = TonHashMapPersistent.empty(KEY_SIZE);
+        for (long i = 1; i <= 3; i++) {
+            full = full.put(BigInteger.valueOf(i), value(i)).put(high.add(BigInteger.valueOf(i)), value(i));
+        }
+        // keys with the highest bit set are under the right ref of the root fork
+        Cell root = full.getRoot();
+        Cell proofRoot = CellBuilder.beginCell()
+                .storeBitString(root.getBits())
+                .storeRef(root.getRefs().get(0))
+                .storeRef(MerkleProofs.prunedBranch(root.getRefs().get(1)))
+                .endCell();
+        TonHashMapPersistent dict = TonHashMapPersistent.of(proofRoot, KEY_SIZE);
+
+        assertThrows(Error.class, () -> dict.put(high.add(BigInteger.valueOf(4)), value(4)));
+        assertThrows(Error.class, () -> dict.remove(high.add(BigInteger.ONE)));
+        assertThrows(Error.class, () -> dict.get(high.add(BigInteger.ONE)));
+
+        TonHashMapPersistent updated = dict.put(BigInteger.valueOf(4), value(4)).remove(BigInteger.ONE);
+        assertThat(updated.getRoot().getRefs().get(1).getCellType()).isEqualTo(CellType.PRUNED_BRANCH);
+        assertThat(updated.getRoot().getHash(0))
+                .isEqualTo(full.put(BigInteger.valueOf(4), value(4)).remove(BigInteger.ONE).getRoot().getHash());
+    }
+
+    private static Cell extraOfEdge(Cell edge) {
+        CellSlice cs = CellSlice.beginParse(edge);
+        cs.skipBits(2); // hml_short$0 of an empty label
+        return CellBuilder.beginCell()
+                .storeUint(cs.loadUint(32), 32)
+                .storeRef(edge.getRefs().get(edge.getRefs().size() - 1))
+                .endCell();
+    }
+
+    private static Cell extra(long sum, long count) {
+        return CellBuilder.beginCell()
+                .storeUint(sum, 32)
+                .storeRef(CellBuilder.beginCell().storeUint(count, 32).endCell())
+                .endCell();
+    }
+
+    private static long rootExtra(TonHashMapPersistent dict) {
+        return CellSlice.beginParse(dict.getRootExtra()).loadUint(32).longValue();
+    }
+
+    private static long sum(TreeMap<BigInteger, Long> extras) {
+        long sum = 0;
+        for (long extra : extras.values()) {
+            sum += extra;
+        }
+        return sum;
+    }
+
+    private static Cell value(long value) {
+        return CellBuilder.beginCell().storeUint(value, 16).endCell();
+    }
+
+    private static BitString toKey(BigInteger key) {
+        return CellBuilder.beginCell().storeUint(key, KEY_SIZE).endCell().getBits();
+    }
+
+    private static Cell serialize(TreeMap<BigInteger, Long> entries) {
+        TonHashMapE map = new TonHashMapE(KEY_SIZE);
+        map.elements.putAll(entries);
+        return map.serialize(
+                k -> CellBuilder.beginCell().storeUint((BigInteger) k, KEY_SIZE).endCell().getBits(),
+                v -> value((Long) v));
+    }
+}
@@ -0,0 +1,167 @@
+package org.ton.java.hashmaps;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.ton.java.bitstring.BitString;
+import org.ton.java.cell.Cell;
+import org.ton.java.cell.CellBuilder;
+import org.ton.java.cell.CellSlice;
+import org.ton.java.cell.CellType;
+import org.ton.java.cell.TonHashMap;
+import org.ton.java.cell.TonHashMapPersistent;
+import org.ton.java.cell.TonHashMapProofs;
+import org.ton.java.cell.TonHashMapView;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+@Slf4j
+@RunWith(JUnit4.class)
+public class TestHashMapProofs {
+
+    private static final int KEY_SIZE = 32;
+
+    private static final Function<Object, BitString> KEYS = k -> CellBuilder.beginCell().storeUint((Long) k, KEY_SIZE).endCell().getBits();
+    private static final Function<Object, Cell> VALUES = v -> CellBuilder.beginCell().storeUint((Long) v, 64).endCell();
+
+    /**
+     * Extra of HashmapAug kept in a ref, number of entries in the subtree.
+     */
+    private static final TonHashMapPersistent.Augmentation COUNT = new TonHashMapPersistent.Augmentation() {
+        @Override
+        public Cell loadExtra(CellSlice slice) {
+            return count(CellSlice.beginParse(slice.loadRef()).loadUint(32).longValue());
+        }
+
+        @Override
+        public Cell fork(Cell leftExtra, Cell rightExtra) {
+            return count(CellSlice.beginParse(leftExtra.getRefs().get(0)).loadUint(32).longValue()
+                    + CellSlice.beginParse(rightExtra.getRefs().get(0)).loadUint(32).longValue());
+        }
+    };
+
+    @Test
+    public void testProofOfEachKey() {
+        TonHashMap map = map(2000);
+        TonHashMapProofs proofs = TonHashMapProofs.of(map, KEYS, VALUES);
+
+        List<BitString> keys = new ArrayList<>();
+        for (Object key : map.elements.keySet()) {
+            keys.add(KEYS.apply(key));
+        }
+        List<Cell> all = proofs.proveEach(keys);
+        assertThat(all).hasSize(keys.size());
+
+        for (int i = 0; i < keys.size(); i += 97) {
+            Cell proof = Cell.fromBoc(all.get(i).toBoc());
+            TonHashMapView view = provenDict(proof, proofs.getRootHash());
+            assertThat(view.get(keys.get(i)).loadUint(64).longValue()).isEqualTo(map.elements.get(key(i)));
+            // present in the dictionary but pruned out of this proof, neither presence nor absence is proven
+            BitString other = keys.get((i + 1) % keys.size());
+            assertThat(assertThrows(Error.class, () -> view.get(other)).getMessage()).contains("pruned");
+        }
+    }
+
+    @Test
+    public void testProofOfAbsentKey() {
+        TonHashMapProofs proofs = TonHashMapProofs.of(map(100), KEYS, VALUES);
+        Cell proof = proofs.prove(BigInteger.valueOf(12345));
+        assertThat(provenDict(proof, proofs.getRootHash()).get(BigInteger.valueOf(12345))).isNull();
+    }
+
+    @Test
+    public void testCombinedProof() {
+        TonHashMap map = map(1000);
+        TonHashMapProofs proofs = TonHashMapProofs.of(map, KEYS, VALUES);
+        List<BitString> keys = Arrays.asList(KEYS.apply(key(3)), KEYS.apply(key(500)), KEYS.apply(key(999)));
+
+        Cell combined = proofs.prove(keys);
+        TonHashMapView view = provenDict(combined, proofs.getRootHash());
+        for (BitString key : keys) {
+            assertThat(view.get(key)).isNotNull();
+        }
+        assertThrows(Error.class, () -> view.get(KEYS.apply(key(4))));
+
+        int separate = 0;
+        for (Cell proof : proofs.proveEach(keys)) {
+            separate += proof.toBoc().length;
+        }
+        assertThat(combined.toBoc().length).isLessThan(separate);
+    }
+
+    @Test
+    public void testPrunedBranchesAreShared() {
+        TonHashMapProofs proofs = TonHashMapProofs.of(map(1000), KEYS, VALUES);
+        Cell a = proofs.prove(KEYS.apply(key(1))).getRefs().get(0);
+        Cell b = proofs.prove(KEYS.apply(key(2))).getRefs().get(0);
+        // both keys go to the same side of the root fork, the other side is the same pruned cell
+        int other = a.getRefs().get(0).getCellType() == CellType.PRUNED_BRANCH ? 0 : 1;
+        assertThat(a.getRefs().get(other).getCellType()).isEqualTo(CellType.PRUNED_BRANCH);
+        assertThat(b.getRefs().get(other)).isSameAs(a.getRefs().get(other));
+    }
+
+    @Test
+    public void testBuildMerkleProof() {
+        TonHashMap map = map(300);
+        Cell proof = map.buildMerkleProof(key(7), KEYS, VALUES);
+        Cell dict = map.serialize(KEYS, VALUES);
+        assertThat(provenDict(proof, dict.getHash()).get(KEYS.apply(key(7))).loadUint(64).longValue()).isEqualTo(map.elements.get(key(7)));
+        assertThat(proof.getHash()).isEqualTo(new TonHashMapProofs(dict, KEY_SIZE).prove(KEYS.apply(key(7))).getHash());
+    }
+
+    /**
+     * Refs of a HashmapAug fork extra are not children, they stay in the proof unpruned.
+     */
+    @Test
+    public void testAugmentedForkKeepsExtraRefs() {
+        TonHashMapPersistent dict = TonHashMapPersistent.emptyAug(KEY_SIZE, COUNT);
+        for (long i = 0; i < 100; i++) {
+            dict = dict.put(BigInteger.valueOf(key(i)), VALUES.apply(i), count(1));
+        }
+        Cell root = dict.getRoot();
+        assertThat(root.getRefs()).hasSize(3);
+
+        TonHashMapProofs proofs = new TonHashMapProofs(root, KEY_SIZE);
+        Cell provenRoot = proofs.prove(BigInteger.valueOf(key(42))).getRefs().get(0);
+        assertThat(provenRoot.getRefs()).hasSize(3);
+        assertThat(provenRoot.getRefs().get(2).getCellType()).isEqualTo(CellType.ORDINARY);
+        assertThat(provenRoot.getRefs().get(2).getHash()).isEqualTo(root.getRefs().get(2).getHash());
+
+        TonHashMapView view = provenDict(proofs.prove(BigInteger.valueOf(key(42))), proofs.getRootHash());
+        CellSlice leaf = view.get(BigInteger.valueOf(key(42)));
+        assertThat(CellSlice.beginParse(leaf.loadRef()).loadUint(32).longValue()).isEqualTo(1);
+        assertThat(leaf.loadUint(64).longValue()).isEqualTo(42);
+    }
+
+    private static TonHashMapView provenDict(Cell proof, byte[] rootHash) {
+        assertThat(proof.getCellType()).isEqualTo(CellType.MERKLE_PROOF);
+        Cell root = proof.getRefs().get(0);
+        assertThat(root.getHash(0)).isEqualTo(rootHash);
+        assertThat(CellSlice.beginParse(proof).skipBits(8).loadBytes(256)).isEqualTo(rootHash);
+        return TonHashMapView.of(CellSlice.beginParse(root), KEY_SIZE);
+    }
+
+    private static TonHashMap map(int size) {
+        TonHashMap map = new TonHashMap(KEY_SIZE, size);
+        for (long i = 0; i < size; i++) {
+            map.elements.put(key(i), i * 3);
+        }
+        return map;
+    }
+
+    private static Cell count(long count) {
+        return CellBuilder.beginCell().storeRef(CellBuilder.beginCell().storeUint(count, 32).endCell()).endCell();
+    }
+
+    private static long key(long i) {
+        return i * 7919 + 13;
+    }
+}
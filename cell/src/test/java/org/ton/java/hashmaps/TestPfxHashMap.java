@@ -8,6 +8,7 @@ import org.ton.java.bitstring.BitString;
 import org.ton.java.cell.Cell;
 import org.ton.java.cell.CellBuilder;
 import org.ton.java.cell.CellSlice;
+import org.ton.java.cell.TonHashMapView;
 import org.ton.java.cell.TonPfxHashMap;
 import org.ton.java.utils.Utils;
 
@@ -78,4 +79,26 @@ public class TestPfxHashMap {
         assertThat(Utils.bytesToHex(dictCell.toBoc())).isEqualTo(Utils.bytesToHex(dictCell.toBoc()));
         assertThat(dex.elements.size()).isEqualTo(4);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPfxHashMapView() {
+        String t = "B5EE9C7241010501007A00020374C001020045A0E034CD6A3000596F07C3F0AB332935D3E3FC98F1E78F6AE1FC710EA4D98732772F1002057FBFB003040043BFB333333333333333333333333333333333333333333333333333333333333333400043BF955555555555555555555555555555555555555555555555555555555555555540DE161D24";
+
+        Cell cellWithDict = CellBuilder.beginCell().fromBoc(t).endCell();
+        TonPfxHashMap dict = CellSlice.beginParse(cellWithDict).loadDictPfx(267, k -> k, v -> true);
+        TonHashMapView view = CellSlice.beginParse(cellWithDict).loadDictPfxView(267);
+
+        int count = 0;
+        for (TonHashMapView.Entry entry : view) {
+            assertThat(view.containsKey(entry.getKey())).isTrue();
+            assertThat(dict.elements.keySet().stream().anyMatch(k -> k.toString().equals(entry.getKey().toString()))).isTrue();
+            count++;
+        }
+        assertThat(count).isEqualTo(dict.elements.size());
+
+        BitString prefix = view.min().getKey().clone();
+        BitString shortened = prefix.readBits(prefix.getUsedBits() - 1);
+        assertThat(view.containsKey(shortened)).isFalse();
+        assertThat(view.withPrefix(shortened).iterator().next().getKey().toString()).isEqualTo(view.min().getKey().toString());
+    }
+}
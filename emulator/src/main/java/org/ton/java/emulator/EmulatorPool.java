@@ -0,0 +1,160 @@
+package org.ton.java.emulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.ton.java.emulator.tvm.TvmEmulator;
+import org.ton.java.emulator.tx.TxEmulator;
+import org.ton.java.utils.FanOut;
+
+/**
+ * Keeps several emulator instances and leases every instance to a single thread at a time.
+ *
+ * <p>Native emulator handle must not be used by several threads at once, so a single TxEmulator
+ * or TvmEmulator limits emulation to one core. The pool creates size instances up front and runs
+ * batches on size threads, each task holds an instance of its own for the time of the call.
+ *
+ * <pre>
+ * EmulatorPool&lt;TxEmulator&gt; pool = EmulatorPool.ofTxEmulators(8, TxEmulator.builder());
+ * List&lt;EmulateTransactionResult&gt; results = pool.executeAll(messageBocs,
+ *     (txEmulator, messageBoc) -&gt; txEmulator.emulateTransaction(shardAccountBoc, messageBoc));
+ * </pre>
+ */
+@Slf4j
+public class EmulatorPool<E> {
+
+  private final List<E> emulators;
+  private final BlockingQueue<E> idle;
+  private final Consumer<E> destroyer;
+  private final ExecutorService executor;
+  private volatile boolean destroyed;
+
+  /**
+   * @param size number of emulator instances and threads
+   * @param factory creates an emulator instance
+   * @param destroyer releases an emulator instance
+   */
+  public EmulatorPool(int size, Supplier<E> factory, Consumer<E> destroyer) {
+    if (size < 1) {
+      throw new Error("EmulatorPool size must be positive");
+    }
+    this.destroyer = destroyer;
+    this.emulators = new ArrayList<>();
+    try {
+      for (int i = 0; i < size; i++) {
+        emulators.add(factory.get());
+      }
+    } catch (Throwable e) {
+      emulators.forEach(destroyer);
+      throw e;
+    }
+    this.idle = new LinkedBlockingQueue<>(emulators);
+    AtomicInteger threadCounter = new AtomicInteger();
+    this.executor =
+        Executors.newFixedThreadPool(
+            size,
+            r -> {
+              Thread thread = new Thread(r, "emulator-pool-" + threadCounter.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * All instances are built by the same builder, so the shared library is located and loaded
+   * once.
+   */
+  public static EmulatorPool<TxEmulator> ofTxEmulators(
+      int size, TxEmulator.TxEmulatorBuilder builder) {
+    return new EmulatorPool<>(size, builder::build, TxEmulator::destroy);
+  }
+
+  public static EmulatorPool<TvmEmulator> ofTvmEmulators(
+      int size, TvmEmulator.TvmEmulatorBuilder builder) {
+    return new EmulatorPool<>(size, builder::build, TvmEmulator::destroy);
+  }
+
+  public int size() {
+    return emulators.size();
+  }
+
+  /**
+   * Runs the call in the current thread on an idle instance, waits if all instances are busy.
+   *
+   * @param call any method of the emulator
+   * @return result of the call
+   */
+  public <R> R execute(Function<E, R> call) {
+    if (destroyed) {
+      throw new Error("EmulatorPool is destroyed");
+    }
+    E emulator;
+    try {
+      emulator = idle.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new Error("Interrupted while waiting for emulator");
+    }
+    try {
+      return call.apply(emulator);
+    } finally {
+      idle.add(emulator);
+    }
+  }
+
+  /**
+   * Runs the call for every item on the pool threads.
+   *
+   * @return future completed with results in the order of items
+   */
+  public <T, R> CompletableFuture<List<R>> executeAllAsync(
+      List<T> items, BiFunction<E, T, R> call) {
+    return FanOut.mapOrderedBlocking(
+        items, size(), item -> execute(emulator -> call.apply(emulator, item)), null, executor);
+  }
+
+  /**
+   * Same as executeAllAsync(), but waits for all results.
+   *
+   * @return results in the order of items
+   */
+  public <T, R> List<R> executeAll(List<T> items, BiFunction<E, T, R> call) {
+    try {
+      return executeAllAsync(items, call).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new Error(e.getCause());
+    }
+  }
+
+  /** Waits for running calls and destroys all instances. */
+  public void destroy() {
+    destroyed = true;
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+        log.warn("EmulatorPool is destroyed while emulation is running");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    emulators.forEach(destroyer);
+  }
+}
@@ -17,6 +17,7 @@ import org.ton.java.tlb.types.VmStack;
 import org.ton.java.tlb.types.VmStackList;
 import org.ton.java.tlb.types.VmStackValueInt;
 import org.ton.java.tlb.types.VmStackValueTinyInt;
+import org.ton.java.utils.NativeOutput;
 import org.ton.java.utils.Utils;
 
 @Slf4j
@@ -38,6 +39,9 @@ public class TvmEmulator {
   private TvmVerbosityLevel verbosityLevel;
   private Boolean printEmulatorInfo;
 
+  private static final Gson gson =
+      new GsonBuilder().setObjectToNumberStrategy(ToNumberPolicy.BIG_DECIMAL).create();
+
   public static class TvmEmulatorBuilder {}
 
   public static TvmEmulatorBuilder builder() {
@@ -48,31 +52,31 @@ public class TvmEmulator {
     @Override
     public TvmEmulator build() {
 
-      if (isNull(super.pathToEmulatorSharedLib)) {
-        if ((Utils.getOS() == Utils.OS.WINDOWS) || (Utils.getOS() == Utils.OS.WINDOWS_ARM)) {
-          super.pathToEmulatorSharedLib = Utils.detectAbsolutePath("emulator", true);
-        } else {
-          super.pathToEmulatorSharedLib = Utils.detectAbsolutePath("libemulator", true);
-        }
-      }
-
       if (isNull(super.printEmulatorInfo)) {
         super.printEmulatorInfo = true;
       }
 
-      super.tvmEmulatorI = Native.load(super.pathToEmulatorSharedLib, TvmEmulatorI.class);
+      if (isNull(super.tvmEmulatorI)) {
+        if (isNull(super.pathToEmulatorSharedLib)) {
+          if ((Utils.getOS() == Utils.OS.WINDOWS) || (Utils.getOS() == Utils.OS.WINDOWS_ARM)) {
+            super.pathToEmulatorSharedLib = Utils.detectAbsolutePath("emulator", true);
+          } else {
+            super.pathToEmulatorSharedLib = Utils.detectAbsolutePath("libemulator", true);
+          }
+        }
+        super.tvmEmulatorI = Native.load(super.pathToEmulatorSharedLib, TvmEmulatorI.class);
+      }
       if (isNull(super.verbosityLevel)) {
         super.verbosityLevel = TvmVerbosityLevel.TRUNCATED;
       }
 
-      Utils.disableNativeOutput();
-
       if (isNull(super.codeBoc)) {
         throw new Error("codeBoc is not set");
       }
       if (isNull(super.dataBoc)) {
         throw new Error("dataBoc is not set");
       }
+      NativeOutput.init();
       super.tvmEmulator =
           super.tvmEmulatorI.tvm_emulator_create(
               super.codeBoc, super.dataBoc, super.verbosityLevel.ordinal());
@@ -81,8 +85,6 @@ public class TvmEmulator {
         super.tvmEmulatorI.tvm_emulator_set_debug_enabled(super.tvmEmulator, true);
       }
 
-      Utils.enableNativeOutput();
-
       if (super.tvmEmulator == 0) {
         throw new Error("Can't create emulator instance");
       }
@@ -98,9 +100,7 @@ public class TvmEmulator {
   }
 
   public void destroy() {
-    Utils.disableNativeOutput();
     tvmEmulatorI.tvm_emulator_destroy(tvmEmulator);
-    Utils.enableNativeOutput();
   }
 
   /**
@@ -110,9 +110,7 @@ public class TvmEmulator {
    * @return true in case of success, false in case of error
    */
   public boolean setLibs(String libsBoc) {
-    Utils.disableNativeOutput();
     boolean result = tvmEmulatorI.tvm_emulator_set_libraries(tvmEmulator, libsBoc);
-    Utils.enableNativeOutput();
     return result;
   }
 
@@ -142,10 +140,8 @@ public class TvmEmulator {
    */
   public boolean setC7(
       String address, long unixTime, long balance, String randSeedHex, String config) {
-    Utils.disableNativeOutput();
     boolean result = tvmEmulatorI.tvm_emulator_set_c7(
         tvmEmulator, address, unixTime, balance, randSeedHex, config);
-    Utils.enableNativeOutput();
     return result;
   }
 
@@ -156,9 +152,7 @@ public class TvmEmulator {
    * @return true in case of success, false in case of error
    */
   public boolean setPrevBlockInfo(String infoBoc) {
-    Utils.disableNativeOutput();
     boolean result = tvmEmulatorI.tvm_emulator_set_prev_blocks_info(tvmEmulator, infoBoc);
-    Utils.enableNativeOutput();
     return result;
   }
 
@@ -169,9 +163,7 @@ public class TvmEmulator {
    * @return true in case of success, false in case of error
    */
   public boolean setGasLimit(long gasLimit) {
-    Utils.disableNativeOutput();
     boolean result = tvmEmulatorI.tvm_emulator_set_gas_limit(tvmEmulator, gasLimit);
-    Utils.enableNativeOutput();
     return result;
   }
 
@@ -182,9 +174,7 @@ public class TvmEmulator {
    * @return true in case of success, false in case of error
    */
   public boolean setDebugEnabled(boolean debugEnabled) {
-    Utils.disableNativeOutput();
     boolean result = tvmEmulatorI.tvm_emulator_set_debug_enabled(tvmEmulator, debugEnabled);
-    Utils.enableNativeOutput();
     return result;
   }
 
@@ -198,10 +188,7 @@ public class TvmEmulator {
    *     serialized stack (VmStack)", "missing_library": null, "gas_used": 1212 }
    */
   public GetMethodResult runGetMethod(int methodId, String stackBoc) {
-    Utils.disableNativeOutput();
     String result = tvmEmulatorI.tvm_emulator_run_get_method(tvmEmulator, methodId, stackBoc);
-    Utils.enableNativeOutput();
-    Gson gson = new GsonBuilder().setObjectToNumberStrategy(ToNumberPolicy.BIG_DECIMAL).create();
     return gson.fromJson(result, GetMethodResult.class);
   }
 
@@ -214,7 +201,6 @@ public class TvmEmulator {
    *     serialized stack (VmStack)", "missing_library": null, "gas_used": 1212 }
    */
   public GetMethodResult runGetMethod(int methodId) {
-    Utils.disableNativeOutput();
     String result =
         tvmEmulatorI.tvm_emulator_run_get_method(
             tvmEmulator,
@@ -225,13 +211,10 @@ public class TvmEmulator {
                 .build()
                 .toCell()
                 .toBase64());
-    Utils.enableNativeOutput();
-    Gson gson = new GsonBuilder().setObjectToNumberStrategy(ToNumberPolicy.BIG_DECIMAL).create();
     return gson.fromJson(result, GetMethodResult.class);
   }
 
   public GetMethodResult runGetMethod(String methodName) {
-    Utils.disableNativeOutput();
     String result =
         tvmEmulatorI.tvm_emulator_run_get_method(
             tvmEmulator,
@@ -242,8 +225,6 @@ public class TvmEmulator {
                 .build()
                 .toCell()
                 .toBase64());
-    Utils.enableNativeOutput();
-    Gson gson = new GsonBuilder().setObjectToNumberStrategy(ToNumberPolicy.BIG_DECIMAL).create();
     return gson.fromJson(result, GetMethodResult.class);
   }
 
@@ -257,12 +238,9 @@ public class TvmEmulator {
    *     serialized stack (VmStack)", "missing_library": null, "gas_used": 1212 }
    */
   public GetMethodResult runGetMethod(String methodName, String stackBoc) {
-    Utils.disableNativeOutput();
     String result =
         tvmEmulatorI.tvm_emulator_run_get_method(
             tvmEmulator, Utils.calculateMethodId(methodName), stackBoc);
-    Utils.enableNativeOutput();
-    Gson gson = new GsonBuilder().setObjectToNumberStrategy(ToNumberPolicy.BIG_DECIMAL).create();
     return gson.fromJson(result, GetMethodResult.class);
   }
 
@@ -317,9 +295,7 @@ public class TvmEmulator {
    *     result$_ exit_code:(## 32) gas_used:(## 32) stack:^VmStack
    */
   public String emulateRunMethod(int len, String paramsBoc, long gasLimit) {
-    Utils.disableNativeOutput();
     String result = tvmEmulatorI.tvm_emulator_emulate_run_method(len, paramsBoc, gasLimit);
-    Utils.enableNativeOutput();
     return result;
   }
 
@@ -334,10 +310,7 @@ public class TvmEmulator {
    *     type (OutList n)" }
    */
   public SendExternalMessageResult sendExternalMessage(String messageBodyBoc) {
-    Utils.disableNativeOutput();
     String result = tvmEmulatorI.tvm_emulator_send_external_message(tvmEmulator, messageBodyBoc);
-    Utils.enableNativeOutput();
-    Gson gson = new GsonBuilder().setObjectToNumberStrategy(ToNumberPolicy.BIG_DECIMAL).create();
     return gson.fromJson(result, SendExternalMessageResult.class);
   }
 
@@ -353,11 +326,8 @@ public class TvmEmulator {
    *     type (OutList n)" }
    */
   public SendInternalMessageResult sendInternalMessage(String messageBodyBoc, long amount) {
-    Utils.disableNativeOutput();
     String result =
         tvmEmulatorI.tvm_emulator_send_internal_message(tvmEmulator, messageBodyBoc, amount);
-    Utils.enableNativeOutput();
-    Gson gson = new GsonBuilder().setObjectToNumberStrategy(ToNumberPolicy.BIG_DECIMAL).create();
     return gson.fromJson(result, SendInternalMessageResult.class);
   }
 }
@@ -7,9 +7,12 @@ import com.google.gson.GsonBuilder;
 import com.google.gson.ToNumberPolicy;
 import com.sun.jna.Native;
 
+import java.io.IOException;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -17,6 +20,7 @@ import org.apache.commons.io.IOUtils;
 import org.ton.java.cell.Cell;
 import org.ton.java.emulator.EmulateTransactionResult;
 import org.ton.java.tlb.types.*;
+import org.ton.java.utils.NativeOutput;
 import org.ton.java.utils.Utils;
 
 /**
@@ -36,6 +40,11 @@ public class TxEmulator {
   private TxVerbosityLevel verbosityLevel;
   private Boolean printEmulatorInfo;
 
+  private static final Gson gson =
+      new GsonBuilder().setObjectToNumberStrategy(ToNumberPolicy.BIG_DECIMAL).create();
+
+  private static final Map<TxEmulatorConfig, String> configs = new ConcurrentHashMap<>();
+
   public static class TxEmulatorBuilder {}
 
   public static TxEmulatorBuilder builder() {
@@ -47,19 +56,20 @@ public class TxEmulator {
     public TxEmulator build() {
       try {
 
-        if (isNull(super.pathToEmulatorSharedLib)) {
-          if ((Utils.getOS() == Utils.OS.WINDOWS) || (Utils.getOS() == Utils.OS.WINDOWS_ARM)) {
-            super.pathToEmulatorSharedLib = Utils.detectAbsolutePath("emulator", true);
-          } else {
-            super.pathToEmulatorSharedLib = Utils.detectAbsolutePath("libemulator", true);
-          }
-        }
-
         if (isNull(super.printEmulatorInfo)) {
           super.printEmulatorInfo = true;
         }
 
-        super.txEmulatorI = Native.load(super.pathToEmulatorSharedLib, TxEmulatorI.class);
+        if (isNull(super.txEmulatorI)) {
+          if (isNull(super.pathToEmulatorSharedLib)) {
+            if ((Utils.getOS() == Utils.OS.WINDOWS) || (Utils.getOS() == Utils.OS.WINDOWS_ARM)) {
+              super.pathToEmulatorSharedLib = Utils.detectAbsolutePath("emulator", true);
+            } else {
+              super.pathToEmulatorSharedLib = Utils.detectAbsolutePath("libemulator", true);
+            }
+          }
+          super.txEmulatorI = Native.load(super.pathToEmulatorSharedLib, TxEmulatorI.class);
+        }
 
         if (isNull(super.verbosityLevel)) {
           super.verbosityLevel = TxVerbosityLevel.TRUNCATED;
@@ -69,35 +79,12 @@ public class TxEmulator {
           super.configType = TxEmulatorConfig.MAINNET;
         }
 
-        String configBoc = "";
-        switch (super.configType) {
-          case MAINNET:
-            {
-              configBoc =
-                  IOUtils.toString(
-                      Objects.requireNonNull(
-                          TxEmulator.class.getResourceAsStream("/config-all-mainnet.txt")),
-                      StandardCharsets.UTF_8);
-              break;
-            }
-          case TESTNET:
-            {
-              configBoc =
-                  IOUtils.toString(
-                      Objects.requireNonNull(
-                          TxEmulator.class.getResourceAsStream("/config-all-testnet.txt")),
-                      StandardCharsets.UTF_8);
-              break;
-            }
-          case CUSTOM:
-            {
-              configBoc = super.customConfig;
-              break;
-            }
-        }
-
-        Utils.disableNativeOutput();
+        String configBoc =
+            super.configType == TxEmulatorConfig.CUSTOM
+                ? super.customConfig
+                : readConfig(super.configType);
 
+        NativeOutput.init();
         super.txEmulator =
             super.txEmulatorI.transaction_emulator_create(
                 configBoc, super.verbosityLevel.ordinal());
@@ -109,8 +96,6 @@ public class TxEmulator {
           super.txEmulatorI.transaction_emulator_set_debug_enabled(super.txEmulator, true);
         }
 
-        Utils.enableNativeOutput();
-
         if (super.txEmulator == 0) {
           throw new Error("Can't create tx emulator instance");
         }
@@ -135,6 +120,27 @@ public class TxEmulator {
 
 
 
+  /**
+   * Integrated config is read once and shared by all emulators.
+   */
+  static String readConfig(TxEmulatorConfig configType) {
+    return configs.computeIfAbsent(
+        configType,
+        type -> {
+          String resource =
+              type == TxEmulatorConfig.TESTNET
+                  ? "/config-all-testnet.txt"
+                  : "/config-all-mainnet.txt";
+          try {
+            return IOUtils.toString(
+                Objects.requireNonNull(TxEmulator.class.getResourceAsStream(resource)),
+                StandardCharsets.UTF_8);
+          } catch (IOException e) {
+            throw new Error("Cannot read config " + resource + ", " + e.getMessage());
+          }
+        });
+  }
+
   public void destroy() {
     txEmulatorI.transaction_emulator_destroy(txEmulator);
   }
@@ -152,12 +158,9 @@ public class TxEmulator {
    *     actions boc (OutList n)", "elapsed_time": 0.02 }
    */
   public EmulateTransactionResult emulateTransaction(String shardAccountBoc, String messageBoc) {
-    Utils.disableNativeOutput();
     String result =
         txEmulatorI.transaction_emulator_emulate_transaction(
             txEmulator, shardAccountBoc, messageBoc);
-    Utils.enableNativeOutput();
-    Gson gson = new GsonBuilder().setObjectToNumberStrategy(ToNumberPolicy.BIG_DECIMAL).create();
     return gson.fromJson(result, EmulateTransactionResult.class);
   }
 
@@ -210,12 +213,9 @@ public class TxEmulator {
 
     String shardAccountBocBase64 = shardAccount.toCell().toBase64();
 
-    Utils.disableNativeOutput();
     String result =
         txEmulatorI.transaction_emulator_emulate_transaction(
             txEmulator, shardAccountBocBase64, messageBoc);
-    Utils.enableNativeOutput();
-    Gson gson = new GsonBuilder().setObjectToNumberStrategy(ToNumberPolicy.BIG_DECIMAL).create();
     return gson.fromJson(result, EmulateTransactionResult.class);
   }
 
@@ -226,9 +226,7 @@ public class TxEmulator {
    *     debug)
    */
   public void setVerbosityLevel(int verbosityLevel) {
-    Utils.disableNativeOutput();
     txEmulatorI.emulator_set_verbosity_level(txEmulator, verbosityLevel);
-    Utils.enableNativeOutput();
   }
 
   /**
@@ -238,9 +236,7 @@ public class TxEmulator {
    * @return true in case of success, false in case of error
    */
   public boolean setDebugEnabled(boolean debugEnabled) {
-    Utils.disableNativeOutput();
     boolean result = txEmulatorI.transaction_emulator_set_debug_enabled(txEmulator, debugEnabled);
-    Utils.enableNativeOutput();
     return result;
   }
 
@@ -251,9 +247,7 @@ public class TxEmulator {
    * @return true in case of success, false in case of error
    */
   public boolean setLibs(String libsBoc) {
-    Utils.disableNativeOutput();
     boolean result = txEmulatorI.transaction_emulator_set_libs(txEmulator, libsBoc);
-    Utils.enableNativeOutput();
     return result;
   }
 
@@ -264,9 +258,7 @@ public class TxEmulator {
    * @return true in case of success, false in case of error
    */
   public boolean setPrevBlockInfo(String infoBoc) {
-    Utils.disableNativeOutput();
     boolean result = txEmulatorI.transaction_emulator_set_prev_blocks_info(txEmulator, infoBoc);
-    Utils.enableNativeOutput();
     return result;
   }
 
@@ -277,9 +269,7 @@ public class TxEmulator {
    * @return true in case of success, false in case of error
    */
   public boolean setRandSeed(String randSeedHex) {
-    Utils.disableNativeOutput();
     boolean result = txEmulatorI.transaction_emulator_set_rand_seed(txEmulator, randSeedHex);
-    Utils.enableNativeOutput();
     return result;
   }
 
@@ -290,7 +280,6 @@ public class TxEmulator {
    * @return true in case of success, false in case of error
    */
   public boolean setUnixTime(long utime) {
-    Utils.disableNativeOutput();
     return txEmulatorI.transaction_emulator_set_unixtime(txEmulator, utime);
   }
 
@@ -301,9 +290,7 @@ public class TxEmulator {
    * @return true in case of success, false in case of error
    */
   public boolean setConfig(String configBoc) {
-    Utils.disableNativeOutput();
     boolean result = txEmulatorI.transaction_emulator_set_config(txEmulator, configBoc);
-    Utils.enableNativeOutput();
     return result;
   }
 
@@ -314,9 +301,7 @@ public class TxEmulator {
    * @return Pointer to Config object or nullptr in case of error
    */
   public long createConfig(String configBoc) {
-    Utils.disableNativeOutput();
     long result = txEmulatorI.emulator_config_create(configBoc);
-    Utils.enableNativeOutput();
     return result;
   }
 
@@ -326,9 +311,7 @@ public class TxEmulator {
    * @param config Pointer to Config object
    */
   public void destroyConfig(long config) {
-    Utils.disableNativeOutput();
     txEmulatorI.emulator_config_destroy(config);
-    Utils.enableNativeOutput();
   }
 
   /**
@@ -344,11 +327,9 @@ public class TxEmulator {
    */
   public EmulateTransactionResult emulateTickTockTransaction(
       String shardAccountBoc, boolean isTock) {
-    Utils.disableNativeOutput();
     String result =
         txEmulatorI.transaction_emulator_emulate_tick_tock_transaction(
             txEmulator, shardAccountBoc, isTock);
-    Gson gson = new GsonBuilder().setObjectToNumberStrategy(ToNumberPolicy.BIG_DECIMAL).create();
     return gson.fromJson(result, EmulateTransactionResult.class);
   }
 
@@ -359,9 +340,7 @@ public class TxEmulator {
    * @return true in case of success, false in case of error
    */
   public boolean setEmulatorLt(long lt) {
-    Utils.disableNativeOutput();
     boolean result = txEmulatorI.transaction_emulator_set_lt(txEmulator, lt);
-    Utils.enableNativeOutput();
     return result;
   }
 
@@ -372,9 +351,7 @@ public class TxEmulator {
    * @return true in case of success, false in case of error
    */
   public boolean setIgnoreCheckSignature(boolean ignoreChksig) {
-    Utils.disableNativeOutput();
     boolean result = txEmulatorI.transaction_emulator_set_ignore_chksig(txEmulator, ignoreChksig);
-    Utils.enableNativeOutput();
     return result;
   }
 }
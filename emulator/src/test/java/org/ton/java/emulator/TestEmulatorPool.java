@@ -0,0 +1,176 @@
+package org.ton.java.emulator;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.ton.java.emulator.tx.TxEmulator;
+import org.ton.java.emulator.tx.TxEmulatorI;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+@Slf4j
+@RunWith(JUnit4.class)
+public class TestEmulatorPool {
+
+    /**
+     * Echoes the message in vm_log and records whether a handle was ever used by two threads at once.
+     */
+    private static class FakeTxEmulator implements TxEmulatorI {
+        final AtomicLong handles = new AtomicLong();
+        final Map<Long, AtomicInteger> inUse = new ConcurrentHashMap<>();
+        final Set<Long> destroyed = ConcurrentHashMap.newKeySet();
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+        final AtomicBoolean sharedHandle = new AtomicBoolean();
+
+        @Override
+        public long emulator_config_create(String configParamBoc) {
+            return 0;
+        }
+
+        @Override
+        public void emulator_config_destroy(long config) {
+        }
+
+        @Override
+        public String emulator_version() {
+            return "fake";
+        }
+
+        @Override
+        public long transaction_emulator_create(String configParamBoc, int verbosityLevel) {
+            long handle = handles.incrementAndGet();
+            inUse.put(handle, new AtomicInteger());
+            return handle;
+        }
+
+        @Override
+        public void transaction_emulator_destroy(long txEmulator) {
+            destroyed.add(txEmulator);
+        }
+
+        @Override
+        public String transaction_emulator_emulate_transaction(long txEmulator, String shardAccountBoc, String messageBoc) {
+            if (inUse.get(txEmulator).incrementAndGet() > 1) {
+                sharedHandle.set(true);
+            }
+            threads.add(Thread.currentThread().getName());
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inUse.get(txEmulator).decrementAndGet();
+            if (messageBoc.equals("bad")) {
+                throw new IllegalStateException("cannot parse message");
+            }
+            return "{\"success\":true,\"vm_log\":\"" + messageBoc + "\",\"elapsed_time\":0.001}";
+        }
+
+        @Override
+        public boolean transaction_emulator_set_unixtime(long txEmulator, long unixtime) {
+            return true;
+        }
+
+        @Override
+        public boolean transaction_emulator_set_rand_seed(long txEmulator, String randSeedHex) {
+            return true;
+        }
+
+        @Override
+        public boolean transaction_emulator_set_config(long txEmulator, String configBoc) {
+            return true;
+        }
+
+        @Override
+        public boolean transaction_emulator_set_libs(long txEmulator, String libsBoc) {
+            return true;
+        }
+
+        @Override
+        public boolean transaction_emulator_set_debug_enabled(long txEmulator, boolean debugEnabled) {
+            return true;
+        }
+
+        @Override
+        public boolean transaction_emulator_set_prev_blocks_info(long txEmulator, String infoBoc) {
+            return true;
+        }
+
+        @Override
+        public String transaction_emulator_emulate_tick_tock_transaction(long txEmulator, String shardAccountBoc, boolean isTock) {
+            return null;
+        }
+
+        @Override
+        public void emulator_set_verbosity_level(long txEmulator, int verbosityLevel) {
+        }
+
+        @Override
+        public boolean transaction_emulator_set_lt(long txEmulator, long lt) {
+            return true;
+        }
+
+        @Override
+        public boolean transaction_emulator_set_ignore_chksig(long txEmulator, boolean ignoreChksig) {
+            return true;
+        }
+    }
+
+    @Test
+    public void testEmulatorsAreConfinedToThreads() {
+        FakeTxEmulator txEmulatorI = new FakeTxEmulator();
+        EmulatorPool<TxEmulator> pool = EmulatorPool.ofTxEmulators(4,
+                TxEmulator.builder().txEmulatorI(txEmulatorI).printEmulatorInfo(false));
+        assertThat(pool.size()).isEqualTo(4);
+        assertThat(txEmulatorI.handles.get()).isEqualTo(4);
+
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            messages.add("msg-" + i);
+        }
+        List<EmulateTransactionResult> results = pool.executeAll(messages,
+                (txEmulator, message) -> txEmulator.emulateTransaction("account", message));
+
+        assertThat(results).hasSize(200);
+        for (int i = 0; i < 200; i++) {
+            assertThat(results.get(i).isSuccess()).isTrue();
+            assertThat(results.get(i).getVm_log()).isEqualTo("msg-" + i);
+        }
+        assertThat(txEmulatorI.sharedHandle.get()).isFalse();
+        assertThat(txEmulatorI.threads).hasSizeGreaterThan(1).allMatch(name -> name.startsWith("emulator-pool-"));
+
+        pool.destroy();
+        assertThat(txEmulatorI.destroyed).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+        assertThrows(Error.class, () -> pool.execute(txEmulator -> txEmulator.emulateTransaction("account", "late")));
+    }
+
+    @Test
+    public void testFailedEmulationFailsBatch() {
+        FakeTxEmulator txEmulatorI = new FakeTxEmulator();
+        EmulatorPool<TxEmulator> pool = EmulatorPool.ofTxEmulators(2,
+                TxEmulator.builder().txEmulatorI(txEmulatorI).printEmulatorInfo(false));
+
+        List<String> messages = new ArrayList<>();
+        messages.add("good");
+        messages.add("bad");
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> pool.executeAll(messages,
+                (txEmulator, message) -> txEmulator.emulateTransaction("account", message)));
+        assertThat(e.getMessage()).isEqualTo("cannot parse message");
+
+        // instance is returned to the pool after failure
+        EmulateTransactionResult result = pool.execute(txEmulator -> txEmulator.emulateTransaction("account", "again"));
+        assertThat(result.getVm_log()).isEqualTo("again");
+        pool.destroy();
+    }
+}
@@ -11,6 +11,9 @@ import org.ton.java.liteclient.api.ResultLastBlock;
 import org.ton.java.liteclient.api.ResultListBlockTransactions;
 import org.ton.java.liteclient.api.block.Block;
 import org.ton.java.liteclient.api.block.Transaction;
+import org.ton.java.liteclient.exception.IncompleteDump;
+import org.ton.java.liteclient.exception.ParsingError;
+import org.ton.java.utils.FanOut;
 import org.ton.java.utils.Utils;
 
 import java.io.File;
@@ -20,11 +23,17 @@ import java.math.BigInteger;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
@@ -60,6 +69,22 @@ public class LiteClient {
 
     private Boolean printInfo;
 
+    /**
+     * Number of lite-client processes kept running in interactive mode and shared between threads.
+     * Default value 0, which starts a new lite-client process for every command.
+     */
+    private int sessions;
+
+    /**
+     * Prompt lite-client prints in interactive mode when it is ready for the next command. Default value "> "
+     */
+    private String prompt;
+
+    /**
+     * Do not use! Reserved for internal usage.
+     */
+    private LiteClientSessionPool sessionPool;
+
     public static class LiteClientBuilder {
     }
 
@@ -129,6 +154,22 @@ public class LiteClient {
                     }
                 }
 
+                if (isNull(super.prompt)) {
+                    super.prompt = "> ";
+                }
+
+                if (super.sessions > 0) {
+                    List<String> command = new ArrayList<>();
+                    command.add(super.pathToLiteClientBinary);
+                    command.add("-t");
+                    command.add(String.valueOf(super.timeout));
+                    command.add("-C");
+                    command.add(super.pathToGlobalConfig);
+                    super.sessionPool =
+                            new LiteClientSessionPool(
+                                    command, super.prompt, super.sessions, commandTimeoutMillis(super.timeout));
+                }
+
                 if (super.printInfo) {
                     log.info(
                             String.format(
@@ -145,6 +186,19 @@ public class LiteClient {
         }
     }
 
+    private static long commandTimeoutMillis(int timeout) {
+        return TimeUnit.SECONDS.toMillis(timeout) + 5000;
+    }
+
+    /**
+     * Stops lite-client processes of interactive sessions, if any.
+     */
+    public void destroy() {
+        if (nonNull(sessionPool)) {
+            sessionPool.close();
+        }
+    }
+
     public String getLastCommand() {
         String command = "last";
 
@@ -295,6 +349,32 @@ public class LiteClient {
         }
     }
 
+    /**
+     * Runs dumpblock and parses the block while lite-client is printing it, the output is never kept as a whole string.
+     */
+    public Block executeDumpblockAndParse(
+            ResultLastBlock resultLastBlock, boolean includeShardState, boolean includeMessageBody)
+            throws IncompleteDump, ParsingError {
+        final String command = String.format("dumpblock %s", resultLastBlock.getFullBlockSeqno());
+        if (nonNull(sessionPool)) {
+            return LiteClientParser.parseDumpblock(
+                    sessionPool.execute(command, commandTimeoutMillis(timeout)), includeShardState, includeMessageBody);
+        }
+        Process p;
+        try {
+            p = start(command);
+        } catch (IOException e) {
+            throw new ParsingError("executeDumpblock error " + e.getMessage(), e);
+        }
+        try (InputStream stdout = p.getInputStream()) {
+            return LiteClientParser.parseDumpblock(stdout, includeShardState, includeMessageBody);
+        } catch (IOException e) {
+            throw new ParsingError("executeDumpblock error " + e.getMessage(), e);
+        } finally {
+            p.destroy();
+        }
+    }
+
     /**
      * executes 2 calls against lite-server
      *
@@ -308,8 +388,7 @@ public class LiteClient {
     public List<Transaction> getAllTransactionsFromLatestBlock() {
         try {
             Block lastBlock =
-                    LiteClientParser.parseDumpblock(
-                            executeDumpblock(LiteClientParser.parseLast(executeLast())), false, false);
+                    executeDumpblockAndParse(LiteClientParser.parseLast(executeLast()), false, false);
             return lastBlock.listBlockTrans();
         } catch (Exception e) {
             throw new Error("Cannot retrieve all transactions from last block");
@@ -318,7 +397,7 @@ public class LiteClient {
 
     public List<Transaction> getAllTransactionsByBlock(ResultLastBlock block) {
         try {
-            Block lastBlock = LiteClientParser.parseDumpblock(executeDumpblock(block), false, true);
+            Block lastBlock = executeDumpblockAndParse(block, false, true);
             return lastBlock.listBlockTrans();
         } catch (Exception e) {
             throw new Error("Cannot retrieve all transactions from block");
@@ -327,7 +406,7 @@ public class LiteClient {
 
     public List<Transaction> getAccountTransactionsByBlock(ResultLastBlock block, String address) {
         try {
-            Block lastBlock = LiteClientParser.parseDumpblock(executeDumpblock(block), false, true);
+            Block lastBlock = executeDumpblockAndParse(block, false, true);
             return lastBlock.listBlockTrans(address);
         } catch (Exception e) {
             throw new Error("Cannot retrieve all transactions from block");
@@ -427,6 +506,88 @@ public class LiteClient {
         }
     }
 
+    /**
+     * Concurrent version of getAccountTransactionsFromBlockAndAllShards(), which collects transactions of all accounts.
+     * The masterchain block and shard blocks are dumped at the same time on at most parallelism lite-client processes,
+     * enable sessions to avoid starting a process per block.
+     *
+     * @param blockId     masterchain block
+     * @param parallelism max number of lite-client commands running at a time
+     * @param onBlock     called with every block and its transactions as soon as the block is parsed, may be null
+     * @return transactions of the masterchain block first, then of shard blocks in the order of allshards output
+     */
+    public CompletableFuture<List<Transaction>> getAllTransactionsFromBlockAndAllShardsAsync(
+            ResultLastBlock blockId, int parallelism, BiConsumer<ResultLastBlock, List<Transaction>> onBlock) {
+        return getTransactionsFromBlockAndAllShardsAsync(blockId, null, parallelism, onBlock);
+    }
+
+    /**
+     * Same as getAllTransactionsFromBlockAndAllShardsAsync(), but returns only transactions of the given account.
+     */
+    public CompletableFuture<List<Transaction>> getAccountTransactionsFromBlockAndAllShardsAsync(
+            ResultLastBlock blockId,
+            String address,
+            int parallelism,
+            BiConsumer<ResultLastBlock, List<Transaction>> onBlock) {
+        return getTransactionsFromBlockAndAllShardsAsync(blockId, address, parallelism, onBlock);
+    }
+
+    private CompletableFuture<List<Transaction>> getTransactionsFromBlockAndAllShardsAsync(
+            ResultLastBlock blockId,
+            String address,
+            int parallelism,
+            BiConsumer<ResultLastBlock, List<Transaction>> onBlock) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        parallelism,
+                        r -> {
+                            Thread thread = new Thread(r, "lite-client-fan-out-" + threadCounter.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+
+        Function<ResultLastBlock, List<Transaction>> blockTransactions =
+                block -> {
+                    try {
+                        Block parsed = executeDumpblockAndParse(block, false, true);
+                        return isNull(address) ? parsed.listBlockTrans() : parsed.listBlockTrans(address);
+                    } catch (Exception e) {
+                        throw new Error("Cannot retrieve all transactions from block " + block.getFullBlockSeqno());
+                    }
+                };
+
+        // masterchain block is dumped while the list of shards is being retrieved
+        CompletableFuture<List<ResultLastBlock>> shards =
+                CompletableFuture.supplyAsync(
+                        () -> {
+                            try {
+                                return LiteClientParser.parseAllShards(executeAllshards(blockId));
+                            } catch (Exception e) {
+                                throw new Error("Cannot retrieve shards of block " + blockId.getFullBlockSeqno());
+                            }
+                        },
+                        executor);
+        CompletableFuture<List<List<Transaction>>> masterchain =
+                FanOut.mapOrderedBlocking(
+                        Collections.singletonList(blockId), 1, blockTransactions, onBlock, executor);
+        CompletableFuture<List<List<Transaction>>> shardchains =
+                shards.thenCompose(
+                        blocks ->
+                                FanOut.mapOrderedBlocking(blocks, parallelism, blockTransactions, onBlock, executor));
+
+        return masterchain
+                .thenCombine(
+                        shardchains,
+                        (master, shard) -> {
+                            List<Transaction> txs = new ArrayList<>();
+                            master.forEach(txs::addAll);
+                            shard.forEach(txs::addAll);
+                            return txs;
+                        })
+                .whenComplete((txs, e) -> executor.shutdown());
+    }
+
     public String executeAllshards(final ResultLastBlock resultLastBlock) throws Exception {
         final String command = "allshards " + resultLastBlock.getFullBlockSeqno();
         Pair<Process, Future<String>> result = execute(command);
@@ -612,26 +773,26 @@ public class LiteClient {
         }
     }
 
+    /**
+     * Executes lite-client command. If sessions are enabled, runs it on one of the interactive sessions,
+     * in that case the returned process is null and the future is already completed.
+     */
     public Pair<Process, Future<String>> execute(String... command) {
 
-        String binaryPath = pathToLiteClientBinary;
-        String[] withBinaryCommand;
-        withBinaryCommand =
-                new String[]{binaryPath, "-t", String.valueOf(timeout), "-C", pathToGlobalConfig, "-c"};
-
-        // String[] withBinaryCommand = {binaryPath, "-C", forked ?
-        // node.getNodeForkedGlobalConfigLocation() : node.getNodeGlobalConfigLocation(), "-c"};
-        withBinaryCommand = ArrayUtils.addAll(withBinaryCommand, command);
+        if (nonNull(sessionPool)) {
+            try {
+                String output = sessionPool.execute(String.join(" ", command), commandTimeoutMillis(timeout));
+                return Pair.of(null, CompletableFuture.completedFuture(output));
+            } catch (Throwable e) {
+                log.info(e.getMessage());
+                return null;
+            }
+        }
 
         try {
-            log.info("execute: " + String.join(" ", withBinaryCommand));
-
             ExecutorService executorService = Executors.newSingleThreadExecutor();
 
-            final ProcessBuilder pb = new ProcessBuilder(withBinaryCommand).redirectErrorStream(true);
-
-            pb.directory(new File(new File(binaryPath).getParent()));
-            Process p = pb.start();
+            Process p = start(command);
             p.waitFor(1, TimeUnit.SECONDS);
             Future<String> future =
                     executorService.submit(
@@ -664,6 +825,25 @@ public class LiteClient {
         }
     }
 
+    private Process start(String... command) throws IOException {
+
+        String binaryPath = pathToLiteClientBinary;
+        String[] withBinaryCommand;
+        withBinaryCommand =
+                new String[]{binaryPath, "-t", String.valueOf(timeout), "-C", pathToGlobalConfig, "-c"};
+
+        // String[] withBinaryCommand = {binaryPath, "-C", forked ?
+        // node.getNodeForkedGlobalConfigLocation() : node.getNodeGlobalConfigLocation(), "-c"};
+        withBinaryCommand = ArrayUtils.addAll(withBinaryCommand, command);
+
+        log.info("execute: " + String.join(" ", withBinaryCommand));
+
+        final ProcessBuilder pb = new ProcessBuilder(withBinaryCommand).redirectErrorStream(true);
+
+        pb.directory(new File(new File(binaryPath).getParent()));
+        return pb.start();
+    }
+
     public String getLiteClientPath() {
         return Utils.detectAbsolutePath("lite-client", false);
     }
@@ -0,0 +1,245 @@
+package org.ton.java.liteclient;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Text output of lite-client with quick access to its bracketed blocks.
+ * <p>
+ * An indexed dump is read in a single pass: line breaks are replaced with spaces and every opening bracket is paired
+ * with its closing one on the way, so nested blocks of e.g. dumpblock output are cut out without rescanning the text.
+ * Blocks are addressed by Span (offsets into the text) and turned into strings only when handed to field parsers.
+ */
+class LiteClientDump {
+
+    /**
+     * Part of the dump, from start inclusive to end exclusive.
+     */
+    static class Span {
+        final int start;
+        final int end;
+
+        Span(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private final String text;
+    private final int[] closing; // position of matching ')' for every '(', null if the text is not indexed
+
+    private LiteClientDump(String text, int[] closing) {
+        this.text = text;
+        this.closing = closing;
+    }
+
+    /**
+     * Wraps text without indexing it, brackets are matched by scanning. Suitable for short strings.
+     */
+    static LiteClientDump wrap(String text) {
+        return new LiteClientDump(text, null);
+    }
+
+    static LiteClientDump index(String text) {
+        try {
+            return read(new StringReader(text));
+        } catch (IOException e) {
+            throw new Error(e);
+        }
+    }
+
+    /**
+     * Reads whole lite-client output, the reader is not closed.
+     */
+    static LiteClientDump read(Reader reader) throws IOException {
+        char[] text = new char[64 * 1024];
+        int[] closing = new int[text.length];
+        int[] opened = new int[256];
+        int length = 0;
+        int depth = 0;
+        boolean cr = false;
+        char[] buf = new char[8192];
+        int n;
+        while ((n = reader.read(buf)) != -1) {
+            if (length + n + 1 > text.length) {
+                int capacity = Math.max(text.length * 2, length + n + 1);
+                text = Arrays.copyOf(text, capacity);
+                closing = Arrays.copyOf(closing, capacity);
+            }
+            for (int i = 0; i < n; i++) {
+                char c = buf[i];
+                if (cr) {
+                    cr = false;
+                    if (c == '\n') {
+                        text[length++] = ' ';
+                        continue;
+                    }
+                    text[length++] = '\r';
+                }
+                switch (c) {
+                    case '\r':
+                        cr = true;
+                        continue;
+                    case '\n':
+                        c = ' ';
+                        break;
+                    case '(':
+                        if (depth == opened.length) {
+                            opened = Arrays.copyOf(opened, depth * 2);
+                        }
+                        opened[depth++] = length;
+                        closing[length] = -1;
+                        break;
+                    case ')':
+                        if (depth > 0) {
+                            closing[opened[--depth]] = length;
+                        }
+                        break;
+                    default:
+                }
+                text[length++] = c;
+            }
+        }
+        if (cr) {
+            text[length++] = '\r';
+        }
+        return new LiteClientDump(new String(text, 0, length), closing);
+    }
+
+    int length() {
+        return text.length();
+    }
+
+    Span all() {
+        return new Span(0, text.length());
+    }
+
+    String text(Span span) {
+        return isNull(span) ? null : text.substring(span.start, span.end);
+    }
+
+    private int indexOf(String pattern, int from, Span within) {
+        int i = text.indexOf(pattern, from);
+        return (i == -1 || i + pattern.length() > within.end) ? -1 : i;
+    }
+
+    /**
+     * Finds closing bracket of the first block starting at or after position from.
+     * A closing bracket met before any opening one is returned as is.
+     */
+    private int closingBracket(int from, Span within) {
+        if (isNull(closing)) {
+            int depth = 0;
+            for (int i = from; i < within.end; i++) {
+                char c = text.charAt(i);
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    if (depth <= 1) {
+                        return i;
+                    }
+                    depth--;
+                }
+            }
+            return -1;
+        }
+        for (int i = from; i < within.end; i++) {
+            char c = text.charAt(i);
+            if (c == ')') {
+                return i;
+            }
+            if (c == '(') {
+                int close = closing[i];
+                return close < within.end ? close : -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds text between first occurrence of from and the next occurrence of to.
+     */
+    String between(String from, String to, Span within) {
+        if (isNull(within) || isNull(from) || isNull(to)) {
+            return null;
+        }
+        int start = indexOf(from, within.start, within);
+        if (start == -1) {
+            return null;
+        }
+        start += from.length();
+        int end = indexOf(to, start, within);
+        if (end == -1) {
+            return null;
+        }
+        return text.substring(start, end);
+    }
+
+    /**
+     * Finds single block starting with pattern and ending with its closing bracket.
+     * The block starts at the opening bracket of the pattern.
+     */
+    Span block(String pattern, Span within) {
+        if (isNull(within) || isNull(pattern)) {
+            return null;
+        }
+        int patternIndex = indexOf(pattern, within.start, within);
+        if (patternIndex == -1) {
+            return null;
+        }
+        int closeIndex = closingBracket(patternIndex, within);
+        if (closeIndex == -1) {
+            return null;
+        }
+        int openIndex = Math.max(patternIndex + pattern.indexOf('('), 0);
+        return trim(openIndex, closeIndex + 1);
+    }
+
+    /**
+     * Finds all blocks starting with pattern, nested blocks of a found one are skipped.
+     */
+    List<String> blocks(String pattern, Span within) {
+        return blocks(pattern, within, 0);
+    }
+
+    /**
+     * Same as blocks(), but every block is prepended with up to prefixLength characters preceding the pattern,
+     * e.g. to capture the label of a dictionary leaf.
+     */
+    List<String> blocks(String pattern, Span within, int prefixLength) {
+        List<String> result = new ArrayList<>();
+        if (isNull(within)) {
+            return result;
+        }
+        int openCharIndex = pattern.indexOf('(');
+        int patternIndex = indexOf(pattern, within.start, within);
+        while (patternIndex != -1) {
+            int closeIndex = closingBracket(patternIndex, within);
+            if (closeIndex == -1) {
+                break;
+            }
+            int start = prefixLength == 0
+                    ? patternIndex + openCharIndex
+                    : Math.max(patternIndex - prefixLength, within.start);
+            result.add(text.substring(start, closeIndex + 1));
+            patternIndex = indexOf(pattern, closeIndex + 1, within);
+        }
+        return result;
+    }
+
+    private Span trim(int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return new Span(start, end);
+    }
+}
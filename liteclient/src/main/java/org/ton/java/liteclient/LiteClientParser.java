@@ -11,9 +11,12 @@ import org.ton.java.liteclient.api.config.Validators;
 import org.ton.java.liteclient.exception.IncompleteDump;
 import org.ton.java.liteclient.exception.ParsingError;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
+import java.nio.charset.Charset;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -39,6 +42,8 @@ public class LiteClientParser {
     private static final String SEQ_NO_COLON = "seq_no:";
     private static final String END_LT_COLON = "end_lt:";
     private static final String START_LT_COLON = "start_lt:";
+    // leaf of in/out msg descr is preceded by its label
+    private static final int LEAF_LABEL_LENGTH = 150;
 
     private LiteClientParser() {
     }
@@ -467,23 +472,50 @@ public class LiteClientParser {
         if (StringUtils.isEmpty(stdout) || stdout.length() < 400)
             throw new IncompleteDump("parseDumpblock: incomplete dump");
 
+        return parseDumpblock(LiteClientDump.index(stdout), includeShardState, includeMessageBody);
+    }
+
+    /**
+     * Parses dumpblock output while reading it, e.g. directly from stdout of lite-client process.
+     * The stream is not closed.
+     */
+    public static Block parseDumpblock(
+            InputStream stdout, boolean includeShardState, boolean includeMessageBody)
+            throws IncompleteDump, ParsingError {
+
+        LiteClientDump dump;
         try {
-            String blockdump = stdout.replace(EOLWIN, SPACE).replace(EOL, SPACE);
+            dump = LiteClientDump.read(new InputStreamReader(stdout, Charset.defaultCharset()));
+        } catch (IOException e) {
+            throw new ParsingError("parseDumpblock: cannot read dump", e);
+        }
+        if (dump.length() < 400)
+            throw new IncompleteDump("parseDumpblock: incomplete dump");
 
-            Long globalBlockId = Long.parseLong(sb(blockdump, "block global_id:", SPACE));
+        return parseDumpblock(dump, includeShardState, includeMessageBody);
+    }
 
-            String blockInf = sbb(blockdump, "info:(block_info");
-            String valueFlw = sbb(blockdump, "value_flow:(value_flow");
+    private static Block parseDumpblock(
+            LiteClientDump dump, boolean includeShardState, boolean includeMessageBody)
+            throws ParsingError {
+
+        try {
+            LiteClientDump.Span blockdump = dump.all();
+
+            Long globalBlockId = Long.parseLong(dump.between("block global_id:", SPACE, blockdump));
+
+            String blockInf = dump.text(dump.block("info:(block_info", blockdump));
+            String valueFlw = dump.text(dump.block("value_flow:(value_flow", blockdump));
 
             String shardState = null;
             if (includeShardState) {
-                shardState = sbb(blockdump, "state_update:(raw@(MERKLE_UPDATE");
+                shardState = dump.text(dump.block("state_update:(raw@(MERKLE_UPDATE", blockdump));
             }
 
-            String blockExtra = sbb(blockdump, "extra:(block_extra");
+            LiteClientDump.Span blockExtra = dump.block("extra:(block_extra", blockdump);
             Info info = parseBlockInfo(blockInf);
             ValueFlow valueFlow = parseValueFlow(valueFlw);
-            Extra extra = parseExtra(blockExtra, includeMessageBody);
+            Extra extra = parseExtra(dump, blockExtra, includeMessageBody);
 
             return Block.builder()
                     .globalId(globalBlockId)
@@ -498,23 +530,24 @@ public class LiteClientParser {
         }
     }
 
-    private static Extra parseExtra(String blockExtra, Boolean includeMessageBody) {
+    private static Extra parseExtra(
+            LiteClientDump dump, LiteClientDump.Span blockExtra, Boolean includeMessageBody) {
 
-        String inMsgDesc = sbb(blockExtra, "in_msg_descr:(");
-        String outMsgDesc = sbb(blockExtra, "out_msg_descr:(");
-        String accountBlocks = sbb(blockExtra, "account_blocks:(");
-        String masterchainCustomBlock = sbb(blockExtra, "custom:(just");
+        LiteClientDump.Span inMsgDesc = dump.block("in_msg_descr:(", blockExtra);
+        LiteClientDump.Span outMsgDesc = dump.block("out_msg_descr:(", blockExtra);
+        LiteClientDump.Span accountBlocks = dump.block("account_blocks:(", blockExtra);
+        String masterchainCustomBlock = dump.text(dump.block("custom:(just", blockExtra));
 
-        InMsgDescr inMsgDescr = parseInMsgDescr(inMsgDesc, includeMessageBody);
+        InMsgDescr inMsgDescr = parseInMsgDescr(dump, inMsgDesc, includeMessageBody);
 
-        OutMsgDescr outMsgDescr = parseOutMsgDescr(outMsgDesc, includeMessageBody);
+        OutMsgDescr outMsgDescr = parseOutMsgDescr(dump, outMsgDesc, includeMessageBody);
 
-        AccountBlock accountBlock = parseAccountBlock(accountBlocks, includeMessageBody);
-        String randSeed = sb(blockExtra, "rand_seed:", SPACE);
+        AccountBlock accountBlock = parseAccountBlock(dump, accountBlocks, includeMessageBody);
+        String randSeed = dump.between("rand_seed:", SPACE, blockExtra);
         if (Strings.isNotEmpty(randSeed)) {
             randSeed = randSeed.substring(1);
         }
-        String createdBy = sb(blockExtra, "created_by:", SPACE);
+        String createdBy = dump.between("created_by:", SPACE, blockExtra);
         if (Strings.isNotEmpty(createdBy)) {
             createdBy = createdBy.substring(1);
         }
@@ -626,8 +659,9 @@ public class LiteClientParser {
         return shardHashes;
     }
 
-    private static AccountBlock parseAccountBlock(String accountBlocks, Boolean includeMessageBody) {
-        List<String> txsList = LiteClientParser.findStringBlocks(accountBlocks, "value:^(transaction");
+    private static AccountBlock parseAccountBlock(
+            LiteClientDump dump, LiteClientDump.Span accountBlocks, Boolean includeMessageBody) {
+        List<String> txsList = dump.blocks("value:^(transaction", accountBlocks);
         if (!txsList.isEmpty()) {
             List<Transaction> txs =
                     txsList.stream()
@@ -651,17 +685,19 @@ public class LiteClientParser {
         return txs;
     }
 
-    private static OutMsgDescr parseOutMsgDescr(String outMsgDescr, Boolean includeMessageBody) {
-        List<String> unparsedLeafs = findLeafsWithLabel(outMsgDescr, "node:(ahmn_leaf");
+    private static OutMsgDescr parseOutMsgDescr(
+            LiteClientDump dump, LiteClientDump.Span outMsgDescr, Boolean includeMessageBody) {
+        List<String> unparsedLeafs = dump.blocks("node:(ahmn_leaf", outMsgDescr, LEAF_LABEL_LENGTH);
 
         List<Leaf> parsedLeafs = parseLeafs(unparsedLeafs, includeMessageBody);
 
         return OutMsgDescr.builder().leaf(parsedLeafs).build();
     }
 
-    private static InMsgDescr parseInMsgDescr(String inMsgDesc, boolean includeMessageBody) {
+    private static InMsgDescr parseInMsgDescr(
+            LiteClientDump dump, LiteClientDump.Span inMsgDesc, boolean includeMessageBody) {
 
-        List<String> unparsedLeafs = findLeafsWithLabel(inMsgDesc, "node:(ahmn_leaf");
+        List<String> unparsedLeafs = dump.blocks("node:(ahmn_leaf", inMsgDesc, LEAF_LABEL_LENGTH);
 
         List<Leaf> parsedLeafs = parseLeafs(unparsedLeafs, includeMessageBody);
 
@@ -1561,181 +1597,32 @@ public class LiteClientParser {
     }
 
     private static String sb(String str, String from, String to) {
-        if (str == null || from == null || to == null) {
-            return null;
-        }
-
-        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
-        byte[] fromBytes = from.getBytes(StandardCharsets.UTF_8);
-        byte[] toBytes = to.getBytes(StandardCharsets.UTF_8);
-
-        int startIndex = indexOf(bytes, fromBytes, 0);
-        if (startIndex == -1) {
-            return null;
-        }
-        startIndex += fromBytes.length;
-
-        int endIndex = indexOf(bytes, toBytes, startIndex);
-        if (endIndex == -1) {
+        if (str == null) {
             return null;
         }
-
-        byte[] resultBytes = Arrays.copyOfRange(bytes, startIndex, endIndex);
-        return new String(resultBytes, StandardCharsets.UTF_8);
+        LiteClientDump dump = LiteClientDump.wrap(str);
+        return dump.between(from, to, dump.all());
     }
 
     /**
      * Finds single string-block starting with pattern and ending with CLOSE
      */
     private static String sbb(String str, String pattern) {
-        if (str == null || pattern == null || !str.contains(pattern)) {
-            return null;
-        }
-
-        byte[] strBytes = str.getBytes(StandardCharsets.UTF_8);
-        byte[] patternBytes = pattern.getBytes(StandardCharsets.UTF_8);
-
-        int patternIndex = indexOf(strBytes, patternBytes, 0);
-        int patternOpenIndex = indexOf(patternBytes, OPEN.getBytes(StandardCharsets.UTF_8), 0);
-        if (patternIndex == -1) {
+        if (str == null) {
             return null;
         }
-
-        int openIndex = patternIndex + patternOpenIndex;
-        int closeIndex = findPosOfClosingBracket(strBytes, patternIndex);
-
-        if (closeIndex == -1) {
-            return null;
-        }
-
-        return new String(strBytes, openIndex, closeIndex - openIndex + 1, StandardCharsets.UTF_8)
-                .trim();
-    }
-
-    /**
-     * Finds matching closing bracket in string starting with pattern
-     */
-    private static int findPosOfClosingBracket(byte[] strBytes, int patternIndex) {
-        Deque<Integer> stack = new ArrayDeque<>();
-
-        for (int i = patternIndex; i < strBytes.length; i++) {
-            if (strBytes[i] == (byte) '(') {
-                stack.push(i);
-            } else if (strBytes[i] == (byte) ')') {
-                if (stack.isEmpty()) {
-                    return i;
-                }
-                stack.pop();
-                if (stack.isEmpty()) {
-                    return i;
-                }
-            }
-        }
-        return -1;
+        LiteClientDump dump = LiteClientDump.wrap(str);
+        return dump.text(dump.block(pattern, dump.all()));
     }
 
     /**
      * Finds multiple string-blocks starting with pattern and ending with CLOSE
      */
     private static List<String> findStringBlocks(String str, String pattern) {
-        List<String> result = new ArrayList<>();
-
-        if (isNull(str) || !str.contains(pattern)) return result;
-
-        byte[] strBytes = str.getBytes(StandardCharsets.UTF_8);
-        byte[] patternBytes = pattern.getBytes(StandardCharsets.UTF_8);
-
-        int fromIndex = 0;
-        int patternIndex = indexOf(strBytes, patternBytes, fromIndex);
-
-        while (patternIndex != -1) {
-            byte[] tmp = Arrays.copyOfRange(strBytes, patternIndex, patternIndex + patternBytes.length);
-            int openCharIndex = indexOf(tmp, OPEN.getBytes(StandardCharsets.UTF_8), 0);
-            int openIndex = patternIndex + openCharIndex;
-            if (openIndex == -1) {
-                break;
-            }
-            int closeIndex = findPosOfClosingBracket(strBytes, patternIndex);
-
-            if (closeIndex != -1) {
-                result.add(new String(Arrays.copyOfRange(strBytes, openIndex, closeIndex + 1)));
-                fromIndex = closeIndex + 1;
-                patternIndex = indexOf(strBytes, patternBytes, fromIndex);
-            } else {
-                break;
-            }
-        }
-        return result;
-    }
-
-    /**
-     * copy of the method findStringBlocks() but additionally prepends result with label value
-     */
-    private static List<String> findLeafsWithLabel(String str, String pattern) {
-        List<String> result = new ArrayList<>();
-
-        if (isNull(str) || !str.contains(pattern)) return result;
-
-        byte[] strBytes = str.getBytes(StandardCharsets.UTF_8);
-        byte[] patternBytes = pattern.getBytes(StandardCharsets.UTF_8);
-
-        int fromIndex = 0;
-        final int dataToAddLen = 150;
-        int patternIndex = indexOf(strBytes, patternBytes, fromIndex);
-
-        while (patternIndex != -1) {
-            byte[] tmp = Arrays.copyOfRange(strBytes, patternIndex, patternIndex + pattern.length());
-            int openCharIndex = indexOf(tmp, OPEN.getBytes(StandardCharsets.UTF_8), 0);
-            int openIndex = patternIndex + openCharIndex;
-
-            if (openIndex == -1) {
-                break;
-            }
-            int closeIndex = findPosOfClosingBracket(strBytes, patternIndex);
-
-            if (closeIndex != -1) {
-                int start = Math.max(patternIndex - dataToAddLen, 0);
-                byte[] beforePattern = Arrays.copyOfRange(strBytes, start, patternIndex);
-                byte[] foundPattern = Arrays.copyOfRange(strBytes, patternIndex, closeIndex + 1);
-
-                result.add(new String(beforePattern) + new String(foundPattern));
-                fromIndex = closeIndex + 1;
-                patternIndex = indexOf(strBytes, patternBytes, fromIndex);
-            } else {
-                break;
-            }
-        }
-        return result;
-    }
-
-    private static int indexOf(byte[] array, byte[] target, int fromIndex) {
-        if (target.length == 0) {
-            return fromIndex;
-        }
-        if (target.length > array.length) {
-            return -1;
-        }
-
-        int[] a = new int[256];
-        for (int i = 0; i < target.length; i++) {
-            a[target[i] & 0xFF] = i;
-        }
-
-        int m = target.length;
-        int n = array.length;
-
-        int s = fromIndex;
-        while (s <= n - m) {
-            int j = m - 1;
-            while (j >= 0 && target[j] == array[s + j]) {
-                j--;
-            }
-            if (j < 0) {
-                return s;
-            } else {
-                s += Math.max(1, j - a[array[s + j] & 0xFF]);
-            }
+        if (isNull(str)) {
+            return new ArrayList<>();
         }
-        return -1;
+        LiteClientDump dump = LiteClientDump.wrap(str);
+        return dump.blocks(pattern, dump.all());
     }
 }
@@ -0,0 +1,168 @@
+package org.ton.java.liteclient;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Long-living lite-client process in interactive mode.
+ * <p>
+ * Commands are written to stdin one at a time. Output of a command ends when lite-client prints its prompt again,
+ * so a session pays the process start-up and lite-server handshake only once.
+ * A session that timed out or whose process exited is closed and cannot be used anymore.
+ */
+@Slf4j
+public class LiteClientSession {
+
+    private static final AtomicInteger sessionCounter = new AtomicInteger();
+
+    private final Process process;
+    private final Writer stdin;
+    private final String prompt;
+    private final StringBuilder output = new StringBuilder();
+    private volatile boolean alive = true;
+
+    /**
+     * Starts lite-client and waits for its first prompt.
+     *
+     * @param command       lite-client binary with its arguments, without -c
+     * @param prompt        text lite-client prints when it is ready for the next command
+     * @param timeoutMillis max time to wait for the first prompt
+     */
+    public LiteClientSession(List<String> command, String prompt, long timeoutMillis) throws IOException {
+        this.prompt = prompt;
+        ProcessBuilder pb = new ProcessBuilder(command).redirectErrorStream(true);
+        File binary = new File(command.get(0));
+        if (binary.getParentFile() != null) {
+            pb.directory(binary.getParentFile());
+        }
+        process = pb.start();
+        stdin = new OutputStreamWriter(process.getOutputStream(), Charset.defaultCharset());
+
+        Thread reader = new Thread(this::readLoop, "lite-client-session-" + sessionCounter.incrementAndGet());
+        reader.setDaemon(true);
+        reader.start();
+
+        try {
+            String banner = awaitPrompt(timeoutMillis);
+            log.debug("lite-client session started: {}", banner);
+        } catch (Error e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Executes single lite-client command, one command at a time per session.
+     *
+     * @return output of the command without the trailing prompt
+     */
+    public synchronized String execute(String command, long timeoutMillis) {
+        if (!alive) {
+            throw new Error("lite-client session is closed");
+        }
+        synchronized (output) {
+            output.setLength(0);
+        }
+        try {
+            stdin.write(command);
+            stdin.write('\n');
+            stdin.flush();
+        } catch (IOException e) {
+            close();
+            throw new Error("Cannot send command to lite-client, " + e.getMessage());
+        }
+        try {
+            return awaitPrompt(timeoutMillis);
+        } catch (Error e) {
+            close();
+            throw e;
+        }
+    }
+
+    public boolean isAlive() {
+        return alive && process.isAlive();
+    }
+
+    /**
+     * Stops lite-client process.
+     */
+    public void close() {
+        alive = false;
+        synchronized (output) {
+            output.notifyAll();
+        }
+        try {
+            stdin.close();
+        } catch (IOException e) {
+            // process is destroyed anyway
+        }
+        process.destroy();
+    }
+
+    private String awaitPrompt(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (output) {
+            while (true) {
+                int end = promptIndex();
+                if (end != -1) {
+                    String result = output.substring(0, end);
+                    output.delete(0, end + prompt.length());
+                    return result;
+                }
+                long left = deadline - System.nanoTime();
+                if (!alive) {
+                    throw new Error("lite-client exited, output: " + output);
+                }
+                if (left <= 0) {
+                    throw new Error("lite-client did not answer within " + timeoutMillis + " ms");
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(output, left);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new Error("Interrupted while waiting for lite-client");
+                }
+            }
+        }
+    }
+
+    /**
+     * @return position of the prompt at the end of the output, -1 if lite-client is still printing
+     */
+    private int promptIndex() {
+        int end = output.length() - prompt.length();
+        if (end < 0 || output.indexOf(prompt, end) != end) {
+            return -1;
+        }
+        return (end == 0 || output.charAt(end - 1) == '\n') ? end : -1;
+    }
+
+    private void readLoop() {
+        char[] buf = new char[8192];
+        try (Reader stdout = new InputStreamReader(process.getInputStream(), Charset.defaultCharset())) {
+            int n;
+            while ((n = stdout.read(buf)) != -1) {
+                synchronized (output) {
+                    output.append(buf, 0, n);
+                    output.notifyAll();
+                }
+            }
+        } catch (IOException e) {
+            log.debug("lite-client session output closed: {}", e.getMessage());
+        }
+        alive = false;
+        synchronized (output) {
+            output.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.ton.java.liteclient;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed number of lite-client sessions shared between threads.
+ * <p>
+ * Sessions are started on demand. A thread borrows an idle session for one command, or waits until one is returned.
+ * A broken session is dropped and replaced by a new one on the next demand.
+ */
+@Slf4j
+public class LiteClientSessionPool {
+
+    private final List<String> command;
+    private final String prompt;
+    private final int size;
+    private final long startTimeoutMillis;
+    private final BlockingQueue<LiteClientSession> idle = new LinkedBlockingQueue<>();
+    private final List<LiteClientSession> sessions = new ArrayList<>();
+    private int starting;
+    private volatile boolean closed;
+
+    /**
+     * @param command            lite-client binary with its arguments, without -c
+     * @param prompt             text lite-client prints when it is ready for the next command
+     * @param size               max number of lite-client processes
+     * @param startTimeoutMillis max time to wait until a new session is ready
+     */
+    public LiteClientSessionPool(List<String> command, String prompt, int size, long startTimeoutMillis) {
+        if (size < 1) {
+            throw new Error("Pool size must be positive");
+        }
+        this.command = command;
+        this.prompt = prompt;
+        this.size = size;
+        this.startTimeoutMillis = startTimeoutMillis;
+    }
+
+    /**
+     * Executes lite-client command on any free session.
+     *
+     * @param timeoutMillis max time to wait for a free session and, separately, for the command output
+     */
+    public String execute(String liteClientCommand, long timeoutMillis) {
+        LiteClientSession session = borrow(timeoutMillis);
+        try {
+            return session.execute(liteClientCommand, timeoutMillis);
+        } finally {
+            release(session);
+        }
+    }
+
+    /**
+     * @return number of started lite-client processes which are still alive
+     */
+    public synchronized int getStarted() {
+        return sessions.size();
+    }
+
+    public void close() {
+        closed = true;
+        synchronized (this) {
+            for (LiteClientSession session : sessions) {
+                session.close();
+            }
+            sessions.clear();
+        }
+        idle.clear();
+    }
+
+    private LiteClientSession borrow(long timeoutMillis) {
+        if (closed) {
+            throw new Error("lite-client session pool is closed");
+        }
+        LiteClientSession session = idle.poll();
+        if (session != null) {
+            return session;
+        }
+        boolean canStart;
+        synchronized (this) {
+            canStart = sessions.size() + starting < size;
+            if (canStart) {
+                starting++;
+            }
+        }
+        if (canStart) {
+            // lite-client start-up takes a while, do not hold the lock meanwhile
+            try {
+                session = start();
+            } finally {
+                synchronized (this) {
+                    starting--;
+                    if (session != null) {
+                        sessions.add(session);
+                    }
+                }
+            }
+            if (closed) {
+                release(session);
+                throw new Error("lite-client session pool is closed");
+            }
+            return session;
+        }
+        try {
+            session = idle.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Error("Interrupted while waiting for lite-client session");
+        }
+        if (session == null) {
+            throw new Error("No free lite-client session within " + timeoutMillis + " ms");
+        }
+        return session;
+    }
+
+    private void release(LiteClientSession session) {
+        if (session.isAlive() && !closed) {
+            idle.offer(session);
+            return;
+        }
+        session.close();
+        synchronized (this) {
+            sessions.remove(session);
+        }
+        log.info("lite-client session dropped, {} left", getStarted());
+    }
+
+    private LiteClientSession start() {
+        try {
+            return new LiteClientSession(command, prompt, startTimeoutMillis);
+        } catch (IOException e) {
+            throw new Error("Cannot start lite-client session, " + e.getMessage());
+        }
+    }
+}
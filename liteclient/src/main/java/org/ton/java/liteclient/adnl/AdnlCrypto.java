@@ -0,0 +1,98 @@
+package org.ton.java.liteclient.adnl;
+
+import com.iwebpp.crypto.TweetNaclFast;
+import org.ton.java.utils.Utils;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Key handling of ADNL over TCP.
+ * <p>
+ * Peers are identified by ed25519 keys. The shared secret is X25519 of both keys converted to Montgomery form,
+ * traffic is encrypted with AES-256-CTR.
+ */
+public class AdnlCrypto {
+
+    /**
+     * pub.ed25519 key:int256 = PublicKey, constructor id in little-endian
+     */
+    private static final byte[] PUB_ED25519_ID = {(byte) 0xc6, (byte) 0xb4, 0x13, 0x48};
+
+    private static final BigInteger P = BigInteger.ONE.shiftLeft(255).subtract(BigInteger.valueOf(19));
+
+    /**
+     * @return ADNL short id of ed25519 public key, i.e. sha256 of its TL representation
+     */
+    public static byte[] keyId(byte[] ed25519PublicKey) {
+        MessageDigest digest = sha256();
+        digest.update(PUB_ED25519_ID);
+        digest.update(ed25519PublicKey);
+        return digest.digest();
+    }
+
+    /**
+     * X25519 shared secret of own ed25519 key pair and peer's ed25519 public key.
+     *
+     * @param ed25519SecretKey 64 bytes secret key as returned by TweetNaclFast.Signature, or its 32 bytes seed
+     */
+    public static byte[] sharedSecret(byte[] ed25519SecretKey, byte[] peerEd25519PublicKey) {
+        byte[] scalar = Arrays.copyOf(TweetNaclFast.Hash.sha512(Arrays.copyOf(ed25519SecretKey, 32)), 32);
+        byte[] secret = new byte[32];
+        TweetNaclFast.crypto_scalarmult(secret, scalar, toMontgomery(peerEd25519PublicKey));
+        return secret;
+    }
+
+    /**
+     * Converts ed25519 public key to X25519 one, u = (1 + y) / (1 - y).
+     */
+    public static byte[] toMontgomery(byte[] ed25519PublicKey) {
+        byte[] le = Arrays.copyOf(ed25519PublicKey, 32);
+        le[31] &= 0x7f;
+        BigInteger y = new BigInteger(1, Utils.reverseByteArray(le));
+        BigInteger u = BigInteger.ONE.add(y).multiply(BigInteger.ONE.subtract(y).modInverse(P)).mod(P);
+        byte[] be = u.toByteArray();
+        byte[] result = new byte[32];
+        for (int i = 0; i < 32 && i < be.length; i++) {
+            result[i] = be[be.length - 1 - i];
+        }
+        return result;
+    }
+
+    /**
+     * Cipher of handshake packet, derived from shared secret and sha256 of session nonce.
+     */
+    public static Cipher handshakeCipher(byte[] secret, byte[] nonceHash, int mode) {
+        byte[] key = new byte[32];
+        System.arraycopy(secret, 0, key, 0, 16);
+        System.arraycopy(nonceHash, 16, key, 16, 16);
+        byte[] iv = new byte[16];
+        System.arraycopy(nonceHash, 0, iv, 0, 4);
+        System.arraycopy(secret, 20, iv, 4, 12);
+        return aesCtr(key, iv, mode);
+    }
+
+    public static Cipher aesCtr(byte[] key, byte[] iv, int mode) {
+        try {
+            Cipher cipher = Cipher.getInstance("AES/CTR/NoPadding");
+            cipher.init(mode, new SecretKeySpec(key, "AES"), new IvParameterSpec(iv));
+            return cipher;
+        } catch (GeneralSecurityException e) {
+            throw new Error("Cannot initialize AES-CTR, " + e.getMessage());
+        }
+    }
+
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new Error("SHA-256 is not available");
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.ton.java.liteclient.adnl;
+
+import org.ton.java.tl.Tl;
+import org.ton.java.tl.types.AccountState;
+import org.ton.java.tl.types.AllShardsInfo;
+import org.ton.java.tl.types.BlockData;
+import org.ton.java.tl.types.BlockHeader;
+import org.ton.java.tl.types.BlockIdExt;
+import org.ton.java.tl.types.MasterchainInfo;
+import org.ton.java.utils.Utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Lite-server client talking binary TL over ADNL TCP, without tonlibjson or lite-client binary.
+ * <p>
+ * All methods may be called from any number of threads, queries are pipelined over one connection.
+ * Async methods return futures, the others wait up to queryTimeoutMillis and throw Error on failure.
+ * Block and state BoCs are returned already parsed into cells.
+ */
+public class AdnlLiteClient {
+
+    public static final int LITE_SERVER_QUERY = Tl.id("liteServer.query data:bytes = Object");
+    public static final int LITE_SERVER_ERROR = Tl.id("liteServer.error code:int message:string = liteServer.Error");
+
+    public static final int GET_MASTERCHAIN_INFO = Tl.id("liteServer.getMasterchainInfo = liteServer.MasterchainInfo");
+    public static final int GET_BLOCK = Tl.id("liteServer.getBlock id:tonNode.blockIdExt = liteServer.BlockData");
+    public static final int GET_BLOCK_HEADER = Tl.id("liteServer.getBlockHeader id:tonNode.blockIdExt mode:# = liteServer.BlockHeader");
+    public static final int GET_ALL_SHARDS_INFO = Tl.id("liteServer.getAllShardsInfo id:tonNode.blockIdExt = liteServer.AllShardsInfo");
+    public static final int GET_ACCOUNT_STATE = Tl.id("liteServer.getAccountState id:tonNode.blockIdExt account:liteServer.accountId = liteServer.AccountState");
+
+    private final AdnlTcpConnection connection;
+    private final long queryTimeoutMillis;
+
+    /**
+     * @param serverPublicKeyBase64 ed25519 key of lite-server as given in global config ("id": {"key": ...})
+     */
+    public AdnlLiteClient(String host, int port, String serverPublicKeyBase64, long queryTimeoutMillis) throws IOException {
+        this(new AdnlTcpConnection(host, port, Utils.base64ToBytes(serverPublicKeyBase64), queryTimeoutMillis), queryTimeoutMillis);
+    }
+
+    public AdnlLiteClient(AdnlTcpConnection connection, long queryTimeoutMillis) {
+        this.connection = connection;
+        this.queryTimeoutMillis = queryTimeoutMillis;
+    }
+
+    /**
+     * @param ip integer ip as given in global config
+     */
+    public static String intToIp(long ip) {
+        return ((ip >> 24) & 0xff) + "." + ((ip >> 16) & 0xff) + "." + ((ip >> 8) & 0xff) + "." + (ip & 0xff);
+    }
+
+    public CompletableFuture<MasterchainInfo> getMasterchainInfoAsync() {
+        ByteBuffer query = Tl.allocate(4);
+        query.putInt(GET_MASTERCHAIN_INFO);
+        return query(query, MasterchainInfo::deserialize);
+    }
+
+    public MasterchainInfo getMasterchainInfo() {
+        return await(getMasterchainInfoAsync());
+    }
+
+    public CompletableFuture<BlockData> getBlockAsync(BlockIdExt id) {
+        ByteBuffer query = Tl.allocate(4 + BlockIdExt.SERIALIZED_SIZE);
+        query.putInt(GET_BLOCK);
+        id.serialize(query);
+        return query(query, BlockData::deserialize);
+    }
+
+    public BlockData getBlock(BlockIdExt id) {
+        return await(getBlockAsync(id));
+    }
+
+    /**
+     * @param mode bit mask of header parts to include into the proof, see lite_api.tl
+     */
+    public CompletableFuture<BlockHeader> getBlockHeaderAsync(BlockIdExt id, int mode) {
+        ByteBuffer query = Tl.allocate(4 + BlockIdExt.SERIALIZED_SIZE + 4);
+        query.putInt(GET_BLOCK_HEADER);
+        id.serialize(query);
+        query.putInt(mode);
+        return query(query, BlockHeader::deserialize);
+    }
+
+    public BlockHeader getBlockHeader(BlockIdExt id, int mode) {
+        return await(getBlockHeaderAsync(id, mode));
+    }
+
+    public CompletableFuture<AllShardsInfo> getAllShardsInfoAsync(BlockIdExt id) {
+        ByteBuffer query = Tl.allocate(4 + BlockIdExt.SERIALIZED_SIZE);
+        query.putInt(GET_ALL_SHARDS_INFO);
+        id.serialize(query);
+        return query(query, AllShardsInfo::deserialize);
+    }
+
+    public AllShardsInfo getAllShardsInfo(BlockIdExt id) {
+        return await(getAllShardsInfoAsync(id));
+    }
+
+    /**
+     * @param workchain account workchain
+     * @param address   account id, 32 bytes
+     */
+    public CompletableFuture<AccountState> getAccountStateAsync(BlockIdExt id, int workchain, byte[] address) {
+        ByteBuffer query = Tl.allocate(4 + BlockIdExt.SERIALIZED_SIZE + 4 + 32);
+        query.putInt(GET_ACCOUNT_STATE);
+        id.serialize(query);
+        query.putInt(workchain);
+        query.put(address);
+        return query(query, AccountState::deserialize);
+    }
+
+    public AccountState getAccountState(BlockIdExt id, int workchain, byte[] address) {
+        return await(getAccountStateAsync(id, workchain, address));
+    }
+
+    /**
+     * Sends any lite-server function wrapped into liteServer.query.
+     *
+     * @param function serialized TL function starting with its constructor id
+     * @return future completed with serialized TL answer, or exceptionally on liteServer.error
+     */
+    public CompletableFuture<byte[]> queryRaw(byte[] function) {
+        ByteBuffer query = Tl.allocate(4 + Tl.bytesSize(function.length));
+        query.putInt(LITE_SERVER_QUERY);
+        Tl.writeBytes(query, function);
+        CompletableFuture<byte[]> raw = connection.query(query.array());
+        return propagateCancel(raw, raw.thenApply(answer -> {
+            ByteBuffer buffer = Tl.wrap(answer);
+            if (answer.length >= 4 && buffer.getInt(0) == LITE_SERVER_ERROR) {
+                buffer.getInt();
+                int code = buffer.getInt();
+                throw new Error("lite-server error " + code + ": " + Tl.readString(buffer));
+            }
+            return answer;
+        }));
+    }
+
+    public AdnlTcpConnection getConnection() {
+        return connection;
+    }
+
+    public void close() {
+        connection.close();
+    }
+
+    private <T> CompletableFuture<T> query(ByteBuffer function, Function<ByteBuffer, T> parser) {
+        CompletableFuture<byte[]> raw = queryRaw(function.array());
+        return propagateCancel(raw, raw.thenApply(answer -> parser.apply(Tl.wrap(answer))));
+    }
+
+    /**
+     * Cancelling a dependent future does not cancel its source, do it so the connection forgets the query.
+     */
+    private static <T> CompletableFuture<T> propagateCancel(CompletableFuture<?> source, CompletableFuture<T> dependent) {
+        dependent.whenComplete((result, e) -> source.cancel(false));
+        return dependent;
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(queryTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new Error("lite-server did not answer within " + queryTimeoutMillis + " ms");
+        } catch (ExecutionException e) {
+            Throwable cause = (e.getCause() instanceof CompletionException) ? e.getCause().getCause() : e.getCause();
+            throw (cause instanceof Error) ? (Error) cause : new Error(cause.getMessage());
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new Error("Interrupted while waiting for lite-server");
+        }
+    }
+}
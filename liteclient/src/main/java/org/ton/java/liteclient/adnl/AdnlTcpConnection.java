@@ -0,0 +1,355 @@
+package org.ton.java.liteclient.adnl;
+
+import com.iwebpp.crypto.TweetNaclFast;
+import lombok.extern.slf4j.Slf4j;
+import org.ton.java.tl.Tl;
+import org.ton.java.utils.Utils;
+
+import javax.crypto.Cipher;
+import javax.crypto.ShortBufferException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ADNL over TCP connection to a single peer.
+ * <p>
+ * The socket is served by one non-blocking I/O thread. Any number of queries may be in flight at the same time,
+ * answers are matched to queries by their 256-bit query id, so queries are pipelined over one connection.
+ * A connection that failed is closed, all pending queries complete exceptionally and it cannot be used anymore.
+ */
+@Slf4j
+public class AdnlTcpConnection {
+
+    public static final int ADNL_MESSAGE_QUERY = Tl.id("adnl.message.query query_id:int256 query:bytes = adnl.Message");
+    public static final int ADNL_MESSAGE_ANSWER = Tl.id("adnl.message.answer query_id:int256 answer:bytes = adnl.Message");
+    public static final int TCP_PING = Tl.id("tcp.ping random_id:long = tcp.Pong");
+    public static final int TCP_PONG = Tl.id("tcp.pong random_id:long = tcp.Pong");
+
+    private static final int HANDSHAKE_SIZE = 256;
+    private static final int MAX_PACKET_SIZE = 1 << 24;
+
+    private static final AtomicInteger connectionCounter = new AtomicInteger();
+
+    private final SocketChannel channel;
+    private final Selector selector;
+    private final Cipher encryptor;
+    private final Cipher decryptor;
+    private final MessageDigest digest = AdnlCrypto.sha256();
+    private final Queue<ByteBuffer> writeQueue = new ArrayDeque<>();
+    private final Map<String, CompletableFuture<byte[]>> pending = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<Void>> pings = new ConcurrentHashMap<>();
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+
+    private ByteBuffer readBuffer = Tl.allocate(64 * 1024);
+    private volatile boolean alive = true;
+
+    /**
+     * Connects to the peer and waits for the handshake to be confirmed.
+     *
+     * @param serverPublicKey ed25519 public key of the peer, 32 bytes
+     * @param timeoutMillis   max time to wait for the connection and the handshake
+     */
+    public AdnlTcpConnection(String host, int port, byte[] serverPublicKey, long timeoutMillis) throws IOException {
+        byte[] nonce = TweetNaclFast.randombytes(160);
+        decryptor = AdnlCrypto.aesCtr(Arrays.copyOfRange(nonce, 0, 32), Arrays.copyOfRange(nonce, 64, 80), Cipher.DECRYPT_MODE);
+        encryptor = AdnlCrypto.aesCtr(Arrays.copyOfRange(nonce, 32, 64), Arrays.copyOfRange(nonce, 80, 96), Cipher.ENCRYPT_MODE);
+        writeQueue.add(handshake(serverPublicKey, nonce));
+
+        selector = Selector.open();
+        channel = SocketChannel.open();
+        try {
+            channel.configureBlocking(false);
+            channel.connect(new InetSocketAddress(host, port));
+            channel.register(selector, SelectionKey.OP_CONNECT);
+        } catch (IOException e) {
+            selector.close();
+            channel.close();
+            throw e;
+        }
+
+        Thread io = new Thread(this::ioLoop, "adnl-tcp-" + connectionCounter.incrementAndGet());
+        io.setDaemon(true);
+        io.start();
+
+        try {
+            ready.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            close();
+            throw new Error("ADNL handshake with " + host + ":" + port + " did not complete within " + timeoutMillis + " ms");
+        } catch (ExecutionException e) {
+            close();
+            throw new Error("Cannot connect to " + host + ":" + port + ", " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            close();
+            Thread.currentThread().interrupt();
+            throw new Error("Interrupted while connecting to " + host + ":" + port);
+        }
+    }
+
+    /**
+     * Sends adnl.message.query with random query id.
+     *
+     * @param query serialized TL object
+     * @return future completed with the answer bytes
+     */
+    public CompletableFuture<byte[]> query(byte[] query) {
+        byte[] queryId = TweetNaclFast.randombytes(32);
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        String key = Utils.bytesToHex(queryId);
+        pending.put(key, future);
+        future.whenComplete((answer, e) -> pending.remove(key));
+
+        ByteBuffer message = Tl.allocate(4 + 32 + Tl.bytesSize(query.length));
+        message.putInt(ADNL_MESSAGE_QUERY);
+        message.put(queryId);
+        Tl.writeBytes(message, query);
+        return send(message.array(), future);
+    }
+
+    /**
+     * Sends query and waits for its answer.
+     */
+    public byte[] query(byte[] query, long timeoutMillis) {
+        CompletableFuture<byte[]> future = query(query);
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new Error("ADNL query was not answered within " + timeoutMillis + " ms");
+        } catch (ExecutionException e) {
+            throw new Error(e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new Error("Interrupted while waiting for ADNL answer");
+        }
+    }
+
+    /**
+     * Sends tcp.ping, the returned future completes when matching tcp.pong arrives.
+     */
+    public CompletableFuture<Void> ping() {
+        long randomId = Utils.bytesToLong(TweetNaclFast.randombytes(8));
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        pings.put(randomId, future);
+        future.whenComplete((v, e) -> pings.remove(randomId));
+
+        ByteBuffer message = Tl.allocate(12);
+        message.putInt(TCP_PING);
+        message.putLong(randomId);
+        return send(message.array(), future);
+    }
+
+    /**
+     * @return number of queries waiting for an answer
+     */
+    public int getPending() {
+        return pending.size();
+    }
+
+    public boolean isAlive() {
+        return alive;
+    }
+
+    public void close() {
+        fail(new Error("ADNL connection is closed"));
+    }
+
+    private ByteBuffer handshake(byte[] serverPublicKey, byte[] nonce) {
+        TweetNaclFast.Signature.KeyPair keyPair = TweetNaclFast.Signature.keyPair();
+        byte[] secret = AdnlCrypto.sharedSecret(keyPair.getSecretKey(), serverPublicKey);
+        byte[] nonceHash = Utils.sha256AsArray(nonce);
+
+        ByteBuffer packet = ByteBuffer.allocate(HANDSHAKE_SIZE);
+        packet.put(AdnlCrypto.keyId(serverPublicKey));
+        packet.put(keyPair.getPublicKey());
+        packet.put(nonceHash);
+        packet.put(AdnlCrypto.handshakeCipher(secret, nonceHash, Cipher.ENCRYPT_MODE).update(nonce));
+        packet.flip();
+        return packet;
+    }
+
+    /**
+     * Sends payload of a registered query or ping, on failure completes its future, so it is unregistered.
+     */
+    private <T> CompletableFuture<T> send(byte[] payload, CompletableFuture<T> future) {
+        try {
+            send(payload);
+        } catch (Error | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Frames payload as size, random nonce, payload and sha256 of nonce and payload, then encrypts it.
+     * Encryption and queueing happen under one lock since the cipher stream must follow the order of writes.
+     */
+    private void send(byte[] payload) {
+        if (!alive) {
+            throw new Error("ADNL connection is closed");
+        }
+        byte[] nonce = TweetNaclFast.randombytes(32);
+        ByteBuffer packet = Tl.allocate(4 + 32 + payload.length + 32);
+        packet.putInt(32 + payload.length + 32);
+        packet.put(nonce);
+        packet.put(payload);
+        synchronized (writeQueue) {
+            digest.update(nonce);
+            digest.update(payload);
+            packet.put(digest.digest());
+            writeQueue.add(ByteBuffer.wrap(encryptor.update(packet.array())));
+        }
+        selector.wakeup();
+    }
+
+    private void ioLoop() {
+        try {
+            while (alive) {
+                selector.select();
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (key.isConnectable()) {
+                        channel.finishConnect();
+                    }
+                    if (key.isReadable()) {
+                        read();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        write();
+                    }
+                }
+                selector.selectedKeys().clear();
+                if (alive && channel.isConnected()) {
+                    boolean hasWrites;
+                    synchronized (writeQueue) {
+                        hasWrites = !writeQueue.isEmpty();
+                    }
+                    channel.keyFor(selector).interestOps(SelectionKey.OP_READ | (hasWrites ? SelectionKey.OP_WRITE : 0));
+                }
+            }
+        } catch (Throwable e) {
+            if (alive) {
+                log.debug("ADNL connection failed: {}", e.getMessage());
+            }
+            fail(e);
+        }
+    }
+
+    private void write() throws IOException {
+        synchronized (writeQueue) {
+            while (!writeQueue.isEmpty()) {
+                ByteBuffer buffer = writeQueue.peek();
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    return;
+                }
+                writeQueue.poll();
+            }
+        }
+    }
+
+    private void read() throws IOException {
+        if (!readBuffer.hasRemaining()) {
+            ByteBuffer bigger = Tl.allocate(readBuffer.capacity() * 2);
+            readBuffer.flip();
+            bigger.put(readBuffer);
+            readBuffer = bigger;
+        }
+        int start = readBuffer.position();
+        int n = channel.read(readBuffer);
+        if (n < 0) {
+            throw new IOException("connection closed by peer");
+        }
+        try {
+            // decrypt in place, stream cipher does not change the length
+            decryptor.update(readBuffer.array(), start, n, readBuffer.array(), start);
+        } catch (ShortBufferException e) {
+            throw new IOException(e);
+        }
+
+        readBuffer.flip();
+        while (readBuffer.remaining() >= 4) {
+            int size = readBuffer.getInt(readBuffer.position());
+            if (size < 64 || size > MAX_PACKET_SIZE) {
+                throw new IOException("invalid ADNL packet size " + size);
+            }
+            if (readBuffer.remaining() < 4 + size) {
+                break;
+            }
+            readBuffer.getInt();
+            byte[] packet = new byte[size];
+            readBuffer.get(packet);
+            onPacket(packet);
+        }
+        readBuffer.compact();
+    }
+
+    private void onPacket(byte[] packet) throws IOException {
+        int payloadLength = packet.length - 64;
+        MessageDigest check = AdnlCrypto.sha256();
+        check.update(packet, 0, 32 + payloadLength);
+        byte[] hash = check.digest();
+        for (int i = 0; i < 32; i++) {
+            if (hash[i] != packet[32 + payloadLength + i]) {
+                throw new IOException("ADNL packet checksum mismatch");
+            }
+        }
+        if (payloadLength == 0) {
+            // empty packet confirms handshake
+            ready.complete(null);
+            return;
+        }
+        ByteBuffer payload = ByteBuffer.wrap(packet, 32, payloadLength).slice().order(ByteOrder.LITTLE_ENDIAN);
+        int id = payload.getInt();
+        if (id == ADNL_MESSAGE_ANSWER) {
+            String key = Utils.bytesToHex(Tl.readInt256(payload));
+            // removed before completion, so the query is not pending anymore once its caller wakes up
+            CompletableFuture<byte[]> future = pending.remove(key);
+            if (future != null) {
+                future.complete(Tl.readBytes(payload));
+            } else {
+                log.debug("ADNL answer to unknown or expired query {}", key);
+            }
+        } else if (id == TCP_PONG) {
+            CompletableFuture<Void> future = pings.remove(payload.getLong());
+            if (future != null) {
+                future.complete(null);
+            }
+        } else {
+            log.debug("ignoring ADNL message {}", Integer.toHexString(id));
+        }
+    }
+
+    private void fail(Throwable e) {
+        alive = false;
+        try {
+            channel.close();
+            selector.close();
+        } catch (IOException ignored) {
+            // closing anyway
+        }
+        ready.completeExceptionally(e);
+        for (CompletableFuture<byte[]> future : pending.values()) {
+            future.completeExceptionally(e);
+        }
+        for (CompletableFuture<Void> future : pings.values()) {
+            future.completeExceptionally(e);
+        }
+    }
+}
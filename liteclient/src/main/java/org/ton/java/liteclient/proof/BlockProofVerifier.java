@@ -0,0 +1,363 @@
+package org.ton.java.liteclient.proof;
+
+import org.ton.java.cell.Cell;
+import org.ton.java.cell.CellSlice;
+import org.ton.java.cell.MerkleProofs;
+import org.ton.java.cell.TonHashMap;
+import org.ton.java.cell.TonHashMapView;
+import org.ton.java.liteclient.adnl.AdnlCrypto;
+import org.ton.java.mnemonic.Verifier;
+import org.ton.java.tlb.types.BlockIdExtShardIdent;
+import org.ton.java.tlb.types.BlockProof;
+import org.ton.java.tlb.types.BlockSignatures;
+import org.ton.java.tlb.types.CryptoSignaturePair;
+import org.ton.java.tlb.types.Validator;
+import org.ton.java.tlb.types.ValidatorAddr;
+import org.ton.java.tlb.types.ValidatorDescr;
+import org.ton.java.tlb.types.ValidatorSet;
+import org.ton.java.tlb.types.Validators;
+import org.ton.java.tlb.types.ValidatorsExt;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Verifies masterchain block proofs (block_proof#c3) against validator sets, starting from a trusted key block.
+ * <p>
+ * A block is accepted if its Merkle proof matches the root hash and validators holding more than 2/3 of the weight
+ * of the signing set signed ton.blockId of the block. The signing set is the main part of the validator set
+ * (config param 34) of the previous key block, taken from prev_key_block_seqno of the proven header.
+ * When a key block is accepted, the validator set it defines is taken from its proof and trusted for later blocks,
+ * so a chain of key block proofs moves trust forward one key block at a time.
+ * <p>
+ * Validator sets are prepared once (node ids, decoded public keys, weights) and cached per key block,
+ * the signed payload is built once per block and signatures are verified in parallel.
+ * Instances are thread-safe.
+ */
+public class BlockProofVerifier {
+
+    /**
+     * ton.blockId root_cell_hash:int256 file_hash:int256 = ton.BlockId
+     */
+    public static final int TON_BLOCK_ID = 0xc50b6e70;
+
+    private static final long BLOCK_TAG = 0x11ef55aaL;
+    private static final long BLOCK_INFO_TAG = 0x9bc7a987L;
+    private static final long BLOCK_EXTRA_TAG = 0x4a33f6fdL;
+    private static final int MC_BLOCK_EXTRA_TAG = 0xcca5;
+    private static final int CURRENT_VALIDATORS_PARAM = 34;
+    private static final int PARALLEL_THRESHOLD = 16;
+
+    private final Map<Long, VerifiedValidatorSet> keyBlocks = new ConcurrentHashMap<>();
+
+    /**
+     * @param keyBlockSeqno seqno of a trusted masterchain key block, e.g. init block of global config
+     * @param validators    its current validator set (config param 34)
+     */
+    public BlockProofVerifier(long keyBlockSeqno, ValidatorSet validators) {
+        addTrustedKeyBlock(keyBlockSeqno, validators);
+    }
+
+    public void addTrustedKeyBlock(long keyBlockSeqno, ValidatorSet validators) {
+        keyBlocks.put(keyBlockSeqno, VerifiedValidatorSet.of(validators));
+    }
+
+    /**
+     * @return validator set of an already trusted key block, null if the key block is not verified yet
+     */
+    public VerifiedValidatorSet getValidatorSet(long keyBlockSeqno) {
+        return keyBlocks.get(keyBlockSeqno);
+    }
+
+    /**
+     * Verifies the proof. If it is a proof of a key block, the validator set of that block becomes trusted.
+     *
+     * @return total weight of validators which signed the block
+     * @throws Error if the proof is not valid or signed by less than 2/3 of the weight
+     */
+    public BigInteger verify(BlockProof proof) {
+        return verify(parse(proof));
+    }
+
+    /**
+     * Verifies proofs of consecutive key blocks. Merkle proofs are checked and validator sets are prepared
+     * for all key blocks in parallel, then signatures are checked one key block after another.
+     *
+     * @param keyBlockProofs proofs ordered by seqno, the first one follows an already trusted key block
+     */
+    public void verifyChain(List<BlockProof> keyBlockProofs) {
+        List<ProvenBlock> blocks = keyBlockProofs.parallelStream()
+                .map(BlockProofVerifier::parse)
+                .collect(Collectors.toList());
+        for (ProvenBlock block : blocks) {
+            if (!block.keyBlock) {
+                throw new Error("Block " + block.seqno + " is not a key block");
+            }
+            verify(block);
+        }
+    }
+
+    private BigInteger verify(ProvenBlock block) {
+        VerifiedValidatorSet validators = keyBlocks.get(block.prevKeyBlockSeqno);
+        if (isNull(validators)) {
+            throw new Error("Block " + block.seqno + " is signed by validators of key block " + block.prevKeyBlockSeqno
+                    + ", which is not verified");
+        }
+        if (block.catchainSeqno != block.signatures.getValidatorBaseInfo().getCatchainSeqno()
+                || block.validatorListHashShort != block.signatures.getValidatorBaseInfo().getValidatorListHashShort()) {
+            throw new Error("Signatures of block " + block.seqno + " are not made by the validator group of its header");
+        }
+        BigInteger weight = verifySignatures(block.payload, block.signatures, validators);
+        if (block.keyBlock) {
+            keyBlocks.put(block.seqno, block.nextValidators);
+        }
+        return weight;
+    }
+
+    /**
+     * Checks all signatures and the 2/3 threshold, does not check that the signed block is valid.
+     *
+     * @param payload signed payload, see signedPayload()
+     * @return total weight of validators which signed the block
+     */
+    public static BigInteger verifySignatures(byte[] payload, BlockSignatures signatures, VerifiedValidatorSet validators) {
+        List<CryptoSignaturePair> pairs = new ArrayList<>();
+        for (Object pair : signatures.getPureSignatures().getSignatures().elements.values()) {
+            pairs.add((CryptoSignaturePair) pair);
+        }
+        Set<ByteBuffer> signers = new HashSet<>();
+        List<VerifiedValidatorSet.Member> members = new ArrayList<>(pairs.size());
+        List<byte[]> sigs = new ArrayList<>(pairs.size());
+        for (CryptoSignaturePair pair : pairs) {
+            ByteBuffer nodeId = ByteBuffer.wrap(bits256(pair.getNodeIdShort()));
+            VerifiedValidatorSet.Member member = validators.members.get(nodeId);
+            if (isNull(member)) {
+                throw new Error("Block is signed by " + pair.getNodeIdShort().toString(16) + ", which is not in the validator set");
+            }
+            if (!signers.add(nodeId)) {
+                throw new Error("Block is signed twice by " + pair.getNodeIdShort().toString(16));
+            }
+            members.add(member);
+            ByteBuffer sig = ByteBuffer.allocate(64);
+            sig.put(bits256(pair.getSign().getR()));
+            sig.put(bits256(pair.getSign().getS()));
+            sigs.add(sig.array());
+        }
+
+        boolean valid = indexes(pairs.size()).allMatch(i -> members.get(i).verifier.verify(payload, sigs.get(i)));
+        if (!valid) {
+            throw new Error("Block has an invalid signature");
+        }
+        BigInteger weight = BigInteger.ZERO;
+        for (VerifiedValidatorSet.Member member : members) {
+            weight = weight.add(member.weight);
+        }
+        if (weight.multiply(BigInteger.valueOf(3)).compareTo(validators.totalWeight.multiply(BigInteger.valueOf(2))) <= 0) {
+            throw new Error("Block is signed by " + weight + " of " + validators.totalWeight + " weight, more than 2/3 is required");
+        }
+        return weight;
+    }
+
+    /**
+     * @return serialized ton.blockId, the message validators sign
+     */
+    public static byte[] signedPayload(byte[] rootHash, byte[] fileHash) {
+        ByteBuffer payload = ByteBuffer.allocate(4 + 32 + 32).order(ByteOrder.LITTLE_ENDIAN);
+        payload.putInt(TON_BLOCK_ID);
+        payload.put(rootHash);
+        payload.put(fileHash);
+        return payload.array();
+    }
+
+    /**
+     * Everything that can be checked without the signing validator set.
+     */
+    private static ProvenBlock parse(BlockProof proof) {
+        BlockIdExtShardIdent id = proof.getProofFor();
+        if (id.getShardId().getWorkchain() != -1) {
+            throw new Error("Only masterchain block proofs are supported, got workchain " + id.getShardId().getWorkchain());
+        }
+        if (isNull(proof.getSignatures())) {
+            throw new Error("Proof of block " + id.getSeqno() + " has no signatures");
+        }
+        byte[] rootHash = bits256(id.rootHash);
+        Cell block = MerkleProofs.verify(proof.getRoot(), rootHash);
+
+        CellSlice cs = CellSlice.beginParse(block);
+        if (cs.loadUintAsLong(32) != BLOCK_TAG) {
+            throw new Error("Proof of block " + id.getSeqno() + " does not contain a block");
+        }
+        ProvenBlock result = new ProvenBlock();
+        result.payload = signedPayload(rootHash, bits256(id.fileHash));
+        result.signatures = proof.getSignatures();
+        readHeader(CellSlice.beginParse(block.getRefs().get(0)), result);
+        if (result.seqno != id.getSeqno()) {
+            throw new Error("Proof is for block " + id.getSeqno() + ", but proven header has seqno " + result.seqno);
+        }
+        if (result.keyBlock) {
+            result.nextValidators = VerifiedValidatorSet.of(currentValidators(block));
+        }
+        return result;
+    }
+
+    /**
+     * Reads the fixed part of BlockInfo only. BlockInfo.deserialize() also parses the refs,
+     * which may be pruned in a proof.
+     */
+    private static void readHeader(CellSlice cs, ProvenBlock block) {
+        if (cs.loadUintAsLong(32) != BLOCK_INFO_TAG) {
+            throw new Error("Wrong block info tag");
+        }
+        cs.skipBits(32); // version
+        if (cs.loadBit()) {
+            throw new Error("Not a masterchain block");
+        }
+        cs.skipBits(5); // after_merge, before_split, after_split, want_split, want_merge
+        block.keyBlock = cs.loadBit();
+        cs.skipBits(1 + 8); // vert_seqno_incr, flags
+        block.seqno = cs.loadUintAsLong(32);
+        cs.skipBits(32 + 104 + 32 + 64 + 64); // vert_seq_no, shard, gen_utime, start_lt, end_lt
+        block.validatorListHashShort = cs.loadUintAsLong(32);
+        block.catchainSeqno = cs.loadUintAsLong(32);
+        cs.skipBits(32); // min_ref_mc_seqno
+        block.prevKeyBlockSeqno = cs.loadUintAsLong(32);
+    }
+
+    /**
+     * block -> extra -> custom (McBlockExtra) -> config -> param 34, other parts of the block may be pruned.
+     */
+    private static ValidatorSet currentValidators(Cell block) {
+        Cell extra = block.getRefs().get(3);
+        CellSlice cs = CellSlice.beginParse(extra);
+        if (cs.loadUintAsLong(32) != BLOCK_EXTRA_TAG) {
+            throw new Error("Wrong block extra tag");
+        }
+        cs.skipBits(256 + 256); // rand_seed, created_by
+        if (!cs.loadBit()) {
+            throw new Error("Key block has no masterchain block extra");
+        }
+        Cell mcExtra = extra.getRefs().get(3);
+        CellSlice mc = CellSlice.beginParse(mcExtra);
+        if (mc.loadUint(16).intValue() != MC_BLOCK_EXTRA_TAG || !mc.loadBit()) {
+            throw new Error("Key block has no config in masterchain block extra");
+        }
+        // config:^(Hashmap 32 ^Cell) is the last ref of McBlockExtra of a key block
+        Cell config = mcExtra.getRefs().get(mcExtra.getRefs().size() - 1);
+        CellSlice param = TonHashMapView.of(CellSlice.beginParse(config), 32).get(CURRENT_VALIDATORS_PARAM);
+        if (isNull(param)) {
+            throw new Error("Key block proof does not contain config param " + CURRENT_VALIDATORS_PARAM);
+        }
+        return ValidatorSet.deserialize(CellSlice.beginParse(param.loadRef()));
+    }
+
+    private static IntStream indexes(int size) {
+        IntStream indexes = IntStream.range(0, size);
+        return (size >= PARALLEL_THRESHOLD) ? indexes.parallel() : indexes;
+    }
+
+    static byte[] bits256(BigInteger value) {
+        byte[] raw = value.toByteArray();
+        byte[] result = new byte[32];
+        int len = Math.min(raw.length, 32);
+        System.arraycopy(raw, raw.length - len, result, 32 - len, len);
+        return result;
+    }
+
+    private static class ProvenBlock {
+        long seqno;
+        boolean keyBlock;
+        long prevKeyBlockSeqno;
+        long catchainSeqno;
+        long validatorListHashShort;
+        byte[] payload;
+        BlockSignatures signatures;
+        VerifiedValidatorSet nextValidators;
+    }
+
+    /**
+     * Masterchain signing set: the first main validators of a validator set, by node id short.
+     */
+    public static class VerifiedValidatorSet {
+
+        private static class Member {
+            final Verifier verifier;
+            final BigInteger weight;
+
+            Member(Verifier verifier, BigInteger weight) {
+                this.verifier = verifier;
+                this.weight = weight;
+            }
+        }
+
+        private final Map<ByteBuffer, Member> members;
+        private final BigInteger totalWeight;
+
+        private VerifiedValidatorSet(Map<ByteBuffer, Member> members, BigInteger totalWeight) {
+            this.members = members;
+            this.totalWeight = totalWeight;
+        }
+
+        public static VerifiedValidatorSet of(ValidatorSet set) {
+            int main;
+            TonHashMap list;
+            if (set instanceof Validators) {
+                main = ((Validators) set).getMain();
+                list = ((Validators) set).getList();
+            } else if (set instanceof ValidatorsExt) {
+                main = ((ValidatorsExt) set).getMain();
+                list = ((ValidatorsExt) set).getList();
+            } else {
+                throw new Error("Unsupported validator set " + set);
+            }
+            TreeMap<BigInteger, ValidatorDescr> byIndex = new TreeMap<>();
+            for (Map.Entry<Object, Object> entry : list.elements.entrySet()) {
+                byIndex.put(new BigInteger(entry.getKey().toString()), (ValidatorDescr) entry.getValue());
+            }
+            List<ValidatorDescr> signing = new ArrayList<>(byIndex.values()).subList(0, Math.min(main, byIndex.size()));
+
+            List<Member> prepared = signing.parallelStream().map(descr -> {
+                byte[] publicKey = bits256(publicKey(descr));
+                return new Member(Verifier.of(publicKey), weight(descr));
+            }).collect(Collectors.toList());
+            Map<ByteBuffer, Member> members = new HashMap<>();
+            BigInteger total = BigInteger.ZERO;
+            for (int i = 0; i < signing.size(); i++) {
+                members.put(ByteBuffer.wrap(AdnlCrypto.keyId(bits256(publicKey(signing.get(i))))), prepared.get(i));
+                total = total.add(prepared.get(i).weight);
+            }
+            return new VerifiedValidatorSet(Collections.unmodifiableMap(members), total);
+        }
+
+        public int size() {
+            return members.size();
+        }
+
+        public BigInteger getTotalWeight() {
+            return totalWeight;
+        }
+
+        private static BigInteger publicKey(ValidatorDescr descr) {
+            return (descr instanceof ValidatorAddr)
+                    ? ((ValidatorAddr) descr).getPublicKey().getPubkey()
+                    : ((Validator) descr).getPublicKey().getPubkey();
+        }
+
+        private static BigInteger weight(ValidatorDescr descr) {
+            return (descr instanceof ValidatorAddr) ? ((ValidatorAddr) descr).getWeight() : ((Validator) descr).getWeight();
+        }
+    }
+}
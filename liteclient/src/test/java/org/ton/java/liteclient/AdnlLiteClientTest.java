@@ -0,0 +1,303 @@
+package org.ton.java.liteclient;
+
+import com.iwebpp.crypto.TweetNaclFast;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.ton.java.cell.Cell;
+import org.ton.java.cell.CellBuilder;
+import org.ton.java.liteclient.adnl.AdnlCrypto;
+import org.ton.java.liteclient.adnl.AdnlLiteClient;
+import org.ton.java.liteclient.adnl.AdnlTcpConnection;
+import org.ton.java.tl.Tl;
+import org.ton.java.tl.types.BlockData;
+import org.ton.java.tl.types.BlockIdExt;
+import org.ton.java.tl.types.MasterchainInfo;
+import org.ton.java.tl.types.ZeroStateIdExt;
+import org.ton.java.utils.Utils;
+
+import javax.crypto.Cipher;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Runs AdnlLiteClient against an in-process lite server speaking ADNL TCP over a plain blocking socket.
+ */
+@Slf4j
+@RunWith(JUnit4.class)
+public class AdnlLiteClientTest {
+
+    private static final Cell BLOCK = CellBuilder.beginCell()
+            .storeUint(0x11ef55aa, 32)
+            .storeRef(CellBuilder.beginCell().storeUint(42, 64).endCell())
+            .endCell();
+
+    private static final BlockIdExt LAST = BlockIdExt.builder()
+            .workchain(-1)
+            .shard(0x8000000000000000L)
+            .seqno(100)
+            .rootHash(BLOCK.getHash())
+            .fileHash(Utils.sha256AsArray(BLOCK.toBoc()))
+            .build();
+
+    private TweetNaclFast.Signature.KeyPair serverKey;
+    private ServerSocket serverSocket;
+    private volatile int batch = 1;
+
+    @Before
+    public void setUp() throws IOException {
+        serverKey = TweetNaclFast.Signature.keyPair();
+        serverSocket = new ServerSocket(0);
+        Thread server = new Thread(this::serve, "adnl-stub-server");
+        server.setDaemon(true);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        serverSocket.close();
+    }
+
+    @Test
+    public void testSharedSecretIsSymmetric() {
+        TweetNaclFast.Signature.KeyPair a = TweetNaclFast.Signature.keyPair();
+        TweetNaclFast.Signature.KeyPair b = TweetNaclFast.Signature.keyPair();
+        assertThat(AdnlCrypto.sharedSecret(a.getSecretKey(), b.getPublicKey()))
+                .isEqualTo(AdnlCrypto.sharedSecret(b.getSecretKey(), a.getPublicKey()));
+    }
+
+    /**
+     * Keys of RFC 8032 test vectors 1 and 2, expected values computed independently with X25519 of RFC 7748.
+     */
+    @Test
+    public void testFixedVectors() {
+        TweetNaclFast.Signature.KeyPair a = TweetNaclFast.Signature.keyPair_fromSeed(
+                Utils.hexToSignedBytes("9d61b19deffd5a60ba844af492ec2cc44449c5697b326919703bac031cae7f60"));
+        TweetNaclFast.Signature.KeyPair b = TweetNaclFast.Signature.keyPair_fromSeed(
+                Utils.hexToSignedBytes("4ccd089b28ff96da9db6c346ec114e0f5b8a319f35aba624da8cf6ed4fb8a6fb"));
+        assertThat(Utils.bytesToHex(a.getPublicKey())).isEqualTo("d75a980182b10ab7d54bfed3c964073a0ee172f3daa62325af021a68f707511a");
+        assertThat(Utils.bytesToHex(b.getPublicKey())).isEqualTo("3d4017c3e843895a92b70aa74d1b7ebc9c982ccf2ec4968cc0cd55f12af4660c");
+
+        assertThat(Utils.bytesToHex(AdnlCrypto.keyId(a.getPublicKey())))
+                .isEqualTo("1ebe11eac72c9c99edca05d0fe3bbf1bdbfd5225d20862df516e14dece65d11e");
+        assertThat(Utils.bytesToHex(AdnlCrypto.toMontgomery(a.getPublicKey())))
+                .isEqualTo("d85e07ec22b0ad881537c2f44d662d1a143cf830c57aca4305d85c7a90f6b62e");
+        assertThat(Utils.bytesToHex(AdnlCrypto.sharedSecret(a.getSecretKey(), b.getPublicKey())))
+                .isEqualTo("5166f24a6918368e2af831a4affadd97af0ac326bdf143596c045967cc00230e");
+    }
+
+    @Test
+    public void testGetMasterchainInfoAndBlock() throws IOException {
+        AdnlLiteClient client = connect();
+        try {
+            MasterchainInfo info = client.getMasterchainInfo();
+            assertThat(info.getLast().toString()).isEqualTo(LAST.toString());
+            assertThat(info.getInit().getWorkchain()).isEqualTo(-1);
+
+            BlockData block = client.getBlock(info.getLast());
+            assertThat(block.getBlock().getHash()).isEqualTo(BLOCK.getHash());
+            assertThat(block.getBlock().getRefs()).hasSize(1);
+
+            client.getConnection().ping().join();
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testLiteServerError() throws IOException {
+        AdnlLiteClient client = connect();
+        try {
+            Error error = assertThrows(Error.class, () -> client.getAllShardsInfo(LAST));
+            assertThat(error.getMessage()).contains("lite-server error 651").contains("not supported");
+            assertThat(client.getMasterchainInfo()).isNotNull();
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testPipelinedQueries() throws IOException {
+        batch = 50;
+        AdnlLiteClient client = connect();
+        try {
+            List<CompletableFuture<BlockData>> futures = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                futures.add(client.getBlockAsync(LAST));
+            }
+            // server answers only after it received all 50 queries, in reverse order
+            for (CompletableFuture<BlockData> future : futures) {
+                assertThat(future.join().getBlock().getHash()).isEqualTo(BLOCK.getHash());
+            }
+            assertThat(client.getConnection().getPending()).isZero();
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testWrongServerKey() {
+        String otherKey = Base64.getEncoder().encodeToString(TweetNaclFast.Signature.keyPair().getPublicKey());
+        assertThrows(Error.class, () -> new AdnlLiteClient("127.0.0.1", serverSocket.getLocalPort(), otherKey, 2000));
+    }
+
+    @Test
+    public void testClosedConnectionFailsPendingQueries() throws IOException {
+        batch = 2;
+        AdnlLiteClient client = connect();
+        CompletableFuture<MasterchainInfo> future = client.getMasterchainInfoAsync();
+        client.close();
+        assertThat(future).isCompletedExceptionally();
+        assertThat(client.getConnection().isAlive()).isFalse();
+        assertThrows(Error.class, client::getMasterchainInfo);
+
+        // queries and pings sent after close fail without staying registered
+        assertThat(client.getMasterchainInfoAsync()).isCompletedExceptionally();
+        assertThat(client.getConnection().ping()).isCompletedExceptionally();
+        assertThat(client.getConnection().getPending()).isZero();
+    }
+
+    private AdnlLiteClient connect() throws IOException {
+        String key = Base64.getEncoder().encodeToString(serverKey.getPublicKey());
+        return new AdnlLiteClient("127.0.0.1", serverSocket.getLocalPort(), key, 5000);
+    }
+
+    private void serve() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread session = new Thread(() -> session(socket), "adnl-stub-session");
+                session.setDaemon(true);
+                session.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void session(Socket socket) {
+        try (Socket s = socket) {
+            DataInputStream in = new DataInputStream(s.getInputStream());
+            OutputStream out = s.getOutputStream();
+
+            byte[] handshake = new byte[256];
+            in.readFully(handshake);
+            if (!Arrays.equals(Arrays.copyOfRange(handshake, 0, 32), AdnlCrypto.keyId(serverKey.getPublicKey()))) {
+                return;
+            }
+            byte[] clientKey = Arrays.copyOfRange(handshake, 32, 64);
+            byte[] nonceHash = Arrays.copyOfRange(handshake, 64, 96);
+            byte[] secret = AdnlCrypto.sharedSecret(serverKey.getSecretKey(), clientKey);
+            byte[] nonce = AdnlCrypto.handshakeCipher(secret, nonceHash, Cipher.DECRYPT_MODE).update(handshake, 96, 160);
+            if (!Arrays.equals(Utils.sha256AsArray(nonce), nonceHash)) {
+                return;
+            }
+            Cipher encryptor = AdnlCrypto.aesCtr(Arrays.copyOfRange(nonce, 0, 32), Arrays.copyOfRange(nonce, 64, 80), Cipher.ENCRYPT_MODE);
+            Cipher decryptor = AdnlCrypto.aesCtr(Arrays.copyOfRange(nonce, 32, 64), Arrays.copyOfRange(nonce, 80, 96), Cipher.DECRYPT_MODE);
+
+            writePacket(out, encryptor, new byte[0]);
+
+            List<byte[]> answers = new ArrayList<>();
+            while (true) {
+                byte[] size = new byte[4];
+                in.readFully(size);
+                byte[] packet = new byte[Tl.wrap(decryptor.update(size)).getInt()];
+                in.readFully(packet);
+                packet = decryptor.update(packet);
+                answers.add(answer(Arrays.copyOfRange(packet, 32, packet.length - 32)));
+                if (answers.size() >= batch) {
+                    Collections.reverse(answers);
+                    for (byte[] answer : answers) {
+                        writePacket(out, encryptor, answer);
+                    }
+                    answers.clear();
+                }
+            }
+        } catch (IOException e) {
+            // client disconnected
+        }
+    }
+
+    private static byte[] answer(byte[] payload) {
+        ByteBuffer message = Tl.wrap(payload);
+        int id = message.getInt();
+        if (id == AdnlTcpConnection.TCP_PING) {
+            ByteBuffer pong = Tl.allocate(12);
+            pong.putInt(AdnlTcpConnection.TCP_PONG);
+            pong.putLong(message.getLong());
+            return pong.array();
+        }
+        assertThat(id).isEqualTo(AdnlTcpConnection.ADNL_MESSAGE_QUERY);
+        byte[] queryId = Tl.readInt256(message);
+        ByteBuffer query = Tl.wrap(Tl.readBytes(message));
+        assertThat(query.getInt()).isEqualTo(AdnlLiteClient.LITE_SERVER_QUERY);
+        ByteBuffer function = Tl.wrap(Tl.readBytes(query));
+        byte[] result = liteServer(function);
+
+        ByteBuffer answer = Tl.allocate(4 + 32 + Tl.bytesSize(result.length));
+        answer.putInt(AdnlTcpConnection.ADNL_MESSAGE_ANSWER);
+        answer.put(queryId);
+        Tl.writeBytes(answer, result);
+        return answer.array();
+    }
+
+    private static byte[] liteServer(ByteBuffer function) {
+        int id = function.getInt();
+        if (id == AdnlLiteClient.GET_MASTERCHAIN_INFO) {
+            MasterchainInfo info = MasterchainInfo.builder()
+                    .last(LAST)
+                    .stateRootHash(new byte[32])
+                    .init(ZeroStateIdExt.builder().workchain(-1).rootHash(new byte[32]).fileHash(new byte[32]).build())
+                    .build();
+            ByteBuffer result = Tl.allocate(4 + BlockIdExt.SERIALIZED_SIZE + 32 + 68);
+            info.serialize(result);
+            return result.array();
+        }
+        if (id == AdnlLiteClient.GET_BLOCK) {
+            BlockIdExt blockId = BlockIdExt.deserialize(function);
+            byte[] boc = BLOCK.toBoc();
+            ByteBuffer result = Tl.allocate(4 + BlockIdExt.SERIALIZED_SIZE + Tl.bytesSize(boc.length));
+            result.putInt(BlockData.CONSTRUCTOR_ID);
+            blockId.serialize(result);
+            Tl.writeBytes(result, boc);
+            return result.array();
+        }
+        byte[] message = "not supported".getBytes();
+        ByteBuffer error = Tl.allocate(8 + Tl.bytesSize(message.length));
+        error.putInt(AdnlLiteClient.LITE_SERVER_ERROR);
+        error.putInt(651);
+        Tl.writeBytes(error, message);
+        return error.array();
+    }
+
+    private static void writePacket(OutputStream out, Cipher encryptor, byte[] payload) throws IOException {
+        byte[] nonce = TweetNaclFast.randombytes(32);
+        MessageDigest digest = AdnlCrypto.sha256();
+        digest.update(nonce);
+        digest.update(payload);
+        ByteBuffer packet = Tl.allocate(4 + 32 + payload.length + 32);
+        packet.putInt(32 + payload.length + 32);
+        packet.put(nonce);
+        packet.put(payload);
+        packet.put(digest.digest());
+        out.write(encryptor.update(packet.array()));
+        out.flush();
+    }
+}
@@ -0,0 +1,359 @@
+package org.ton.java.liteclient;
+
+import com.iwebpp.crypto.TweetNaclFast;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.ton.java.cell.Cell;
+import org.ton.java.cell.CellBuilder;
+import org.ton.java.cell.CellSlice;
+import org.ton.java.cell.MerkleProofs;
+import org.ton.java.cell.TonHashMap;
+import org.ton.java.cell.TonHashMapE;
+import org.ton.java.cell.TonHashMapView;
+import org.ton.java.liteclient.adnl.AdnlCrypto;
+import org.ton.java.liteclient.proof.BlockProofVerifier;
+import org.ton.java.tlb.types.BlockIdExtShardIdent;
+import org.ton.java.tlb.types.BlockInfo;
+import org.ton.java.tlb.types.BlockProof;
+import org.ton.java.tlb.types.BlockSignatures;
+import org.ton.java.tlb.types.BlockSignaturesPure;
+import org.ton.java.tlb.types.CryptoSignature;
+import org.ton.java.tlb.types.CryptoSignaturePair;
+import org.ton.java.tlb.types.ShardIdent;
+import org.ton.java.tlb.types.SigPubKey;
+import org.ton.java.tlb.types.Validator;
+import org.ton.java.tlb.types.ValidatorAddr;
+import org.ton.java.tlb.types.ValidatorBaseInfo;
+import org.ton.java.tlb.types.ValidatorSet;
+import org.ton.java.tlb.types.ValidatorsExt;
+import org.ton.java.utils.Utils;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Builds masterchain blocks, their Merkle proofs and signatures locally and checks them with BlockProofVerifier.
+ */
+@Slf4j
+@RunWith(JUnit4.class)
+public class BlockProofVerifierTest {
+
+    private static final long CATCHAIN_SEQNO = 7;
+    private static final long LIST_HASH_SHORT = 0x1234;
+
+    private final TweetNaclFast.Signature.KeyPair[] first = keys(5);
+    private final TweetNaclFast.Signature.KeyPair[] second = keys(4);
+
+    @Test
+    public void testKeyBlockChain() {
+        BlockProofVerifier verifier = new BlockProofVerifier(100, validatorSet(first, 5));
+
+        Cell keyBlock = block(200, true, 100, validatorSetCell(second, 3));
+        verifier.verifyChain(Arrays.asList(proof(200, keyBlock, first, 5)));
+        assertThat(verifier.getValidatorSet(200).size()).isEqualTo(3);
+        assertThat(verifier.getValidatorSet(200).getTotalWeight()).isEqualTo(BigInteger.valueOf(10 + 20 + 30));
+
+        // signed by validators of key block 200, only the first 3 of them are in the signing set
+        Cell block = block(250, false, 200, null);
+        assertThat(verifier.verify(proof(250, block, second, 3))).isEqualTo(BigInteger.valueOf(60));
+        Error error = assertThrows(Error.class, () -> verifier.verify(proof(250, block, second, 4)));
+        assertThat(error.getMessage()).contains("not in the validator set");
+    }
+
+    @Test
+    public void testNotEnoughWeight() {
+        BlockProofVerifier verifier = new BlockProofVerifier(100, validatorSet(first, 5));
+        Cell block = block(101, false, 100, null);
+        // weights 10..50, the first three hold 60 of 150
+        Error error = assertThrows(Error.class, () -> verifier.verify(proof(101, block, first, 3)));
+        assertThat(error.getMessage()).contains("more than 2/3");
+        assertThat(verifier.verify(proof(101, block, first, 5))).isEqualTo(BigInteger.valueOf(150));
+    }
+
+    @Test
+    public void testKeyBlockIsRequired() {
+        BlockProofVerifier verifier = new BlockProofVerifier(100, validatorSet(first, 5));
+        Cell block = block(301, false, 300, null);
+        assertThrows(Error.class, () -> verifier.verify(proof(301, block, first, 5)));
+        assertThat(verifier.getValidatorSet(300)).isNull();
+    }
+
+    @Test
+    public void testForgedProofs() {
+        BlockProofVerifier verifier = new BlockProofVerifier(100, validatorSet(first, 5));
+        Cell block = block(101, false, 100, null);
+
+        // signatures of another block
+        BlockProof proof = proof(101, block, first, 5);
+        BlockProof other = proof(102, block(102, false, 100, null), first, 5);
+        proof.setSignatures(other.getSignatures());
+        assertThat(assertThrows(Error.class, () -> verifier.verify(proof)).getMessage()).contains("invalid signature");
+
+        // proof of another block under the expected block id
+        BlockProof swapped = proof(101, block, first, 5);
+        swapped.setRoot(other.getRoot());
+        assertThrows(Error.class, () -> verifier.verify(swapped));
+    }
+
+    /**
+     * Real mainnet masterchain block: BlockProofVerifier must read the same header as BlockInfo.deserialize().
+     * Signatures of mainnet validators can not be reproduced, the block is signed by a local set trusted for
+     * its previous key block.
+     */
+    @Test
+    public void testMainnetBlock() throws IOException {
+        byte[] boc = resource("/mainnet-block-24374597.boc");
+        Cell block = Cell.fromBoc(boc);
+        BlockInfo info = BlockInfo.deserialize(CellSlice.beginParse(block.getRefs().get(0)));
+        assertThat(info.getSeqno()).isEqualTo(24374597);
+        assertThat(info.isKeyBlock()).isFalse();
+
+        BlockProofVerifier verifier = new BlockProofVerifier(info.getPrevKeyBlockSeqno(), validatorSet(first, 5));
+        byte[] fileHash = Utils.sha256AsArray(boc);
+        BlockProof proof = proof(info.getSeqno(), block, fileHash, info.getGenValidatorListHashShort(), info.getGenCatchainSeqno(), first, 5);
+        assertThat(verifier.verify(proof)).isEqualTo(BigInteger.valueOf(150));
+
+        BlockProof otherGroup = proof(info.getSeqno(), block, fileHash, info.getGenValidatorListHashShort(), info.getGenCatchainSeqno() + 1, first, 5);
+        assertThat(assertThrows(Error.class, () -> verifier.verify(otherGroup)).getMessage()).contains("validator group");
+    }
+
+    /**
+     * Key block carrying the real mainnet config, param 34 holds validator_addr entries of 381 validators, 100 of them main.
+     */
+    @Test
+    public void testMainnetValidatorSet() throws IOException {
+        Cell config = Cell.fromBoc(resource("/mainnet-config.boc"));
+        ValidatorsExt current = (ValidatorsExt) ValidatorSet.deserialize(CellSlice.beginParse(
+                TonHashMapView.of(CellSlice.beginParse(config), 32).get(34).loadRef()));
+        assertThat(current.getList().elements).hasSize((int) current.getTotal());
+
+        TreeMap<BigInteger, ValidatorAddr> byIndex = new TreeMap<>();
+        for (Map.Entry<Object, Object> entry : current.getList().elements.entrySet()) {
+            byIndex.put((BigInteger) entry.getKey(), (ValidatorAddr) entry.getValue());
+        }
+        BigInteger total = BigInteger.ZERO;
+        BigInteger main = BigInteger.ZERO;
+        int i = 0;
+        for (ValidatorAddr validator : byIndex.values()) {
+            total = total.add(validator.getWeight());
+            if (i++ < current.getMain()) {
+                main = main.add(validator.getWeight());
+            }
+        }
+        assertThat(total).isEqualTo(current.getTotalWeight());
+
+        BlockProofVerifier verifier = new BlockProofVerifier(100, validatorSet(first, 5));
+        verifier.verify(proof(200, blockWithConfig(200, true, 100, config), first, 5));
+        assertThat(verifier.getValidatorSet(200).size()).isEqualTo(current.getMain());
+        assertThat(verifier.getValidatorSet(200).getTotalWeight()).isEqualTo(main);
+    }
+
+    @Test
+    public void testSignedPayload() {
+        byte[] payload = BlockProofVerifier.signedPayload(new byte[32], new byte[32]);
+        assertThat(payload).hasSize(68);
+        assertThat(Utils.bytesToHex(Arrays.copyOf(payload, 4))).isEqualTo("706e0bc5");
+    }
+
+    private static TweetNaclFast.Signature.KeyPair[] keys(int n) {
+        TweetNaclFast.Signature.KeyPair[] keys = new TweetNaclFast.Signature.KeyPair[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = TweetNaclFast.Signature.keyPair();
+        }
+        return keys;
+    }
+
+    /**
+     * i-th validator has weight 10 * (i + 1)
+     */
+    private static Cell validatorSetCell(TweetNaclFast.Signature.KeyPair[] keys, int main) {
+        TonHashMapE list = new TonHashMapE(16);
+        long total = 0;
+        for (int i = 0; i < keys.length; i++) {
+            list.elements.put((long) i, Validator.builder()
+                    .publicKey(SigPubKey.builder().pubkey(new BigInteger(1, keys[i].getPublicKey())).build())
+                    .weight(BigInteger.valueOf(10L * (i + 1)))
+                    .build());
+            total += 10L * (i + 1);
+        }
+        return ValidatorsExt.builder()
+                .uTimeSince(1700000000L)
+                .uTimeUntil(1800000000L)
+                .total(keys.length)
+                .main(main)
+                .totalWeight(BigInteger.valueOf(total))
+                .list(list)
+                .build()
+                .toCell();
+    }
+
+    private static ValidatorSet validatorSet(TweetNaclFast.Signature.KeyPair[] keys, int main) {
+        return ValidatorSet.deserialize(CellSlice.beginParse(validatorSetCell(keys, main)));
+    }
+
+    /**
+     * Masterchain block with the fields BlockProofVerifier reads, config of a key block holds params 0 and 34.
+     */
+    private static Cell block(long seqno, boolean keyBlock, long prevKeyBlockSeqno, Cell validators) {
+        if (validators == null) {
+            return blockWithConfig(seqno, keyBlock, prevKeyBlockSeqno, null);
+        }
+        TonHashMap config = new TonHashMap(32);
+        config.elements.put(0L, CellBuilder.beginCell().storeBytes(new byte[32]).endCell());
+        config.elements.put(34L, validators);
+        return blockWithConfig(seqno, keyBlock, prevKeyBlockSeqno, config.serialize(
+                k -> CellBuilder.beginCell().storeUint((Long) k, 32).endCell().getBits(),
+                v -> CellBuilder.beginCell().storeRef((Cell) v).endCell()));
+    }
+
+    /**
+     * @param config Hashmap 32 ^Cell of a key block, null for an ordinary block
+     */
+    private static Cell blockWithConfig(long seqno, boolean keyBlock, long prevKeyBlockSeqno, Cell config) {
+        Cell info = CellBuilder.beginCell()
+                .storeUint(0x9bc7a987L, 32)
+                .storeUint(0, 32)
+                .storeUint(0, 6)
+                .storeBit(keyBlock)
+                .storeBit(false)
+                .storeUint(0, 8)
+                .storeUint(seqno, 32)
+                .storeUint(0, 32)
+                .storeCell(shard().toCell())
+                .storeUint(1700000000L + seqno, 32)
+                .storeUint(seqno * 1000, 64)
+                .storeUint(seqno * 1000 + 1, 64)
+                .storeUint(LIST_HASH_SHORT, 32)
+                .storeUint(CATCHAIN_SEQNO, 32)
+                .storeUint(seqno - 1, 32)
+                .storeUint(prevKeyBlockSeqno, 32)
+                .storeRef(CellBuilder.beginCell().storeUint(seqno - 1, 32).endCell())
+                .endCell();
+
+        CellBuilder extra = CellBuilder.beginCell()
+                .storeUint(0x4a33f6fdL, 32)
+                .storeRef(CellBuilder.beginCell().storeUint(1, 8).endCell())
+                .storeRef(CellBuilder.beginCell().storeUint(2, 8).endCell())
+                .storeRef(CellBuilder.beginCell().storeUint(3, 8).endCell())
+                .storeBytes(new byte[32])
+                .storeBytes(new byte[32]);
+        if (config == null) {
+            extra.storeBit(false);
+        } else {
+            Cell mcExtra = CellBuilder.beginCell()
+                    .storeUint(0xcca5, 16)
+                    .storeBit(true)
+                    .storeUint(0, 2)
+                    .storeRef(CellBuilder.beginCell().storeUint(0, 1).endCell())
+                    .storeBytes(new byte[32])
+                    .storeRef(config)
+                    .endCell();
+            extra.storeBit(true).storeRef(mcExtra);
+        }
+
+        return CellBuilder.beginCell()
+                .storeUint(0x11ef55aaL, 32)
+                .storeInt(-239, 32)
+                .storeRef(info)
+                .storeRef(CellBuilder.beginCell().storeUint(4, 8).endCell())
+                .storeRef(CellBuilder.beginCell().storeUint(5, 8).endCell())
+                .storeRef(extra.endCell())
+                .endCell();
+    }
+
+    /**
+     * Proof with the block header and the validator set, signed by the first signers of keys.
+     */
+    private static BlockProof proof(long seqno, Cell block, TweetNaclFast.Signature.KeyPair[] keys, int signers) {
+        return proof(seqno, block, Utils.sha256AsArray(block.toBoc()), LIST_HASH_SHORT, CATCHAIN_SEQNO, keys, signers);
+    }
+
+    private static BlockProof proof(long seqno, Cell block, byte[] fileHash, long listHashShort, long catchainSeqno,
+                                    TweetNaclFast.Signature.KeyPair[] keys, int signers) {
+        Set<Cell> visited = new HashSet<>(MerkleProofs.pathTo(block, block.getRefs().get(0)));
+        if (hasConfig(block)) {
+            Cell validators = validatorsOf(block);
+            visited.addAll(MerkleProofs.pathTo(block, validators));
+            visited.addAll(MerkleProofs.subtree(validators));
+        }
+        byte[] rootHash = block.getHash();
+        byte[] payload = BlockProofVerifier.signedPayload(rootHash, fileHash);
+
+        TonHashMapE signatures = new TonHashMapE(16);
+        for (int i = 0; i < signers; i++) {
+            byte[] signature = new TweetNaclFast.Signature(null, keys[i].getSecretKey()).detached(payload);
+            signatures.elements.put((long) i, CryptoSignaturePair.builder()
+                    .nodeIdShort(new BigInteger(1, AdnlCrypto.keyId(keys[i].getPublicKey())))
+                    .sign(CryptoSignature.builder()
+                            .r(new BigInteger(1, Arrays.copyOfRange(signature, 0, 32)))
+                            .s(new BigInteger(1, Arrays.copyOfRange(signature, 32, 64)))
+                            .build())
+                    .build());
+        }
+
+        Cell proof = BlockProof.builder()
+                .proofFor(BlockIdExtShardIdent.builder()
+                        .shardId(shard())
+                        .seqno(seqno)
+                        .rootHash(new BigInteger(1, rootHash))
+                        .fileHash(new BigInteger(1, fileHash))
+                        .build())
+                .root(MerkleProofs.build(block, visited))
+                .signatures(BlockSignatures.builder()
+                        .validatorBaseInfo(ValidatorBaseInfo.builder()
+                                .validatorListHashShort(listHashShort)
+                                .catchainSeqno(catchainSeqno)
+                                .build())
+                        .pureSignatures(BlockSignaturesPure.builder()
+                                .sigCount(signers)
+                                .sigWeight(BigInteger.ZERO)
+                                .signatures(signatures)
+                                .build())
+                        .build())
+                .build()
+                .toCell();
+        return BlockProof.deserialize(CellSlice.beginParse(Cell.fromBoc(proof.toBoc())));
+    }
+
+    private byte[] resource(String name) throws IOException {
+        return IOUtils.toByteArray(Objects.requireNonNull(getClass().getResourceAsStream(name)));
+    }
+
+    private static ShardIdent shard() {
+        return ShardIdent.builder().prefixBits(0).workchain(-1).shardPrefix(BigInteger.ZERO).build();
+    }
+
+    /**
+     * key_block bit of McBlockExtra, only key blocks carry the config.
+     */
+    private static boolean hasConfig(Cell block) {
+        Cell extra = block.getRefs().get(3);
+        if (extra.getRefs().size() < 4) {
+            return false;
+        }
+        CellSlice mcExtra = CellSlice.beginParse(extra.getRefs().get(3));
+        mcExtra.skipBits(16);
+        return mcExtra.loadBit();
+    }
+
+    /**
+     * Validator set cell in the config of a key block.
+     */
+    private static Cell validatorsOf(Cell block) {
+        Cell mcExtra = block.getRefs().get(3).getRefs().get(3);
+        Cell config = mcExtra.getRefs().get(mcExtra.getRefs().size() - 1);
+        return TonHashMapView.of(CellSlice.beginParse(config), 32).get(34).loadRef();
+    }
+}
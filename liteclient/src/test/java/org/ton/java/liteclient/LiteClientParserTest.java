@@ -13,7 +13,9 @@ import org.ton.java.liteclient.api.block.Transaction;
 import org.ton.java.liteclient.exception.IncompleteDump;
 import org.ton.java.liteclient.exception.ParsingError;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
@@ -405,6 +407,30 @@ public class LiteClientParserTest {
 
     }
 
+    @Test
+    public void TestParseBlockFromStream() throws IOException, IncompleteDump, ParsingError {
+        // given
+        String blockDump = IOUtils.toString(Objects.requireNonNull(getClass().getResourceAsStream("/dumpblock_genesis.log")), StandardCharsets.UTF_8);
+        Block expected = LiteClientParser.parseDumpblock(blockDump, true, true);
+        // when
+        Block block;
+        try (InputStream stdout = Objects.requireNonNull(getClass().getResourceAsStream("/dumpblock_genesis.log"))) {
+            block = LiteClientParser.parseDumpblock(stdout, true, true);
+        }
+        Block blockCrLf = LiteClientParser.parseDumpblock(blockDump.replace("\n", "\r\n"), true, true);
+        // then
+        assertEquals(expected.toString(), block.toString());
+        assertEquals(expected.toString(), blockCrLf.toString());
+        assertEquals(5, block.getExtra().getInMsgDescrs().getLeaf().size());
+        assertEquals(7, block.getExtra().getOutMsgsDescrs().getLeaf().size());
+        assertNotNull(block.getShardState());
+    }
+
+    @Test
+    public void TestParseIncompleteBlockFromStream() {
+        assertThrows(IncompleteDump.class, () -> LiteClientParser.parseDumpblock(new ByteArrayInputStream("block global_id:-239".getBytes(StandardCharsets.UTF_8)), false, false));
+    }
+
     @Test
     public void TestParseBasechainBlock() throws IOException, IncompleteDump, ParsingError {
         // given
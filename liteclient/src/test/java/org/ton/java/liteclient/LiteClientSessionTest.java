@@ -0,0 +1,132 @@
+package org.ton.java.liteclient;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.ton.java.liteclient.api.ResultLastBlock;
+import org.ton.java.utils.Utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assume.assumeFalse;
+
+/**
+ * Runs interactive sessions against a fake lite-client, a shell script answering with canned output.
+ */
+@Slf4j
+@RunWith(JUnit4.class)
+public class LiteClientSessionTest {
+
+    private static final String FAKE_LITE_CLIENT = "#!/bin/sh\n"
+            + "echo started >> starts.log\n"
+            + "echo '[ 1][t 1][lite-client.cpp] conn ready'\n"
+            + "printf '> '\n"
+            + "while IFS= read -r line; do\n"
+            + "  case \"$line\" in\n"
+            + "    last) cat last.log ;;\n"
+            + "    sleep) sleep 5 ;;\n"
+            + "    exit) exit 0 ;;\n"
+            + "    *) echo \"unknown command $line\" ;;\n"
+            + "  esac\n"
+            + "  printf '> '\n"
+            + "done\n";
+
+    private Path dir;
+    private String lastOutput;
+
+    @Before
+    public void setUp() throws IOException {
+        assumeFalse(Utils.getOS() == Utils.OS.WINDOWS || Utils.getOS() == Utils.OS.WINDOWS_ARM);
+        dir = Files.createTempDirectory("lite-client-session");
+        lastOutput = IOUtils.toString(Objects.requireNonNull(getClass().getResourceAsStream("/last.log")), StandardCharsets.UTF_8).trim() + "\n";
+        Files.write(dir.resolve("last.log"), lastOutput.getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve("global.config.json"), "{}".getBytes(StandardCharsets.UTF_8));
+        File binary = dir.resolve("lite-client").toFile();
+        Files.write(binary.toPath(), FAKE_LITE_CLIENT.getBytes(StandardCharsets.UTF_8));
+        assertThat(binary.setExecutable(true)).isTrue();
+    }
+
+    @After
+    public void tearDown() {
+        if (dir != null) {
+            FileUtils.deleteQuietly(dir.toFile());
+        }
+    }
+
+    private long starts() throws IOException {
+        Path log = dir.resolve("starts.log");
+        return Files.exists(log) ? Files.readAllLines(log).size() : 0;
+    }
+
+    private LiteClientSessionPool pool(int size) {
+        List<String> command = Arrays.asList(dir.resolve("lite-client").toString(), "-t", "10", "-C", dir.resolve("global.config.json").toString());
+        return new LiteClientSessionPool(command, "> ", size, 5000);
+    }
+
+    @Test
+    public void testLiteClientWithSessions() throws Exception {
+        LiteClient liteClient = LiteClient.builder()
+                .pathToLiteClientBinary(dir.resolve("lite-client").toString())
+                .pathToGlobalConfig(dir.resolve("global.config.json").toString())
+                .sessions(2)
+                .printInfo(false)
+                .build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            results.add(executor.submit(liteClient::executeLast));
+        }
+        for (Future<String> result : results) {
+            assertThat(result.get()).isEqualTo(lastOutput);
+        }
+        executor.shutdown();
+
+        ResultLastBlock last = LiteClientParser.parseLast(liteClient.executeLast());
+        assertThat(last.getFullBlockSeqno()).isNotEmpty();
+        assertThat(starts()).isLessThanOrEqualTo(2);
+        liteClient.destroy();
+    }
+
+    @Test
+    public void testBrokenSessionIsReplaced() throws IOException {
+        LiteClientSessionPool pool = pool(1);
+        assertThat(pool.execute("last", 5000)).isEqualTo(lastOutput);
+
+        Error e = assertThrows(Error.class, () -> pool.execute("exit", 5000));
+        assertThat(e.getMessage()).contains("lite-client exited");
+        assertThat(pool.getStarted()).isZero();
+
+        assertThat(pool.execute("last", 5000)).isEqualTo(lastOutput);
+        assertThat(starts()).isEqualTo(2);
+        pool.close();
+    }
+
+    @Test
+    public void testTimeout() {
+        LiteClientSessionPool pool = pool(1);
+        Error e = assertThrows(Error.class, () -> pool.execute("sleep", 300));
+        assertThat(e.getMessage()).contains("did not answer");
+        assertThat(pool.getStarted()).isZero();
+        assertThat(pool.execute("hello", 5000)).isEqualTo("unknown command hello\n");
+        pool.close();
+    }
+}
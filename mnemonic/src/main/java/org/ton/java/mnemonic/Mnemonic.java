@@ -13,6 +13,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class Mnemonic {
 
@@ -33,24 +37,40 @@ public class Mnemonic {
     // Default salt used to check, if mnemonic phrase requires a password
     private static final String DEFAULT_PASSWORD_SALT = "TON fast seed version";
 
-    public static byte[] hmacSha512(byte[] key, byte[] input) throws NoSuchAlgorithmException, InvalidKeyException {
-        String algorithm = "HmacSHA512";
+    // Number of candidates checked in parallel by generate(), about 1 of 256 random phrases is a valid mnemonic
+    private static final int CANDIDATES_PER_ROUND = 64;
+
+    // SecureRandom.getInstanceStrong() may block on Linux waiting for entropy
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Mac and PBKDF2 generator are not thread safe and costly to look up, so every thread keeps its own
+    private static final ThreadLocal<Mac> HMAC_SHA512 = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance("HmacSHA512");
+        } catch (NoSuchAlgorithmException e) {
+            throw new Error(e);
+        }
+    });
+
+    private static final ThreadLocal<PKCS5S2ParametersGenerator> PBKDF2_SHA512 =
+            ThreadLocal.withInitial(() -> new PKCS5S2ParametersGenerator(new SHA512Digest()));
 
-        Mac ctx = Mac.getInstance(algorithm);
-        ctx.init(new SecretKeySpec(key, algorithm));
+    public static byte[] hmacSha512(byte[] key, byte[] input) throws NoSuchAlgorithmException, InvalidKeyException {
+        Mac ctx = HMAC_SHA512.get();
+        ctx.init(new SecretKeySpec(key, "HmacSHA512"));
         ctx.update(input);
         return ctx.doFinal();
     }
 
     private static byte[] pbkdf2Sha512(byte[] key, byte[] salt, int iterations) {
-        PKCS5S2ParametersGenerator gen = new PKCS5S2ParametersGenerator(new SHA512Digest());
+        PKCS5S2ParametersGenerator gen = PBKDF2_SHA512.get();
 
         gen.init(key, salt, iterations);
         return ((KeyParameter) gen.generateDerivedParameters(512)).getKey();
     }
 
     public static boolean isValid(List<String> mnemonic, String password) throws NoSuchAlgorithmException, InvalidKeyException {
-        if (!new HashSet<>(Arrays.asList(DEFAULT_WORDLIST)).containsAll(mnemonic)) {
+        if (!WordList.WORDS.containsAll(mnemonic)) {
             return false;
         }
         if (!password.isEmpty() && !isPasswordNeeded(mnemonic)) {
@@ -101,6 +121,28 @@ public class Mnemonic {
         return new Pair(Ed25519.publicKey(secretKey), secretKey);
     }
 
+    public static List<Pair> toKeyPairs(List<List<String>> mnemonics) {
+        return toKeyPairs(mnemonics, "");
+    }
+
+    /**
+     * Derives key pairs on all cores, every derivation runs 100000 iterations of PBKDF2.
+     *
+     * @return key pairs in the order of mnemonics
+     */
+    public static List<Pair> toKeyPairs(List<List<String>> mnemonics, String password) {
+        return IntStream.range(0, mnemonics.size())
+                .parallel()
+                .mapToObj(i -> {
+                    try {
+                        return toKeyPair(mnemonics.get(i), password);
+                    } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+                        throw new Error("Cannot derive key pair, " + e.getMessage());
+                    }
+                })
+                .collect(Collectors.toList());
+    }
+
     public static String generateString(int wordCount) throws NoSuchAlgorithmException, InvalidKeyException {
         return generateString(wordCount, "");
     }
@@ -113,27 +155,69 @@ public class Mnemonic {
         return generate(wordCount, "");
     }
 
+    /**
+     * Checks random candidates in parallel rounds until one of them is a valid mnemonic.
+     */
     public static List<String> generate(int wordCount, String password) throws NoSuchAlgorithmException, InvalidKeyException {
-        List<String> mnemonic;
-        SecureRandom rnd = SecureRandom.getInstanceStrong();
         while (true) {
-            mnemonic = new ArrayList<>();
-            for (int i = 0; i < wordCount; i++) {
-                mnemonic.add(DEFAULT_WORDLIST[rnd.nextInt(DEFAULT_WORDLIST.length)]);
+            Optional<List<String>> mnemonic = IntStream.range(0, CANDIDATES_PER_ROUND)
+                    .parallel()
+                    .mapToObj(i -> randomCandidate(wordCount))
+                    .filter(candidate -> isGenerated(candidate, password))
+                    .findAny();
+            if (mnemonic.isPresent()) {
+                return mnemonic.get();
             }
+        }
+    }
 
-            if (!password.isEmpty() && !isPasswordNeeded(mnemonic)) {
-                continue;
-            }
+    public static List<List<String>> generateMany(int count, int wordCount) {
+        return generateMany(count, wordCount, "");
+    }
 
-            if (!isBasicSeed(toEntropy(mnemonic, password))) {
-                continue;
-            }
+    /**
+     * Generates count mnemonics on all cores, e.g. for provisioning of wallets in bulk.
+     */
+    public static List<List<String>> generateMany(int count, int wordCount, String password) {
+        return IntStream.range(0, count)
+                .parallel()
+                .mapToObj(i -> {
+                    while (true) {
+                        List<String> candidate = randomCandidate(wordCount);
+                        if (isGenerated(candidate, password)) {
+                            return candidate;
+                        }
+                    }
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> randomCandidate(int wordCount) {
+        List<String> mnemonic = new ArrayList<>(wordCount);
+        for (int i = 0; i < wordCount; i++) {
+            mnemonic.add(DEFAULT_WORDLIST[RANDOM.nextInt(DEFAULT_WORDLIST.length)]);
+        }
+        return mnemonic;
+    }
 
-            return mnemonic;
+    private static boolean isGenerated(List<String> mnemonic, String password) {
+        try {
+            if (!password.isEmpty() && !isPasswordNeeded(mnemonic)) {
+                return false;
+            }
+            return isBasicSeed(toEntropy(mnemonic, password));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new Error("Cannot check mnemonic, " + e.getMessage());
         }
     }
 
+    /**
+     * Built on first use, DEFAULT_WORDLIST is initialized after static fields above.
+     */
+    private static class WordList {
+        static final Set<String> WORDS = new HashSet<>(Arrays.asList(DEFAULT_WORDLIST));
+    }
+
     static String[] DEFAULT_WORDLIST = {
             "abandon",
             "ability",
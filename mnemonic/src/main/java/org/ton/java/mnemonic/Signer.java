@@ -0,0 +1,71 @@
+package org.ton.java.mnemonic;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Ed25519 signer bound to a single key.
+ * <p>
+ * The public key is derived once on creation, every signature then costs a single scalar multiplication
+ * instead of two, as it does when a key pair is passed to Ed25519.sign() or TweetNaclFast.Signature.
+ * Signatures are identical to the ones produced by TweetNaclFast.Signature.detached().
+ * Instances are immutable and can be shared between threads.
+ */
+public class Signer {
+
+    public static final int SIGNATURE_SIZE = 64;
+
+    /**
+     * Batches smaller than this are signed in the calling thread.
+     */
+    static final int PARALLEL_THRESHOLD = 16;
+
+    static {
+        org.bouncycastle.math.ec.rfc8032.Ed25519.precompute();
+    }
+
+    private final byte[] seed;
+    private final byte[] publicKey;
+
+    private Signer(byte[] seed) {
+        this.seed = Arrays.copyOf(seed, Ed25519.KEY_SIZE);
+        this.publicKey = new byte[Ed25519.KEY_SIZE];
+        org.bouncycastle.math.ec.rfc8032.Ed25519.generatePublicKey(this.seed, 0, this.publicKey, 0);
+    }
+
+    /**
+     * @param secretKey 32 bytes seed or 64 bytes secret key in TweetNacl format, i.e. seed followed by public key
+     */
+    public static Signer of(byte[] secretKey) {
+        if (secretKey.length != Ed25519.KEY_SIZE && secretKey.length != 2 * Ed25519.KEY_SIZE) {
+            throw new Error("Secret key must be 32 or 64 bytes long, got " + secretKey.length);
+        }
+        return new Signer(secretKey);
+    }
+
+    public byte[] getPublicKey() {
+        return publicKey.clone();
+    }
+
+    public byte[] sign(byte[] message) {
+        byte[] signature = new byte[SIGNATURE_SIZE];
+        org.bouncycastle.math.ec.rfc8032.Ed25519.sign(seed, 0, publicKey, 0, message, 0, message.length, signature, 0);
+        return signature;
+    }
+
+    /**
+     * Signs messages, usually cell hashes, on all cores.
+     *
+     * @return signatures in the order of messages
+     */
+    public byte[][] signAll(List<byte[]> messages) {
+        byte[][] signatures = new byte[messages.size()][];
+        IntStream indexes = IntStream.range(0, messages.size());
+        if (messages.size() >= PARALLEL_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> signatures[i] = sign(messages.get(i)));
+        return signatures;
+    }
+}
@@ -0,0 +1,86 @@
+package org.ton.java.mnemonic;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Ed25519 verifier bound to a single public key.
+ * <p>
+ * The public key is decoded and validated once on creation, Ed25519.verify() decodes it on every call.
+ * Instances are immutable and can be shared between threads.
+ */
+public class Verifier {
+
+    static {
+        org.bouncycastle.math.ec.rfc8032.Ed25519.precompute();
+    }
+
+    private final org.bouncycastle.math.ec.rfc8032.Ed25519.PublicPoint publicPoint;
+
+    private Verifier(byte[] publicKey) {
+        this.publicPoint = (nonNull(publicKey) && publicKey.length == Ed25519.KEY_SIZE)
+                ? org.bouncycastle.math.ec.rfc8032.Ed25519.validatePublicKeyFullExport(publicKey, 0)
+                : null;
+    }
+
+    /**
+     * A verifier for a missing or invalid public key rejects all signatures.
+     */
+    public static Verifier of(byte[] publicKey) {
+        return new Verifier(publicKey);
+    }
+
+    public boolean verify(byte[] message, byte[] signature) {
+        if (isNull(publicPoint) || signature.length != Signer.SIGNATURE_SIZE) {
+            return false;
+        }
+        return org.bouncycastle.math.ec.rfc8032.Ed25519.verify(signature, 0, publicPoint, message, 0, message.length);
+    }
+
+    /**
+     * Verifies signatures on all cores, every distinct public key is decoded once per call.
+     * <p>
+     * Lists must have the same size, i-th signature is checked against i-th message and public key.
+     *
+     * @return verification result for every signature
+     */
+    public static boolean[] verifyAll(List<byte[]> publicKeys, List<byte[]> messages, List<byte[]> signatures) {
+        checkSizes(publicKeys, messages, signatures);
+        Map<ByteBuffer, Verifier> verifiers = new ConcurrentHashMap<>();
+        boolean[] results = new boolean[signatures.size()];
+        indexes(signatures.size()).forEach(i -> results[i] =
+                verifiers.computeIfAbsent(ByteBuffer.wrap(publicKeys.get(i)), key -> of(publicKeys.get(i)))
+                        .verify(messages.get(i), signatures.get(i)));
+        return results;
+    }
+
+    /**
+     * Same as verifyAll(), but stops on the first invalid signature.
+     *
+     * @return true if all signatures are valid
+     */
+    public static boolean verifyBatch(List<byte[]> publicKeys, List<byte[]> messages, List<byte[]> signatures) {
+        checkSizes(publicKeys, messages, signatures);
+        Map<ByteBuffer, Verifier> verifiers = new ConcurrentHashMap<>();
+        return indexes(signatures.size()).allMatch(i ->
+                verifiers.computeIfAbsent(ByteBuffer.wrap(publicKeys.get(i)), key -> of(publicKeys.get(i)))
+                        .verify(messages.get(i), signatures.get(i)));
+    }
+
+    private static void checkSizes(List<byte[]> publicKeys, List<byte[]> messages, List<byte[]> signatures) {
+        if (publicKeys.size() != signatures.size() || messages.size() != signatures.size()) {
+            throw new Error("Number of public keys, messages and signatures must be equal");
+        }
+    }
+
+    private static IntStream indexes(int size) {
+        IntStream indexes = IntStream.range(0, size);
+        return (size >= Signer.PARALLEL_THRESHOLD) ? indexes.parallel() : indexes;
+    }
+}
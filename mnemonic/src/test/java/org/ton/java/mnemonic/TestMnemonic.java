@@ -38,6 +38,39 @@ public class TestMnemonic {
         assertThat(Mnemonic.isPasswordNeeded(mnemonic)).isTrue();
     }
 
+    @Test
+    public void testGenerateMany() throws NoSuchAlgorithmException, InvalidKeyException {
+        List<List<String>> mnemonics = Mnemonic.generateMany(8, 24);
+        assertThat(mnemonics).hasSize(8).doesNotHaveDuplicates();
+        for (List<String> mnemonic : mnemonics) {
+            assertThat(mnemonic).hasSize(24);
+            assertThat(Mnemonic.isValid(mnemonic, "")).isTrue();
+        }
+
+        List<List<String>> withPassword = Mnemonic.generateMany(2, 12, "password");
+        for (List<String> mnemonic : withPassword) {
+            assertThat(Mnemonic.isValid(mnemonic, "password")).isTrue();
+            assertThat(Mnemonic.isPasswordNeeded(mnemonic)).isTrue();
+        }
+    }
+
+    @Test
+    public void testToKeyPairs() throws NoSuchAlgorithmException, InvalidKeyException {
+        List<List<String>> mnemonics = Arrays.asList(
+                Arrays.asList("kangaroo", "hen", "toddler", "resist"),
+                Arrays.asList("disease", "adult", "device", "grit"),
+                Mnemonic.generate(24));
+        List<Pair> keyPairs = Mnemonic.toKeyPairs(mnemonics);
+        assertThat(keyPairs).hasSize(3);
+        assertThat(bytesToHex(keyPairs.get(0).getSecretKey())).isEqualTo("a356fc9b35cb9b463adf65b2414bbebcec1d0d0d99fc4fc14e259395c128022d");
+        assertThat(bytesToHex(keyPairs.get(1).getSecretKey())).isEqualTo("fb1df381306619a2128295e73e05c6013211f589e8bebd602469cdf1fc04a1cb");
+        for (int i = 0; i < mnemonics.size(); i++) {
+            Pair expected = Mnemonic.toKeyPair(mnemonics.get(i));
+            assertThat(keyPairs.get(i).getSecretKey()).isEqualTo(expected.getSecretKey());
+            assertThat(keyPairs.get(i).getPublicKey()).isEqualTo(expected.getPublicKey());
+        }
+    }
+
     @Test
     public void testMnemonicValidation() throws NoSuchAlgorithmException, InvalidKeyException {
 
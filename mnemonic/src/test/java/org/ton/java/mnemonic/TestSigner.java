@@ -0,0 +1,76 @@
+package org.ton.java.mnemonic;
+
+import com.iwebpp.crypto.TweetNaclFast;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.ton.java.utils.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+@RunWith(JUnit4.class)
+public class TestSigner {
+
+    private static final byte[] SEED = Utils.hexToSignedBytes("F182111193F30D79D517F2339A1BA7C25FDF6C52142F0F2C1D960A1F1D65E1E4");
+
+    @Test
+    public void testSignerMatchesTweetNacl() {
+        TweetNaclFast.Signature.KeyPair keyPair = TweetNaclFast.Signature.keyPair_fromSeed(SEED);
+        byte[] message = "ton4j".getBytes(StandardCharsets.UTF_8);
+        byte[] expected = new TweetNaclFast.Signature(keyPair.getPublicKey(), keyPair.getSecretKey()).detached(message);
+
+        Signer fromSeed = Signer.of(SEED);
+        Signer fromSecretKey = Signer.of(keyPair.getSecretKey());
+        assertThat(fromSeed.getPublicKey()).isEqualTo(keyPair.getPublicKey());
+        assertThat(fromSeed.sign(message)).isEqualTo(expected);
+        assertThat(fromSecretKey.sign(message)).isEqualTo(expected);
+        assertThat(Verifier.of(keyPair.getPublicKey()).verify(message, expected)).isTrue();
+        assertThrows(Error.class, () -> Signer.of(new byte[16]));
+    }
+
+    @Test
+    public void testSignAllAndVerifyAll() {
+        Signer signer = Signer.of(SEED);
+        Signer other = Signer.of(Utils.sha256AsArray(SEED));
+        List<byte[]> publicKeys = new ArrayList<>();
+        List<byte[]> messages = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            messages.add(Utils.sha256AsArray(("msg-" + i).getBytes(StandardCharsets.UTF_8)));
+            publicKeys.add(signer.getPublicKey());
+        }
+        byte[][] signed = signer.signAll(messages);
+        assertThat(signed.length).isEqualTo(100);
+        List<byte[]> signatures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            assertThat(signed[i]).isEqualTo(signer.sign(messages.get(i)));
+            signatures.add(signed[i]);
+        }
+        assertThat(Verifier.verifyAll(publicKeys, messages, signatures)).doesNotContain(false);
+        assertThat(Verifier.verifyBatch(publicKeys, messages, signatures)).isTrue();
+
+        publicKeys.set(7, other.getPublicKey());
+        signatures.set(42, other.sign(messages.get(42)));
+        boolean[] results = Verifier.verifyAll(publicKeys, messages, signatures);
+        for (int i = 0; i < 100; i++) {
+            assertThat(results[i]).isEqualTo(i != 7 && i != 42);
+        }
+        assertThat(Verifier.verifyBatch(publicKeys, messages, signatures)).isFalse();
+    }
+
+    @Test
+    public void testInvalidInput() {
+        byte[] message = new byte[32];
+        byte[] signature = Signer.of(SEED).sign(message);
+        assertThat(Verifier.of(null).verify(message, signature)).isFalse();
+        assertThat(Verifier.of(new byte[31]).verify(message, signature)).isFalse();
+        assertThat(Verifier.of(Signer.of(SEED).getPublicKey()).verify(message, new byte[63])).isFalse();
+        List<byte[]> one = new ArrayList<>();
+        one.add(message);
+        assertThrows(Error.class, () -> Verifier.verifyAll(one, one, new ArrayList<>()));
+    }
+}
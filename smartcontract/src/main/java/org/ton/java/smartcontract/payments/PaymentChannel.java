@@ -11,7 +11,8 @@ import lombok.Getter;
 import org.ton.java.address.Address;
 import org.ton.java.cell.Cell;
 import org.ton.java.cell.CellBuilder;
-import org.ton.java.mnemonic.Ed25519;
+import org.ton.java.mnemonic.Signer;
+import org.ton.java.mnemonic.Verifier;
 import org.ton.java.smartcontract.token.nft.NftUtils;
 import org.ton.java.smartcontract.types.ChannelConfig;
 import org.ton.java.smartcontract.types.ChannelData;
@@ -48,6 +49,12 @@ public class PaymentChannel implements Contract {
   ChannelConfig channelConfig;
   ClosingConfig closingChannelConfig;
 
+  /** Do not use! Reserved for internal usage. */
+  Signer signer;
+
+  /** Do not use! Reserved for internal usage. */
+  Verifier hisVerifier;
+
   /**
    *
    *
@@ -82,6 +89,8 @@ public class PaymentChannel implements Contract {
     public PaymentChannel build() {
       super.publicKeyA = super.isA ? super.myKeyPair.getPublicKey() : super.hisPublicKey;
       super.publicKeyB = !super.isA ? super.myKeyPair.getPublicKey() : super.hisPublicKey;
+      super.signer = Signer.of(super.myKeyPair.getSecretKey());
+      super.hisVerifier = Verifier.of(super.hisPublicKey);
       return super.build();
     }
   }
@@ -211,9 +220,7 @@ public class PaymentChannel implements Contract {
   }
 
   public Signature createOneSignature(long op, Cell cellForSigning) {
-    byte[] signature =
-        new TweetNaclFast.Signature(myKeyPair.getPublicKey(), myKeyPair.getSecretKey())
-            .detached(cellForSigning.hash());
+    byte[] signature = signer.sign(cellForSigning.hash());
 
     Cell cell = PaymentsUtils.createOneSignature(op, isA, signature, cellForSigning);
 
@@ -221,9 +228,7 @@ public class PaymentChannel implements Contract {
   }
 
   public Signature createTwoSignature(long op, byte[] hisSignature, Cell cellForSigning) {
-    byte[] signature =
-        new TweetNaclFast.Signature(myKeyPair.getPublicKey(), myKeyPair.getSecretKey())
-            .detached(cellForSigning.hash());
+    byte[] signature = signer.sign(cellForSigning.hash());
 
     byte[] signatureA = isA ? signature : hisSignature;
     byte[] signatureB = !isA ? signature : hisSignature;
@@ -241,9 +246,7 @@ public class PaymentChannel implements Contract {
             createSemiChannelBody(mySeqNo, mySentCoins, null),
             isNull(hisSeqno) ? null : createSemiChannelBody(hisSeqno, hisSentCoins, null));
 
-    byte[] signature =
-        new TweetNaclFast.Signature(myKeyPair.getPublicKey(), myKeyPair.getSecretKey())
-            .detached(state.hash());
+    byte[] signature = signer.sign(state.hash());
     Cell cell = PaymentsUtils.createSignedSemiChannelState(signature, state);
 
     return Signature.builder().signature(signature).cell(cell).build();
@@ -291,7 +294,7 @@ public class PaymentChannel implements Contract {
             createSemiChannelBody(mySeqno, mySentCoins, null),
             isNull(hisSeqno) ? null : createSemiChannelBody(hisSeqno, hisSentCoins, null));
 
-    return Ed25519.verify(isA ? publicKeyB : publicKeyA, state.hash(), hisSignature);
+    return hisVerifier.verify(state.hash(), hisSignature);
   }
 
   public byte[] signClose(ChannelState channelState) {
@@ -307,7 +310,7 @@ public class PaymentChannel implements Contract {
             channelState.getBalanceB(),
             channelState.getSeqnoA(),
             channelState.getSeqnoB());
-    return Ed25519.verify(isA ? publicKeyB : publicKeyA, cell.hash(), hisSignature);
+    return hisVerifier.verify(cell.hash(), hisSignature);
   }
 
   public Cell createFinishUncooperativeClose() {
@@ -0,0 +1,17 @@
+package org.ton.java.smartcontract.types;
+
+import com.iwebpp.crypto.TweetNaclFast;
+import lombok.Builder;
+import lombok.Getter;
+import org.ton.java.address.Address;
+
+@Builder
+@Getter
+public class VanityWallet {
+    TweetNaclFast.Signature.KeyPair keyPair;
+    Address address;
+    /**
+     * Number of keys tried by all threads when the match was found
+     */
+    long attempts;
+}
@@ -9,6 +9,7 @@ public enum WalletVersion {
     V3R1("V3R1"),
     V3R2("V3R2"),
     V4R2("V4R2 plugins"),
+    V5R1("V5R1"),
     lockup("Restricted"),
     dnsCollection("DNS collection"),
     dnsItem("DNS item"),
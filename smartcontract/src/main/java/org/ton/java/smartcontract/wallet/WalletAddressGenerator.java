@@ -0,0 +1,304 @@
+package org.ton.java.smartcontract.wallet;
+
+import static java.util.Objects.isNull;
+
+import com.iwebpp.crypto.TweetNaclFast;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import lombok.Builder;
+import lombok.Getter;
+import org.ton.java.address.Address;
+import org.ton.java.cell.Cell;
+import org.ton.java.cell.CellBuilder;
+import org.ton.java.mnemonic.Signer;
+import org.ton.java.smartcontract.highload.HighloadWalletV3;
+import org.ton.java.smartcontract.types.VanityWallet;
+import org.ton.java.smartcontract.types.WalletCodes;
+import org.ton.java.smartcontract.types.WalletVersion;
+import org.ton.java.smartcontract.wallet.v3.WalletV3R2;
+import org.ton.java.smartcontract.wallet.v4.WalletV4R2;
+import org.ton.java.smartcontract.wallet.v5.WalletV5;
+import org.ton.java.utils.Utils;
+
+/**
+ * Derives wallet addresses for many public keys at once.
+ *
+ * <p>Contract.getAddress() parses the wallet code and serializes StateInit on every call. The
+ * generator parses the code once and keeps serialized data cell with an empty public key, so
+ * address of a key costs two SHA-256 of short byte arrays. Addresses are equal to the ones returned
+ * by getAddress() of a wallet built with the same walletId, isSigAuthAllowed, timeout and wc and
+ * default initial seqno.
+ *
+ * <pre>
+ * WalletAddressGenerator generator = WalletAddressGenerator.builder()
+ *     .walletVersion(WalletVersion.V5R1)
+ *     .walletId(42)
+ *     .isSigAuthAllowed(true)
+ *     .build();
+ * List&lt;Address&gt; addresses = generator.getAddresses(publicKeys);
+ * </pre>
+ */
+@Builder
+@Getter
+public class WalletAddressGenerator {
+
+  /** V3R2, V4R2, V5R1 or highloadV3 */
+  WalletVersion walletVersion;
+
+  long wc;
+  long walletId;
+
+  /** V5R1 only */
+  boolean isSigAuthAllowed;
+
+  /** highloadV3 only, 5 minutes if not set */
+  long timeout;
+
+  /** Number of threads used by findVanity(), number of processors if not set */
+  int parallelism;
+
+  /** Do not use! Reserved for internal usage. */
+  byte[] codeHash;
+
+  /** Do not use! Reserved for internal usage. */
+  int codeDepth;
+
+  /** Do not use! Reserved for internal usage. */
+  byte[] dataTemplate;
+
+  /** Do not use! Reserved for internal usage. */
+  int publicKeyOffset;
+
+  private static final int KEY_SIZE = 32;
+
+  // StateInit with code and data only: bits 00110 and completion tag, two references
+  private static final byte STATE_INIT_REFS_DESCRIPTOR = 2;
+  private static final byte STATE_INIT_BITS_DESCRIPTOR = 1;
+  private static final byte STATE_INIT_BITS = 0x34;
+
+  private static final ThreadLocal<MessageDigest> SHA_256 =
+      ThreadLocal.withInitial(
+          () -> {
+            try {
+              return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+              throw new Error(e);
+            }
+          });
+
+  public static class WalletAddressGeneratorBuilder {}
+
+  public static WalletAddressGeneratorBuilder builder() {
+    return new CustomWalletAddressGeneratorBuilder();
+  }
+
+  private static class CustomWalletAddressGeneratorBuilder extends WalletAddressGeneratorBuilder {
+    @Override
+    public WalletAddressGenerator build() {
+      if (isNull(super.walletVersion)) {
+        throw new Error("walletVersion is not set");
+      }
+      if (super.parallelism == 0) {
+        super.parallelism = Runtime.getRuntime().availableProcessors();
+      }
+      byte[] emptyKey = new byte[KEY_SIZE];
+      Cell code;
+      Cell data;
+      switch (super.walletVersion) {
+        case V3R2:
+          code = CellBuilder.beginCell().fromBoc(WalletCodes.V3R2.getValue()).endCell();
+          data = WalletV3R2.builder().keyPair(keyPairOf(emptyKey)).walletId(super.walletId).build()
+              .createDataCell();
+          super.publicKeyOffset = 64;
+          break;
+        case V4R2:
+          code = CellBuilder.beginCell().fromBoc(WalletCodes.V4R2.getValue()).endCell();
+          data = WalletV4R2.builder().keyPair(keyPairOf(emptyKey)).walletId(super.walletId).build()
+              .createDataCell();
+          super.publicKeyOffset = 64;
+          break;
+        case V5R1:
+          code = CellBuilder.beginCell().fromBoc(WalletCodes.V5R1.getValue()).endCell();
+          data = WalletV5.builder().keyPair(keyPairOf(emptyKey)).walletId(super.walletId)
+              .isSigAuthAllowed(super.isSigAuthAllowed).build().createDataCell();
+          super.publicKeyOffset = 65;
+          break;
+        case highloadV3:
+          code = CellBuilder.beginCell().fromBoc(WalletCodes.highloadV3.getValue()).endCell();
+          data = HighloadWalletV3.builder().keyPair(keyPairOf(emptyKey)).walletId(super.walletId)
+              .timeout(super.timeout).build().createDataCell();
+          super.publicKeyOffset = 0;
+          break;
+        default:
+          throw new Error("Wallet version " + super.walletVersion + " is not supported");
+      }
+      super.codeHash = code.getHash();
+      super.codeDepth = code.getDepthLevels()[0];
+      super.dataTemplate =
+          Utils.concatBytes(
+              Utils.concatBytes(data.getRefsDescriptor(0), data.getBitsDescriptor()),
+              completedBits(data));
+      return super.build();
+    }
+  }
+
+  private static TweetNaclFast.Signature.KeyPair keyPairOf(byte[] publicKey) {
+    TweetNaclFast.Signature.KeyPair keyPair = new TweetNaclFast.Signature.KeyPair();
+    System.arraycopy(publicKey, 0, keyPair.getPublicKey(), 0, KEY_SIZE);
+    return keyPair;
+  }
+
+  private static byte[] completedBits(Cell cell) {
+    byte[] bits = cell.getBits().toByteArray();
+    int rest = cell.getBitLength() % 8;
+    if (rest > 0) {
+      bits[bits.length - 1] |= (byte) (1 << (7 - rest));
+    }
+    return bits;
+  }
+
+  /**
+   * @param publicKey 32 bytes Ed25519 public key
+   * @return account id, i.e. hash of StateInit
+   */
+  public byte[] getHash(byte[] publicKey) {
+    if (publicKey.length != KEY_SIZE) {
+      throw new Error("Public key must be 32 bytes long, got " + publicKey.length);
+    }
+    byte[] data = dataTemplate.clone();
+    int offset = 16 + publicKeyOffset; // after descriptors
+    int index = offset >>> 3;
+    int shift = offset & 7;
+    if (shift == 0) {
+      System.arraycopy(publicKey, 0, data, index, KEY_SIZE);
+    } else {
+      // the template holds zero key, so bits can be or-ed in
+      for (int i = 0; i < KEY_SIZE; i++) {
+        data[index + i] |= (byte) ((publicKey[i] & 0xff) >>> shift);
+        data[index + i + 1] |= (byte) (publicKey[i] << (8 - shift));
+      }
+    }
+    MessageDigest sha256 = SHA_256.get();
+    byte[] dataHash = sha256.digest(data);
+
+    sha256.update(STATE_INIT_REFS_DESCRIPTOR);
+    sha256.update(STATE_INIT_BITS_DESCRIPTOR);
+    sha256.update(STATE_INIT_BITS);
+    sha256.update((byte) (codeDepth >>> 8));
+    sha256.update((byte) codeDepth);
+    sha256.update((byte) 0); // depth of data cell without references
+    sha256.update((byte) 0);
+    sha256.update(codeHash);
+    sha256.update(dataHash);
+    return sha256.digest();
+  }
+
+  public Address getAddress(byte[] publicKey) {
+    return Address.of(wc + ":" + Utils.bytesToHex(getHash(publicKey)));
+  }
+
+  /**
+   * Derives addresses on all cores.
+   *
+   * @return addresses in the order of public keys
+   */
+  public List<Address> getAddresses(List<byte[]> publicKeys) {
+    Address[] addresses = new Address[publicKeys.size()];
+    IntStream.range(0, publicKeys.size())
+        .parallel()
+        .forEach(i -> addresses[i] = getAddress(publicKeys.get(i)));
+    List<Address> result = new ArrayList<>(addresses.length);
+    for (Address address : addresses) {
+      result.add(address);
+    }
+    return result;
+  }
+
+  /**
+   * Same as getAddresses(), but takes 32 bytes private keys (seeds), e.g. result of
+   * Mnemonic.toSeed().
+   */
+  public List<Address> getAddressesFromSeeds(List<byte[]> seeds) {
+    Address[] addresses = new Address[seeds.size()];
+    IntStream.range(0, seeds.size())
+        .parallel()
+        .forEach(i -> addresses[i] = getAddress(Signer.of(seeds.get(i)).getPublicKey()));
+    List<Address> result = new ArrayList<>(addresses.length);
+    for (Address address : addresses) {
+      result.add(address);
+    }
+    return result;
+  }
+
+  /**
+   * Generates random keys on parallelism threads until user-friendly (url safe) address matches.
+   *
+   * <p>The first three characters of user-friendly address are defined by flags and workchain, so
+   * prefix is compared starting from the fourth character. Suffix is compared with the end of the
+   * address, it includes checksum and thus depends on bounceable flag. Every character of prefix
+   * or suffix makes the search 64 times longer.
+   *
+   * @param prefix expected characters after the first three, can be empty
+   * @param suffix expected last characters, can be empty
+   * @param bounceable whether suffix is matched against bounceable (EQ...) or non-bounceable
+   *     (UQ...) form
+   * @param maxAttempts number of keys to try before giving up
+   * @return found wallet key pair and address, null if no key matched within maxAttempts
+   */
+  public VanityWallet findVanity(
+      String prefix, String suffix, boolean bounceable, long maxAttempts) {
+    AtomicReference<VanityWallet> found = new AtomicReference<>();
+    AtomicLong attempts = new AtomicLong();
+    AtomicInteger threadCounter = new AtomicInteger();
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            parallelism,
+            r -> {
+              Thread thread = new Thread(r, "vanity-search-" + threadCounter.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    for (int t = 0; t < parallelism; t++) {
+      executor.execute(
+          () -> {
+            SecureRandom random = new SecureRandom();
+            byte[] seed = new byte[KEY_SIZE];
+            while (isNull(found.get())
+                && !Thread.currentThread().isInterrupted()
+                && attempts.incrementAndGet() <= maxAttempts) {
+              random.nextBytes(seed);
+              byte[] publicKey = Signer.of(seed).getPublicKey();
+              Address address = getAddress(publicKey);
+              String friendly = address.toString(true, true, bounceable, false);
+              if (friendly.startsWith(prefix, 3) && friendly.endsWith(suffix)) {
+                found.compareAndSet(
+                    null,
+                    VanityWallet.builder()
+                        .keyPair(TweetNaclFast.Signature.keyPair_fromSeed(seed.clone()))
+                        .address(address)
+                        .attempts(attempts.get())
+                        .build());
+              }
+            }
+          });
+    }
+    executor.shutdown();
+    try {
+      executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+    return found.get();
+  }
+}
@@ -0,0 +1,92 @@
+package org.ton.java.smartcontract.unittests;
+
+import com.iwebpp.crypto.TweetNaclFast;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.ton.java.address.Address;
+import org.ton.java.smartcontract.highload.HighloadWalletV3;
+import org.ton.java.smartcontract.types.VanityWallet;
+import org.ton.java.smartcontract.types.WalletVersion;
+import org.ton.java.smartcontract.wallet.WalletAddressGenerator;
+import org.ton.java.smartcontract.wallet.v3.WalletV3R2;
+import org.ton.java.smartcontract.wallet.v4.WalletV4R2;
+import org.ton.java.smartcontract.wallet.v5.WalletV5;
+import org.ton.java.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+@Slf4j
+@RunWith(JUnit4.class)
+public class TestWalletAddressGenerator {
+
+    @Test
+    public void testAddressesMatchWallets() {
+        for (int i = 0; i < 10; i++) {
+            TweetNaclFast.Signature.KeyPair keyPair = Utils.generateSignatureKeyPair();
+            byte[] publicKey = keyPair.getPublicKey();
+
+            assertThat(WalletAddressGenerator.builder().walletVersion(WalletVersion.V3R2).walletId(698983191).build()
+                    .getAddress(publicKey).toRaw())
+                    .isEqualTo(WalletV3R2.builder().keyPair(keyPair).walletId(698983191).build().getAddress().toRaw());
+
+            assertThat(WalletAddressGenerator.builder().walletVersion(WalletVersion.V4R2).walletId(42).wc(-1).build()
+                    .getAddress(publicKey).toRaw())
+                    .isEqualTo(WalletV4R2.builder().keyPair(keyPair).walletId(42).wc(-1).build().getAddress().toRaw());
+
+            assertThat(WalletAddressGenerator.builder().walletVersion(WalletVersion.V5R1).walletId(42).isSigAuthAllowed(true).build()
+                    .getAddress(publicKey).toRaw())
+                    .isEqualTo(WalletV5.builder().keyPair(keyPair).walletId(42).isSigAuthAllowed(true).build().getAddress().toRaw());
+
+            assertThat(WalletAddressGenerator.builder().walletVersion(WalletVersion.highloadV3).walletId(42).timeout(60).build()
+                    .getAddress(publicKey).toRaw())
+                    .isEqualTo(HighloadWalletV3.builder().keyPair(keyPair).walletId(42).timeout(60).build().getAddress().toRaw());
+        }
+        assertThrows(Error.class, () -> WalletAddressGenerator.builder().walletVersion(WalletVersion.V1R1).build());
+    }
+
+    @Test
+    public void testBulkAddresses() {
+        WalletAddressGenerator generator = WalletAddressGenerator.builder()
+                .walletVersion(WalletVersion.V5R1)
+                .walletId(2147483409L)
+                .build();
+        List<byte[]> seeds = new ArrayList<>();
+        List<byte[]> publicKeys = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            TweetNaclFast.Signature.KeyPair keyPair = Utils.generateSignatureKeyPair();
+            seeds.add(Arrays.copyOf(keyPair.getSecretKey(), 32));
+            publicKeys.add(keyPair.getPublicKey());
+        }
+        List<Address> addresses = generator.getAddresses(publicKeys);
+        List<Address> fromSeeds = generator.getAddressesFromSeeds(seeds);
+        assertThat(addresses).hasSize(200);
+        for (int i = 0; i < 200; i++) {
+            assertThat(addresses.get(i).toRaw()).isEqualTo(generator.getAddress(publicKeys.get(i)).toRaw());
+            assertThat(fromSeeds.get(i).toRaw()).isEqualTo(addresses.get(i).toRaw());
+        }
+    }
+
+    @Test
+    public void testFindVanity() {
+        WalletAddressGenerator generator = WalletAddressGenerator.builder()
+                .walletVersion(WalletVersion.V4R2)
+                .walletId(698983191)
+                .parallelism(2)
+                .build();
+        VanityWallet vanity = generator.findVanity("T", "", false, 100_000);
+        log.info("found {} after {} attempts", vanity.getAddress().toNonBounceable(), vanity.getAttempts());
+        assertThat(vanity.getAddress().toNonBounceable().charAt(3)).isEqualTo('T');
+        assertThat(WalletV4R2.builder().keyPair(vanity.getKeyPair()).walletId(698983191).build().getAddress().toRaw())
+                .isEqualTo(vanity.getAddress().toRaw());
+
+        // '+' never appears in url safe form
+        assertThat(generator.findVanity("+", "", true, 1000)).isNull();
+    }
+}
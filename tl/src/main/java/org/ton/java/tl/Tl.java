@@ -0,0 +1,92 @@
+package org.ton.java.tl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Helpers for binary TL serialization.
+ * <p>
+ * TL is little-endian, int256 is written as is, bytes and string are prefixed with their length
+ * and padded with zeros to 4 bytes. All methods expect buffers in ByteOrder.LITTLE_ENDIAN, see allocate() and wrap().
+ */
+public class Tl {
+
+    /**
+     * Constructor id of scheme, i.e. CRC32 of its text without id, e.g.
+     * "liteServer.getMasterchainInfo = liteServer.MasterchainInfo"
+     */
+    public static int id(String scheme) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(scheme.getBytes(StandardCharsets.UTF_8));
+        return (int) crc32.getValue();
+    }
+
+    public static ByteBuffer allocate(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public static ByteBuffer wrap(byte[] data) {
+        return ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * @return number of bytes taken by TL bytes of given length, including length prefix and padding
+     */
+    public static int bytesSize(int length) {
+        int size = (length < 254) ? 1 + length : 4 + length;
+        return (size + 3) & ~3;
+    }
+
+    public static void writeBytes(ByteBuffer buffer, byte[] data) {
+        if (data.length < 254) {
+            buffer.put((byte) data.length);
+        } else if (data.length < (1 << 24)) {
+            buffer.putInt((data.length << 8) | 254);
+        } else {
+            throw new Error("TL bytes can not be longer than 16MB, got " + data.length);
+        }
+        buffer.put(data);
+        int size = (data.length < 254) ? 1 + data.length : 4 + data.length;
+        for (int i = size; (i & 3) != 0; i++) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    public static byte[] readBytes(ByteBuffer buffer) {
+        int length = buffer.get() & 0xff;
+        int size = 1;
+        if (length == 254) {
+            length = (buffer.get() & 0xff) | (buffer.get() & 0xff) << 8 | (buffer.get() & 0xff) << 16;
+            size = 4;
+        } else if (length == 255) {
+            throw new Error("TL bytes longer than 16MB are not supported");
+        }
+        byte[] data = new byte[length];
+        buffer.get(data);
+        size += length;
+        buffer.position(buffer.position() + ((4 - (size & 3)) & 3));
+        return data;
+    }
+
+    public static String readString(ByteBuffer buffer) {
+        return new String(readBytes(buffer), StandardCharsets.UTF_8);
+    }
+
+    public static byte[] readInt256(ByteBuffer buffer) {
+        byte[] data = new byte[32];
+        buffer.get(data);
+        return data;
+    }
+
+    /**
+     * Reads constructor id and fails if it is not the expected one.
+     */
+    public static void expectId(ByteBuffer buffer, int id, String name) {
+        int actual = buffer.getInt();
+        if (actual != id) {
+            throw new Error("Expected " + name + " (" + Integer.toHexString(id) + "), got " + Integer.toHexString(actual));
+        }
+    }
+}
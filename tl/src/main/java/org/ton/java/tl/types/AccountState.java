@@ -0,0 +1,62 @@
+package org.ton.java.tl.types;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.ton.java.cell.Cell;
+import org.ton.java.tl.Tl;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+@ToString
+@Builder
+@Getter
+/**
+ * lite_api.tl
+ * liteServer.accountState
+ *   id:tonNode.blockIdExt
+ *   shardblk:tonNode.blockIdExt
+ *   shard_proof:bytes
+ *   proof:bytes
+ *   state:bytes = liteServer.AccountState;
+ */
+public class AccountState {
+
+    public static final int CONSTRUCTOR_ID = Tl.id("liteServer.accountState id:tonNode.blockIdExt shardblk:tonNode.blockIdExt shard_proof:bytes proof:bytes state:bytes = liteServer.AccountState");
+
+    BlockIdExt id;
+    BlockIdExt shardblk;
+
+    /**
+     * BoC with one or two roots, empty for masterchain accounts
+     */
+    byte[] shardProof;
+
+    /**
+     * BoC with two roots: Merkle proofs of shard block and of shard state
+     */
+    byte[] proof;
+
+    /**
+     * Account root cell, null if account does not exist
+     */
+    Cell state;
+
+    public List<Cell> getProofCells() {
+        return Cell.fromBocMultiRoots(proof);
+    }
+
+    public static AccountState deserialize(ByteBuffer buffer) {
+        Tl.expectId(buffer, CONSTRUCTOR_ID, "liteServer.accountState");
+        AccountState.AccountStateBuilder builder = AccountState.builder()
+                .id(BlockIdExt.deserialize(buffer))
+                .shardblk(BlockIdExt.deserialize(buffer))
+                .shardProof(Tl.readBytes(buffer))
+                .proof(Tl.readBytes(buffer));
+        byte[] state = Tl.readBytes(buffer);
+        return builder
+                .state(state.length == 0 ? null : Cell.fromBoc(state))
+                .build();
+    }
+}
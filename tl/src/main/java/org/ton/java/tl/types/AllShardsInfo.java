@@ -0,0 +1,45 @@
+package org.ton.java.tl.types;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.ton.java.cell.Cell;
+import org.ton.java.tl.Tl;
+
+import java.nio.ByteBuffer;
+
+@ToString
+@Builder
+@Getter
+/**
+ * lite_api.tl
+ * liteServer.allShardsInfo
+ *   id:tonNode.blockIdExt
+ *   proof:bytes
+ *   data:bytes = liteServer.AllShardsInfo;
+ */
+public class AllShardsInfo {
+
+    public static final int CONSTRUCTOR_ID = Tl.id("liteServer.allShardsInfo id:tonNode.blockIdExt proof:bytes data:bytes = liteServer.AllShardsInfo");
+
+    BlockIdExt id;
+
+    /**
+     * BoC with Merkle proofs of masterchain block and of its state
+     */
+    byte[] proof;
+
+    /**
+     * ShardHashes dictionary
+     */
+    Cell data;
+
+    public static AllShardsInfo deserialize(ByteBuffer buffer) {
+        Tl.expectId(buffer, CONSTRUCTOR_ID, "liteServer.allShardsInfo");
+        return AllShardsInfo.builder()
+                .id(BlockIdExt.deserialize(buffer))
+                .proof(Tl.readBytes(buffer))
+                .data(Cell.fromBoc(Tl.readBytes(buffer)))
+                .build();
+    }
+}
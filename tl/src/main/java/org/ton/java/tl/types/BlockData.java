@@ -0,0 +1,38 @@
+package org.ton.java.tl.types;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.ton.java.cell.Cell;
+import org.ton.java.tl.Tl;
+
+import java.nio.ByteBuffer;
+
+@ToString
+@Builder
+@Getter
+/**
+ * lite_api.tl
+ * liteServer.blockData
+ *   id:tonNode.blockIdExt
+ *   data:bytes = liteServer.BlockData;
+ */
+public class BlockData {
+
+    public static final int CONSTRUCTOR_ID = Tl.id("liteServer.blockData id:tonNode.blockIdExt data:bytes = liteServer.BlockData");
+
+    BlockIdExt id;
+
+    /**
+     * Root cell of block BoC
+     */
+    Cell block;
+
+    public static BlockData deserialize(ByteBuffer buffer) {
+        Tl.expectId(buffer, CONSTRUCTOR_ID, "liteServer.blockData");
+        return BlockData.builder()
+                .id(BlockIdExt.deserialize(buffer))
+                .block(Cell.fromBoc(Tl.readBytes(buffer)))
+                .build();
+    }
+}
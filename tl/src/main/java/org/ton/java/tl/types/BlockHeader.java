@@ -0,0 +1,41 @@
+package org.ton.java.tl.types;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.ton.java.cell.Cell;
+import org.ton.java.tl.Tl;
+
+import java.nio.ByteBuffer;
+
+@ToString
+@Builder
+@Getter
+/**
+ * lite_api.tl
+ * liteServer.blockHeader
+ *   id:tonNode.blockIdExt
+ *   mode:#
+ *   header_proof:bytes = liteServer.BlockHeader;
+ */
+public class BlockHeader {
+
+    public static final int CONSTRUCTOR_ID = Tl.id("liteServer.blockHeader id:tonNode.blockIdExt mode:# header_proof:bytes = liteServer.BlockHeader");
+
+    BlockIdExt id;
+    int mode;
+
+    /**
+     * Merkle proof of block header
+     */
+    Cell headerProof;
+
+    public static BlockHeader deserialize(ByteBuffer buffer) {
+        Tl.expectId(buffer, CONSTRUCTOR_ID, "liteServer.blockHeader");
+        return BlockHeader.builder()
+                .id(BlockIdExt.deserialize(buffer))
+                .mode(buffer.getInt())
+                .headerProof(Cell.fromBoc(Tl.readBytes(buffer)))
+                .build();
+    }
+}
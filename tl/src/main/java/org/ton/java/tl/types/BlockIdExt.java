@@ -5,8 +5,11 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 import org.ton.java.cell.CellSlice;
+import org.ton.java.tl.Tl;
 import org.ton.java.utils.Utils;
 
+import java.nio.ByteBuffer;
+
 @ToString
 @Builder
 @Getter
@@ -21,6 +24,9 @@ import org.ton.java.utils.Utils;
  *   file_hash:int256 = tonNode.BlockIdExt;
  */
 public class BlockIdExt {
+
+    public static final int SERIALIZED_SIZE = 80;
+
     long workchain;
     long shard;
     long seqno;
@@ -49,4 +55,25 @@ public class BlockIdExt {
                 .build();
         return blockIdExt;
     }
+
+    /**
+     * Writes binary TL (without constructor id) into little-endian buffer.
+     */
+    public void serialize(ByteBuffer buffer) {
+        buffer.putInt((int) workchain);
+        buffer.putLong(shard);
+        buffer.putInt((int) seqno);
+        buffer.put(rootHash);
+        buffer.put(fileHash);
+    }
+
+    public static BlockIdExt deserialize(ByteBuffer buffer) {
+        return BlockIdExt.builder()
+                .workchain(buffer.getInt())
+                .shard(buffer.getLong())
+                .seqno(buffer.getInt() & 0xffffffffL)
+                .rootHash(Tl.readInt256(buffer))
+                .fileHash(Tl.readInt256(buffer))
+                .build();
+    }
 }
@@ -3,9 +3,11 @@ package org.ton.java.tl.types;
 import lombok.Builder;
 import lombok.Data;
 import org.ton.java.cell.CellSlice;
+import org.ton.java.tl.Tl;
 import org.ton.java.utils.Utils;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 
 @Builder
 @Data
@@ -68,4 +70,27 @@ public class DbBlockInfo {
         dbBlockInfo.setMasterChainRefSeqNo(flags.testBit(23) ? BigInteger.valueOf(Integer.reverseBytes(cs.loadUint(32).intValue())) : null);
         return dbBlockInfo;
     }
+
+    /**
+     * Reads binary TL starting with constructor id from little-endian buffer, see Tl.wrap().
+     */
+    public static DbBlockInfo deserialize(ByteBuffer buffer) {
+        Tl.expectId(buffer, (int) DB_BLOCK_INFO_MAGIC, "db.block.info");
+        DbBlockInfo dbBlockInfo = DbBlockInfo.builder()
+                .magic(DB_BLOCK_INFO_MAGIC)
+                .id(BlockIdExt.deserialize(buffer))
+                .build();
+        BigInteger flags = BigInteger.valueOf(buffer.getInt());
+
+        dbBlockInfo.setFlags(flags);
+        dbBlockInfo.setPrevLeft(flags.testBit(1) ? BlockIdExt.deserialize(buffer) : null);
+        dbBlockInfo.setPrevRight(flags.testBit(2) ? BlockIdExt.deserialize(buffer) : null);
+        dbBlockInfo.setNextLeft(flags.testBit(3) ? BlockIdExt.deserialize(buffer) : null);
+        dbBlockInfo.setNextRight(flags.testBit(4) ? BlockIdExt.deserialize(buffer) : null);
+        dbBlockInfo.setLt(flags.testBit(13) ? BigInteger.valueOf(buffer.getLong()) : null);
+        dbBlockInfo.setTs(flags.testBit(14) ? BigInteger.valueOf(buffer.getInt()) : null);
+        dbBlockInfo.setState(flags.testBit(17) ? Tl.readInt256(buffer) : null);
+        dbBlockInfo.setMasterChainRefSeqNo(flags.testBit(23) ? BigInteger.valueOf(buffer.getInt()) : null);
+        return dbBlockInfo;
+    }
 }
@@ -0,0 +1,43 @@
+package org.ton.java.tl.types;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.ton.java.tl.Tl;
+
+import java.nio.ByteBuffer;
+
+@ToString
+@Builder
+@Getter
+/**
+ * lite_api.tl
+ * liteServer.masterchainInfo
+ *   last:tonNode.blockIdExt
+ *   state_root_hash:int256
+ *   init:tonNode.zeroStateIdExt = liteServer.MasterchainInfo;
+ */
+public class MasterchainInfo {
+
+    public static final int CONSTRUCTOR_ID = Tl.id("liteServer.masterchainInfo last:tonNode.blockIdExt state_root_hash:int256 init:tonNode.zeroStateIdExt = liteServer.MasterchainInfo");
+
+    BlockIdExt last;
+    byte[] stateRootHash;
+    ZeroStateIdExt init;
+
+    public void serialize(ByteBuffer buffer) {
+        buffer.putInt(CONSTRUCTOR_ID);
+        last.serialize(buffer);
+        buffer.put(stateRootHash);
+        init.serialize(buffer);
+    }
+
+    public static MasterchainInfo deserialize(ByteBuffer buffer) {
+        Tl.expectId(buffer, CONSTRUCTOR_ID, "liteServer.masterchainInfo");
+        return MasterchainInfo.builder()
+                .last(BlockIdExt.deserialize(buffer))
+                .stateRootHash(Tl.readInt256(buffer))
+                .init(ZeroStateIdExt.deserialize(buffer))
+                .build();
+    }
+}
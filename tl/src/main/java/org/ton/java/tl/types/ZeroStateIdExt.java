@@ -0,0 +1,47 @@
+package org.ton.java.tl.types;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.ton.java.tl.Tl;
+import org.ton.java.utils.Utils;
+
+import java.nio.ByteBuffer;
+
+@ToString
+@Builder
+@Getter
+/**
+ * lite_api.tl
+ * tonNode.zeroStateIdExt
+ *   workchain:int
+ *   root_hash:int256
+ *   file_hash:int256 = tonNode.ZeroStateIdExt;
+ */
+public class ZeroStateIdExt {
+    long workchain;
+    byte[] rootHash;
+    byte[] fileHash;
+
+    public String getRootHashHex() {
+        return Utils.bytesToHex(rootHash);
+    }
+
+    public String getFileHashHex() {
+        return Utils.bytesToHex(fileHash);
+    }
+
+    public void serialize(ByteBuffer buffer) {
+        buffer.putInt((int) workchain);
+        buffer.put(rootHash);
+        buffer.put(fileHash);
+    }
+
+    public static ZeroStateIdExt deserialize(ByteBuffer buffer) {
+        return ZeroStateIdExt.builder()
+                .workchain(buffer.getInt())
+                .rootHash(Tl.readInt256(buffer))
+                .fileHash(Tl.readInt256(buffer))
+                .build();
+    }
+}
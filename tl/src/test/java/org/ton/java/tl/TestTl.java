@@ -10,15 +10,20 @@ import org.ton.java.cell.ByteReader;
 import org.ton.java.cell.Cell;
 import org.ton.java.cell.CellBuilder;
 import org.ton.java.cell.CellSlice;
+import org.ton.java.tl.types.BlockIdExt;
 import org.ton.java.tl.types.DbBlockInfo;
+import org.ton.java.tl.types.MasterchainInfo;
 import org.ton.java.tlb.types.Block;
 import org.ton.java.tlb.types.BlockProof;
 import org.ton.java.utils.Utils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @Slf4j
 @RunWith(JUnit4.class)
 public class TestTl {
@@ -85,6 +90,60 @@ public class TestTl {
         }
     }
 
+    @Test
+    public void testBinaryTl() {
+        assertThat(Tl.id("liteServer.getMasterchainInfo = liteServer.MasterchainInfo")).isEqualTo(0x89b5e62e);
+        assertThat(Tl.id("adnl.message.query query_id:int256 query:bytes = adnl.Message")).isEqualTo(0xb48bf97a);
+        assertThat(MasterchainInfo.CONSTRUCTOR_ID).isEqualTo(0x85832881);
+
+        for (int length : new int[]{0, 1, 3, 253, 254, 1000}) {
+            byte[] data = new byte[length];
+            Arrays.fill(data, (byte) 7);
+            ByteBuffer buffer = Tl.allocate(Tl.bytesSize(length) + 4);
+            Tl.writeBytes(buffer, data);
+            assertThat(buffer.position()).isEqualTo(Tl.bytesSize(length));
+            assertThat(buffer.position() % 4).isZero();
+            buffer.putInt(42);
+            buffer.flip();
+            assertThat(Tl.readBytes(buffer)).isEqualTo(data);
+            assertThat(buffer.getInt()).isEqualTo(42);
+        }
+
+        BlockIdExt id = BlockIdExt.builder()
+                .workchain(-1)
+                .shard(0x8000000000000000L)
+                .seqno(3_000_000_000L)
+                .rootHash(Utils.sha256AsArray(new byte[]{1}))
+                .fileHash(Utils.sha256AsArray(new byte[]{2}))
+                .build();
+        ByteBuffer buffer = Tl.allocate(BlockIdExt.SERIALIZED_SIZE);
+        id.serialize(buffer);
+        buffer.flip();
+        assertThat(BlockIdExt.deserialize(buffer).toString()).isEqualTo(id.toString());
+    }
+
+    @Test
+    public void testDbBlockInfoFromByteBuffer() {
+        byte[] rawValue = Utils.hexToSignedBytes("27e7c64a0000000000000000000000804b000000278adf0a7f59da0e9530164f3e42930965ce44b276c86b67363463c54a6c07829963b6bc76af71a5be6c65b64dfc55154019eaa99157a300efa842fb8aabf773faf2d6080000000000000000000000804a0000001eb220d5b0bcd430b14386cc629d5d5f196df2a3978f34d43a0e1bd0cdc1d8259b3e3620c7985ff0b86535551f2fdf2dacccea04cc1cae33a9bcba8faddf680b0000000000000000000000404c000000c85856c6d9dd02c1c3d9881fbd88a1d3dc14f9e8e6e99f79ec33f84cae475cf8149bd099c820a51529e3fcb8d4f5bc908d3cee250ac31640fa8ab579ae5c88440000000000000000000000c04c000000f28bba3d68ce1b0da03bde7cf6f7dbb2bce2332eff0b5c44ab7c57000f9a76d29b8f82e37f202f65cbb18656d44704414ec59025aba1df7a5cf0ab129e15d9f541118b0500000000c47ca5653032689210e75872eb9817b00e7ff4f24383db218dafcddfffdbad281625026656000000");
+        Cell cell = CellBuilder.beginCell().storeBitStringUnsafe(new BitString(new ByteReader(rawValue).readBytes())).endCell();
+        DbBlockInfo fromCell = DbBlockInfo.deserialize(CellSlice.beginParse(cell));
+        ByteBuffer buffer = Tl.wrap(rawValue);
+        DbBlockInfo fromBuffer = DbBlockInfo.deserialize(buffer);
+        log.info("dbBlockInfo {}", fromBuffer);
+        assertThat(buffer.hasRemaining()).isFalse();
+        assertThat(fromBuffer.getFlags()).isEqualTo(fromCell.getFlags());
+        assertThat(fromBuffer.getId().getSeqno()).isEqualTo(fromCell.getId().getSeqno());
+        assertThat(fromBuffer.getPrevLeft().getSeqno()).isEqualTo(fromCell.getPrevLeft().getSeqno());
+        assertThat(fromBuffer.getPrevRight()).isNull();
+        assertThat(fromBuffer.getNextRight().getShard()).isEqualTo(fromCell.getNextRight().getShard());
+        assertThat(fromBuffer.getLt()).isEqualTo(fromCell.getLt());
+        assertThat(fromBuffer.getTs()).isEqualTo(fromCell.getTs());
+        assertThat(fromBuffer.getMasterChainRefSeqNo()).isEqualTo(fromCell.getMasterChainRefSeqNo());
+        // int256 fields keep the wire byte order, the cell parser reverses them
+        assertThat(fromBuffer.getId().toString()).contains("rootHash=278adf0a7f59da0e9530164f3e42930965ce44b276c86b67363463c54a6c0782");
+        assertThat(fromBuffer.toString()).contains("state=3032689210e75872eb9817b00e7ff4f24383db218dafcddfffdbad2816250266");
+    }
+
     @Test
     public void testRocksDbFiles1() throws IOException {
         InputStream pack = getClass().getClassLoader().getResourceAsStream("rocksdb/archive.00000.pack");
@@ -6,6 +6,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.ton.java.cell.CellBuilder;
 import org.ton.java.cell.CellSlice;
 import org.ton.java.mnemonic.Ed25519;
+import org.ton.java.mnemonic.Verifier;
 import org.ton.java.tlb.types.StateInit;
 import org.ton.java.utils.Utils;
 
@@ -13,6 +14,8 @@ import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
 
 import static java.util.Objects.isNull;
 
@@ -22,17 +25,40 @@ public class TonConnect {
     public static final String TON_CONNECT = "ton-connect";
 
     public static boolean checkProof(TonProof tonProof, WalletAccount account) throws Exception {
-        byte[] publicKeyBytes;
-        if (StringUtils.isEmpty(account.getPublicKey()) || isNull(account.getPublicKey())) {
-            StateInit stateInit = StateInit.deserialize(CellSlice.beginParse(CellBuilder.beginCell().fromBocBase64(account.getWalletStateInit()).endCell()));
-            publicKeyBytes = CellSlice.beginParse(stateInit.getData()).skipBits(32).skipBits(32).loadBytes(256);
-        } else {
-            publicKeyBytes = Hex.decodeHex(account.getPublicKey());
-        }
         byte[] signature = Utils.base64ToBytes(tonProof.getSignature());
         byte[] messageForSigning = createMessageForSigning(tonProof, account.getAddress());
 
-        return Ed25519.verify(publicKeyBytes, messageForSigning, signature);
+        return Ed25519.verify(getPublicKey(account), messageForSigning, signature);
+    }
+
+    /**
+     * Checks many proofs at once, e.g. logins queued at peak time. Signatures are verified on all cores.
+     *
+     * @param tonProofs proofs, i-th proof is checked against i-th account
+     * @param accounts  wallet accounts
+     * @return check result for every proof
+     */
+    public static boolean[] checkProofs(List<TonProof> tonProofs, List<WalletAccount> accounts) throws Exception {
+        if (tonProofs.size() != accounts.size()) {
+            throw new Error("Number of proofs and accounts must be equal");
+        }
+        List<byte[]> publicKeys = new ArrayList<>(accounts.size());
+        List<byte[]> messages = new ArrayList<>(accounts.size());
+        List<byte[]> signatures = new ArrayList<>(accounts.size());
+        for (int i = 0; i < accounts.size(); i++) {
+            publicKeys.add(getPublicKey(accounts.get(i)));
+            messages.add(createMessageForSigning(tonProofs.get(i), accounts.get(i).getAddress()));
+            signatures.add(Utils.base64ToBytes(tonProofs.get(i).getSignature()));
+        }
+        return Verifier.verifyAll(publicKeys, messages, signatures);
+    }
+
+    private static byte[] getPublicKey(WalletAccount account) throws DecoderException {
+        if (StringUtils.isEmpty(account.getPublicKey()) || isNull(account.getPublicKey())) {
+            StateInit stateInit = StateInit.deserialize(CellSlice.beginParse(CellBuilder.beginCell().fromBocBase64(account.getWalletStateInit()).endCell()));
+            return CellSlice.beginParse(stateInit.getData()).skipBits(32).skipBits(32).loadBytes(256);
+        }
+        return Hex.decodeHex(account.getPublicKey());
     }
 
     /**
@@ -17,6 +17,8 @@ import org.ton.java.tonlib.types.RawAccountState;
 import org.ton.java.utils.Utils;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -153,4 +155,41 @@ public class TestTonConnect {
 
         assertThat(TonConnect.checkProof(tonProof, walletAccount)).isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCheckProofs() throws Exception {
+        String addressStr = "0:2d29bfa071c8c62fa3398b661a842e60f04cb8a915fb3e749ef7c6c41343e16c";
+        byte[] secretKey = Utils.hexToSignedBytes("F182111193F30D79D517F2339A1BA7C25FDF6C52142F0F2C1D960A1F1D65E1E4");
+        TweetNaclFast.Signature.KeyPair keyPair = TweetNaclFast.Signature.keyPair_fromSeed(secretKey);
+        WalletAccount walletAccount = WalletAccount.builder()
+                .chain(-239)
+                .address(addressStr)
+                .publicKey(Utils.bytesToHex(keyPair.getPublicKey()))
+                .build();
+
+        List<TonProof> tonProofs = new ArrayList<>();
+        List<WalletAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            TonProof tonProof = TonProof.builder()
+                    .timestamp(1722999580 + i)
+                    .domain(Domain.builder()
+                            .value("xxx.xxx.com")
+                            .lengthBytes(16)
+                            .build())
+                    .payload("doc-example-" + i)
+                    .build();
+            byte[] message = TonConnect.createMessageForSigning(tonProof, addressStr);
+            tonProof.setSignature(Utils.bytesToBase64(Utils.signData(keyPair.getPublicKey(), secretKey, message)));
+            tonProofs.add(tonProof);
+            accounts.add(walletAccount);
+        }
+        // signed for another payload
+        tonProofs.get(5).setPayload("forged");
+
+        boolean[] results = TonConnect.checkProofs(tonProofs, accounts);
+        for (int i = 0; i < 20; i++) {
+            assertThat(results[i]).isEqualTo(i != 5);
+            assertThat(TonConnect.checkProof(tonProofs.get(i), accounts.get(i))).isEqualTo(results[i]);
+        }
+    }
+}
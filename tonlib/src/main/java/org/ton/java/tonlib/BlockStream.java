@@ -0,0 +1,413 @@
+package org.ton.java.tonlib;
+
+import com.google.gson.Gson;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.ton.java.cell.Cell;
+import org.ton.java.cell.CellSlice;
+import org.ton.java.tlb.types.Transaction;
+import org.ton.java.tonlib.types.*;
+import org.ton.java.utils.Utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Follows the masterchain and delivers transactions of every new masterchain and shard block, resuming from
+ * a checkpoint after restart.
+ * <p>
+ * For every masterchain block the stream finds shard blocks created since the previous one by walking back from
+ * the shard tops through prev_blocks of block headers, so shard splits and merges are followed without gaps.
+ * Shard blocks are delivered in seqno order before the masterchain block that references them.
+ * <p>
+ * Transactions of up to prefetch blocks are fetched ahead of onBlock. When onBlock is slower, the follower waits
+ * for it, so memory use is bounded regardless of how far the stream is behind.
+ * The checkpoint is saved after a masterchain block is delivered, blocks are delivered at least once: if onBlock
+ * throws, the stream stops and starts after restart from the saved checkpoint.
+ */
+@Slf4j
+@Builder
+public class BlockStream {
+
+    private static final long MASTERCHAIN_SHARD = -9223372036854775808L;
+
+    private Tonlib tonlib;
+
+    /**
+     * Called with every block and its transactions in order of blocks, transactions are in the order of the block.
+     */
+    private BiConsumer<BlockIdExt, List<Transaction>> onBlock;
+
+    /**
+     * File the checkpoint is kept in. If not specified, the stream is not persisted.
+     */
+    private String checkpointPath;
+
+    /**
+     * Masterchain seqno to start from when there is no checkpoint. Default value is seqno of the last block
+     */
+    private long fromSeqno;
+
+    /**
+     * Max number of blocks fetched ahead of onBlock. Default value 8
+     */
+    private int prefetch;
+
+    /**
+     * Transactions requested at a time. Default value 256
+     */
+    private int pageSize;
+
+    /**
+     * In milliseconds, delay between polls of the last masterchain block and between retries. Default value 1000
+     */
+    private long pollInterval;
+
+    private static final Gson gson = new Gson();
+
+    /**
+     * Do not use! Reserved for internal usage.
+     */
+    private BlockingQueue<Item> queue;
+
+    /**
+     * Do not use! Reserved for internal usage.
+     */
+    private volatile BlockStreamCheckpoint checkpoint;
+
+    /**
+     * Do not use! Reserved for internal usage.
+     */
+    private volatile boolean running;
+
+    /**
+     * Do not use! Reserved for internal usage.
+     */
+    private Thread follower;
+
+    /**
+     * Do not use! Reserved for internal usage.
+     */
+    private Thread consumer;
+
+    private static class Item {
+        final BlockIdExt block;
+        final BlockStreamCheckpoint checkpoint; // set for masterchain blocks only
+        CompletableFuture<List<Transaction>> transactions;
+
+        Item(BlockIdExt block, BlockStreamCheckpoint checkpoint, CompletableFuture<List<Transaction>> transactions) {
+            this.block = block;
+            this.checkpoint = checkpoint;
+            this.transactions = transactions;
+        }
+    }
+
+    public static class BlockStreamBuilder {
+    }
+
+    public static BlockStreamBuilder builder() {
+        return new CustomBlockStreamBuilder();
+    }
+
+    private static class CustomBlockStreamBuilder extends BlockStreamBuilder {
+        @Override
+        public BlockStream build() {
+            if (isNull(super.tonlib)) {
+                throw new Error("BlockStream requires tonlib");
+            }
+            if (isNull(super.onBlock)) {
+                throw new Error("BlockStream requires onBlock");
+            }
+            if (super.prefetch == 0) {
+                super.prefetch = 8;
+            }
+            if (super.pageSize == 0) {
+                super.pageSize = 256;
+            }
+            if (super.pollInterval == 0) {
+                super.pollInterval = 1000;
+            }
+            super.queue = new ArrayBlockingQueue<>(super.prefetch);
+            if (nonNull(super.checkpointPath) && Files.exists(Paths.get(super.checkpointPath))) {
+                try {
+                    String json = new String(Files.readAllBytes(Paths.get(super.checkpointPath)), StandardCharsets.UTF_8);
+                    super.checkpoint = gson.fromJson(json, BlockStreamCheckpoint.class);
+                } catch (IOException e) {
+                    throw new Error("Cannot read checkpoint, " + e.getMessage());
+                }
+            }
+            return super.build();
+        }
+    }
+
+    /**
+     * Starts following the masterchain in background threads.
+     */
+    public synchronized void start() {
+        if (running) {
+            throw new Error("BlockStream is already running");
+        }
+        running = true;
+        queue.clear();
+        follower = new Thread(this::follow, "block-stream-follower");
+        follower.setDaemon(true);
+        consumer = new Thread(this::consume, "block-stream-consumer");
+        consumer.setDaemon(true);
+        follower.start();
+        consumer.start();
+    }
+
+    /**
+     * Stops the stream, blocks fetched but not yet delivered are discarded and will be fetched again after start().
+     */
+    public synchronized void stop() {
+        running = false;
+        for (Thread thread : Arrays.asList(follower, consumer)) {
+            if (nonNull(thread)) {
+                thread.interrupt();
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return position after the last delivered masterchain block, null if nothing is delivered yet
+     */
+    public BlockStreamCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    private void follow() {
+        BlockStreamCheckpoint position = checkpoint;
+        while (running) {
+            try {
+                if (isNull(position)) {
+                    position = initialPosition();
+                }
+                long next = position.getMasterchainSeqno() + 1;
+                if (next > tonlib.getLastAsync().get().getLast().getSeqno()) {
+                    Thread.sleep(pollInterval);
+                    continue;
+                }
+                position = enqueue(next, position.getShards());
+            } catch (InterruptedException e) {
+                return;
+            } catch (Throwable e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cannot follow masterchain, {}", e.getMessage());
+                try {
+                    Thread.sleep(pollInterval);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private BlockStreamCheckpoint initialPosition() throws InterruptedException, ExecutionException {
+        long seqno = fromSeqno > 0 ? fromSeqno : tonlib.getLastAsync().get().getLast().getSeqno();
+        BlockIdExt previous = tonlib.lookupBlock(seqno - 1, -1, MASTERCHAIN_SHARD, 0);
+        return BlockStreamCheckpoint.builder()
+                .masterchainSeqno(seqno - 1)
+                .shards(shardTops(tonlib.getShardsAsync(previous).get().getShards()))
+                .build();
+    }
+
+    /**
+     * Queues new shard blocks referenced by the masterchain block and the block itself, waits if the queue is full.
+     */
+    private BlockStreamCheckpoint enqueue(long seqno, Map<String, Long> known) throws InterruptedException, ExecutionException {
+        BlockIdExt masterchainBlock = tonlib.lookupBlock(seqno, -1, MASTERCHAIN_SHARD, 0);
+        List<BlockIdExt> tops = tonlib.getShardsAsync(masterchainBlock).get().getShards();
+        if (isNull(tops)) {
+            tops = new ArrayList<>();
+        }
+        List<BlockIdExt> blocks = newShardBlocks(tops, known);
+        blocks.add(masterchainBlock);
+
+        BlockStreamCheckpoint position = BlockStreamCheckpoint.builder()
+                .masterchainSeqno(seqno)
+                .shards(shardTops(tops))
+                .build();
+        for (int i = 0; i < blocks.size(); i++) {
+            BlockIdExt block = blocks.get(i);
+            queue.put(new Item(block, i == blocks.size() - 1 ? position : null, fetchTransactions(block)));
+        }
+        return position;
+    }
+
+    private List<BlockIdExt> newShardBlocks(List<BlockIdExt> tops, Map<String, Long> known)
+            throws InterruptedException, ExecutionException {
+        Map<String, BlockIdExt> found = new HashMap<>();
+        Deque<BlockIdExt> pending = new ArrayDeque<>(tops);
+        while (!pending.isEmpty()) {
+            BlockIdExt block = pending.poll();
+            String id = shardKey(block.getWorkchain(), block.getShard()) + ":" + block.getSeqno();
+            if (found.containsKey(id)) {
+                continue;
+            }
+            Long knownSeqno = knownSeqno(block, known);
+            if (nonNull(knownSeqno) && block.getSeqno() <= knownSeqno) {
+                continue;
+            }
+            found.put(id, block);
+            // a block of a shard never seen before, e.g. of a new workchain, is not followed back to genesis
+            if (nonNull(knownSeqno)) {
+                BlockHeader header = tonlib.getBlockHeaderAsync(block).get();
+                if (nonNull(header.getPrev_blocks())) {
+                    pending.addAll(header.getPrev_blocks());
+                }
+            }
+        }
+        List<BlockIdExt> blocks = new ArrayList<>(found.values());
+        blocks.sort(Comparator.comparingLong(BlockIdExt::getSeqno)
+                .thenComparingLong(BlockIdExt::getWorkchain)
+                .thenComparing((a, b) -> Long.compareUnsigned(a.getShard(), b.getShard())));
+        return blocks;
+    }
+
+    /**
+     * Seqno of the last processed block of the shard. After a split or merge the shard itself is not known yet,
+     * then the highest seqno of a known parent or child shard is used.
+     */
+    private static Long knownSeqno(BlockIdExt block, Map<String, Long> known) {
+        Long seqno = known.get(shardKey(block.getWorkchain(), block.getShard()));
+        if (nonNull(seqno)) {
+            return seqno;
+        }
+        for (Map.Entry<String, Long> entry : known.entrySet()) {
+            String[] key = entry.getKey().split(":");
+            if (Long.parseLong(key[0]) == block.getWorkchain()
+                    && intersects(Long.parseUnsignedLong(key[1], 16), block.getShard())
+                    && (isNull(seqno) || entry.getValue() > seqno)) {
+                seqno = entry.getValue();
+            }
+        }
+        return seqno;
+    }
+
+    /**
+     * Shard id is a prefix followed by a single marker bit, shards intersect if the prefix of the wider one matches.
+     */
+    static boolean intersects(long shardA, long shardB) {
+        long markerA = shardA & -shardA;
+        long markerB = shardB & -shardB;
+        long wider = Long.compareUnsigned(markerA, markerB) > 0 ? markerA : markerB;
+        long mask = ~((wider << 1) - 1);
+        return (shardA & mask) == (shardB & mask);
+    }
+
+    private static Map<String, Long> shardTops(List<BlockIdExt> shards) {
+        Map<String, Long> tops = new TreeMap<>();
+        if (nonNull(shards)) {
+            for (BlockIdExt shard : shards) {
+                tops.put(shardKey(shard.getWorkchain(), shard.getShard()), shard.getSeqno());
+            }
+        }
+        return tops;
+    }
+
+    private static String shardKey(long workchain, long shard) {
+        return workchain + ":" + Utils.longToUnsignedBigInteger(shard).toString(16);
+    }
+
+    private CompletableFuture<List<Transaction>> fetchTransactions(BlockIdExt block) {
+        return collectTransactions(block, null, new ArrayList<>());
+    }
+
+    private CompletableFuture<List<Transaction>> collectTransactions(
+            BlockIdExt block, AccountTransactionId afterTx, List<Transaction> collected) {
+        return tonlib.getBlockTransactionsExtAsync(block, pageSize, afterTx)
+                .thenCompose(page -> {
+                    List<RawTransaction> txs = isNull(page.getTransactions()) ? new ArrayList<>() : page.getTransactions();
+                    for (RawTransaction tx : txs) {
+                        Transaction transaction = Transaction.deserialize(CellSlice.beginParse(Cell.fromBocBase64(tx.getData())));
+                        if (nonNull(tx.getTransaction_id()) && nonNull(tx.getTransaction_id().getHash())) {
+                            transaction.setHash(Utils.base64ToBytes(tx.getTransaction_id().getHash()));
+                        }
+                        collected.add(transaction);
+                    }
+                    if (!page.isIncomplete() || txs.isEmpty()) {
+                        return CompletableFuture.completedFuture(collected);
+                    }
+                    Transaction last = collected.get(collected.size() - 1);
+                    AccountTransactionId next = AccountTransactionId.builder()
+                            .account(Utils.bytesToBase64(Utils.hexToSignedBytes(String.format("%064x", last.getAccountAddr()))))
+                            .lt(last.getLt().longValue())
+                            .build();
+                    return collectTransactions(block, next, collected);
+                });
+    }
+
+    private void consume() {
+        try {
+            while (running) {
+                Item item = queue.take();
+                List<Transaction> transactions = awaitTransactions(item);
+                try {
+                    onBlock.accept(item.block, transactions);
+                    if (nonNull(item.checkpoint)) {
+                        saveCheckpoint(item.checkpoint);
+                        checkpoint = item.checkpoint;
+                    }
+                } catch (Throwable e) {
+                    log.error("BlockStream stopped on block {}", item.block.getShortBlockSeqno(), e);
+                    running = false;
+                    follower.interrupt();
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // stopped
+        }
+    }
+
+    private List<Transaction> awaitTransactions(Item item) throws InterruptedException {
+        while (true) {
+            try {
+                return item.transactions.get();
+            } catch (ExecutionException e) {
+                log.warn("Cannot fetch transactions of block {}, {}", item.block.getShortBlockSeqno(), e.getCause().getMessage());
+                Thread.sleep(pollInterval);
+                item.transactions = fetchTransactions(item.block);
+            }
+        }
+    }
+
+    private void saveCheckpoint(BlockStreamCheckpoint position) {
+        if (isNull(checkpointPath)) {
+            return;
+        }
+        Path path = Paths.get(checkpointPath);
+        Path tmp = Paths.get(checkpointPath + ".tmp");
+        try {
+            Files.write(tmp, gson.toJson(position).getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new Error("Cannot save checkpoint, " + e.getMessage());
+        }
+    }
+}
@@ -14,6 +14,8 @@ import org.ton.java.cell.CellBuilder;
 import org.ton.java.tonlib.queries.*;
 import org.ton.java.tonlib.types.*;
 import org.ton.java.tonlib.types.globalconfig.*;
+import org.ton.java.utils.FanOut;
+import org.ton.java.utils.NativeOutput;
 import org.ton.java.utils.Utils;
 
 import java.io.InputStream;
@@ -21,7 +23,11 @@ import java.math.BigInteger;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
 
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
@@ -98,6 +104,9 @@ public class Tonlib {
      */
     private double receiveTimeout;
 
+    /**
+     * If not specified then loaded from pathToTonlibSharedLib
+     */
     private TonlibJsonI tonlibJson;
 
     private Boolean printInfo;
@@ -107,6 +116,11 @@ public class Tonlib {
 
     private long tonlib;
 
+    /**
+     * Do not use! Reserved for internal usage.
+     */
+    private volatile TonlibDispatcher dispatcher;
+
     RunResultParser runResultParser;
 
     LibraryResultParser libraryResultParser;
@@ -222,14 +236,13 @@ public class Tonlib {
                 newLiteServers[0] = liteServers[super.liteServerIndex];
                 globalConfigCurrent.setLiteservers(newLiteServers);
 
-                super.tonlibJson = Native.load(super.pathToTonlibSharedLib, TonlibJsonI.class);
-
-                Utils.disableNativeOutput();
+                if (isNull(super.tonlibJson)) {
+                    super.tonlibJson = Native.load(super.pathToTonlibSharedLib, TonlibJsonI.class);
+                }
 
+                NativeOutput.init();
                 super.tonlib = super.tonlibJson.tonlib_client_json_create();
 
-                Utils.enableNativeOutput();
-
                 if (super.printInfo) {
                     log.info(
                             String.format(
@@ -279,10 +292,8 @@ public class Tonlib {
                                 .new_verbosity_level(super.verbosityLevel.ordinal())
                                 .build();
 
-                Utils.disableNativeOutput();
                 super.tonlibJson.tonlib_client_json_send(super.tonlib, gson.toJson(verbosityLevelQuery));
                 super.tonlibJson.tonlib_client_json_receive(super.tonlib, super.receiveTimeout);
-                Utils.enableNativeOutput();
 
                 initTonlibConfig(globalConfigCurrent);
 
@@ -329,10 +340,8 @@ public class Tonlib {
                                             .build())
                             .build();
 
-            Utils.disableNativeOutput();
             super.tonlibJson.tonlib_client_json_send(super.tonlib, gson.toJson(tonlibSetup));
             super.tonlibJson.tonlib_client_json_receive(super.tonlib, super.receiveTimeout);
-            Utils.enableNativeOutput();
         }
     }
 
@@ -342,8 +351,6 @@ public class Tonlib {
         // tonlibJson.tonlib_client_json_destroy(tonlib);
         destroy();
 
-        tonlibJson = Native.load(pathToTonlibSharedLib, TonlibJsonI.class);
-        Utils.disableNativeOutput();
         tonlib = tonlibJson.tonlib_client_json_create();
 
         // set verbosity
@@ -379,148 +386,434 @@ public class Tonlib {
         tonlibJson.tonlib_client_json_send(tonlib, gson.toJson(tonlibSetup));
         tonlibJson.tonlib_client_json_receive(tonlib, receiveTimeout);
 
-        Utils.enableNativeOutput();
     }
 
     public void destroy() {
-        Utils.disableNativeOutput();
+        closeDispatcher();
         tonlibJson.tonlib_client_json_destroy(tonlib);
-        Utils.enableNativeOutput();
     }
 
-    private String receive() {
-        String result = null;
+    /**
+     * Returns dispatcher of the current native client, the receive loop is started on first use.
+     */
+    private TonlibDispatcher dispatcher() {
+        TonlibDispatcher d = dispatcher;
+        if (isNull(d)) {
+            synchronized (this) {
+                d = dispatcher;
+                if (isNull(d)) {
+                    d = new TonlibDispatcher(tonlibJson, tonlib);
+                    dispatcher = d;
+                }
+            }
+        }
+        return d;
+    }
+
+    private synchronized void closeDispatcher() {
+        if (nonNull(dispatcher)) {
+            dispatcher.close();
+            dispatcher = null;
+        }
+    }
+
+    /**
+     * Number of queries sent to the native client and still waiting for a response.
+     */
+    public int getQueriesInFlight() {
+        TonlibDispatcher d = dispatcher;
+        return isNull(d) ? 0 : d.getInFlight();
+    }
+
+    private long queryTimeoutMillis() {
+        return (long) (receiveTimeout * 1000 * receiveRetryTimes);
+    }
+
+    private static boolean isError(String response) {
+        return response.startsWith("{\"@type\":\"error\"");
+    }
+
+    /**
+     * Errors which are returned to the caller as is, without retries.
+     */
+    private static boolean isFinalError(String response) {
+        return response.contains("Failed to unpack account state")
+                || response.contains(" : duplicate message\"");
+    }
+
+    /**
+     * Switches to the next lite-server from the global config. Does nothing if the client
+     * the failed query was sent to has already been replaced by a concurrent query.
+     */
+    private synchronized void switchLiteServer(TonlibDispatcher failed, int retry) {
+        if (failed != dispatcher) {
+            return;
+        }
+        TonGlobalConfig globalConfigCurrent = gson.fromJson(originalGlobalConfigStr, TonGlobalConfig.class);
+        LiteServers[] liteServers = originalGlobalConfigInternal.getLiteservers();
+        LiteServers[] newLiteServers = new LiteServers[1];
+        newLiteServers[0] = liteServers[retry % liteServers.length];
+        globalConfigCurrent.setLiteservers(newLiteServers);
+
+        log.info(
+                "Trying next lite-server at index: "
+                        + (retry % liteServers.length)
+                        + " ("
+                        + Utils.int2ip(globalConfigCurrent.getLiteservers()[0].getIp())
+                        + ")");
+
+        reinitTonlibConfig(globalConfigCurrent);
+    }
+
+    /**
+     * Sends query and waits for the response with the same @extra id. Does not block other queries,
+     * any number of threads may call it at the same time.
+     */
+    private String syncAndRead(String query) {
+        String extra = StringUtils.substringBetween(query, "@extra\":\"", "\"");
         int retry = 0;
-        while (isNull(result)) {
-            //      if (retry > 0) {
-            //        log.info("retry " + retry);
-            //      }
+        while (true) {
+            TonlibDispatcher d = dispatcher();
+            String response;
+            try {
+                response = d.send(extra, query, queryTimeoutMillis()).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new Error("Interrupted while waiting for response from lite-server");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof TimeoutException) {
+                    throw new Error(
+                            "Error in tonlib.receive(), "
+                                    + receiveRetryTimes
+                                    + " times was not able retrieve result from lite-server.");
+                }
+                if (!d.isRunning()) {
+                    // client was reinitialized by a concurrent query, repeat on the new one
+                    continue;
+                }
+                throw new Error("Error in tonlib.send(), " + e.getCause().getMessage());
+            }
+
+            if (!isError(response)) {
+                return response;
+            }
+            log.info(response);
+
+            if (response.contains("Failed to unpack account state")) {
+                log.info("You are trying to deploy a contract on address that does not have toncoins.");
+                return response;
+            }
+            if (isFinalError(response)) {
+                return response;
+            }
             if (++retry > receiveRetryTimes) {
                 throw new Error(
                         "Error in tonlib.receive(), "
                                 + receiveRetryTimes
                                 + " times was not able retrieve result from lite-server.");
             }
-            result = tonlibJson.tonlib_client_json_receive(tonlib, receiveTimeout);
+            if (usingAllLiteServers) {
+                // try next lite-server from the list
+                switchLiteServer(d, retry);
+            }
         }
-        return result;
     }
 
-    private String syncAndRead(String query) {
-        String response = null;
-        try {
-            Utils.disableNativeOutput();
-            tonlibJson.tonlib_client_json_send(tonlib, query);
-            TimeUnit.MILLISECONDS.sleep(200);
-            response = receive();
-            Utils.enableNativeOutput();
-            int retry = 0;
-            outterloop:
-            do {
-                do {
-
-                    if (response.contains("error")) {
-                        log.info(response);
-
-                        if (++retry > receiveRetryTimes) {
-                            throw new Error(
-                                    "Error in tonlib.receive(), "
-                                            + receiveRetryTimes
-                                            + " times was not able retrieve result from lite-server.");
-                        }
+    /**
+     * Sends query without waiting for the response. Queries are matched with responses by @extra id,
+     * so many queries can be in flight on the same native client at a time.
+     * Tonlib errors are retried up to receiveRetryTimes, the last error is returned as is.
+     *
+     * @param query any tonlib query
+     * @return future completed with JSON response on the thread of the receive loop
+     */
+    public CompletableFuture<String> queryAsync(ExtraQuery query) {
+        return sendAsync(gson.toJson(query), query.getExtra(), 1);
+    }
 
-                        if (response.contains("Failed to unpack account state")) {
-                            log.info(
-                                    "You are trying to deploy a contract on address that does not have toncoins.");
-                            break outterloop;
-                        }
+    private CompletableFuture<String> sendAsync(String query, String extra, int attempt) {
+        TonlibDispatcher d = dispatcher();
+        // continuations may send again, keep them off the receive loop and off the thread closing the dispatcher
+        return d.send(extra, query, queryTimeoutMillis())
+                .handleAsync(
+                        (response, e) -> {
+                            if (nonNull(e)) {
+                                if (!d.isRunning() && !(e instanceof TimeoutException)) {
+                                    return sendAsync(query, extra, attempt);
+                                }
+                                CompletableFuture<String> failed = new CompletableFuture<>();
+                                failed.completeExceptionally(e);
+                                return failed;
+                            }
+                            if (isError(response) && !isFinalError(response) && attempt < receiveRetryTimes) {
+                                return sendAsync(query, extra, attempt + 1);
+                            }
+                            return CompletableFuture.completedFuture(response);
+                        })
+                .thenCompose(f -> f);
+    }
 
-                        if (usingAllLiteServers) {
-                            // try next lite-server from the list
-                            TonGlobalConfig globalConfigCurrent =
-                                    gson.fromJson(originalGlobalConfigStr, TonGlobalConfig.class);
-                            LiteServers[] liteServers = originalGlobalConfigInternal.getLiteservers();
-                            LiteServers[] newLiteServers = new LiteServers[1];
-                            newLiteServers[0] =
-                                    liteServers[retry % originalGlobalConfigInternal.getLiteservers().length];
-                            globalConfigCurrent.setLiteservers(newLiteServers);
-
-                            log.info(
-                                    "Trying next lite-server at index: "
-                                            + (retry % originalGlobalConfigInternal.getLiteservers().length)
-                                            + " ("
-                                            + Utils.int2ip(globalConfigCurrent.getLiteservers()[0].getIp())
-                                            + ")");
+    /**
+     * Parses response of an async query, fails if lite-server returned an error.
+     */
+    private <T> CompletableFuture<T> queryAsync(ExtraQuery query, Class<T> responseType) {
+        return queryAsync(query)
+                .thenApplyAsync(
+                        response -> {
+                            if (isError(response)) {
+                                throw new Error("Error in tonlib query: " + response);
+                            }
+                            return gson.fromJson(response, responseType);
+                        });
+    }
 
-                            reinitTonlibConfig(globalConfigCurrent);
-                            // repeat request
-                            Utils.disableNativeOutput();
-                            tonlibJson.tonlib_client_json_send(tonlib, query);
-                            Utils.enableNativeOutput();
-                        }
-                    } else if (response.contains("\"@type\":\"ok\"")) {
-                        String queryExtraId = StringUtils.substringBetween(query, "@extra\":\"", "\"}");
-                        String responseExtraId = StringUtils.substringBetween(response, "@extra\":\"", "\"}");
-                        if (queryExtraId.equals(responseExtraId)) {
-                            break outterloop;
-                        }
-                    } else if (response.contains("\"@extra\"")) {
-                        break outterloop;
-                    }
+    public CompletableFuture<MasterChainInfo> getLastAsync() {
+        return queryAsync(GetLastQuery.builder().build(), MasterChainInfo.class);
+    }
 
-                    if (response.contains(" : duplicate message\"")) {
-                        break outterloop;
-                    }
-                    Utils.disableNativeOutput();
-                    TimeUnit.MILLISECONDS.sleep(200);
-                    response = receive();
-                    Utils.enableNativeOutput();
-                    UpdateSyncState sync = gson.fromJson(response, UpdateSyncState.class);
-                    if (nonNull(sync)
-                            && nonNull(sync.getSync_state())
-                            && sync.getType().equals("updateSyncState")
-                            && !response.contains("syncStateDone")) {
-                        double pct = 0.0;
-                        if (sync.getSync_state().getTo_seqno() != 0) {
-                            pct =
-                                    (sync.getSync_state().getCurrent_seqno() * 100)
-                                            / (double) sync.getSync_state().getTo_seqno();
-                        }
-                        if (pct < 99.5) {
-                            log.info("Synchronized: " + String.format("%.2f%%", pct));
-                        }
-                    }
-                    if (isNull(response)) {
-                        throw new RuntimeException("Error in waitForSyncDone(), response is null.");
-                    }
+    public CompletableFuture<RawAccountState> getRawAccountStateAsync(Address address) {
+        AccountAddressOnly accountAddressOnly =
+                AccountAddressOnly.builder().account_address(address.toString(false)).build();
+        return queryAsync(
+                GetRawAccountStateQueryOnly.builder().account_address(accountAddressOnly).build(),
+                RawAccountState.class);
+    }
 
-                } while (response.contains("error") || response.contains("syncStateInProgress"));
+    public CompletableFuture<FullAccountState> getAccountStateAsync(Address address) {
+        AccountAddressOnly accountAddressOnly =
+                AccountAddressOnly.builder().account_address(address.toString(false)).build();
+        return queryAsync(
+                GetAccountStateQueryOnly.builder().account_address(accountAddressOnly).build(),
+                FullAccountState.class);
+    }
 
-                if (response.contains("syncStateDone")) {
-                    response = receive();
-                }
-                if (response.contains("error")) {
-                    log.info(response);
-
-                    if (++retry > receiveRetryTimes) {
-                        throw new Error(
-                                "Error in tonlib.receive(), "
-                                        + receiveRetryTimes
-                                        + " times was not able retrieve result from lite-server.");
-                    }
+    public CompletableFuture<BlockTransactions> getBlockTransactionsAsync(
+            BlockIdExt fullblock, long count, AccountTransactionId afterTx) {
+        int mode = 7;
+        if (nonNull(afterTx)) {
+            mode = 7 + 128;
+        } else {
+            afterTx =
+                    AccountTransactionId.builder()
+                            .account("AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=")
+                            .lt(0)
+                            .build();
+        }
+        return queryAsync(
+                GetBlockTransactionsQuery.builder()
+                        .id(fullblock)
+                        .mode(mode)
+                        .count(count)
+                        .after(afterTx)
+                        .build(),
+                BlockTransactions.class);
+    }
 
-                    Utils.disableNativeOutput();
-                    tonlibJson.tonlib_client_json_send(tonlib, query);
-                    Utils.enableNativeOutput();
-                }
-            } while (response.contains("error") || response.contains("syncStateInProgress"));
+    /**
+     * Same as getBlockTransactionsAsync(), but returns whole transactions instead of their ids.
+     */
+    public CompletableFuture<BlockTransactionsExt> getBlockTransactionsExtAsync(
+            BlockIdExt fullblock, long count, AccountTransactionId afterTx) {
+        int mode = 7;
+        if (nonNull(afterTx)) {
+            mode = 7 + 128;
+        } else {
+            afterTx =
+                    AccountTransactionId.builder()
+                            .account("AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=")
+                            .lt(0)
+                            .build();
+        }
+        return queryAsync(
+                GetBlockTransactionsExtQuery.builder()
+                        .id(fullblock)
+                        .mode(mode)
+                        .count(count)
+                        .after(afterTx)
+                        .build(),
+                BlockTransactionsExt.class);
+    }
+
+    public CompletableFuture<BlockHeader> getBlockHeaderAsync(BlockIdExt fullblock) {
+        return queryAsync(BlockHeaderQuery.builder().id(fullblock).build(), BlockHeader.class);
+    }
+
+    /**
+     * Loads contract and runs get-method, both queries are sent without blocking.
+     */
+    public CompletableFuture<RunResult> runMethodAsync(
+            Address contractAddress, String methodName, Deque<String> stackData) {
+        Deque<TvmStackEntry> stack = isNull(stackData) ? null : ParseRunResult.renderTvmStack(stackData);
+        AccountAddressOnly accountAddressOnly =
+                AccountAddressOnly.builder().account_address(contractAddress.toString(false)).build();
+        return queryAsync(
+                LoadContractQuery.builder().account_address(accountAddressOnly).build(),
+                LoadContract.class)
+                .thenCompose(
+                        contract ->
+                                queryAsync(
+                                        RunMethodStrQuery.builder()
+                                                .id(contract.getId())
+                                                .method(MethodString.builder().name(methodName).build())
+                                                .stack(stack)
+                                                .build()))
+                .thenApplyAsync(runResultParser::parse);
+    }
 
-            return response;
+    /**
+     * Sends raw message, bag of cells encoded in base64. Errors are returned inside ExtMessageInfo.
+     */
+    public CompletableFuture<ExtMessageInfo> sendRawMessageAsync(String serializedBoc) {
+        return queryAsync(SendRawMessageQuery.builder().body(serializedBoc).build())
+                .thenApplyAsync(
+                        result -> {
+                            if (isError(result)) {
+                                TonlibError error = gson.fromJson(result, TonlibError.class);
+                                return ExtMessageInfo.builder().error(error).build();
+                            }
+                            ExtMessageInfo extMessageInfo = gson.fromJson(result, ExtMessageInfo.class);
+                            extMessageInfo.setError(TonlibError.builder().code(0).build());
+                            return extMessageInfo;
+                        });
+    }
 
-        } catch (Exception e) {
-            log.info(e.getMessage());
-            return response;
+    public CompletableFuture<Shards> getShardsAsync(BlockIdExt id) {
+        return queryAsync(GetShardsQuery.builder().id(id).build(), Shards.class);
+    }
+
+    public CompletableFuture<RawTransactions> getRawTransactionsAsync(
+            String address, BigInteger fromTxLt, String fromTxHash) {
+        return queryAsync(
+                GetRawTransactionsQuery.builder()
+                        .account_address(AccountAddressOnly.builder().account_address(address).build())
+                        .from_transaction_id(LastTransactionId.builder().lt(fromTxLt).hash(fromTxHash).build())
+                        .build(),
+                RawTransactions.class);
+    }
+
+    /**
+     * Lists all transactions of the block, requesting pages of pageSize one after another until the list is complete.
+     */
+    public CompletableFuture<List<ShortTxId>> getAllBlockTransactionIdsAsync(BlockIdExt block, long pageSize) {
+        return collectBlockTransactionIds(block, pageSize, null, new ArrayList<>());
+    }
+
+    private CompletableFuture<List<ShortTxId>> collectBlockTransactionIds(
+            BlockIdExt block, long pageSize, AccountTransactionId afterTx, List<ShortTxId> collected) {
+        return getBlockTransactionsAsync(block, pageSize, afterTx)
+                .thenCompose(
+                        page -> {
+                            List<ShortTxId> txs = isNull(page.getTransactions()) ? new ArrayList<>() : page.getTransactions();
+                            collected.addAll(txs);
+                            if (!page.isIncomplete() || txs.isEmpty()) {
+                                return CompletableFuture.completedFuture(collected);
+                            }
+                            ShortTxId last = txs.get(txs.size() - 1);
+                            AccountTransactionId next =
+                                    AccountTransactionId.builder().account(last.getAccount()).lt(last.getLt()).build();
+                            return collectBlockTransactionIds(block, pageSize, next, collected);
+                        });
+    }
+
+    /**
+     * Concurrent version of getAllBlockTransactions(). Transactions of all accounts are requested at the same time,
+     * at most parallelism queries are in flight.
+     *
+     * @param onResult called with every transaction id and its transactions as soon as they arrive, may be null
+     * @return map with keys "address|lt", in the order of transactions in the block
+     */
+    public CompletableFuture<Map<String, RawTransactions>> getAllBlockTransactionsAsync(
+            BlockIdExt fullblock,
+            long count,
+            AccountTransactionId afterTx,
+            int parallelism,
+            BiConsumer<ShortTxId, RawTransactions> onResult) {
+        return getBlockTransactionsAsync(fullblock, count, afterTx)
+                .thenCompose(
+                        blockTransactions -> {
+                            List<Pair<BlockIdExt, ShortTxId>> txs = new ArrayList<>();
+                            if (nonNull(blockTransactions.getTransactions())) {
+                                for (ShortTxId tx : blockTransactions.getTransactions()) {
+                                    txs.add(Pair.of(fullblock, tx));
+                                }
+                            }
+                            return fetchRawTransactions(txs, parallelism, onResult);
+                        });
+    }
+
+    /**
+     * Collects transactions of the masterchain block and of all shard blocks referenced by it.
+     * Shard blocks and then transactions of accounts are requested concurrently, at most parallelism queries are in flight.
+     *
+     * @param masterchainBlock masterchain block
+     * @param parallelism      max number of queries in flight
+     * @param onResult         called with every transaction id and its transactions as soon as they arrive, may be null
+     * @return map with keys "address|lt", transactions of the masterchain block first, then of shard blocks in the order
+     * returned by getShards(), each block in its own order
+     */
+    public CompletableFuture<Map<String, RawTransactions>> getAllShardsTransactionsAsync(
+            BlockIdExt masterchainBlock, int parallelism, BiConsumer<ShortTxId, RawTransactions> onResult) {
+        return getShardsAsync(masterchainBlock)
+                .thenCompose(
+                        shards -> {
+                            List<BlockIdExt> blocks = new ArrayList<>();
+                            blocks.add(masterchainBlock);
+                            if (nonNull(shards.getShards())) {
+                                blocks.addAll(shards.getShards());
+                            }
+                            return FanOut.mapOrdered(
+                                    blocks,
+                                    parallelism,
+                                    block ->
+                                            getAllBlockTransactionIdsAsync(block, 256)
+                                                    .thenApply(
+                                                            ids -> {
+                                                                List<Pair<BlockIdExt, ShortTxId>> txs = new ArrayList<>();
+                                                                for (ShortTxId tx : ids) {
+                                                                    txs.add(Pair.of(block, tx));
+                                                                }
+                                                                return txs;
+                                                            }),
+                                    null);
+                        })
+                .thenApply(
+                        blockTxs -> {
+                            List<Pair<BlockIdExt, ShortTxId>> txs = new ArrayList<>();
+                            blockTxs.forEach(txs::addAll);
+                            return txs;
+                        })
+                .thenCompose(txs -> fetchRawTransactions(txs, parallelism, onResult));
+    }
+
+    private CompletableFuture<Map<String, RawTransactions>> fetchRawTransactions(
+            List<Pair<BlockIdExt, ShortTxId>> txs,
+            int parallelism,
+            BiConsumer<ShortTxId, RawTransactions> onResult) {
+        List<String> addresses = new ArrayList<>();
+        for (Pair<BlockIdExt, ShortTxId> tx : txs) {
+            String addressHex = Utils.base64ToHexString(tx.getRight().getAccount());
+            addresses.add(Address.of(tx.getLeft().getWorkchain() + ":" + addressHex).toString(false));
+        }
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < txs.size(); i++) {
+            indexes.add(i);
         }
+        return FanOut.mapOrdered(
+                        indexes,
+                        parallelism,
+                        i -> {
+                            ShortTxId tx = txs.get(i).getRight();
+                            return getRawTransactionsAsync(addresses.get(i), BigInteger.valueOf(tx.getLt()), tx.getHash());
+                        },
+                        isNull(onResult) ? null : (i, rawTransactions) -> onResult.accept(txs.get(i).getRight(), rawTransactions))
+                .thenApply(
+                        results -> {
+                            Map<String, RawTransactions> totalTxs = new LinkedHashMap<>();
+                            for (int i = 0; i < results.size(); i++) {
+                                totalTxs.put(addresses.get(i) + "|" + txs.get(i).getRight().getLt(), results.get(i));
+                            }
+                            return totalTxs;
+                        });
     }
 
     /**
@@ -534,28 +827,26 @@ public class Tonlib {
      * @return BlockIdExt
      */
     public BlockIdExt lookupBlock(long seqno, long workchain, long shard, long lt, long utime) {
-        synchronized (gson) {
-            int mode = 0;
-            if (seqno != 0) {
-                mode += 1;
-            }
-            if (lt != 0) {
-                mode += 2;
-            }
-            if (utime != 0) {
-                mode += 4;
-            }
-            LookupBlockQuery lookupBlockQuery =
-                    LookupBlockQuery.builder()
-                            .mode(mode)
-                            .id(BlockId.builder().seqno(seqno).workchain(workchain).shard(shard).build())
-                            .lt(lt)
-                            .utime(utime)
-                            .build();
-
-            String result = syncAndRead(gson.toJson(lookupBlockQuery));
-            return gson.fromJson(result, BlockIdExt.class);
+        int mode = 0;
+        if (seqno != 0) {
+            mode += 1;
+        }
+        if (lt != 0) {
+            mode += 2;
         }
+        if (utime != 0) {
+            mode += 4;
+        }
+        LookupBlockQuery lookupBlockQuery =
+                LookupBlockQuery.builder()
+                        .mode(mode)
+                        .id(BlockId.builder().seqno(seqno).workchain(workchain).shard(shard).build())
+                        .lt(lt)
+                        .utime(utime)
+                        .build();
+
+        String result = syncAndRead(gson.toJson(lookupBlockQuery));
+        return gson.fromJson(result, BlockIdExt.class);
     }
 
     public BlockIdExt lookupBlock(long seqno, long workchain, long shard, long lt) {
@@ -563,12 +854,10 @@ public class Tonlib {
     }
 
     public MasterChainInfo getLast() {
-        synchronized (gson) {
-            GetLastQuery getLastQuery = GetLastQuery.builder().build();
+        GetLastQuery getLastQuery = GetLastQuery.builder().build();
 
-            String result = syncAndRead(gson.toJson(getLastQuery));
-            return gson.fromJson(result, MasterChainInfo.class);
-        }
+        String result = syncAndRead(gson.toJson(getLastQuery));
+        return gson.fromJson(result, MasterChainInfo.class);
     }
 
     public MasterChainInfo getMasterChainInfo() {
@@ -576,12 +865,10 @@ public class Tonlib {
     }
 
     public Shards getShards(BlockIdExt id) {
-        synchronized (gson) {
-            GetShardsQuery getShardsQuery = GetShardsQuery.builder().id(id).build();
+        GetShardsQuery getShardsQuery = GetShardsQuery.builder().id(id).build();
 
-            String result = syncAndRead(gson.toJson(getShardsQuery));
-            return gson.fromJson(result, Shards.class);
-        }
+        String result = syncAndRead(gson.toJson(getShardsQuery));
+        return gson.fromJson(result, Shards.class);
     }
 
     public Shards getShards(long seqno, long lt, long unixtime) {
@@ -594,50 +881,40 @@ public class Tonlib {
 
         BlockIdExt fullblock = lookupBlock(seqno, wc, shard, lt, unixtime);
 
-        synchronized (gson) {
-            GetShardsQuery getShardsQuery = GetShardsQuery.builder().id(fullblock).build();
+        GetShardsQuery getShardsQuery = GetShardsQuery.builder().id(fullblock).build();
 
-            String result = syncAndRead(gson.toJson(getShardsQuery));
-            return gson.fromJson(result, Shards.class);
-        }
+        String result = syncAndRead(gson.toJson(getShardsQuery));
+        return gson.fromJson(result, Shards.class);
     }
 
     public Key createNewKey() {
-        synchronized (gson) {
-            NewKeyQuery newKeyQuery = NewKeyQuery.builder().build();
+        NewKeyQuery newKeyQuery = NewKeyQuery.builder().build();
 
-            String result = syncAndRead(gson.toJson(newKeyQuery));
-            return gson.fromJson(result, Key.class);
-        }
+        String result = syncAndRead(gson.toJson(newKeyQuery));
+        return gson.fromJson(result, Key.class);
     }
 
     public Data encrypt(String data, String secret) {
-        synchronized (gson) {
-            EncryptQuery encryptQuery =
-                    EncryptQuery.builder().decrypted_data(data).secret(secret).build();
+        EncryptQuery encryptQuery =
+                EncryptQuery.builder().decrypted_data(data).secret(secret).build();
 
-            String result = syncAndRead(gson.toJson(encryptQuery));
-            return gson.fromJson(result, Data.class);
-        }
+        String result = syncAndRead(gson.toJson(encryptQuery));
+        return gson.fromJson(result, Data.class);
     }
 
     public Data decrypt(String data, String secret) {
-        synchronized (gson) {
-            DecryptQuery decryptQuery =
-                    DecryptQuery.builder().encrypted_data(data).secret(secret).build();
+        DecryptQuery decryptQuery =
+                DecryptQuery.builder().encrypted_data(data).secret(secret).build();
 
-            String result = syncAndRead(gson.toJson(decryptQuery));
-            return gson.fromJson(result, Data.class);
-        }
+        String result = syncAndRead(gson.toJson(decryptQuery));
+        return gson.fromJson(result, Data.class);
     }
 
     public BlockHeader getBlockHeader(BlockIdExt fullblock) {
-        synchronized (gson) {
-            BlockHeaderQuery blockHeaderQuery = BlockHeaderQuery.builder().id(fullblock).build();
+        BlockHeaderQuery blockHeaderQuery = BlockHeaderQuery.builder().id(fullblock).build();
 
-            String result = syncAndRead(gson.toJson(blockHeaderQuery));
-            return gson.fromJson(result, BlockHeader.class);
-        }
+        String result = syncAndRead(gson.toJson(blockHeaderQuery));
+        return gson.fromJson(result, BlockHeader.class);
     }
 
     // @formatter:off
@@ -658,17 +935,15 @@ public class Tonlib {
       fromTxHash = fullAccountState.getLast_transaction_id().getHash();
     }
 
-    synchronized (gson) {
-      GetRawTransactionsQuery getRawTransactionsQuery =
-          GetRawTransactionsQuery.builder()
-              .account_address(AccountAddressOnly.builder().account_address(address).build())
-              .from_transaction_id(
-                  LastTransactionId.builder().lt(fromTxLt).hash(fromTxHash).build())
-              .build();
+    GetRawTransactionsQuery getRawTransactionsQuery =
+        GetRawTransactionsQuery.builder()
+            .account_address(AccountAddressOnly.builder().account_address(address).build())
+            .from_transaction_id(
+                LastTransactionId.builder().lt(fromTxLt).hash(fromTxHash).build())
+            .build();
 
-      String result = syncAndRead(gson.toJson(getRawTransactionsQuery));
-      return gson.fromJson(result, RawTransactions.class);
-    }
+    String result = syncAndRead(gson.toJson(getRawTransactionsQuery));
+    return gson.fromJson(result, RawTransactions.class);
   }
 
   /**
@@ -689,31 +964,29 @@ public class Tonlib {
       fromTxLt = fullAccountState.getLast_transaction_id().getLt();
       fromTxHash = fullAccountState.getLast_transaction_id().getHash();
     }
-    synchronized (gson) {
-      GetRawTransactionsQuery getRawTransactionsQuery =
-          GetRawTransactionsQuery.builder()
-              .account_address(AccountAddressOnly.builder().account_address(address).build())
-              .from_transaction_id(
-                  LastTransactionId.builder().lt(fromTxLt).hash(fromTxHash).build())
-              .build();
-
-      String result = syncAndRead(gson.toJson(getRawTransactionsQuery));
+    GetRawTransactionsQuery getRawTransactionsQuery =
+        GetRawTransactionsQuery.builder()
+            .account_address(AccountAddressOnly.builder().account_address(address).build())
+            .from_transaction_id(
+                LastTransactionId.builder().lt(fromTxLt).hash(fromTxHash).build())
+            .build();
 
-      RawTransactions rawTransactions = gson.fromJson(result, RawTransactions.class);
+    String result = syncAndRead(gson.toJson(getRawTransactionsQuery));
 
-      if (isNull(rawTransactions.getTransactions())) {
-        throw new Error("lite-server cannot return any transactions");
-      }
+    RawTransactions rawTransactions = gson.fromJson(result, RawTransactions.class);
 
-      if (limit > rawTransactions.getTransactions().size()) {
-        limit = rawTransactions.getTransactions().size();
-      }
+    if (isNull(rawTransactions.getTransactions())) {
+      throw new Error("lite-server cannot return any transactions");
+    }
 
-      return RawTransactions.builder()
-          .previous_transaction_id(rawTransactions.getPrevious_transaction_id())
-          .transactions(rawTransactions.getTransactions().subList(0, limit))
-          .build();
+    if (limit > rawTransactions.getTransactions().size()) {
+      limit = rawTransactions.getTransactions().size();
     }
+
+    return RawTransactions.builder()
+        .previous_transaction_id(rawTransactions.getPrevious_transaction_id())
+        .transactions(rawTransactions.getTransactions().subList(0, limit))
+        .build();
   }
 
   /**
@@ -771,32 +1044,30 @@ public class Tonlib {
 
   public BlockTransactions getBlockTransactions(
       BlockIdExt fullblock, long count, AccountTransactionId afterTx) {
-    synchronized (gson) {
-      int mode = 7;
-      if (nonNull(afterTx)) {
-        mode = 7 + 128;
-      }
-
-      if (isNull(afterTx)) {
-        afterTx =
-            AccountTransactionId.builder()
-                .account("AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=")
-                .lt(0)
-                .build();
-      }
+    int mode = 7;
+    if (nonNull(afterTx)) {
+      mode = 7 + 128;
+    }
 
-      GetBlockTransactionsQuery getBlockTransactionsQuery =
-          GetBlockTransactionsQuery.builder()
-              .id(fullblock)
-              .mode(mode)
-              .count(count)
-              .after(afterTx)
+    if (isNull(afterTx)) {
+      afterTx =
+          AccountTransactionId.builder()
+              .account("AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=")
+              .lt(0)
               .build();
+    }
 
-      String result = syncAndRead(gson.toJson(getBlockTransactionsQuery));
+    GetBlockTransactionsQuery getBlockTransactionsQuery =
+        GetBlockTransactionsQuery.builder()
+            .id(fullblock)
+            .mode(mode)
+            .count(count)
+            .after(afterTx)
+            .build();
 
-      return gson.fromJson(result, BlockTransactions.class);
-    }
+    String result = syncAndRead(gson.toJson(getBlockTransactionsQuery));
+
+    return gson.fromJson(result, BlockTransactions.class);
   }
 
   /**
@@ -826,13 +1097,11 @@ public class Tonlib {
    * @return RawAccountState
    */
   public RawAccountState getRawAccountState(AccountAddressOnly address) {
-    synchronized (gson) {
-      GetRawAccountStateQueryOnly getAccountStateQuery =
-          GetRawAccountStateQueryOnly.builder().account_address(address).build();
+    GetRawAccountStateQueryOnly getAccountStateQuery =
+        GetRawAccountStateQueryOnly.builder().account_address(address).build();
 
-      String result = syncAndRead(gson.toJson(getAccountStateQuery));
-      return gson.fromJson(result, RawAccountState.class);
-    }
+    String result = syncAndRead(gson.toJson(getAccountStateQuery));
+    return gson.fromJson(result, RawAccountState.class);
   }
 
   /**
@@ -842,49 +1111,45 @@ public class Tonlib {
    * @return account state RawAccountState
    */
   public RawAccountState getRawAccountState(Address address) {
-    synchronized (gson) {
-      AccountAddressOnly accountAddressOnly =
-          AccountAddressOnly.builder().account_address(address.toString(false)).build();
+    AccountAddressOnly accountAddressOnly =
+        AccountAddressOnly.builder().account_address(address.toString(false)).build();
 
-      GetRawAccountStateQueryOnly getAccountStateQuery =
-          GetRawAccountStateQueryOnly.builder().account_address(accountAddressOnly).build();
+    GetRawAccountStateQueryOnly getAccountStateQuery =
+        GetRawAccountStateQueryOnly.builder().account_address(accountAddressOnly).build();
 
-      String result = syncAndRead(gson.toJson(getAccountStateQuery));
-      return gson.fromJson(result, RawAccountState.class);
-    }
+    String result = syncAndRead(gson.toJson(getAccountStateQuery));
+    return gson.fromJson(result, RawAccountState.class);
   }
 
   public RawAccountState getRawAccountState(Address address, BlockIdExt blockId) {
-    synchronized (gson) {
-      if (StringUtils.isEmpty(blockId.getRoot_hash())) { // retrieve hashes
-        blockId = lookupBlock(blockId.getSeqno(), blockId.getWorkchain(), blockId.getShard(), 0);
-        if (StringUtils.isEmpty(blockId.getRoot_hash())) {
-          throw new Error(
-              "Cannot lookup block for hashes by seqno. Probably block not in db. Try to specify block's root and file hashes manually in base64 format.");
-        }
-        log.info("got hashes " + blockId);
+    if (StringUtils.isEmpty(blockId.getRoot_hash())) { // retrieve hashes
+      blockId = lookupBlock(blockId.getSeqno(), blockId.getWorkchain(), blockId.getShard(), 0);
+      if (StringUtils.isEmpty(blockId.getRoot_hash())) {
+        throw new Error(
+            "Cannot lookup block for hashes by seqno. Probably block not in db. Try to specify block's root and file hashes manually in base64 format.");
       }
+      log.info("got hashes " + blockId);
+    }
 
-      AccountAddressOnly accountAddressOnly =
-          AccountAddressOnly.builder().account_address(address.toString(false)).build();
-
-      GetRawAccountStateQueryOnly getAccountStateQuery =
-          GetRawAccountStateQueryOnly.builder().account_address(accountAddressOnly).build();
+    AccountAddressOnly accountAddressOnly =
+        AccountAddressOnly.builder().account_address(address.toString(false)).build();
 
-      RawGetAccountStateOnlyWithBlockQuery rawGetAccountStateOnlyWithBlockQuery =
-          RawGetAccountStateOnlyWithBlockQuery.builder()
-              .id(blockId)
-              .function(getAccountStateQuery)
-              .build();
+    GetRawAccountStateQueryOnly getAccountStateQuery =
+        GetRawAccountStateQueryOnly.builder().account_address(accountAddressOnly).build();
 
-      String result = syncAndRead(gson.toJson(rawGetAccountStateOnlyWithBlockQuery));
+    RawGetAccountStateOnlyWithBlockQuery rawGetAccountStateOnlyWithBlockQuery =
+        RawGetAccountStateOnlyWithBlockQuery.builder()
+            .id(blockId)
+            .function(getAccountStateQuery)
+            .build();
 
-      if ((isNull(result)) || (result.contains("@type") && result.contains("error"))) {
-        throw new Error("Cannot getRawAccountState, error" + result);
-      }
+    String result = syncAndRead(gson.toJson(rawGetAccountStateOnlyWithBlockQuery));
 
-      return gson.fromJson(result, RawAccountState.class);
+    if ((isNull(result)) || (result.contains("@type") && result.contains("error"))) {
+      throw new Error("Cannot getRawAccountState, error" + result);
     }
+
+    return gson.fromJson(result, RawAccountState.class);
   }
 
   /**
@@ -894,26 +1159,24 @@ public class Tonlib {
    * @return String, uninitialized, frozen or active
    */
   public String getRawAccountStatus(Address address) {
-    synchronized (gson) {
-      AccountAddressOnly accountAddressOnly =
-          AccountAddressOnly.builder().account_address(address.toString(false)).build();
+    AccountAddressOnly accountAddressOnly =
+        AccountAddressOnly.builder().account_address(address.toString(false)).build();
 
-      GetRawAccountStateQueryOnly getAccountStateQuery =
-          GetRawAccountStateQueryOnly.builder().account_address(accountAddressOnly).build();
+    GetRawAccountStateQueryOnly getAccountStateQuery =
+        GetRawAccountStateQueryOnly.builder().account_address(accountAddressOnly).build();
 
-      String result = syncAndRead(gson.toJson(getAccountStateQuery));
+    String result = syncAndRead(gson.toJson(getAccountStateQuery));
 
-      RawAccountState state = gson.fromJson(result, RawAccountState.class);
+    RawAccountState state = gson.fromJson(result, RawAccountState.class);
 
-      if (StringUtils.isEmpty(state.getCode())) {
-        if (StringUtils.isEmpty(state.getFrozen_hash())) {
-          return "uninitialized";
-        } else {
-          return "frozen";
-        }
+    if (StringUtils.isEmpty(state.getCode())) {
+      if (StringUtils.isEmpty(state.getFrozen_hash())) {
+        return "uninitialized";
       } else {
-        return "active";
+        return "frozen";
       }
+    } else {
+      return "active";
     }
   }
 
@@ -925,13 +1188,11 @@ public class Tonlib {
    * @return FullAccountState
    */
   public FullAccountState getAccountState(AccountAddressOnly address) {
-    synchronized (gson) {
-      GetAccountStateQueryOnly getAccountStateQuery =
-          GetAccountStateQueryOnly.builder().account_address(address).build();
+    GetAccountStateQueryOnly getAccountStateQuery =
+        GetAccountStateQueryOnly.builder().account_address(address).build();
 
-      String result = syncAndRead(gson.toJson(getAccountStateQuery));
-      return gson.fromJson(result, FullAccountState.class);
-    }
+    String result = syncAndRead(gson.toJson(getAccountStateQuery));
+    return gson.fromJson(result, FullAccountState.class);
   }
 
   /**
@@ -942,51 +1203,45 @@ public class Tonlib {
    * @return FullAccountState
    */
   public FullAccountState getAccountState(Address address) {
-    synchronized (gson) {
-      AccountAddressOnly accountAddressOnly =
-          AccountAddressOnly.builder().account_address(address.toString(false)).build();
+    AccountAddressOnly accountAddressOnly =
+        AccountAddressOnly.builder().account_address(address.toString(false)).build();
 
-      GetAccountStateQueryOnly getAccountStateQuery =
-          GetAccountStateQueryOnly.builder().account_address(accountAddressOnly).build();
+    GetAccountStateQueryOnly getAccountStateQuery =
+        GetAccountStateQueryOnly.builder().account_address(accountAddressOnly).build();
 
-      String result = syncAndRead(gson.toJson(getAccountStateQuery));
-      return gson.fromJson(result, FullAccountState.class);
-    }
+    String result = syncAndRead(gson.toJson(getAccountStateQuery));
+    return gson.fromJson(result, FullAccountState.class);
   }
 
   public FullAccountState getAccountState(Address address, BlockIdExt blockId) {
-    synchronized (gson) {
-      synchronized (gson) {
-        if (StringUtils.isEmpty(blockId.getRoot_hash())) { // retrieve hashes
-          blockId = lookupBlock(blockId.getSeqno(), blockId.getWorkchain(), blockId.getShard(), 0);
-          if (StringUtils.isEmpty(blockId.getRoot_hash())) {
-            throw new Error(
-                "Cannot lookup block for hashes by seqno. Probably block not in db. Try to specify block's root and file hashes manually in base64 format.");
-          }
-          log.info("got hashes " + blockId);
-        }
-
-        AccountAddressOnly accountAddressOnly =
-            AccountAddressOnly.builder().account_address(address.toString(false)).build();
+    if (StringUtils.isEmpty(blockId.getRoot_hash())) { // retrieve hashes
+      blockId = lookupBlock(blockId.getSeqno(), blockId.getWorkchain(), blockId.getShard(), 0);
+      if (StringUtils.isEmpty(blockId.getRoot_hash())) {
+        throw new Error(
+            "Cannot lookup block for hashes by seqno. Probably block not in db. Try to specify block's root and file hashes manually in base64 format.");
+      }
+      log.info("got hashes " + blockId);
+    }
 
-        GetAccountStateQueryOnly getAccountStateQuery =
-            GetAccountStateQueryOnly.builder().account_address(accountAddressOnly).build();
+    AccountAddressOnly accountAddressOnly =
+        AccountAddressOnly.builder().account_address(address.toString(false)).build();
 
-        GetAccountStateOnlyWithBlockQuery getAccountStateOnlyWithBlockQuery =
-            GetAccountStateOnlyWithBlockQuery.builder()
-                .id(blockId)
-                .function(getAccountStateQuery)
-                .build();
+    GetAccountStateQueryOnly getAccountStateQuery =
+        GetAccountStateQueryOnly.builder().account_address(accountAddressOnly).build();
 
-        String result = syncAndRead(gson.toJson(getAccountStateOnlyWithBlockQuery));
+    GetAccountStateOnlyWithBlockQuery getAccountStateOnlyWithBlockQuery =
+        GetAccountStateOnlyWithBlockQuery.builder()
+            .id(blockId)
+            .function(getAccountStateQuery)
+            .build();
 
-        if ((isNull(result)) || (result.contains("@type") && result.contains("error"))) {
-          throw new Error("Cannot getAccountState, error" + result);
-        }
+    String result = syncAndRead(gson.toJson(getAccountStateOnlyWithBlockQuery));
 
-        return gson.fromJson(result, FullAccountState.class);
-      }
+    if ((isNull(result)) || (result.contains("@type") && result.contains("error"))) {
+      throw new Error("Cannot getAccountState, error" + result);
     }
+
+    return gson.fromJson(result, FullAccountState.class);
   }
 
   /**
@@ -1046,61 +1301,53 @@ public class Tonlib {
   }
 
   public Cell getConfigAll(int mode) {
-    synchronized (gson) {
-      GetConfigAllQuery configParamQuery = GetConfigAllQuery.builder().mode(mode).build();
+    GetConfigAllQuery configParamQuery = GetConfigAllQuery.builder().mode(mode).build();
 
-      String result = syncAndRead(gson.toJson(configParamQuery));
-      ConfigInfo ci = gson.fromJson(result, ConfigInfo.class);
-      return CellBuilder.beginCell()
-          .fromBoc(Utils.base64ToBytes(ci.getConfig().getBytes()))
-          .endCell();
-    }
+    String result = syncAndRead(gson.toJson(configParamQuery));
+    ConfigInfo ci = gson.fromJson(result, ConfigInfo.class);
+    return CellBuilder.beginCell()
+        .fromBoc(Utils.base64ToBytes(ci.getConfig().getBytes()))
+        .endCell();
   }
 
   public Cell getConfigParam(BlockIdExt id, long param) {
-    synchronized (gson) {
-      GetConfigParamQuery configParamQuery =
-          GetConfigParamQuery.builder().id(id).param(param).build();
-
-      String result = syncAndRead(gson.toJson(configParamQuery));
-      ConfigInfo ci = gson.fromJson(result, ConfigInfo.class);
-      return CellBuilder.beginCell()
-          .fromBoc(Utils.base64ToBytes(ci.getConfig().getBytes()))
-          .endCell();
-    }
+    GetConfigParamQuery configParamQuery =
+        GetConfigParamQuery.builder().id(id).param(param).build();
+
+    String result = syncAndRead(gson.toJson(configParamQuery));
+    ConfigInfo ci = gson.fromJson(result, ConfigInfo.class);
+    return CellBuilder.beginCell()
+        .fromBoc(Utils.base64ToBytes(ci.getConfig().getBytes()))
+        .endCell();
   }
 
   public long loadContract(AccountAddressOnly address) {
-    synchronized (gson) {
-      LoadContractQuery loadContractQuery =
-          LoadContractQuery.builder().account_address(address).build();
+    LoadContractQuery loadContractQuery =
+        LoadContractQuery.builder().account_address(address).build();
 
-      String result = syncAndRead(gson.toJson(loadContractQuery));
+    String result = syncAndRead(gson.toJson(loadContractQuery));
 
-      return gson.fromJson(result, LoadContract.class).getId();
-    }
+    return gson.fromJson(result, LoadContract.class).getId();
   }
 
   /** loads contract by seqno within master chain and shard -9223372036854775808 */
   public long loadContract(AccountAddressOnly address, long seqno) {
-    synchronized (gson) {
-      BlockIdExt fullBlock;
-      if (seqno != 0) {
-        fullBlock = lookupBlock(seqno, -1, -9223372036854775808L, 0);
-      } else {
-        fullBlock = getMasterChainInfo().getLast();
-      }
+    BlockIdExt fullBlock;
+    if (seqno != 0) {
+      fullBlock = lookupBlock(seqno, -1, -9223372036854775808L, 0);
+    } else {
+      fullBlock = getMasterChainInfo().getLast();
+    }
 
-      LoadContractQuery loadContractQuery =
-          LoadContractQuery.builder().account_address(address).build();
+    LoadContractQuery loadContractQuery =
+        LoadContractQuery.builder().account_address(address).build();
 
-      LoadContractWithBlockQuery loadContractWithBlockQuery =
-          LoadContractWithBlockQuery.builder().id(fullBlock).function(loadContractQuery).build();
+    LoadContractWithBlockQuery loadContractWithBlockQuery =
+        LoadContractWithBlockQuery.builder().id(fullBlock).function(loadContractQuery).build();
 
-      String result = syncAndRead(gson.toJson(loadContractWithBlockQuery));
+    String result = syncAndRead(gson.toJson(loadContractWithBlockQuery));
 
-      return gson.fromJson(result, LoadContract.class).getId();
-    }
+    return gson.fromJson(result, LoadContract.class).getId();
   }
 
   /**
@@ -1111,21 +1358,19 @@ public class Tonlib {
    * @return contract's id
    */
   public long loadContract(AccountAddressOnly address, BlockIdExt blockId) {
-    synchronized (gson) {
-      if (StringUtils.isEmpty(blockId.getRoot_hash())) {
-        blockId = lookupBlock(blockId.getSeqno(), blockId.getWorkchain(), blockId.getShard(), 0);
-      }
+    if (StringUtils.isEmpty(blockId.getRoot_hash())) {
+      blockId = lookupBlock(blockId.getSeqno(), blockId.getWorkchain(), blockId.getShard(), 0);
+    }
 
-      LoadContractQuery loadContractQuery =
-          LoadContractQuery.builder().account_address(address).build();
+    LoadContractQuery loadContractQuery =
+        LoadContractQuery.builder().account_address(address).build();
 
-      LoadContractWithBlockQuery loadContractWithBlockQuery =
-          LoadContractWithBlockQuery.builder().id(blockId).function(loadContractQuery).build();
+    LoadContractWithBlockQuery loadContractWithBlockQuery =
+        LoadContractWithBlockQuery.builder().id(blockId).function(loadContractQuery).build();
 
-      String result = syncAndRead(gson.toJson(loadContractWithBlockQuery));
+    String result = syncAndRead(gson.toJson(loadContractWithBlockQuery));
 
-      return gson.fromJson(result, LoadContract.class).getId();
-    }
+    return gson.fromJson(result, LoadContract.class).getId();
   }
 
   public RunResult runMethod(Address contractAddress, String methodName) {
@@ -1175,20 +1420,18 @@ public class Tonlib {
   }
 
   public RunResult runMethod(Address contractAddress, String methodName, Deque<String> stackData) {
-    synchronized (gson) {
-      long contractId =
-          loadContract(
-              AccountAddressOnly.builder()
-                  .account_address(contractAddress.toString(false))
-                  .build());
-      if (contractId == -1) {
-        System.err.println(
-            "cannot load contract "
-                + AccountAddressOnly.builder().account_address(contractAddress.toString(false)));
-        return null;
-      } else {
-        return runMethod(contractId, methodName, stackData);
-      }
+    long contractId =
+        loadContract(
+            AccountAddressOnly.builder()
+                .account_address(contractAddress.toString(false))
+                .build());
+    if (contractId == -1) {
+      System.err.println(
+          "cannot load contract "
+              + AccountAddressOnly.builder().account_address(contractAddress.toString(false)));
+      return null;
+    } else {
+      return runMethod(contractId, methodName, stackData);
     }
   }
 
@@ -1207,61 +1450,55 @@ public class Tonlib {
   }
 
   public RunResult runMethod(Address contractAddress, long methodId, Deque<String> stackData) {
-    synchronized (gson) {
-      long contractId =
-          loadContract(
-              AccountAddressOnly.builder()
-                  .account_address(contractAddress.toString(false))
-                  .build());
-      if (contractId == -1) {
-        System.err.println(
-            "cannot load contract "
-                + AccountAddressOnly.builder().account_address(contractAddress.toString(false)));
-        return null;
-      } else {
-        return runMethod(contractId, methodId, stackData);
-      }
+    long contractId =
+        loadContract(
+            AccountAddressOnly.builder()
+                .account_address(contractAddress.toString(false))
+                .build());
+    if (contractId == -1) {
+      System.err.println(
+          "cannot load contract "
+              + AccountAddressOnly.builder().account_address(contractAddress.toString(false)));
+      return null;
+    } else {
+      return runMethod(contractId, methodId, stackData);
     }
   }
 
   public RunResult runMethod(long contractId, String methodName, Deque<String> stackData) {
-    synchronized (gson) {
-      Deque<TvmStackEntry> stack = null;
-      if (nonNull(stackData)) {
-        stack = ParseRunResult.renderTvmStack(stackData);
-      }
+    Deque<TvmStackEntry> stack = null;
+    if (nonNull(stackData)) {
+      stack = ParseRunResult.renderTvmStack(stackData);
+    }
 
-      RunMethodStrQuery runMethodQuery =
-          RunMethodStrQuery.builder()
-              .id(contractId)
-              .method(MethodString.builder().name(methodName).build())
-              .stack(stack)
-              .build();
+    RunMethodStrQuery runMethodQuery =
+        RunMethodStrQuery.builder()
+            .id(contractId)
+            .method(MethodString.builder().name(methodName).build())
+            .stack(stack)
+            .build();
 
-      String result = syncAndRead(gson.toJson(runMethodQuery));
+    String result = syncAndRead(gson.toJson(runMethodQuery));
 
-      return runResultParser.parse(result);
-    }
+    return runResultParser.parse(result);
   }
 
   public RunResult runMethod(long contractId, long methodId, Deque<String> stackData) {
-    synchronized (gson) {
-      Deque<TvmStackEntry> stack = null;
-      if (nonNull(stackData)) {
-        stack = ParseRunResult.renderTvmStack(stackData);
-      }
+    Deque<TvmStackEntry> stack = null;
+    if (nonNull(stackData)) {
+      stack = ParseRunResult.renderTvmStack(stackData);
+    }
 
-      RunMethodIntQuery runMethodQuery =
-          RunMethodIntQuery.builder()
-              .id(contractId)
-              .method(MethodNumber.builder().number(methodId).build())
-              .stack(stack)
-              .build();
+    RunMethodIntQuery runMethodQuery =
+        RunMethodIntQuery.builder()
+            .id(contractId)
+            .method(MethodNumber.builder().number(methodId).build())
+            .stack(stack)
+            .build();
 
-      String result = syncAndRead(gson.toJson(runMethodQuery));
+    String result = syncAndRead(gson.toJson(runMethodQuery));
 
-      return runResultParser.parse(result);
-    }
+    return runResultParser.parse(result);
   }
 
   /**
@@ -1320,20 +1557,18 @@ public class Tonlib {
    * @return ExtMessageInfo In case of error might contain error code and message inside
    */
   public ExtMessageInfo sendRawMessage(String serializedBoc) {
-    synchronized (gson) {
-      SendRawMessageQuery sendMessageQuery =
-          SendRawMessageQuery.builder().body(serializedBoc).build();
+    SendRawMessageQuery sendMessageQuery =
+        SendRawMessageQuery.builder().body(serializedBoc).build();
 
-      String result = syncAndRead(gson.toJson(sendMessageQuery));
+    String result = syncAndRead(gson.toJson(sendMessageQuery));
 
-      if ((isNull(result)) || (result.contains("@type") && result.contains("error"))) {
-        TonlibError error = gson.fromJson(result, TonlibError.class);
-        return ExtMessageInfo.builder().error(error).build();
-      } else {
-        ExtMessageInfo extMessageInfo = gson.fromJson(result, ExtMessageInfo.class);
-        extMessageInfo.setError(TonlibError.builder().code(0).build());
-        return extMessageInfo;
-      }
+    if ((isNull(result)) || (result.contains("@type") && result.contains("error"))) {
+      TonlibError error = gson.fromJson(result, TonlibError.class);
+      return ExtMessageInfo.builder().error(error).build();
+    } else {
+      ExtMessageInfo extMessageInfo = gson.fromJson(result, ExtMessageInfo.class);
+      extMessageInfo.setError(TonlibError.builder().code(0).build());
+      return extMessageInfo;
     }
   }
 
@@ -1345,17 +1580,15 @@ public class Tonlib {
       boolean ignoreChksig) {
     QueryInfo queryInfo = createQuery(destinationAddress, body, initCode, initData);
 
-    synchronized (gson) {
-      EstimateFeesQuery estimateFeesQuery =
-          EstimateFeesQuery.builder()
-              .queryId(queryInfo.getId())
-              .ignore_chksig(ignoreChksig)
-              .build();
+    EstimateFeesQuery estimateFeesQuery =
+        EstimateFeesQuery.builder()
+            .queryId(queryInfo.getId())
+            .ignore_chksig(ignoreChksig)
+            .build();
 
-      String result = syncAndRead(gson.toJson(estimateFeesQuery));
+    String result = syncAndRead(gson.toJson(estimateFeesQuery));
 
-      return gson.fromJson(result, QueryFees.class);
-    }
+    return gson.fromJson(result, QueryFees.class);
   }
 
   public QueryFees estimateFees(String destinationAddress, String body) {
@@ -1373,22 +1606,20 @@ public class Tonlib {
    */
   public QueryInfo createQuery(
       String destinationAddress, String body, String initCode, String initData) {
-    synchronized (gson) {
-      CreateQuery createQuery =
-          CreateQuery.builder()
-              .init_code(initCode)
-              .init_data(initData)
-              .body(body)
-              .destination(Destination.builder().account_address(destinationAddress).build())
-              .build();
+    CreateQuery createQuery =
+        CreateQuery.builder()
+            .init_code(initCode)
+            .init_data(initData)
+            .body(body)
+            .destination(Destination.builder().account_address(destinationAddress).build())
+            .build();
 
-      String result = syncAndRead(gson.toJson(createQuery));
+    String result = syncAndRead(gson.toJson(createQuery));
 
-      if (result.contains("@type") && result.contains("error")) {
-        return QueryInfo.builder().id(-1).build();
-      } else {
-        return gson.fromJson(result, QueryInfo.class);
-      }
+    if (result.contains("@type") && result.contains("error")) {
+      return QueryInfo.builder().id(-1).build();
+    } else {
+      return gson.fromJson(result, QueryInfo.class);
     }
   }
 
@@ -1399,25 +1630,23 @@ public class Tonlib {
    * @return true if query was sent without errors
    */
   public boolean sendQuery(QueryInfo queryInfo) {
-    synchronized (gson) {
-      SendQuery createQuery = SendQuery.builder().id(queryInfo.getId()).build();
+    SendQuery createQuery = SendQuery.builder().id(queryInfo.getId()).build();
 
-      String result = syncAndRead(gson.toJson(createQuery));
+    String result = syncAndRead(gson.toJson(createQuery));
 
-      if (isNull(result)) {
-        return false;
-      }
+    if (isNull(result)) {
+      return false;
+    }
 
-      if (result.contains("@type") && result.contains("error")) {
+    if (result.contains("@type") && result.contains("error")) {
+      return false;
+    } else {
+      try {
+        Ok ok = gson.fromJson(result, Ok.class);
+        log.info(ok.toString());
+        return true;
+      } catch (Exception e) {
         return false;
-      } else {
-        try {
-          Ok ok = gson.fromJson(result, Ok.class);
-          log.info(ok.toString());
-          return true;
-        } catch (Exception e) {
-          return false;
-        }
       }
     }
   }
@@ -1438,29 +1667,27 @@ public class Tonlib {
    */
   public boolean createAndSendMessage(
       String destinationAddress, String body, String initialAccountState) {
-    synchronized (gson) {
-      CreateAndSendRawMessageQuery createAndSendRawMessageQuery =
-          CreateAndSendRawMessageQuery.builder()
-              .destination(AccountAddressOnly.builder().account_address(destinationAddress).build())
-              .initial_account_state(initialAccountState)
-              .data(body)
-              .build();
+    CreateAndSendRawMessageQuery createAndSendRawMessageQuery =
+        CreateAndSendRawMessageQuery.builder()
+            .destination(AccountAddressOnly.builder().account_address(destinationAddress).build())
+            .initial_account_state(initialAccountState)
+            .data(body)
+            .build();
 
-      String result = syncAndRead(gson.toJson(createAndSendRawMessageQuery));
+    String result = syncAndRead(gson.toJson(createAndSendRawMessageQuery));
 
-      if (isNull(result)) {
-        return false;
-      }
-      if (result.contains("@type") && result.contains("error")) {
+    if (isNull(result)) {
+      return false;
+    }
+    if (result.contains("@type") && result.contains("error")) {
+      return false;
+    } else {
+      try {
+        Ok ok = gson.fromJson(result, Ok.class);
+        log.info(ok.toString());
+        return true;
+      } catch (Exception e) {
         return false;
-      } else {
-        try {
-          Ok ok = gson.fromJson(result, Ok.class);
-          log.info(ok.toString());
-          return true;
-        } catch (Exception e) {
-          return false;
-        }
       }
     }
   }
@@ -1545,9 +1772,7 @@ public class Tonlib {
             .try_decode_message(false)
             .build();
 
-    Utils.disableNativeOutput();
     String result = syncAndRead(gson.toJson(getRawTransactionsQuery));
-    Utils.enableNativeOutput();
     RawTransactions res = gson.fromJson(result, RawTransactions.class);
     List<RawTransaction> t = res.getTransactions();
     if (t.size() >= 1) {
@@ -1630,13 +1855,11 @@ public class Tonlib {
    * @return RunResult
    */
   public SmcLibraryResult getLibraries(List<String> librariesHashes) {
-    synchronized (gson) {
-      GetLibrariesQuery getLibrariesQuery =
-          GetLibrariesQuery.builder().library_list(librariesHashes).build();
+    GetLibrariesQuery getLibrariesQuery =
+        GetLibrariesQuery.builder().library_list(librariesHashes).build();
 
-      String result = syncAndRead(gson.toJson(getLibrariesQuery));
-      return libraryResultParser.parse(result);
-    }
+    String result = syncAndRead(gson.toJson(getLibrariesQuery));
+    return libraryResultParser.parse(result);
   }
 
   public boolean isDeployed(Address address) {
@@ -0,0 +1,194 @@
+package org.ton.java.tonlib;
+
+import com.google.gson.Gson;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.ton.java.tonlib.types.UpdateSyncState;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Multiplexes queries over one native tonlib client.
+ * <p>
+ * Tonlib echoes the @extra field of a query in its response. Every sent query registers a future under its @extra id
+ * and a single daemon thread polls tonlib_client_json_receive and completes the matching future,
+ * so any number of threads can have queries in flight on the same client at the same time.
+ * Responses without @extra (e.g. updateSyncState) are only logged.
+ */
+@Slf4j
+class TonlibDispatcher {
+
+    /**
+     * In seconds, bounds the time needed to stop the receive loop and to detect expired queries.
+     */
+    private static final double POLL_TIMEOUT = 1.0;
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    private static final Gson gson = new Gson();
+
+    private static class PendingQuery {
+        final CompletableFuture<String> future;
+        final long deadlineNanos;
+
+        PendingQuery(CompletableFuture<String> future, long deadlineNanos) {
+            this.future = future;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+
+    private final TonlibJsonI tonlibJson;
+    private final long tonlib;
+    private final Map<String, PendingQuery> pending = new ConcurrentHashMap<>();
+    // native client must not be used after destroy, sends are guarded by read lock, close() takes the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Thread receiver;
+    private volatile boolean running = true;
+
+    TonlibDispatcher(TonlibJsonI tonlibJson, long tonlib) {
+        this.tonlibJson = tonlibJson;
+        this.tonlib = tonlib;
+        receiver = new Thread(this::receiveLoop, "tonlib-receiver-" + threadCounter.incrementAndGet());
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    /**
+     * Sends query and returns future completed with the raw JSON response.
+     *
+     * @param extra         value of @extra field of the query
+     * @param query         query in JSON format
+     * @param timeoutMillis future fails with TimeoutException if there is no response within this time
+     */
+    CompletableFuture<String> send(String extra, String query, long timeoutMillis) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        if (isNull(extra)) {
+            future.completeExceptionally(new Error("Query does not have @extra field: " + query));
+            return future;
+        }
+        PendingQuery pendingQuery = new PendingQuery(future, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+
+        lock.readLock().lock();
+        try {
+            if (!running) {
+                future.completeExceptionally(new Error("Tonlib client is closed"));
+                return future;
+            }
+            if (nonNull(pending.putIfAbsent(extra, pendingQuery))) {
+                future.completeExceptionally(new Error("Query with @extra " + extra + " is already in flight"));
+                return future;
+            }
+            tonlibJson.tonlib_client_json_send(tonlib, query);
+        } catch (Throwable e) {
+            pending.remove(extra, pendingQuery);
+            future.completeExceptionally(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return future;
+    }
+
+    int getInFlight() {
+        return pending.size();
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops the receive loop and fails all queries in flight. The native client can be destroyed afterwards.
+     */
+    void close() {
+        lock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (Thread.currentThread() != receiver) {
+            try {
+                receiver.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Error closed = new Error("Tonlib client is closed");
+        for (String extra : pending.keySet()) {
+            PendingQuery pendingQuery = pending.remove(extra);
+            if (nonNull(pendingQuery)) {
+                pendingQuery.future.completeExceptionally(closed);
+            }
+        }
+    }
+
+    private void receiveLoop() {
+        long nextSweep = System.nanoTime();
+        while (running) {
+            String response = null;
+            try {
+                response = tonlibJson.tonlib_client_json_receive(tonlib, POLL_TIMEOUT);
+            } catch (Throwable e) {
+                log.error("Error in tonlib.receive(): {}", e.getMessage());
+            }
+            if (nonNull(response)) {
+                dispatch(response);
+            }
+            long now = System.nanoTime();
+            if (now - nextSweep >= 0) {
+                expire(now);
+                nextSweep = now + TimeUnit.MILLISECONDS.toNanos((long) (POLL_TIMEOUT * 1000));
+            }
+        }
+    }
+
+    void dispatch(String response) {
+        String extra = StringUtils.substringBetween(response, "\"@extra\":\"", "\"");
+        if (nonNull(extra)) {
+            PendingQuery pendingQuery = pending.remove(extra);
+            if (nonNull(pendingQuery)) {
+                pendingQuery.future.complete(response);
+            } else {
+                log.debug("Dropped response of unknown or expired query {}", extra);
+            }
+            return;
+        }
+        if (response.contains("\"updateSyncState\"")) {
+            logSyncState(response);
+        }
+    }
+
+    private void expire(long now) {
+        Iterator<Map.Entry<String, PendingQuery>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, PendingQuery> entry = it.next();
+            if (now - entry.getValue().deadlineNanos >= 0 && pending.remove(entry.getKey(), entry.getValue())) {
+                entry.getValue().future.completeExceptionally(
+                        new TimeoutException("No response from lite-server for query " + entry.getKey()));
+            }
+        }
+    }
+
+    private static void logSyncState(String response) {
+        UpdateSyncState sync = gson.fromJson(response, UpdateSyncState.class);
+        if (nonNull(sync) && nonNull(sync.getSync_state()) && !response.contains("syncStateDone")) {
+            double pct = 0.0;
+            if (sync.getSync_state().getTo_seqno() != 0) {
+                pct = (sync.getSync_state().getCurrent_seqno() * 100) / (double) sync.getSync_state().getTo_seqno();
+            }
+            if (pct < 99.5) {
+                log.info("Synchronized: " + String.format("%.2f%%", pct));
+            }
+        }
+    }
+}
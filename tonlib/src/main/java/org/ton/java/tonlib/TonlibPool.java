@@ -0,0 +1,532 @@
+package org.ton.java.tonlib;
+
+import com.google.gson.Gson;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.ton.java.address.Address;
+import org.ton.java.tonlib.types.*;
+import org.ton.java.tonlib.types.globalconfig.LiteServers;
+import org.ton.java.tonlib.types.globalconfig.TonGlobalConfig;
+import org.ton.java.utils.Utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Keeps several native tonlib clients, each pinned to a single lite-server, and spreads requests between them.
+ * <p>
+ * A request goes to the healthy client with the fewest requests in flight (or the lowest latency, see Routing).
+ * If it fails, it is repeated on another client. A client that fails maxConsecutiveErrors requests in a row
+ * is ejected and probed in the background with exponential backoff until it answers again.
+ * Unlike Tonlib with usingAllLiteServers, a failing lite-server never causes re-initialization of other clients.
+ */
+@Slf4j
+@Builder
+public class TonlibPool {
+
+    public enum Routing {
+        LEAST_OUTSTANDING, LOWEST_LATENCY
+    }
+
+    /**
+     * If not specified then tries to find tonlib in system folder
+     */
+    private String pathToTonlibSharedLib;
+
+    /**
+     * if not specified and globalConfigAsString is null then integrated global-config.json is used
+     */
+    private String pathToGlobalConfig;
+
+    private String globalConfigAsString;
+
+    private boolean testnet;
+
+    /**
+     * Indexes of lite-servers from the global config, all lite-servers are used if not specified
+     */
+    private List<Integer> liteServerIndexes;
+
+    /**
+     * Number of native clients per lite-server. Default value 1
+     */
+    private int clientsPerLiteServer;
+
+    private Routing routing;
+
+    private VerbosityLevel verbosityLevel;
+
+    private Boolean ignoreCache;
+
+    /**
+     * Default value true. Otherwise, every client uses its own subfolder of keystorePath.
+     */
+    private Boolean keystoreInMemory;
+
+    private String keystorePath;
+
+    /**
+     * How many clients a request is tried on before giving up. Default value 3
+     */
+    private int receiveRetryTimes;
+
+    /**
+     * In seconds, per client. Default value 10.0 seconds
+     */
+    private double receiveTimeout;
+
+    /**
+     * Client is ejected after this number of failed requests in a row. Default value 3
+     */
+    private int maxConsecutiveErrors;
+
+    /**
+     * In milliseconds, first delay before ejected client is probed. Default value 1000
+     */
+    private long initialBackoff;
+
+    /**
+     * In milliseconds. Default value 60000
+     */
+    private long maxBackoff;
+
+    /**
+     * If not specified then loaded from pathToTonlibSharedLib
+     */
+    private TonlibJsonI tonlibJson;
+
+    private static final Gson gson = new Gson();
+
+    /**
+     * Do not use! Reserved for internal usage.
+     */
+    private List<Member> members;
+
+    /**
+     * Do not use! Reserved for internal usage.
+     */
+    private ScheduledExecutorService healthChecker;
+
+    private static class Member {
+        final int liteServerIndex;
+        final String address;
+        final Tonlib tonlib;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicBoolean probing = new AtomicBoolean();
+        long requests;
+        long errors;
+        int consecutiveErrors;
+        double latencyMs;
+        long backoff;
+        volatile boolean ejected;
+        volatile long ejectedUntilNanos;
+
+        Member(int liteServerIndex, String address, Tonlib tonlib) {
+            this.liteServerIndex = liteServerIndex;
+            this.address = address;
+            this.tonlib = tonlib;
+        }
+    }
+
+    public static class TonlibPoolBuilder {
+    }
+
+    public static TonlibPoolBuilder builder() {
+        return new CustomTonlibPoolBuilder();
+    }
+
+    private static class CustomTonlibPoolBuilder extends TonlibPoolBuilder {
+        @Override
+        public TonlibPool build() {
+            if (super.clientsPerLiteServer == 0) {
+                super.clientsPerLiteServer = 1;
+            }
+            if (isNull(super.routing)) {
+                super.routing = Routing.LEAST_OUTSTANDING;
+            }
+            if (isNull(super.verbosityLevel)) {
+                super.verbosityLevel = VerbosityLevel.FATAL;
+            }
+            if (isNull(super.ignoreCache)) {
+                super.ignoreCache = true;
+            }
+            if (isNull(super.keystoreInMemory)) {
+                super.keystoreInMemory = true;
+            }
+            if (isNull(super.keystorePath)) {
+                super.keystorePath = ".";
+            }
+            if (super.receiveRetryTimes == 0) {
+                super.receiveRetryTimes = 3;
+            }
+            if (super.receiveTimeout == 0) {
+                super.receiveTimeout = 10.0;
+            }
+            if (super.maxConsecutiveErrors == 0) {
+                super.maxConsecutiveErrors = 3;
+            }
+            if (super.initialBackoff == 0) {
+                super.initialBackoff = 1000;
+            }
+            if (super.maxBackoff == 0) {
+                super.maxBackoff = 60000;
+            }
+
+            String globalConfigStr = readGlobalConfig();
+            TonGlobalConfig globalConfig = gson.fromJson(globalConfigStr, TonGlobalConfig.class);
+            LiteServers[] liteServers = globalConfig.getLiteservers();
+
+            if (isNull(super.liteServerIndexes)) {
+                super.liteServerIndexes = new ArrayList<>();
+                for (int i = 0; i < liteServers.length; i++) {
+                    super.liteServerIndexes.add(i);
+                }
+            }
+            if (super.liteServerIndexes.isEmpty()) {
+                throw new Error("TonlibPool requires at least one lite-server");
+            }
+
+            super.members = new ArrayList<>();
+            try {
+                for (int index : super.liteServerIndexes) {
+                    if (index < 0 || index >= liteServers.length) {
+                        throw new Error("Lite-server index " + index + " is out of range, total lite-servers in config: " + liteServers.length);
+                    }
+                    String address = Utils.int2ip(liteServers[index].getIp()) + ":" + liteServers[index].getPort();
+                    for (int i = 0; i < super.clientsPerLiteServer; i++) {
+                        String keystorePath = super.keystorePath + "/" + index + "-" + i;
+                        if (!super.keystoreInMemory) {
+                            Files.createDirectories(Paths.get(keystorePath));
+                        }
+                        Tonlib tonlib = Tonlib.builder()
+                                .pathToTonlibSharedLib(super.pathToTonlibSharedLib)
+                                .tonlibJson(super.tonlibJson)
+                                .globalConfigAsString(globalConfigStr)
+                                .liteServerIndex(index)
+                                .verbosityLevel(super.verbosityLevel)
+                                .ignoreCache(super.ignoreCache)
+                                .keystoreInMemory(super.keystoreInMemory)
+                                .keystorePath(keystorePath)
+                                .receiveTimeout(super.receiveTimeout)
+                                .receiveRetryTimes(1)
+                                .printInfo(false)
+                                .build();
+                        super.members.add(new Member(index, address, tonlib));
+                    }
+                }
+            } catch (Throwable e) {
+                for (Member member : super.members) {
+                    member.tonlib.destroy();
+                }
+                throw new Error("Error creating tonlib pool: " + e.getMessage());
+            }
+
+            log.info("TonlibPool started with {} clients on lite-servers {}", super.members.size(), super.liteServerIndexes);
+
+            super.healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "tonlib-pool-health");
+                thread.setDaemon(true);
+                return thread;
+            });
+            TonlibPool pool = super.build();
+            long period = Math.max(10, Math.min(pool.initialBackoff, 1000));
+            pool.healthChecker.scheduleWithFixedDelay(pool::probeEjected, period, period, TimeUnit.MILLISECONDS);
+            return pool;
+        }
+
+        private String readGlobalConfig() {
+            if (nonNull(super.globalConfigAsString)) {
+                return super.globalConfigAsString;
+            }
+            try {
+                if (nonNull(super.pathToGlobalConfig)) {
+                    if (!Files.exists(Paths.get(super.pathToGlobalConfig))) {
+                        throw new Error("Global config is not found in path: " + super.pathToGlobalConfig);
+                    }
+                    return new String(Files.readAllBytes(Paths.get(super.pathToGlobalConfig)));
+                }
+                try (InputStream config = TonlibPool.class.getClassLoader()
+                        .getResourceAsStream(super.testnet ? "testnet-global.config.json" : "global-config.json")) {
+                    return Utils.streamToString(config);
+                }
+            } catch (IOException e) {
+                throw new Error("Cannot read global config, " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs the call on one of the clients and repeats it on another client if it throws.
+     *
+     * @param call any synchronous method of Tonlib
+     * @return result of the first successful call
+     */
+    public <T> T execute(Function<Tonlib, T> call) {
+        Set<Member> tried = new HashSet<>();
+        Throwable lastError = null;
+        for (int attempt = 0; attempt < receiveRetryTimes; attempt++) {
+            Member member = pick(tried);
+            tried.add(member);
+            member.inFlight.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                T result = call.apply(member.tonlib);
+                onSuccess(member, System.nanoTime() - start);
+                return result;
+            } catch (Throwable e) {
+                onFailure(member, e);
+                lastError = e;
+            } finally {
+                member.inFlight.decrementAndGet();
+            }
+        }
+        throw new Error("Error in tonlib pool, " + receiveRetryTimes + " attempts failed, last error: " + lastError.getMessage());
+    }
+
+    /**
+     * Asynchronous version of execute, the call is repeated on another client if the future fails.
+     *
+     * @param call any asynchronous method of Tonlib, e.g. Tonlib::getLastAsync
+     */
+    public <T> CompletableFuture<T> executeAsync(Function<Tonlib, CompletableFuture<T>> call) {
+        return executeAsync(call, new HashSet<>(), 1);
+    }
+
+    private <T> CompletableFuture<T> executeAsync(Function<Tonlib, CompletableFuture<T>> call, Set<Member> tried, int attempt) {
+        Member member = pick(tried);
+        tried.add(member);
+        member.inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.apply(member.tonlib);
+        } catch (Throwable e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        return future
+                .handleAsync((result, e) -> {
+                    member.inFlight.decrementAndGet();
+                    if (isNull(e)) {
+                        onSuccess(member, System.nanoTime() - start);
+                        return CompletableFuture.completedFuture(result);
+                    }
+                    onFailure(member, e);
+                    if (attempt < receiveRetryTimes) {
+                        return executeAsync(call, tried, attempt + 1);
+                    }
+                    CompletableFuture<T> failed = new CompletableFuture<>();
+                    failed.completeExceptionally(e);
+                    return failed;
+                })
+                .thenCompose(f -> f);
+    }
+
+    public MasterChainInfo getLast() {
+        return execute(Tonlib::getLast);
+    }
+
+    public FullAccountState getAccountState(Address address) {
+        return execute(tonlib -> tonlib.getAccountState(address));
+    }
+
+    public RawAccountState getRawAccountState(Address address) {
+        return execute(tonlib -> tonlib.getRawAccountState(address));
+    }
+
+    public BlockTransactions getBlockTransactions(BlockIdExt fullblock, long count) {
+        return execute(tonlib -> tonlib.getBlockTransactions(fullblock, count));
+    }
+
+    public RunResult runMethod(Address contractAddress, String methodName) {
+        return execute(tonlib -> tonlib.runMethod(contractAddress, methodName));
+    }
+
+    public RunResult runMethod(Address contractAddress, String methodName, Deque<String> stackData) {
+        return execute(tonlib -> tonlib.runMethod(contractAddress, methodName, stackData));
+    }
+
+    public ExtMessageInfo sendRawMessage(String serializedBoc) {
+        return execute(tonlib -> tonlib.sendRawMessage(serializedBoc));
+    }
+
+    public CompletableFuture<MasterChainInfo> getLastAsync() {
+        return executeAsync(Tonlib::getLastAsync);
+    }
+
+    public CompletableFuture<FullAccountState> getAccountStateAsync(Address address) {
+        return executeAsync(tonlib -> tonlib.getAccountStateAsync(address));
+    }
+
+    public CompletableFuture<RunResult> runMethodAsync(Address contractAddress, String methodName, Deque<String> stackData) {
+        return executeAsync(tonlib -> tonlib.runMethodAsync(contractAddress, methodName, stackData));
+    }
+
+    /**
+     * @return metrics aggregated per lite-server, in the order of liteServerIndexes
+     */
+    public List<LiteServerStats> getStats() {
+        Map<Integer, List<Member>> byServer = new LinkedHashMap<>();
+        for (Member member : members) {
+            byServer.computeIfAbsent(member.liteServerIndex, k -> new ArrayList<>()).add(member);
+        }
+        List<LiteServerStats> result = new ArrayList<>();
+        for (List<Member> group : byServer.values()) {
+            int healthy = 0;
+            int inFlight = 0;
+            long requests = 0;
+            long errors = 0;
+            double latency = 0;
+            int measured = 0;
+            for (Member member : group) {
+                synchronized (member) {
+                    healthy += member.ejected ? 0 : 1;
+                    inFlight += member.inFlight.get();
+                    requests += member.requests;
+                    errors += member.errors;
+                    if (member.latencyMs > 0) {
+                        latency += member.latencyMs;
+                        measured++;
+                    }
+                }
+            }
+            result.add(LiteServerStats.builder()
+                    .liteServerIndex(group.get(0).liteServerIndex)
+                    .address(group.get(0).address)
+                    .clients(group.size())
+                    .healthyClients(healthy)
+                    .inFlight(inFlight)
+                    .requests(requests)
+                    .errors(errors)
+                    .averageLatencyMs(measured == 0 ? 0 : latency / measured)
+                    .build());
+        }
+        return result;
+    }
+
+    public int size() {
+        return members.size();
+    }
+
+    /**
+     * Stops health checks and destroys all native clients.
+     */
+    public void destroy() {
+        healthChecker.shutdownNow();
+        for (Member member : members) {
+            member.tonlib.destroy();
+        }
+    }
+
+    /**
+     * Picks a healthy client not tried yet. If none, falls back to already tried ones
+     * and at last to the ejected client which is due to be probed soonest.
+     */
+    private Member pick(Set<Member> tried) {
+        Member best = null;
+        for (boolean allowTried : new boolean[]{false, true}) {
+            for (Member member : members) {
+                if (member.ejected || (!allowTried && tried.contains(member))) {
+                    continue;
+                }
+                if (isNull(best) || better(member, best)) {
+                    best = member;
+                }
+            }
+            if (nonNull(best)) {
+                return best;
+            }
+        }
+        for (Member member : members) {
+            if (isNull(best) || member.ejectedUntilNanos - best.ejectedUntilNanos < 0) {
+                best = member;
+            }
+        }
+        return best;
+    }
+
+    private boolean better(Member a, Member b) {
+        int inFlightA = a.inFlight.get();
+        int inFlightB = b.inFlight.get();
+        double latencyA;
+        double latencyB;
+        synchronized (a) {
+            latencyA = a.latencyMs;
+        }
+        synchronized (b) {
+            latencyB = b.latencyMs;
+        }
+        if (routing == Routing.LOWEST_LATENCY) {
+            return latencyA < latencyB || (latencyA == latencyB && inFlightA < inFlightB);
+        }
+        return inFlightA < inFlightB || (inFlightA == inFlightB && latencyA < latencyB);
+    }
+
+    private void onSuccess(Member member, long elapsedNanos) {
+        double ms = elapsedNanos / 1_000_000.0;
+        synchronized (member) {
+            member.requests++;
+            member.consecutiveErrors = 0;
+            member.latencyMs = member.latencyMs == 0 ? ms : member.latencyMs * 0.8 + ms * 0.2;
+        }
+    }
+
+    private void onFailure(Member member, Throwable e) {
+        log.info("Request to lite-server {} ({}) failed: {}", member.liteServerIndex, member.address, e.getMessage());
+        synchronized (member) {
+            member.requests++;
+            member.errors++;
+            if (++member.consecutiveErrors >= maxConsecutiveErrors && !member.ejected) {
+                member.backoff = initialBackoff;
+                member.ejectedUntilNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(member.backoff);
+                member.ejected = true;
+                log.info("Lite-server {} ({}) is ejected for {} ms", member.liteServerIndex, member.address, member.backoff);
+            }
+        }
+    }
+
+    /**
+     * Sends getLast to every ejected client whose backoff has passed, re-admits the ones that answer.
+     */
+    private void probeEjected() {
+        long now = System.nanoTime();
+        for (Member member : members) {
+            if (!member.ejected || now - member.ejectedUntilNanos < 0 || !member.probing.compareAndSet(false, true)) {
+                continue;
+            }
+            CompletableFuture<MasterChainInfo> probe;
+            try {
+                probe = member.tonlib.getLastAsync();
+            } catch (Throwable e) {
+                probe = new CompletableFuture<>();
+                probe.completeExceptionally(e);
+            }
+            probe.whenComplete((result, e) -> {
+                synchronized (member) {
+                    if (isNull(e)) {
+                        member.ejected = false;
+                        member.consecutiveErrors = 0;
+                        log.info("Lite-server {} ({}) is re-admitted", member.liteServerIndex, member.address);
+                    } else {
+                        member.backoff = Math.min(member.backoff * 2, maxBackoff);
+                        member.ejectedUntilNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(member.backoff);
+                    }
+                }
+                member.probing.set(false);
+            });
+        }
+    }
+}
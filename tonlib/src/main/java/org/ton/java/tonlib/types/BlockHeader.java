@@ -33,5 +33,5 @@ public class BlockHeader implements Serializable {
     String start_lt;
     String end_lt;
     long gen_utime;
-    List<BlockId> prev_blocks;
+    List<BlockIdExt> prev_blocks;
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package org.ton.java.tonlib.types;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Position of BlockStream: the last processed masterchain block and seqno of the last processed block of every shard
+ * referenced by it. Shards are keyed by "workchain:shard", where shard is in unsigned hex, e.g. "0:8000000000000000".
+ */
+@Builder
+@Setter
+@Getter
+@ToString
+public class BlockStreamCheckpoint implements Serializable {
+    long masterchainSeqno;
+    Map<String, Long> shards;
+}
@@ -0,0 +1,23 @@
+package org.ton.java.tonlib.types;
+
+import com.google.gson.annotations.SerializedName;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Builder
+@Setter
+@Getter
+@ToString
+public class BlockTransactionsExt implements Serializable {
+    @SerializedName("@type")
+    final String type = "blocks.transactionsExt";
+    BlockIdExt id;
+    long req_count;
+    boolean incomplete;
+    List<RawTransaction> transactions;
+}
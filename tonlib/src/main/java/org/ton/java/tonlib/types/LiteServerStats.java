@@ -0,0 +1,29 @@
+package org.ton.java.tonlib.types;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serializable;
+
+/**
+ * Snapshot of requests served by one lite-server of TonlibPool.
+ */
+@Builder
+@Setter
+@Getter
+@ToString
+public class LiteServerStats implements Serializable {
+    int liteServerIndex;
+    String address;
+    int clients;
+    int healthyClients;
+    int inFlight;
+    long requests;
+    long errors;
+    /**
+     * Exponentially weighted moving average of successful requests, in milliseconds.
+     */
+    double averageLatencyMs;
+}
@@ -0,0 +1,120 @@
+package org.ton.java.tonlib;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Emulates native tonlib clients with canned responses, clients are numbered from 1 in order of creation.
+ * Without a responder queries are left unanswered.
+ */
+class FakeTonlibJson implements TonlibJsonI {
+
+    interface Responder {
+        /**
+         * @return response to the query, @extra of the query is added to it, null to leave the query unanswered
+         */
+        String respond(long tonlib, String query);
+    }
+
+    private final AtomicLong counter = new AtomicLong();
+    private final Map<Long, BlockingQueue<String>> responses = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile Responder responder = (tonlib, query) -> null;
+    private ScheduledExecutorService scheduler;
+    private int maxDelay;
+
+    FakeTonlibJson respond(Responder responder) {
+        this.responder = responder;
+        return this;
+    }
+
+    /**
+     * Delays every response randomly by up to maxDelay milliseconds, so responses arrive out of order.
+     */
+    FakeTonlibJson delay(int maxDelay) {
+        this.maxDelay = maxDelay;
+        this.scheduler = Executors.newScheduledThreadPool(4);
+        return this;
+    }
+
+    /**
+     * @return largest number of delayed responses pending at once
+     */
+    int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    /**
+     * Adds complete response to the queue of the client, e.g. an update or an answer to an earlier query.
+     */
+    void push(long tonlib, String response) {
+        queue(tonlib).add(response);
+    }
+
+    static String extra(String query) {
+        return StringUtils.substringBetween(query, "\"@extra\":\"", "\"");
+    }
+
+    @Override
+    public long tonlib_client_json_create() {
+        return counter.incrementAndGet();
+    }
+
+    @Override
+    public void tonlib_client_json_destroy(long tonlib) {
+        if (nonNull(scheduler)) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public String tonlib_client_json_execute(long tonlib, String query) {
+        return null;
+    }
+
+    @Override
+    public synchronized void tonlib_client_json_send(long tonlib, String query) {
+        String response = responder.respond(tonlib, query);
+        if (isNull(response)) {
+            return;
+        }
+        String extra = extra(query);
+        String withExtra = isNull(extra) ? response : response.substring(0, response.length() - 1) + ",\"@extra\":\"" + extra + "\"}";
+        if (maxDelay == 0) {
+            push(tonlib, withExtra);
+            return;
+        }
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        scheduler.schedule(() -> {
+            inFlight.decrementAndGet();
+            push(tonlib, withExtra);
+        }, ThreadLocalRandom.current().nextInt(maxDelay), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public String tonlib_client_json_receive(long tonlib, Double timeout) {
+        try {
+            return queue(tonlib).poll((long) (timeout * 1000), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            return null;
+        }
+    }
+
+    private BlockingQueue<String> queue(long tonlib) {
+        return responses.computeIfAbsent(tonlib, k -> new LinkedBlockingQueue<>());
+    }
+}
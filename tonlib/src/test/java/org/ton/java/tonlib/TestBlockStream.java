@@ -0,0 +1,201 @@
+package org.ton.java.tonlib;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.ton.java.cell.Cell;
+import org.ton.java.cell.CellSlice;
+import org.ton.java.tlb.types.Transaction;
+import org.ton.java.tonlib.types.BlockIdExt;
+import org.ton.java.tonlib.types.BlockStreamCheckpoint;
+import org.ton.java.utils.Utils;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@RunWith(JUnit4.class)
+public class TestBlockStream {
+
+    private static final String TX = "b5ee9c72010226010006990003b570c6e8053cae2db8db1f757877a20451406d17f8ab7e42b88aa3bf6022dd2666200002018ba3f1404177290fd7520f4c9a9cdea0d5c1d972e0f63b75e4114ca8ec24c20211342379800002018ba208f8163eb5649000347372d2680102030201e0040500827292c274ccb4edfb07eeffce3721febf61bb2666d7ee4234f9e01a59b9e8a2a97129422e88bc846f3e65e2c7a05f4ac0954cf243cb7dff41b59bd42138c835a95b02170c40491f4add40186e668611242503b148001b5ba243fca4eba58d090c2fdbcfd5468567018240568edc715af856360479fb00031ba014f2b8b6e36c7dd5e1de88114501b45fe2adf90ae22a8efd808b74999891f4add40006ff7ec000004031747e2806c7d6ac931b0607080101df150114ff00f4a413f4bcf2c80b090059000000000000000000000000bb870617fcc0c46817b359c9399b9bb71b944947102674e4b46a8a9312191735400199285e6041bb8cfb5d60ea1bd3956f9b77a026cfbe07217d221a024b8a12e7fca30bc9c605d27755caba9ae0a66f3494952fdb788f65ba15e99ea1c4148727ec020000000063eb56833a288aabc0130201200a0b0201480c0d0006f2f0010202cf0e0f020120111200231b0c4835d26040982e64cc3e0024bc0078a001e920c235c60834c7f4cffe08ea87d4c82e7c98fb513434c7f4cff4fffd013454d820103d039be84c7c98145ceebca881fe40550421fe443ca8c0bd01347e001fe3858860043d1e1be9482600b4c1f50c007ec0244cb8806cf996e0c96872100d20103d10e2b98c407232c7c4f2cff2fffd00327b5520100034208040f4966fa56c122094305303b9de2093333601926c21e2b30017bd9ce76a26869af98eb85ffc0041be5f976a268698f98e99fe9ff98fa0268a91040207a0737d098c92dbfc95dd1f140104d08014026162007bb97b0fd056eabbb2d09d36ae533b16f545d0fbfbf187685c7c6a115d6d303d000000000000000000000000000232161702b1680018dd00a795c5b71b63eeaf0ef4408a280da2ff156fc857115477ec045ba4ccc5003ddcbd87e82b755dd9684e9b57299d8b7aa2e87dfdf8c3b42e3e3508aeb6981e91f0fc64bc06a18a7c00004031747e280ac7d6ac931916170114ff00f4a413f4bcf2c80b1801d931f5ab23c00585d8b57d25ff490c78aef4d63589f930b510d6e0009ccecfc503eb3c723c362801ca8151271aafc451be2c28cdc132ddc423328db0830c9afb19e99a6d6b62d19500036b74487f949d74b1a12185fb79faa8d0ace030480ad1db8e2b5f0ac6c08f3f50ee6b280223020120191a0201481b1c0004f2300202cd1d1e0051a03859da89a1a601a63ff481f481f481f401a861a1f481f401f481f4006104208c92b0a0158002ab0102f7d00e8698180b8d8492f82707d201876a2686980698ffd207d207d207d006a18136000f968ca116ba4e10159c720191c1c29a0e382c92f847028a26382f970fa02698fc1080289c6c8895d7970fae99f98fd2018202b036465800ae58fa801e78b00e78b00e78b00fd016664f6aa701b13e380718103e98fe99f9810c1f2001f7660840ee6b280149828148c2fbcb87089343e903e803e903e800c14e4a848685421e845a814a41c20043232c15400f3c5807e80b2dab25c7ec00970800975d27080ac2385d4115c20043232c15400f3c5807e80b2dab25c7ec00408e48d0d38969c20043232c15400f3c5807e80b2dab25c7ec01c08208417f30f452220016371038476514433070f005014ac001925f0be021c0029f31104910384760102510241023f005e03ac003e3025f09840ff2f02100ca82103b9aca0018bef2e1c95346c7055152c70515b1f2e1ca702082105fcc3d14218010c8cb0528cf1621fa02cb6acb1f19cb3f27cf1627cf1618ca0027fa0217ca00c98040fb0071065044451506c8cb0015cb1f5003cf1601cf1601cf1601fa02ccc9ed540082218018c8cb052acf1621fa02cb6acb1f13cb3f23cf165003cf16ca0021fa02ca00c98306fb0071555006c8cb0015cb1f5003cf1601cf1601cf1601fa02ccc9ed5400878001b5ba243fca4eba58d090c2fdbcfd5468567018240568edc715af856360479fa100036b74487f949d74b1a12185fb79faa8d0ace030480ad1db8e2b5f0ac6c08f3f42009e43afcc3d090000000000000000007e00000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000006fc9bc93d04ca1898800000000000200000000000362a1ec2a403ce96f3234341d66f0c8f2245dfda3293444eca58168c5d17c911643d0c35c";
+
+    private static final String ROOT = "8000000000000000";
+    private static final String LEFT = "4000000000000000";
+    private static final String RIGHT = "c000000000000000";
+
+    private static final Pattern ID = Pattern.compile("\"id\":\\{[^}]*\"workchain\":(-?\\d+),\"shard\":(-?\\d+),\"seqno\":(\\d+)");
+    private static final Pattern AFTER_LT = Pattern.compile("\"after\":\\{[^}]*\"lt\":(\\d+)");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final Map<Long, List<String>> SHARDS = new HashMap<>();
+    private static final Map<String, List<String>> PREV_BLOCKS = new HashMap<>();
+
+    /*
+     * Workchain 0 splits after the masterchain block 2 and merges back before the masterchain block 4.
+     */
+    static {
+        SHARDS.put(1L, Collections.singletonList(ROOT + "@10"));
+        SHARDS.put(2L, Collections.singletonList(ROOT + "@12"));
+        SHARDS.put(3L, Arrays.asList(LEFT + "@13", RIGHT + "@14"));
+        SHARDS.put(4L, Collections.singletonList(ROOT + "@16"));
+        SHARDS.put(5L, Collections.singletonList(ROOT + "@17"));
+        PREV_BLOCKS.put(ROOT + "@11", Collections.singletonList(ROOT + "@10"));
+        PREV_BLOCKS.put(ROOT + "@12", Collections.singletonList(ROOT + "@11"));
+        PREV_BLOCKS.put(LEFT + "@13", Collections.singletonList(ROOT + "@12"));
+        PREV_BLOCKS.put(RIGHT + "@13", Collections.singletonList(ROOT + "@12"));
+        PREV_BLOCKS.put(RIGHT + "@14", Collections.singletonList(RIGHT + "@13"));
+        PREV_BLOCKS.put(LEFT + "@14", Collections.singletonList(LEFT + "@13"));
+        PREV_BLOCKS.put(ROOT + "@15", Arrays.asList(LEFT + "@14", RIGHT + "@14"));
+        PREV_BLOCKS.put(ROOT + "@16", Collections.singletonList(ROOT + "@15"));
+        PREV_BLOCKS.put(ROOT + "@17", Collections.singletonList(ROOT + "@16"));
+    }
+
+    /**
+     * Only the masterchain block 4 contains a transaction, it is returned in two pages.
+     *
+     * @param last seqno of the last masterchain block
+     */
+    private static String respond(String query, long last) {
+        Matcher id = ID.matcher(query);
+        long seqno = id.find() ? Long.parseLong(id.group(3)) : 0;
+        String shard = seqno == 0 ? null : Long.toHexString(Long.parseLong(id.group(2)));
+        if (query.contains("\"blocks.getMasterchainInfo\"")) {
+            return "{\"@type\":\"blocks.masterchainInfo\",\"last\":" + block(-1, ROOT + "@" + last) + "}";
+        }
+        if (query.contains("\"blocks.lookupBlock\"")) {
+            return block(-1, ROOT + "@" + seqno);
+        }
+        if (query.contains("\"blocks.getShards\"")) {
+            List<String> blocks = new ArrayList<>();
+            for (String block : SHARDS.get(seqno)) {
+                blocks.add(block(0, block));
+            }
+            return "{\"@type\":\"blocks.shards\",\"shards\":[" + String.join(",", blocks) + "]}";
+        }
+        if (query.contains("\"blocks.getBlockHeader\"")) {
+            List<String> blocks = new ArrayList<>();
+            for (String block : PREV_BLOCKS.get(shard + "@" + seqno)) {
+                blocks.add(block(0, block));
+            }
+            return "{\"@type\":\"blocks.header\",\"prev_blocks\":[" + String.join(",", blocks) + "]}";
+        }
+        if (query.contains("\"blocks.getTransactionsExt\"")) {
+            Matcher after = AFTER_LT.matcher(query);
+            boolean firstPage = !after.find() || after.group(1).equals("0");
+            String tx = "{\"@type\":\"raw.transaction\",\"data\":\"" + Utils.bytesToBase64(Utils.hexToSignedBytes(TX)) + "\"}";
+            if (id.group(1).equals("-1") && seqno == 4) {
+                return "{\"@type\":\"blocks.transactionsExt\",\"incomplete\":" + firstPage + ",\"transactions\":[" + tx + "]}";
+            }
+            return "{\"@type\":\"blocks.transactionsExt\",\"incomplete\":false,\"transactions\":[]}";
+        }
+        return "{\"@type\":\"ok\"}";
+    }
+
+    private static String block(int workchain, String block) {
+        String[] parts = block.split("@");
+        return "{\"@type\":\"ton.blockIdExt\",\"workchain\":" + workchain + ",\"shard\":" + Long.parseUnsignedLong(parts[0], 16)
+                + ",\"seqno\":" + parts[1] + ",\"root_hash\":\"\",\"file_hash\":\"\"}";
+    }
+
+    private static String name(BlockIdExt block) {
+        return block.getWorkchain() + ":" + Long.toHexString(block.getShard()) + "@" + block.getSeqno();
+    }
+
+    @Test
+    public void testFollowsSplitAndMergeAndResumesFromCheckpoint() throws Exception {
+        AtomicLong last = new AtomicLong(4);
+        FakeTonlibJson tonlibJson = new FakeTonlibJson().respond((client, query) -> respond(query, last.get()));
+        Tonlib tonlib = Tonlib.builder()
+                .tonlibJson(tonlibJson)
+                .receiveTimeout(2)
+                .printInfo(false)
+                .build();
+        File checkpointFile = new File(folder.getRoot(), "checkpoint.json");
+
+        BlockingQueue<String> delivered = new LinkedBlockingQueue<>();
+        List<Transaction> transactions = Collections.synchronizedList(new ArrayList<>());
+        BlockStream stream = BlockStream.builder()
+                .tonlib(tonlib)
+                .checkpointPath(checkpointFile.getAbsolutePath())
+                .fromSeqno(2)
+                .prefetch(2)
+                .pollInterval(50)
+                .onBlock((block, txs) -> {
+                    transactions.addAll(txs);
+                    delivered.add(name(block));
+                })
+                .build();
+        stream.start();
+
+        List<String> blocks = new ArrayList<>();
+        while (!blocks.contains("-1:8000000000000000@4")) {
+            String block = delivered.poll(10, TimeUnit.SECONDS);
+            assertThat(block).isNotNull();
+            blocks.add(block);
+        }
+        stream.stop();
+
+        assertThat(blocks).containsExactly(
+                "0:8000000000000000@11", "0:8000000000000000@12", "-1:8000000000000000@2",
+                "0:4000000000000000@13", "0:c000000000000000@13", "0:c000000000000000@14", "-1:8000000000000000@3",
+                "0:4000000000000000@14", "0:8000000000000000@15", "0:8000000000000000@16", "-1:8000000000000000@4");
+
+        Transaction expected = Transaction.deserialize(CellSlice.beginParse(Cell.fromBoc(TX)));
+        assertThat(transactions).hasSize(2);
+        assertThat(transactions.get(0).getLt()).isEqualTo(expected.getLt());
+        assertThat(transactions.get(1).getAccountAddr()).isEqualTo(expected.getAccountAddr());
+
+        assertThat(stream.getCheckpoint().getMasterchainSeqno()).isEqualTo(4);
+        String saved = new String(Files.readAllBytes(checkpointFile.toPath()));
+        log.info("checkpoint {}", saved);
+        assertThat(saved).contains("\"masterchainSeqno\":4").contains("\"0:8000000000000000\":16");
+
+        last.set(5);
+        delivered.clear();
+        BlockStream resumed = BlockStream.builder()
+                .tonlib(tonlib)
+                .checkpointPath(checkpointFile.getAbsolutePath())
+                .pollInterval(50)
+                .onBlock((block, txs) -> delivered.add(name(block)))
+                .build();
+        BlockStreamCheckpoint checkpoint = resumed.getCheckpoint();
+        assertThat(checkpoint.getShards()).containsEntry("0:8000000000000000", 16L);
+        resumed.start();
+        assertThat(delivered.poll(10, TimeUnit.SECONDS)).isEqualTo("0:8000000000000000@17");
+        assertThat(delivered.poll(10, TimeUnit.SECONDS)).isEqualTo("-1:8000000000000000@5");
+        resumed.stop();
+        tonlib.destroy();
+    }
+
+    @Test
+    public void testIntersects() {
+        long root = Long.parseUnsignedLong(ROOT, 16);
+        long left = Long.parseUnsignedLong(LEFT, 16);
+        long right = Long.parseUnsignedLong(RIGHT, 16);
+        long leftOfLeft = Long.parseUnsignedLong("2000000000000000", 16);
+        assertThat(BlockStream.intersects(root, left)).isTrue();
+        assertThat(BlockStream.intersects(right, root)).isTrue();
+        assertThat(BlockStream.intersects(left, right)).isFalse();
+        assertThat(BlockStream.intersects(leftOfLeft, left)).isTrue();
+        assertThat(BlockStream.intersects(leftOfLeft, right)).isFalse();
+    }
+}
@@ -21,7 +21,7 @@ public class TestConcurrentTonlib {
             .testnet(true)
             .ignoreCache(false)
 //            .verbosityLevel(VerbosityLevel.DEBUG)
-            .build(); // you can't use one tonlib instance for parallel queries
+            .build(); // one tonlib instance serves parallel queries
 
     @Test
     @ThreadCount(10)
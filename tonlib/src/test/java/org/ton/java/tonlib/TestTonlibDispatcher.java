@@ -0,0 +1,102 @@
+package org.ton.java.tonlib;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+@Slf4j
+@RunWith(JUnit4.class)
+public class TestTonlibDispatcher {
+
+    /**
+     * Answers queries in reverse order of arrival, once a batch of given size is collected.
+     */
+    private static FakeTonlibJson reversingBatches(int batchSize) {
+        FakeTonlibJson tonlibJson = new FakeTonlibJson();
+        List<String> received = new ArrayList<>();
+        return tonlibJson.respond((tonlib, query) -> {
+            received.add(FakeTonlibJson.extra(query));
+            if (received.size() == batchSize) {
+                Collections.reverse(received);
+                tonlibJson.push(tonlib, "{\"@type\":\"updateSyncState\",\"sync_state\":{\"@type\":\"syncStateInProgress\",\"from_seqno\":0,\"to_seqno\":10,\"current_seqno\":5}}");
+                for (String extra : received) {
+                    tonlibJson.push(tonlib, "{\"@type\":\"ok\",\"value\":\"" + extra + "\",\"@extra\":\"" + extra + "\"}");
+                }
+                received.clear();
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void testQueriesInFlight() throws Exception {
+        int n = 100;
+        FakeTonlibJson tonlibJson = reversingBatches(n);
+        TonlibDispatcher dispatcher = new TonlibDispatcher(tonlibJson, tonlibJson.tonlib_client_json_create());
+
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            String extra = "query-" + i;
+            futures.add(dispatcher.send(extra, "{\"@type\":\"getLast\",\"@extra\":\"" + extra + "\"}", 10_000));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        for (int i = 0; i < n; i++) {
+            assertThat(futures.get(i).get()).contains("\"value\":\"query-" + i + "\"");
+        }
+        assertThat(dispatcher.getInFlight()).isZero();
+        dispatcher.close();
+        assertThat(dispatcher.isRunning()).isFalse();
+    }
+
+    @Test
+    public void testDuplicateExtra() throws Exception {
+        FakeTonlibJson tonlibJson = new FakeTonlibJson();
+        TonlibDispatcher dispatcher = new TonlibDispatcher(tonlibJson, 1);
+
+        CompletableFuture<String> first = dispatcher.send("same", "{\"@extra\":\"same\"}", 10_000);
+        CompletableFuture<String> second = dispatcher.send("same", "{\"@extra\":\"same\"}", 10_000);
+        assertThat(first.isDone()).isFalse();
+        ExecutionException e = assertThrows(ExecutionException.class, second::get);
+        assertThat(e.getCause().getMessage()).contains("already in flight");
+        dispatcher.close();
+    }
+
+    @Test
+    public void testTimeout() {
+        FakeTonlibJson tonlibJson = new FakeTonlibJson();
+        TonlibDispatcher dispatcher = new TonlibDispatcher(tonlibJson, 1);
+
+        CompletableFuture<String> future = dispatcher.send("lost", "{\"@extra\":\"lost\"}", 100);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertThat(e.getCause()).isInstanceOf(TimeoutException.class);
+        assertThat(dispatcher.getInFlight()).isZero();
+        dispatcher.close();
+    }
+
+    @Test
+    public void testClose() {
+        FakeTonlibJson tonlibJson = new FakeTonlibJson();
+        TonlibDispatcher dispatcher = new TonlibDispatcher(tonlibJson, 1);
+
+        CompletableFuture<String> pending = dispatcher.send("pending", "{\"@extra\":\"pending\"}", 10_000);
+        dispatcher.close();
+
+        ExecutionException e = assertThrows(ExecutionException.class, pending::get);
+        assertThat(e.getCause().getMessage()).isEqualTo("Tonlib client is closed");
+        CompletableFuture<String> afterClose = dispatcher.send("late", "{\"@extra\":\"late\"}", 10_000);
+        assertThat(afterClose.isCompletedExceptionally()).isTrue();
+    }
+}
@@ -0,0 +1,104 @@
+package org.ton.java.tonlib;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.ton.java.tonlib.types.BlockIdExt;
+import org.ton.java.tonlib.types.RawTransactions;
+import org.ton.java.tonlib.types.ShortTxId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@RunWith(JUnit4.class)
+public class TestTonlibFanOut {
+
+    private static final String ACCOUNT = "AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAE=";
+    private static final Pattern SEQNO = Pattern.compile("\"seqno\":(\\d+)");
+    private static final Pattern AFTER_LT = Pattern.compile("\"after\":\\{[^}]*\"lt\":(\\d+)");
+    private static final Pattern LT = Pattern.compile("\"lt\":(\\d+)");
+
+    /**
+     * Masterchain block 100 references shard blocks 10 and 11, block 10 is returned in two pages.
+     */
+    private static String respond(String query) {
+        if (query.contains("\"blocks.getShards\"")) {
+            return "{\"@type\":\"blocks.shards\",\"shards\":[" + block(0, 10) + "," + block(0, 11) + "]}";
+        }
+        if (query.contains("\"blocks.getTransactions\"")) {
+            long seqno = Long.parseLong(find(SEQNO, query));
+            long after = Long.parseLong(find(AFTER_LT, query));
+            if (seqno == 100) {
+                return transactions(false, 1);
+            }
+            if (seqno == 10 && after == 0) {
+                return transactions(true, 1001, 1002);
+            }
+            if (seqno == 10) {
+                return transactions(false, after + 1);
+            }
+            return transactions(false, 2001);
+        }
+        if (query.contains("\"raw.getTransactions\"")) {
+            return "{\"@type\":\"raw.transactions\",\"transactions\":[],\"previous_transaction_id\":{\"@type\":\"internal.transactionId\",\"lt\":" + find(LT, query) + "}}";
+        }
+        return "{\"@type\":\"ok\"}";
+    }
+
+    private static String block(int workchain, long seqno) {
+        return "{\"@type\":\"ton.blockIdExt\",\"workchain\":" + workchain + ",\"shard\":-9223372036854775808,\"seqno\":" + seqno + "}";
+    }
+
+    private static String transactions(boolean incomplete, long... lts) {
+        List<String> txs = new ArrayList<>();
+        for (long lt : lts) {
+            txs.add("{\"@type\":\"blocks.shortTxId\",\"mode\":135,\"account\":\"" + ACCOUNT + "\",\"lt\":" + lt + ",\"hash\":\"hash\"}");
+        }
+        return "{\"@type\":\"blocks.transactions\",\"incomplete\":" + incomplete + ",\"transactions\":[" + String.join(",", txs) + "]}";
+    }
+
+    private static String find(Pattern pattern, String query) {
+        Matcher matcher = pattern.matcher(query);
+        return matcher.find() ? matcher.group(1) : "0";
+    }
+
+    @Test
+    public void testAllShardsTransactionsKeepBlockOrder() throws Exception {
+        // responses are delayed randomly, so they arrive out of order
+        FakeTonlibJson tonlibJson = new FakeTonlibJson().delay(20).respond((client, query) -> respond(query));
+        Tonlib tonlib = Tonlib.builder()
+                .tonlibJson(tonlibJson)
+                .receiveTimeout(2)
+                .printInfo(false)
+                .build();
+
+        BlockIdExt masterchainBlock = BlockIdExt.builder()
+                .workchain(-1)
+                .shard(-9223372036854775808L)
+                .seqno(100)
+                .build();
+        List<Long> arrived = Collections.synchronizedList(new ArrayList<>());
+        Map<String, RawTransactions> txs = tonlib.getAllShardsTransactionsAsync(masterchainBlock, 2,
+                (ShortTxId tx, RawTransactions rawTransactions) -> arrived.add(tx.getLt())).get(10, TimeUnit.SECONDS);
+
+        List<Long> lts = new ArrayList<>();
+        for (RawTransactions rawTransactions : txs.values()) {
+            lts.add(rawTransactions.getPrevious_transaction_id().getLt().longValue());
+        }
+        log.info("keys {}", txs.keySet());
+        assertThat(lts).containsExactly(1L, 1001L, 1002L, 1003L, 2001L);
+        assertThat(txs.keySet().iterator().next()).startsWith("-1:").endsWith("|1");
+        assertThat(arrived).containsExactlyInAnyOrder(1L, 1001L, 1002L, 1003L, 2001L);
+        assertThat(tonlibJson.getMaxInFlight()).isLessThanOrEqualTo(2);
+        tonlib.destroy();
+    }
+}
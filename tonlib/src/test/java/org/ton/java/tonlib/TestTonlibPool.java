@@ -0,0 +1,121 @@
+package org.ton.java.tonlib;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.ton.java.tonlib.types.LiteServerStats;
+import org.ton.java.tonlib.types.MasterChainInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+@Slf4j
+@RunWith(JUnit4.class)
+public class TestTonlibPool {
+
+    /**
+     * Every client answers getMasterchainInfo with its number as state_root_hash, unless the client is failing.
+     */
+    private static FakeTonlibJson servers(Set<Long> failing) {
+        return new FakeTonlibJson().respond((tonlib, query) -> {
+            if (!query.contains("\"blocks.getMasterchainInfo\"")) {
+                return "{\"@type\":\"ok\"}";
+            }
+            if (failing.contains(tonlib)) {
+                return "{\"@type\":\"error\",\"code\":500,\"message\":\"LITE_SERVER_NETWORK\"}";
+            }
+            return "{\"@type\":\"blocks.masterchainInfo\",\"state_root_hash\":\"" + tonlib + "\"}";
+        });
+    }
+
+    private static TonlibPool pool(FakeTonlibJson tonlibJson) {
+        return TonlibPool.builder()
+                .tonlibJson(tonlibJson)
+                .liteServerIndexes(Arrays.asList(0, 1, 2))
+                .receiveTimeout(2)
+                .initialBackoff(50)
+                .build();
+    }
+
+    @Test
+    public void testFailoverAndEjection() {
+        Set<Long> failing = ConcurrentHashMap.newKeySet();
+        TonlibPool pool = pool(servers(failing));
+        failing.add(2L);
+
+        for (int i = 0; i < 20; i++) {
+            MasterChainInfo last = pool.getLast();
+            assertThat(last.getState_root_hash()).isNotEqualTo("2");
+        }
+
+        List<LiteServerStats> stats = pool.getStats();
+        log.info("stats {}", stats);
+        assertThat(stats).hasSize(3);
+        assertThat(stats.get(1).getErrors()).isEqualTo(3);
+        assertThat(stats.get(1).getHealthyClients()).isZero();
+        assertThat(stats.get(0).getErrors() + stats.get(2).getErrors()).isZero();
+        assertThat(stats.get(0).getRequests() + stats.get(2).getRequests()).isEqualTo(20);
+        pool.destroy();
+    }
+
+    @Test
+    public void testReadmission() throws InterruptedException {
+        Set<Long> failing = ConcurrentHashMap.newKeySet();
+        TonlibPool pool = pool(servers(failing));
+        failing.add(1L);
+
+        for (int i = 0; i < 5; i++) {
+            pool.getLast();
+        }
+        assertThat(pool.getStats().get(0).getHealthyClients()).isZero();
+
+        failing.clear();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (pool.getStats().get(0).getHealthyClients() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(pool.getStats().get(0).getHealthyClients()).isEqualTo(1);
+        pool.destroy();
+    }
+
+    @Test
+    public void testAsyncQueriesSpreadOverServers() throws Exception {
+        TonlibPool pool = pool(servers(Collections.emptySet()));
+
+        List<CompletableFuture<MasterChainInfo>> futures = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            futures.add(pool.getLastAsync());
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        long total = 0;
+        for (LiteServerStats stat : pool.getStats()) {
+            assertThat(stat.getRequests()).isPositive();
+            assertThat(stat.getInFlight()).isZero();
+            total += stat.getRequests();
+        }
+        assertThat(total).isEqualTo(60);
+        pool.destroy();
+    }
+
+    @Test
+    public void testAllServersFailing() {
+        Set<Long> failing = ConcurrentHashMap.newKeySet();
+        TonlibPool pool = pool(servers(failing));
+        failing.addAll(Arrays.asList(1L, 2L, 3L));
+
+        Error e = assertThrows(Error.class, pool::getLast);
+        assertThat(e.getMessage()).contains("3 attempts failed");
+        pool.destroy();
+    }
+}
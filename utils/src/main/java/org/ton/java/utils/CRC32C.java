@@ -1,5 +1,6 @@
 package org.ton.java.utils;
 
+import java.nio.ByteBuffer;
 import java.util.zip.Checksum;
 
 // poly 0x1EDC6F41
@@ -56,6 +57,20 @@ public final class CRC32C implements Checksum {
         }
     }
 
+    /**
+     * Updates checksum with len bytes of the buffer starting at absolute offset off.
+     * Position and limit of the buffer are not changed.
+     */
+    public void update(ByteBuffer b, int off, int len) {
+        if (b.hasArray()) {
+            update(b.array(), b.arrayOffset() + off, len);
+            return;
+        }
+        for (int i = off; i < off + len; i++) {
+            crc = (crc >>> 8) ^ LOOKUP_TABLE[(crc ^ b.get(i)) & 0xff];
+        }
+    }
+
     @Override
     public long getValue() {
         return crc ^ 0xffffffff;
@@ -0,0 +1,123 @@
+package org.ton.java.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Runs a task for every item with bounded concurrency and collects results in the order of items.
+ * <p>
+ * At most parallelism tasks are running at a time, the next item is started as soon as any running task completes.
+ * Results are also passed to an optional callback as they arrive, i.e. not in the order of items.
+ * The first failed task fails the whole result and no more tasks are started.
+ */
+public final class FanOut {
+
+    private FanOut() {
+    }
+
+    /**
+     * @param items       input items
+     * @param parallelism max number of tasks running at a time
+     * @param task        asynchronous task, e.g. a non-blocking lite-server query
+     * @param onResult    called with every item and its result as soon as it is ready, may be null
+     * @return future completed with results in the order of items
+     */
+    public static <T, R> CompletableFuture<List<R>> mapOrdered(
+            List<T> items, int parallelism, Function<T, CompletableFuture<R>> task, BiConsumer<T, R> onResult) {
+        return new Run<>(items, parallelism, task, onResult, ForkJoinPool.commonPool()).start();
+    }
+
+    /**
+     * Same as mapOrdered() for blocking tasks, every task runs on the given executor.
+     */
+    public static <T, R> CompletableFuture<List<R>> mapOrderedBlocking(
+            List<T> items, int parallelism, Function<T, R> task, BiConsumer<T, R> onResult, Executor executor) {
+        Function<T, CompletableFuture<R>> async = item -> CompletableFuture.supplyAsync(() -> task.apply(item), executor);
+        return new Run<>(items, parallelism, async, onResult, executor).start();
+    }
+
+    private static class Run<T, R> {
+        final List<T> items;
+        final int parallelism;
+        final Function<T, CompletableFuture<R>> task;
+        final BiConsumer<T, R> onResult;
+        final Executor executor;
+        final Object[] results;
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicInteger done = new AtomicInteger();
+        final AtomicBoolean failed = new AtomicBoolean();
+        final CompletableFuture<List<R>> result = new CompletableFuture<>();
+
+        Run(List<T> items, int parallelism, Function<T, CompletableFuture<R>> task, BiConsumer<T, R> onResult, Executor executor) {
+            if (parallelism < 1) {
+                throw new Error("parallelism must be positive");
+            }
+            this.items = new ArrayList<>(items);
+            this.parallelism = parallelism;
+            this.task = task;
+            this.onResult = onResult;
+            this.executor = executor;
+            this.results = new Object[items.size()];
+        }
+
+        CompletableFuture<List<R>> start() {
+            if (items.isEmpty()) {
+                result.complete(new ArrayList<>());
+                return result;
+            }
+            for (int i = 0; i < Math.min(parallelism, items.size()); i++) {
+                launchNext();
+            }
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void launchNext() {
+            int i = next.getAndIncrement();
+            if (i >= items.size() || failed.get()) {
+                return;
+            }
+            T item = items.get(i);
+            CompletableFuture<R> future;
+            try {
+                future = task.apply(item);
+            } catch (Throwable e) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+            }
+            // async continuation keeps the stack flat when tasks complete immediately
+            future.whenCompleteAsync((r, e) -> {
+                if (e != null) {
+                    if (failed.compareAndSet(false, true)) {
+                        result.completeExceptionally(e);
+                    }
+                    return;
+                }
+                results[i] = r;
+                try {
+                    if (onResult != null) {
+                        onResult.accept(item, r);
+                    }
+                } catch (Throwable callbackError) {
+                    if (failed.compareAndSet(false, true)) {
+                        result.completeExceptionally(callbackError);
+                    }
+                    return;
+                }
+                if (done.incrementAndGet() == items.size()) {
+                    result.complete((List<R>) Arrays.asList(results));
+                } else {
+                    launchNext();
+                }
+            }, executor);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package org.ton.java.utils;
+
+import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
+import com.sun.jna.platform.win32.Kernel32;
+import com.sun.jna.platform.win32.WinNT;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.logging.ConsoleHandler;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Process-wide routing of stdout and stderr of native libraries, i.e. tonlib and emulator.
+ * <p>
+ * Native code writes to file descriptors 1 and 2 directly, bypassing System.out. route() points both descriptors
+ * to a pipe once, a daemon thread drains it and either discards the output or logs it line by line.
+ * System.out and System.err are reattached to copies of the original descriptors, so output of Java code is not
+ * affected. Calls into native code do not touch file descriptors afterwards.
+ * <p>
+ * Output is not routed unless route() is called or the system property ton4j.nativeOutput is set to SUPPRESS or LOG,
+ * since tools reading stdout of the JVM, e.g. forked test runners, would lose it.
+ * On Windows output is discarded in both modes.
+ */
+public final class NativeOutput {
+
+    public enum Mode {
+        /**
+         * Native output goes to stdout and stderr of the process
+         */
+        CONSOLE,
+        /**
+         * Native output is discarded
+         */
+        SUPPRESS,
+        /**
+         * Native output is logged, level is taken from the [ N] prefix of tonlib log lines: 0 and 1 - SEVERE,
+         * 2 - WARNING, 3 and lines without prefix - INFO, 4 and higher - FINE
+         */
+        LOG
+    }
+
+    public static final String PROPERTY = "ton4j.nativeOutput";
+
+    private static final Logger log = Logger.getLogger(NativeOutput.class.getName());
+    private static final Pattern LEVEL = Pattern.compile("^\\[\\s*(\\d+)]");
+
+    private static volatile Mode mode = Mode.CONSOLE;
+    private static boolean initialized;
+    private static Utils.CStdLib cStdLib;
+    private static int savedOut = -1;
+    private static int savedErr = -1;
+    private static PrintStream originalSystemOut;
+    private static PrintStream originalSystemErr;
+    private static WinNT.HANDLE originalOut;
+    private static WinNT.HANDLE originalErr;
+    private static Thread drainer;
+
+    private NativeOutput() {
+    }
+
+    /**
+     * Applies mode from the system property ton4j.nativeOutput, only the first call has effect.
+     * Called by clients of native libraries on creation.
+     */
+    public static synchronized void init() {
+        if (initialized) {
+            return;
+        }
+        initialized = true;
+        String property = System.getProperty(PROPERTY);
+        if (isNull(property) || property.isEmpty()) {
+            return;
+        }
+        try {
+            route(Mode.valueOf(property.trim().toUpperCase()));
+        } catch (IllegalArgumentException e) {
+            log.warning("Unknown " + PROPERTY + " value " + property + ", expected one of " + Arrays.toString(Mode.values()));
+        }
+    }
+
+    public static Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Switches routing of native output for the whole process. Switching between SUPPRESS and LOG is free,
+     * file descriptors are touched only when leaving or returning to CONSOLE.
+     */
+    public static synchronized void route(Mode newMode) {
+        initialized = true;
+        if (newMode == mode) {
+            return;
+        }
+        try {
+            if ((Utils.getOS() == Utils.OS.WINDOWS) || (Utils.getOS() == Utils.OS.WINDOWS_ARM)) {
+                routeWindows(newMode);
+            } else if (mode == Mode.CONSOLE) {
+                redirectToPipe();
+            } else if (newMode == Mode.CONSOLE) {
+                restore();
+            }
+            mode = newMode;
+        } catch (Throwable e) {
+            log.warning("Cannot route native output, " + e.getMessage());
+        }
+    }
+
+    private static void routeWindows(Mode newMode) {
+        if (newMode == Mode.CONSOLE) {
+            Kernel32.INSTANCE.SetStdHandle(Kernel32.STD_OUTPUT_HANDLE, originalOut);
+            Kernel32.INSTANCE.SetStdHandle(Kernel32.STD_ERROR_HANDLE, originalErr);
+        } else if (mode == Mode.CONSOLE) {
+            originalOut = Kernel32.INSTANCE.GetStdHandle(Kernel32.STD_OUTPUT_HANDLE);
+            originalErr = Kernel32.INSTANCE.GetStdHandle(Kernel32.STD_ERROR_HANDLE);
+            WinNT.HANDLE nul = Kernel32.INSTANCE.CreateFile(
+                    "NUL", Kernel32.GENERIC_WRITE, Kernel32.FILE_SHARE_WRITE, null, Kernel32.OPEN_EXISTING, 0, null);
+            Kernel32.INSTANCE.SetStdHandle(Kernel32.STD_OUTPUT_HANDLE, nul);
+            Kernel32.INSTANCE.SetStdHandle(Kernel32.STD_ERROR_HANDLE, nul);
+        }
+    }
+
+    private static void redirectToPipe() {
+        if (isNull(cStdLib)) {
+            cStdLib = Native.load("c", Utils.CStdLib.class);
+        }
+        int[] fds = new int[2];
+        if (cStdLib.pipe(fds) != 0) {
+            throw new Error("pipe() failed");
+        }
+        System.out.flush();
+        System.err.flush();
+        savedOut = cStdLib.dup(1);
+        savedErr = cStdLib.dup(2);
+        originalSystemOut = System.out;
+        originalSystemErr = System.err;
+        System.setOut(new PrintStream(new BufferedOutputStream(new FdOutputStream(savedOut), 128), true));
+        System.setErr(new PrintStream(new BufferedOutputStream(new FdOutputStream(savedErr), 128), true));
+        reattachConsoleHandlers();
+
+        cStdLib.dup2(fds[1], 1);
+        cStdLib.dup2(fds[1], 2);
+        cStdLib.close(fds[1]); // pipe is closed as soon as descriptors 1 and 2 are restored
+
+        int readFd = fds[0];
+        drainer = new Thread(() -> drain(readFd), "native-output");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    private static void restore() throws InterruptedException {
+        System.out.flush();
+        System.err.flush();
+        cStdLib.dup2(savedOut, 1);
+        cStdLib.dup2(savedErr, 2);
+        System.setOut(originalSystemOut);
+        System.setErr(originalSystemErr);
+        reattachConsoleHandlers();
+        drainer.join(1000);
+        cStdLib.close(savedOut);
+        cStdLib.close(savedErr);
+    }
+
+    /**
+     * ConsoleHandler keeps System.err it was created with, an old one would write logged native output back to
+     * the pipe.
+     */
+    private static void reattachConsoleHandlers() {
+        Logger root = Logger.getLogger("");
+        for (Handler handler : root.getHandlers()) {
+            if (handler instanceof ConsoleHandler) {
+                ConsoleHandler console = new ConsoleHandler();
+                console.setLevel(handler.getLevel());
+                console.setFormatter(handler.getFormatter());
+                root.removeHandler(handler);
+                root.addHandler(console);
+            }
+        }
+    }
+
+    private static void drain(int fd) {
+        byte[] buf = new byte[8192];
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        while (true) {
+            int n = cStdLib.read(fd, buf, new NativeLong(buf.length)).intValue();
+            if (n <= 0) {
+                break;
+            }
+            if (mode != Mode.LOG) {
+                line.reset();
+                continue;
+            }
+            for (int i = 0; i < n; i++) {
+                if (buf[i] == '\n') {
+                    logLine(new String(line.toByteArray(), StandardCharsets.UTF_8));
+                    line.reset();
+                } else {
+                    line.write(buf[i]);
+                }
+            }
+        }
+        if (line.size() > 0 && mode == Mode.LOG) {
+            logLine(new String(line.toByteArray(), StandardCharsets.UTF_8));
+        }
+        cStdLib.close(fd);
+    }
+
+    private static void logLine(String line) {
+        if (!line.trim().isEmpty()) {
+            log.log(levelOf(line), line);
+        }
+    }
+
+    static Level levelOf(String line) {
+        Matcher matcher = LEVEL.matcher(line);
+        if (!matcher.find()) {
+            return Level.INFO;
+        }
+        int verbosity = Integer.parseInt(matcher.group(1));
+        if (verbosity <= 1) {
+            return Level.SEVERE;
+        }
+        if (verbosity == 2) {
+            return Level.WARNING;
+        }
+        if (verbosity == 3) {
+            return Level.INFO;
+        }
+        return Level.FINE;
+    }
+
+    /**
+     * Writes to a file descriptor, used to keep System.out and System.err on the original descriptors.
+     */
+    private static class FdOutputStream extends OutputStream {
+        private final int fd;
+
+        FdOutputStream(int fd) {
+            this.fd = fd;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            byte[] bytes = (off == 0) ? b : Arrays.copyOfRange(b, off, off + len);
+            while (len > 0) {
+                int written = cStdLib.write(fd, bytes, new NativeLong(len)).intValue();
+                if (written < 0) {
+                    throw new IOException("write() failed on descriptor " + fd);
+                }
+                len -= written;
+                if (len > 0) {
+                    bytes = Arrays.copyOfRange(bytes, written, written + len);
+                }
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.ton.java.utils;
 import com.iwebpp.crypto.TweetNaclFast;
 import com.sun.jna.Library;
 import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
 import com.sun.jna.platform.win32.Kernel32;
 import com.sun.jna.platform.win32.WinNT;
 import org.apache.commons.codec.DecoderException;
@@ -1060,6 +1061,12 @@ public class Utils {
         int dup2(int oldfd, int newfd); // Duplicate a file descriptor to a specified descriptor
 
         int close(int fd); // Close a file descriptor
+
+        int pipe(int[] fds); // Create a pipe, fds[0] is the read end
+
+        NativeLong read(int fd, byte[] buf, NativeLong count);
+
+        NativeLong write(int fd, byte[] buf, NativeLong count);
     }
 
     // Redirect native output on Windows
@@ -1069,6 +1076,12 @@ public class Utils {
     static int originalStderrFD;
     static CStdLib cStdLib;
 
+    /**
+     * Redirects stdout and stderr of the process for the duration of a native call.
+     *
+     * @deprecated not thread-safe and costs several syscalls per call, use NativeOutput.route() once instead
+     */
+    @Deprecated
     public static void disableNativeOutput() {
         //    System.out.println("disable");
         try {
@@ -1158,6 +1171,10 @@ public class Utils {
         }
     }
 
+    /**
+     * @deprecated see disableNativeOutput()
+     */
+    @Deprecated
     public static void enableNativeOutput() {
         try {
             if ((Utils.getOS() == Utils.OS.WINDOWS) || (Utils.getOS() == Utils.OS.WINDOWS_ARM)) {
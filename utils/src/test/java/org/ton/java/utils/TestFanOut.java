@@ -0,0 +1,98 @@
+package org.ton.java.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+@Slf4j
+@RunWith(JUnit4.class)
+public class TestFanOut {
+
+    @Test
+    public void testResultsKeepOrderOfItems() throws Exception {
+        List<Integer> items = IntStream.range(0, 50).boxed().collect(Collectors.toList());
+        List<Integer> arrived = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Integer> result = FanOut.mapOrderedBlocking(items, 8, i -> {
+                sleep((50 - i) % 7);
+                return i * 2;
+            }, (i, r) -> arrived.add(i), executor).get(10, TimeUnit.SECONDS);
+
+            assertThat(result).isEqualTo(items.stream().map(i -> i * 2).collect(Collectors.toList()));
+            assertThat(arrived).containsExactlyInAnyOrderElementsOf(items);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelismIsBounded() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            List<Integer> result = FanOut.mapOrderedBlocking(Collections.nCopies(30, 1), 3, i -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(5);
+                running.decrementAndGet();
+                return i;
+            }, null, executor).get(10, TimeUnit.SECONDS);
+
+            assertThat(result).hasSize(30);
+            assertThat(maxRunning.get()).isLessThanOrEqualTo(3);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testAsyncTasks() throws Exception {
+        List<String> result = FanOut.mapOrdered(Arrays.asList("a", "b", "c"), 2,
+                s -> CompletableFuture.supplyAsync(s::toUpperCase), null).get(10, TimeUnit.SECONDS);
+        assertThat(result).containsExactly("A", "B", "C");
+
+        assertThat(FanOut.mapOrdered(new ArrayList<String>(), 2, CompletableFuture::completedFuture, null).get()).isEmpty();
+    }
+
+    @Test
+    public void testFirstFailureFailsResult() {
+        AtomicInteger started = new AtomicInteger();
+        CompletableFuture<List<Integer>> result = FanOut.mapOrdered(IntStream.range(0, 100).boxed().collect(Collectors.toList()), 1, i -> {
+            started.incrementAndGet();
+            if (i == 3) {
+                throw new Error("cannot fetch " + i);
+            }
+            return CompletableFuture.completedFuture(i);
+        }, null);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+        assertThat(e.getCause().getMessage()).isEqualTo("cannot fetch 3");
+        assertThat(started.get()).isEqualTo(4);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.ton.java.utils;
+
+import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
+import org.apache.commons.lang3.SystemUtils;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(JUnit4.class)
+public class TestNativeOutput {
+
+    /**
+     * Runs in a separate JVM, since routing replaces stdout the test runner talks through.
+     */
+    public static void main(String[] args) throws Exception {
+        Utils.CStdLib cStdLib = Native.load("c", Utils.CStdLib.class);
+        NativeOutput.route(NativeOutput.Mode.valueOf(args[0]));
+        writeNative(cStdLib, 1, "native stdout\n");
+        writeNative(cStdLib, 2, "[ 2][t 1][2024-01-01 00:00:00.000000000][tonlib.cpp:1] native warning\n");
+        System.out.println("java stdout");
+        Thread.sleep(300);
+        NativeOutput.route(NativeOutput.Mode.CONSOLE);
+        writeNative(cStdLib, 1, "native after restore\n");
+    }
+
+    private static void writeNative(Utils.CStdLib cStdLib, int fd, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        cStdLib.write(fd, bytes, new NativeLong(bytes.length));
+    }
+
+    private static String[] run(String mode) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                TestNativeOutput.class.getName(), mode).start();
+        String[] output = new String[2];
+        Thread err = new Thread(() -> output[1] = read(process.getErrorStream()));
+        err.start();
+        output[0] = read(process.getInputStream());
+        err.join();
+        assertThat(process.waitFor(30, TimeUnit.SECONDS)).isTrue();
+        return output;
+    }
+
+    private static String read(InputStream in) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[4096];
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                out.write(buf, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            throw new Error(e);
+        }
+    }
+
+    @Test
+    public void testSuppress() throws Exception {
+        Assume.assumeTrue(SystemUtils.IS_OS_LINUX || SystemUtils.IS_OS_MAC);
+        String[] output = run("SUPPRESS");
+        assertThat(output[0]).contains("java stdout").contains("native after restore").doesNotContain("native stdout");
+        assertThat(output[1]).doesNotContain("native warning");
+    }
+
+    @Test
+    public void testLog() throws Exception {
+        Assume.assumeTrue(SystemUtils.IS_OS_LINUX || SystemUtils.IS_OS_MAC);
+        String[] output = run("LOG");
+        assertThat(output[0]).contains("java stdout").contains("native after restore").doesNotContain("native stdout");
+        // logged by the default console handler of java.util.logging
+        assertThat(output[1]).contains("INFO: native stdout").contains("WARNING: [ 2][t 1]");
+    }
+
+    @Test
+    public void testConsole() throws Exception {
+        Assume.assumeTrue(SystemUtils.IS_OS_LINUX || SystemUtils.IS_OS_MAC);
+        String[] output = run("CONSOLE");
+        assertThat(output[0]).contains("native stdout").contains("java stdout");
+        assertThat(output[1]).contains("native warning");
+    }
+
+    @Test
+    public void testLevelOf() {
+        assertThat(NativeOutput.levelOf("[ 0][t 1] fatal")).isEqualTo(Level.SEVERE);
+        assertThat(NativeOutput.levelOf("[ 1][t 1] error")).isEqualTo(Level.SEVERE);
+        assertThat(NativeOutput.levelOf("[ 2][t 1] warning")).isEqualTo(Level.WARNING);
+        assertThat(NativeOutput.levelOf("[ 3][t 1] info")).isEqualTo(Level.INFO);
+        assertThat(NativeOutput.levelOf("[10][t 1] debug")).isEqualTo(Level.FINE);
+        assertThat(NativeOutput.levelOf("no prefix")).isEqualTo(Level.INFO);
+    }
+}